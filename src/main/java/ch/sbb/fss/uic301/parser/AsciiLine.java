@@ -0,0 +1,107 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable view on a single line stored as bytes in an array or a buffer (for
+ * example a memory mapped file). Every byte is one character (ISO-8859-1).
+ * Sub sequences are created directly from the bytes without decoding or
+ * copying the whole line first.<br>
+ * <br>
+ * <b>CAUTION:</b> The content changes every time the view is moved to the next
+ * line. Never keep a reference to an instance.
+ */
+final class AsciiLine implements CharSequence {
+
+    private byte[] buf;
+
+    private ByteBuffer buffer;
+
+    private int start;
+
+    private int length;
+
+    /**
+     * Default constructor.
+     */
+    AsciiLine() {
+        super();
+    }
+
+    /**
+     * Sets the line to view.
+     * 
+     * @param buf
+     *            Buffer with the bytes.
+     * @param start
+     *            Index of the first byte of the line inside the buffer.
+     * @param length
+     *            Number of bytes of the line.
+     */
+    void set(final byte[] buf, final int start, final int length) {
+        this.buf = buf;
+        this.buffer = null;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Sets the line to view. The bytes are read with absolute gets, so the
+     * position of the buffer doesn't matter.
+     * 
+     * @param buffer
+     *            Buffer with the bytes.
+     * @param start
+     *            Index of the first byte of the line inside the buffer.
+     * @param length
+     *            Number of bytes of the line.
+     */
+    void set(final ByteBuffer buffer, final int start, final int length) {
+        this.buf = null;
+        this.buffer = buffer;
+        this.start = start;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index=" + index + ", length=" + length);
+        }
+        if (buf == null) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+        return (char) (buf[start + index] & 0xFF);
+    }
+
+    @Override
+    public String subSequence(final int begin, final int end) {
+        if (begin < 0 || end > length || begin > end) {
+            throw new IndexOutOfBoundsException("begin=" + begin + ", end=" + end + ", length=" + length);
+        }
+        return string(start + begin, end - begin);
+    }
+
+    @Override
+    public String toString() {
+        return string(start, length);
+    }
+
+    private String string(final int from, final int count) {
+        if (buf == null) {
+            final char[] chars = new char[count];
+            for (int i = 0; i < count; i++) {
+                chars[i] = (char) (buffer.get(from + i) & 0xFF);
+            }
+            return new String(chars);
+        }
+        return new String(buf, from, count, StandardCharsets.ISO_8859_1);
+    }
+
+}
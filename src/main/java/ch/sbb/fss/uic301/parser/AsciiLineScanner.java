@@ -0,0 +1,217 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Splits bytes into lines. The bytes may arrive in chunks of any size. Lines
+ * are passed to the handler as a view on the chunk, the bytes are not copied.
+ * Only a line that is not terminated at the end of a chunk is copied and kept
+ * until the next chunk completes it. Both CR and LF terminate a line. Every line is trimmed (all bytes
+ * less than or equal to a space are removed at the start and the end) and
+ * empty lines are skipped. Only non-empty lines are counted, exactly like
+ * {@link Uic301Parser} does it.
+ */
+final class AsciiLineScanner {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final LineHandler handler;
+
+    private final AsciiLine line;
+
+    private byte[] buf;
+
+    /** Number of bytes of an unterminated line kept in the buffer. */
+    private int used;
+
+    /** Position of the first byte not yet passed to the handler inside the input. */
+    private long bufPosition;
+
+    private int lineCount;
+
+    /**
+     * Constructor with handler.
+     * 
+     * @param handler
+     *            Handler that receives the lines.
+     */
+    AsciiLineScanner(final LineHandler handler) {
+        this(handler, 0, 0);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param handler
+     *            Handler that receives the lines.
+     * @param position
+     *            Position of the first byte that will be scanned inside the
+     *            input.
+     * @param lineCount
+     *            Number of non-empty lines before the first byte that will be
+     *            scanned.
+     */
+    AsciiLineScanner(final LineHandler handler, final long position, final int lineCount) {
+        super();
+        this.handler = handler;
+        this.line = new AsciiLine();
+        this.buf = new byte[DEFAULT_BUFFER_SIZE];
+        this.used = 0;
+        this.bufPosition = position;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Scans all remaining bytes of the buffer. All completed lines are passed
+     * to the handler. The buffer is read with absolute gets, only the bytes
+     * of a last unterminated line are copied.
+     * 
+     * @param buffer
+     *            Buffer with the next bytes of the input.
+     * 
+     * @throws Uic301Exception
+     *             The handler failed to process a line.
+     */
+    void scan(final ByteBuffer buffer) throws Uic301Exception {
+        final int limit = buffer.limit();
+        // Position of the byte at index 0 of the buffer inside the input
+        final long base = bufPosition + used - buffer.position();
+        int i = buffer.position();
+        int start = i;
+        if (used > 0) {
+            // Complete the line kept from the chunks before
+            while (i < limit && !isLineEnd(buffer.get(i))) {
+                i++;
+            }
+            append(buffer, start, i);
+            if (i == limit) {
+                buffer.position(limit);
+                return;
+            }
+            final int length = used;
+            used = 0;
+            line(0, length);
+            i++;
+            start = i;
+            bufPosition = base + start;
+        }
+        for (; i < limit; i++) {
+            if (isLineEnd(buffer.get(i))) {
+                line(buffer, start, i, base + start);
+                start = i + 1;
+                bufPosition = base + start;
+            }
+        }
+        append(buffer, start, limit);
+        buffer.position(limit);
+    }
+
+    /**
+     * Signals the end of the input. A last line without line terminator is
+     * passed to the handler.
+     * 
+     * @throws Uic301Exception
+     *             The handler failed to process the line.
+     */
+    void finish() throws Uic301Exception {
+        if (used > 0) {
+            final int length = used;
+            used = 0;
+            line(0, length);
+            bufPosition = bufPosition + length;
+        }
+    }
+
+    /**
+     * Returns the position of the first byte inside the input that was not
+     * passed to the handler yet.
+     * 
+     * @return Input position after the last complete line.
+     */
+    long getPosition() {
+        return bufPosition;
+    }
+
+    /**
+     * Returns the number of non-empty lines passed to the handler so far
+     * (including the line count given to the constructor).
+     * 
+     * @return Number of lines.
+     */
+    int getLineCount() {
+        return lineCount;
+    }
+
+    private void append(final ByteBuffer buffer, final int from, final int to) {
+        final int len = to - from;
+        if (used + len > buf.length) {
+            // Line larger than the buffer
+            final byte[] larger = new byte[Math.max(buf.length * 2, used + len)];
+            System.arraycopy(buf, 0, larger, 0, used);
+            buf = larger;
+        }
+        for (int i = 0; i < len; i++) {
+            buf[used + i] = buffer.get(from + i);
+        }
+        used = used + len;
+    }
+
+    private void line(final int begin, final int end) throws Uic301Exception {
+        int s = begin;
+        int e = end;
+        while (s < e && (buf[s] & 0xFF) <= ' ') {
+            s++;
+        }
+        while (e > s && (buf[e - 1] & 0xFF) <= ' ') {
+            e--;
+        }
+        if (e > s) {
+            line.set(buf, s, e - s);
+            handler.line(++lineCount, line, bufPosition + begin);
+        }
+    }
+
+    private void line(final ByteBuffer buffer, final int begin, final int end, final long position)
+            throws Uic301Exception {
+        int s = begin;
+        int e = end;
+        while (s < e && (buffer.get(s) & 0xFF) <= ' ') {
+            s++;
+        }
+        while (e > s && (buffer.get(e - 1) & 0xFF) <= ' ') {
+            e--;
+        }
+        if (e > s) {
+            line.set(buffer, s, e - s);
+            handler.line(++lineCount, line, position);
+        }
+    }
+
+    private static boolean isLineEnd(final byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    /**
+     * Receives the lines found by the scanner.
+     */
+    static interface LineHandler {
+
+        /**
+         * Processes a single trimmed, non-empty line.
+         * 
+         * @param lineNo
+         *            Number of the line (only non-empty lines are counted).
+         * @param line
+         *            Trimmed line - Only valid during the call.
+         * @param position
+         *            Position of the first byte of the (untrimmed) line inside
+         *            the input.
+         * 
+         * @throws Uic301Exception
+         *             Failed to process the line.
+         */
+        public void line(int lineNo, CharSequence line, long position) throws Uic301Exception;
+
+    }
+
+}
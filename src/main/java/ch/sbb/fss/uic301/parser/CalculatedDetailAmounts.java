@@ -4,20 +4,26 @@ import java.math.BigDecimal;
 
 /**
  * Amounts calculated from all details of a given statement currency period.
+ * The sums are calculated in cents using exact <code>long</code> arithmetic.
+ * An {@link ArithmeticException} is thrown if a sum doesn't fit into a
+ * <code>long</code>. {@link BigDecimal} instances are only created by the
+ * getters and when {@link BigDecimal} amounts are added.
  */
 public final class CalculatedDetailAmounts {
 
-    private BigDecimal grossAmountToBeCredited;
+    private static final int SCALE = 2;
 
-    private BigDecimal grossAmountToBeDebited;
+    private long grossAmountToBeCredited;
 
-    private BigDecimal amountCommissionCredited;
+    private long grossAmountToBeDebited;
 
-    private BigDecimal amountCommissionDebited;
+    private long amountCommissionCredited;
+
+    private long amountCommissionDebited;
 
     private NetBalanceType netBalanceType;
 
-    private BigDecimal netBalanceAmount;
+    private long netBalanceAmount;
     
     private Uic301Type type = Uic301Type.G5_ALLOCATION;
 
@@ -28,19 +34,13 @@ public final class CalculatedDetailAmounts {
      */
     public CalculatedDetailAmounts() {
         super();
-        grossAmountToBeCredited = BigDecimal.ZERO.setScale(2,
-                BigDecimal.ROUND_HALF_UP);
-        grossAmountToBeDebited = BigDecimal.ZERO.setScale(2,
-                BigDecimal.ROUND_HALF_UP);
-        amountCommissionCredited = BigDecimal.ZERO.setScale(2,
-                BigDecimal.ROUND_HALF_UP);
-        amountCommissionDebited = BigDecimal.ZERO.setScale(2,
-                BigDecimal.ROUND_HALF_UP);
         sealed = false;
     }
 
     /**
-     * Adds the given amounts to the internal sum.
+     * Adds the given amounts to the internal sum. The new sum is rounded half
+     * up to two decimal places, so amounts with more decimal places are
+     * rounded together with the sum and not on their own.
      * 
      * @param grossAmountToBeCredited
      *            Gross amount to be credited.
@@ -61,66 +61,82 @@ public final class CalculatedDetailAmounts {
                     "Adding data is not allowed after sealing the instance");
         }
 
-        this.grossAmountToBeCredited = this.grossAmountToBeCredited
-                .add(grossAmountToBeCredited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.grossAmountToBeDebited = this.grossAmountToBeDebited
-                .add(grossAmountToBeDebited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.amountCommissionCredited = this.amountCommissionCredited
-                .add(amountCommissionCredited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.amountCommissionDebited = this.amountCommissionDebited
-                .add(amountCommissionDebited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
+        this.grossAmountToBeCredited = add(this.grossAmountToBeCredited, grossAmountToBeCredited);
+        this.grossAmountToBeDebited = add(this.grossAmountToBeDebited, grossAmountToBeDebited);
+        this.amountCommissionCredited = add(this.amountCommissionCredited, amountCommissionCredited);
+        this.amountCommissionDebited = add(this.amountCommissionDebited, amountCommissionDebited);
 
     }
     
+    /**
+     * Adds the amounts of a detail to the internal sum.
+     * 
+     * @param detail
+     *            G4 or G5 detail.
+     */
     public void addAmounts(final Uic301Detail detail) {
+        final Uic301Type detailType;
+        if (detail instanceof Uic301G4Detail || detail instanceof Uic301G4LineDetail) {
+            detailType = Uic301Type.G4;
+        } else if (detail instanceof Uic301G5Detail || detail instanceof Uic301G5LineDetail) {
+            detailType = Uic301Type.G5_ALLOCATION;
+        } else {
+            throw new IllegalArgumentException("Unknown detail type: " + detail.getClass().getName());
+        }
+        addAmounts(detailType, detail.getSummedGrossAmountToBeCreditedCents(),
+                detail.getSummedGrossAmountToBeDebitedCents(),
+                detail.getAmountOfCommissionToBeCreditedTheServiceProvidingRUCents(),
+                detail.getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents());
+    }
+
+    /**
+     * Adds amounts in cents of the given detail type to the internal sum.
+     * 
+     * @param detailType
+     *            Type of details the amounts were taken from.
+     * @param grossAmountToBeCredited
+     *            Gross amount to be credited in cents.
+     * @param grossAmountToBeDebited
+     *            Gross amount to be debited in cents.
+     * @param amountCommissionCredited
+     *            Amount commission credited in cents.
+     * @param amountCommissionDebited
+     *            Amount commision debited in cents.
+     */
+    void addAmounts(final Uic301Type detailType, final long grossAmountToBeCredited,
+            final long grossAmountToBeDebited, final long amountCommissionCredited,
+            final long amountCommissionDebited) {
+        addCents(grossAmountToBeCredited, grossAmountToBeDebited, amountCommissionCredited,
+                amountCommissionDebited);
+        if (detailType == Uic301Type.G4) {
+            type = Uic301Type.G4;
+        }
+    }
+
+    /**
+     * Adds the sums of another instance to the internal sum.
+     * 
+     * @param other
+     *            Amounts to add.
+     */
+    void addAmounts(final CalculatedDetailAmounts other) {
+        addAmounts(other.type, other.grossAmountToBeCredited, other.grossAmountToBeDebited,
+                other.amountCommissionCredited, other.amountCommissionDebited);
+    }
+
+    private void addCents(final long grossAmountToBeCredited, final long grossAmountToBeDebited,
+            final long amountCommissionCredited, final long amountCommissionDebited) {
 
         if (sealed) {
             throw new UnsupportedOperationException(
                     "Adding data is not allowed after sealing the instance");
         }
 
-        if(detail instanceof Uic301G5Detail) {
-            addG5((Uic301G5Detail)detail);
-        }
-        else if(detail instanceof Uic301G4Detail) {
-            addG4((Uic301G4Detail)detail);
-            type = Uic301Type.G4;
-        }       
-
-    }
+        this.grossAmountToBeCredited = Math.addExact(this.grossAmountToBeCredited, grossAmountToBeCredited);
+        this.grossAmountToBeDebited = Math.addExact(this.grossAmountToBeDebited, grossAmountToBeDebited);
+        this.amountCommissionCredited = Math.addExact(this.amountCommissionCredited, amountCommissionCredited);
+        this.amountCommissionDebited = Math.addExact(this.amountCommissionDebited, amountCommissionDebited);
 
-    private void addG5(final Uic301G5Detail detail) {
-        this.grossAmountToBeCredited = this.grossAmountToBeCredited
-                .add(detail.getGrossAmountToBeCreditedValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.grossAmountToBeDebited = this.grossAmountToBeDebited
-                .add(detail.getGrossAmountToBeDebitedValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.amountCommissionCredited = this.amountCommissionCredited
-                .add(detail.getAmountOfCommissionToBeCreditedTheServiceProvidingRUValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.amountCommissionDebited = this.amountCommissionDebited
-                .add(detail.getAmountOfCommissionToBeDebitedTheServiceProvidingRUValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-    }
-    
-    private void addG4(final Uic301G4Detail detail) {
-        this.grossAmountToBeCredited = this.grossAmountToBeCredited
-                .add(detail.getGrossAmountToBeCreditedTheServiceProvidingRUValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.grossAmountToBeDebited = this.grossAmountToBeDebited
-                .add(detail.getGrossAmountToBeDebitedTheServiceProvidingRUValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.amountCommissionCredited = this.amountCommissionCredited
-                .add(detail.getAmountOfCommissionToBeCreditedTheServiceProvidingRUValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.amountCommissionDebited = this.amountCommissionDebited
-                .add(detail.getAmountOfCommissionToBeDebitedTheServiceProvidingRUValue())
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
     }
 
     /**
@@ -129,6 +145,15 @@ public final class CalculatedDetailAmounts {
      * @return Gross amount to be credited.
      */
     public BigDecimal getGrossAmountToBeCredited() {
+        return BigDecimal.valueOf(grossAmountToBeCredited, SCALE);
+    }
+
+    /**
+     * Returns the gross amount to be credited in cents.
+     * 
+     * @return Gross amount to be credited.
+     */
+    public long getGrossAmountToBeCreditedCents() {
         return grossAmountToBeCredited;
     }
 
@@ -138,6 +163,15 @@ public final class CalculatedDetailAmounts {
      * @return Gross amount to be debited.
      */
     public BigDecimal getGrossAmountToBeDebited() {
+        return BigDecimal.valueOf(grossAmountToBeDebited, SCALE);
+    }
+
+    /**
+     * Returns the gross amount to be debited in cents.
+     * 
+     * @return Gross amount to be debited.
+     */
+    public long getGrossAmountToBeDebitedCents() {
         return grossAmountToBeDebited;
     }
 
@@ -147,6 +181,15 @@ public final class CalculatedDetailAmounts {
      * @return Amount commission credited.
      */
     public BigDecimal getAmountCommissionCredited() {
+        return BigDecimal.valueOf(amountCommissionCredited, SCALE);
+    }
+
+    /**
+     * Returns the amount commission credited in cents.
+     * 
+     * @return Amount commission credited.
+     */
+    public long getAmountCommissionCreditedCents() {
         return amountCommissionCredited;
     }
 
@@ -156,6 +199,15 @@ public final class CalculatedDetailAmounts {
      * @return Amount commision debited.
      */
     public BigDecimal getAmountCommissionDebited() {
+        return BigDecimal.valueOf(amountCommissionDebited, SCALE);
+    }
+
+    /**
+     * Returns amount commision debited in cents.
+     * 
+     * @return Amount commision debited.
+     */
+    public long getAmountCommissionDebitedCents() {
         return amountCommissionDebited;
     }
 
@@ -164,6 +216,23 @@ public final class CalculatedDetailAmounts {
     }
 
     public BigDecimal getNetBalanceAmount() {
+        if (!sealed) {
+            return null;
+        }
+        return BigDecimal.valueOf(netBalanceAmount, SCALE);
+    }
+
+    /**
+     * Returns the net balance amount in cents. Only available after
+     * {@link #seal()} was called.
+     * 
+     * @return Net balance amount (Always zero or positive).
+     */
+    public long getNetBalanceAmountCents() {
+        if (!sealed) {
+            throw new IllegalStateException(
+                    "The instance is not sealed. This means the net balance is not calculated yet.");
+        }
         return netBalanceAmount;
     }
 
@@ -190,12 +259,11 @@ public final class CalculatedDetailAmounts {
         } else {
             balanceG5();
         }
-        if (netBalanceAmount.signum() == 1) {
+        if (netBalanceAmount > 0) {
             netBalanceType = NetBalanceType.CREDIT;
-        } else if (netBalanceAmount.signum() == -1) {
+        } else if (netBalanceAmount < 0) {
             netBalanceType = NetBalanceType.DEBIT;
-            netBalanceAmount = netBalanceAmount.multiply(BigDecimal.valueOf(-1))
-                    .setScale(2, BigDecimal.ROUND_HALF_UP);
+            netBalanceAmount = Math.negateExact(netBalanceAmount);
         } else {
             netBalanceType = NetBalanceType.NONE;
         }
@@ -203,27 +271,20 @@ public final class CalculatedDetailAmounts {
     }
 
     private void balanceG4() {
-        final BigDecimal grossAmount = grossAmountToBeDebited
-                .subtract(grossAmountToBeCredited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        final BigDecimal amountCommission = amountCommissionDebited
-                .subtract(amountCommissionCredited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        netBalanceAmount = grossAmount.add(amountCommission).setScale(2,
-                BigDecimal.ROUND_HALF_UP);
-        
+        final long grossAmount = Math.subtractExact(grossAmountToBeDebited, grossAmountToBeCredited);
+        final long amountCommission = Math.subtractExact(amountCommissionDebited, amountCommissionCredited);
+        netBalanceAmount = Math.addExact(grossAmount, amountCommission);
     }
 
     private void balanceG5() {
-        final BigDecimal grossAmount = grossAmountToBeCredited
-                .subtract(grossAmountToBeDebited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        final BigDecimal amountCommission = amountCommissionCredited
-                .subtract(amountCommissionDebited)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
-        netBalanceAmount = grossAmount.add(amountCommission).setScale(2,
-                BigDecimal.ROUND_HALF_UP);
- 
+        final long grossAmount = Math.subtractExact(grossAmountToBeCredited, grossAmountToBeDebited);
+        final long amountCommission = Math.subtractExact(amountCommissionCredited, amountCommissionDebited);
+        netBalanceAmount = Math.addExact(grossAmount, amountCommission);
+    }
+
+    private static long add(final long cents, final BigDecimal amount) {
+        return BigDecimal.valueOf(cents, SCALE).add(amount).setScale(SCALE, BigDecimal.ROUND_HALF_UP)
+                .unscaledValue().longValueExact();
     }
 
 }
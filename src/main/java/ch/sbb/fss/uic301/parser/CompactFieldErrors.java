@@ -0,0 +1,132 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * List of field errors that only keeps the template and the invalid value of
+ * every error. The {@link FieldError} and its message are created each time
+ * an element is read, for example by the getter of the errors or when
+ * marshalling to XML. The elements are sorted by field and message like the
+ * result of {@link Uic301Utils#validate(javax.validation.Validator, Object)}.
+ * Messages are only rendered for sorting if a field has more than one
+ * error.<br>
+ * <br>
+ * Errors are added by a {@link Uic301FieldValidator}. The list cannot be
+ * changed with the methods of the {@link java.util.List} interface.
+ */
+public final class CompactFieldErrors extends AbstractList<FieldError> implements RandomAccess {
+
+    private FieldErrorTemplate[] templates;
+
+    private String[] values;
+
+    private int size;
+
+    /** Index of the errors in sort order or <code>null</code> if not known yet. */
+    private volatile int[] order;
+
+    /**
+     * Default constructor.
+     */
+    public CompactFieldErrors() {
+        super();
+        this.templates = new FieldErrorTemplate[2];
+        this.values = new String[2];
+        this.size = 0;
+    }
+
+    /**
+     * Adds an error.
+     *
+     * @param template
+     *            Template of the message - Never <code>null</code>.
+     * @param value
+     *            Invalid value or <code>null</code>.
+     */
+    public final void add(final FieldErrorTemplate template, final String value) {
+        Utils4J.checkNotNull("template", template);
+        if (size == templates.length) {
+            templates = Arrays.copyOf(templates, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        templates[size] = template;
+        values[size] = value;
+        size++;
+        order = null;
+    }
+
+    /**
+     * Returns the template of an error.
+     *
+     * @param index
+     *            Index of the error in the list.
+     *
+     * @return Template.
+     */
+    public final FieldErrorTemplate getTemplate(final int index) {
+        return templates[order()[checkIndex(index)]];
+    }
+
+    /**
+     * Returns the invalid value of an error.
+     *
+     * @param index
+     *            Index of the error in the list.
+     *
+     * @return Value or <code>null</code>.
+     */
+    public final String getValue(final int index) {
+        return values[order()[checkIndex(index)]];
+    }
+
+    @Override
+    public final FieldError get(final int index) {
+        final int i = order()[checkIndex(index)];
+        return templates[i].toFieldError(values[i]);
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private int[] order() {
+        int[] result = order;
+        if (result == null) {
+            result = sort();
+            order = result;
+        }
+        return result;
+    }
+
+    private int[] sort() {
+        final Integer[] indexes = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (a, b) -> {
+            final int c = templates[a].getField().compareTo(templates[b].getField());
+            if (c != 0) {
+                return c;
+            }
+            return templates[a].render(values[a]).compareTo(templates[b].render(values[b]));
+        });
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = indexes[i];
+        }
+        return result;
+    }
+
+}
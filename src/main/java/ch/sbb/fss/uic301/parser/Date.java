@@ -16,6 +16,8 @@ import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 import javax.validation.Payload;
 
+import ch.sbb.fss.uic301.parser.constraints.FieldChecks;
+
 /**
  * Date with YY=Year, MM=Month, DD=Day in the month.
  */
@@ -179,15 +181,12 @@ public final class Date implements Comparable<Date> {
         if (str == null) {
             return true;
         }
-        if (str.length() != 6 || !str.matches("\\d{6}")) {
+        if (str.length() != 6 || !FieldChecks.digits(str)) {
             return false;
         }
-        final String yearStr = str.substring(0, 2);
-        final String monthStr = str.substring(2, 4);
-        final String dayStr = str.substring(4, 6);
-        final int year = Integer.valueOf(yearStr);
-        final int month = Integer.valueOf(monthStr);
-        final int day = Integer.valueOf(dayStr);
+        final int year = twoDigits(str, 0);
+        final int month = twoDigits(str, 2);
+        final int day = twoDigits(str, 4);
         if (allZero(year, month, day)) {
             return true;
         }
@@ -203,6 +202,10 @@ public final class Date implements Comparable<Date> {
         return true;
     }
 
+    private static int twoDigits(final String str, final int start) {
+        return (str.charAt(start) - '0') * 10 + (str.charAt(start + 1) - '0');
+    }
+
     /**
      * Creates an instance from the given string.
      * 
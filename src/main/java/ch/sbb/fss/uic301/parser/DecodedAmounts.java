@@ -0,0 +1,113 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts with two decimal places that were converted once from their string
+ * representation into cents. Values that cannot be converted are not stored.
+ * In this case the string is converted on every call, what also reports the
+ * conversion error exactly like before.
+ */
+final class DecodedAmounts {
+
+    /** Instance without any converted amounts. */
+    static final DecodedAmounts NONE = new DecodedAmounts();
+
+    private static final int SCALE = 2;
+
+    private final long[] cents;
+
+    /** Bit per index: Amount was converted successfully. */
+    private final long decoded;
+
+    /**
+     * Constructor with all amounts to convert.
+     *
+     * @param values
+     *            Amounts without decimal point. The index of a value is used
+     *            to retrieve it later.
+     */
+    DecodedAmounts(final String... values) {
+        super();
+        if (values.length > Long.SIZE) {
+            throw new IllegalArgumentException("Max " + Long.SIZE + " amounts allowed, but was: " + values.length);
+        }
+        cents = new long[values.length];
+        long mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            final String value = values[i];
+            if (value != null) {
+                try {
+                    cents[i] = Long.parseLong(value);
+                    mask = mask | (1L << i);
+                } catch (final NumberFormatException ex) {
+                    // Not stored
+                }
+            }
+        }
+        decoded = mask;
+    }
+
+    /**
+     * Returns an amount.
+     *
+     * @param index
+     *            Index of the amount.
+     * @param name
+     *            Name of the field (Used for error messages).
+     * @param str
+     *            Original value of the field.
+     *
+     * @return Amount or <code>null</code> if the string was <code>null</code>.
+     */
+    BigDecimal value(final int index, final String name, final String str) {
+        if (isDecoded(index)) {
+            return BigDecimal.valueOf(cents[index], SCALE);
+        }
+        return Uic301Utils.bigDecimalOf(name, str, SCALE);
+    }
+
+    /**
+     * Returns an amount in cents.
+     *
+     * @param index
+     *            Index of the amount.
+     * @param name
+     *            Name of the field (Used for error messages).
+     * @param str
+     *            Original value of the field.
+     *
+     * @return Amount in cents.
+     */
+    long cents(final int index, final String name, final String str) {
+        if (isDecoded(index)) {
+            return cents[index];
+        }
+        return Uic301Utils.centsOf(name, str);
+    }
+
+    /**
+     * Returns an optional amount in cents.
+     *
+     * @param index
+     *            Index of the amount.
+     * @param name
+     *            Name of the field (Used for error messages).
+     * @param str
+     *            Original value of the field.
+     *
+     * @return Amount in cents or <code>null</code> if the string was
+     *         <code>null</code>.
+     */
+    Long nullableCents(final int index, final String name, final String str) {
+        if (isDecoded(index)) {
+            return cents[index];
+        }
+        return Uic301Utils.nullableCentsOf(name, str);
+    }
+
+    private boolean isDecoded(final int index) {
+        return (decoded & (1L << index)) != 0;
+    }
+
+}
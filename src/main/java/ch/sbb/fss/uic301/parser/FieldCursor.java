@@ -0,0 +1,201 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walks through the fixed width fields of a line. Other than {@link SubString}
+ * the cursor only keeps the index of the next field. Nothing is recorded
+ * while parsing. If an error has to be reported, the trace of all fields read
+ * so far can be rebuilt from the line with {@link #getTrace()}.<br>
+ * <br>
+ * A field that does not completely fit into the line is returned as spaces
+ * (same as {@link SubString}).<br>
+ * <br>
+ * If a {@link Uic301FieldDictionary} is set, the values of the fields in the
+ * dictionary are returned as canonical instances. If a
+ * {@link Uic301FieldProjection} is set, fields outside of the projection are
+ * returned as <code>null</code> without reading the line.
+ */
+public final class FieldCursor {
+
+    private static final String[] BLANKS = new String[16];
+
+    static {
+        for (int i = 0; i < BLANKS.length; i++) {
+            final char[] chars = new char[i];
+            Arrays.fill(chars, ' ');
+            BLANKS[i] = new String(chars);
+        }
+    }
+
+    private final CharSequence line;
+
+    private final List<? extends Uic301Field> fields;
+
+    private final Uic301FieldDictionary dictionary;
+
+    private final Uic301FieldProjection projection;
+
+    private int index;
+
+    /**
+     * Constructor with line and fields.
+     * 
+     * @param line
+     *            Line to read - Never <code>null</code>.
+     * @param fields
+     *            Fields of the line in the order they appear - Never
+     *            <code>null</code>.
+     */
+    public FieldCursor(final CharSequence line, final List<? extends Uic301Field> fields) {
+        this(line, fields, null);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param line
+     *            Line to read - Never <code>null</code>.
+     * @param fields
+     *            Fields of the line in the order they appear - Never
+     *            <code>null</code>.
+     * @param dictionary
+     *            Dictionary for the field values or <code>null</code> if
+     *            every value is a new string.
+     */
+    public FieldCursor(final CharSequence line, final List<? extends Uic301Field> fields,
+            final Uic301FieldDictionary dictionary) {
+        this(line, fields, dictionary, null);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param line
+     *            Line to read - Never <code>null</code>.
+     * @param fields
+     *            Fields of the line in the order they appear - Never
+     *            <code>null</code>.
+     * @param dictionary
+     *            Dictionary for the field values or <code>null</code> if
+     *            every value is a new string.
+     * @param projection
+     *            Fields to read or <code>null</code> to read all fields.
+     */
+    public FieldCursor(final CharSequence line, final List<? extends Uic301Field> fields,
+            final Uic301FieldDictionary dictionary, final Uic301FieldProjection projection) {
+        super();
+        if (line == null) {
+            throw new IllegalArgumentException("Argument 'line' null is not allowed");
+        }
+        if (fields == null) {
+            throw new IllegalArgumentException("Argument 'fields' null is not allowed");
+        }
+        this.line = line;
+        this.fields = fields;
+        this.dictionary = dictionary;
+        this.projection = projection;
+        this.index = 0;
+    }
+
+    /**
+     * Returns the value of the next field.
+     * 
+     * @return Next field value or <code>null</code> if the field is not part
+     *         of the projection.
+     */
+    public final String next() {
+        final Uic301Field field = nextField();
+        if (projection != null && !projection.contains(field)) {
+            return null;
+        }
+        if (dictionary != null) {
+            return dictionary.valueOf(line, field);
+        }
+        return valueOf(line, field);
+    }
+
+    /**
+     * Moves to the next field without creating a string.
+     * 
+     * @return Offset of the skipped field inside the line or <code>-1</code> if
+     *         the field does not completely fit into the line (the value would
+     *         be all spaces).
+     */
+    public final int skip() {
+        final Uic301Field field = nextField();
+        if (field.getOffset() + field.getLength() > line.length()) {
+            return -1;
+        }
+        return field.getOffset();
+    }
+
+    /**
+     * Determines if there are more fields.
+     * 
+     * @return <code>true</code> if {@link #next()} or {@link #skip()} can be
+     *         called.
+     */
+    public final boolean hasNext() {
+        return index < fields.size();
+    }
+
+    /**
+     * Returns the trace of all fields read so far. The trace is built from
+     * the line on each call.
+     * 
+     * @return Trace information in the form "name='value', name2='value2'".
+     */
+    public final String getTrace() {
+        final StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < index; i++) {
+            final Uic301Field field = fields.get(i);
+            if (i > 0) {
+                trace.append(", ");
+            }
+            trace.append(field.getName());
+            trace.append("='");
+            trace.append(valueOf(line, field));
+            trace.append("'");
+        }
+        return trace.toString();
+    }
+
+    private Uic301Field nextField() {
+        if (index >= fields.size()) {
+            throw new IllegalStateException("No more fields: " + fields.size());
+        }
+        return fields.get(index++);
+    }
+
+    /**
+     * Returns the value of a field.
+     * 
+     * @param line
+     *            Line to read.
+     * @param field
+     *            Field to return.
+     * 
+     * @return Value or all spaces if the field does not completely fit into the
+     *         line.
+     */
+    public static String valueOf(final CharSequence line, final Uic301Field field) {
+        final int offset = field.getOffset();
+        final int length = field.getLength();
+        if (offset + length > line.length()) {
+            return blanks(length);
+        }
+        return line.subSequence(offset, offset + length).toString();
+    }
+
+    private static String blanks(final int length) {
+        if (length < BLANKS.length) {
+            return BLANKS[length];
+        }
+        final char[] chars = new char[length];
+        Arrays.fill(chars, ' ');
+        return new String(chars);
+    }
+
+}
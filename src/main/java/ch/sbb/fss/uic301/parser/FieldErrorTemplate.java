@@ -0,0 +1,145 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.fuin.utils4j.Utils4J;
+
+import ch.sbb.fss.uic301.parser.constraints.FieldChecks;
+
+/**
+ * Message of a constraint on a field, with the invalid value still missing.
+ * The text of a {@link FieldError} is only created by
+ * {@link #render(String)} when it's needed. A template is created once per
+ * field and constraint, for example by a generated {@link Uic301FieldValidator}.
+ */
+@Immutable
+public final class FieldErrorTemplate {
+
+    private final String field;
+
+    private final String constraint;
+
+    private final String bundleKey;
+
+    private final String[] parts;
+
+    private FieldErrorTemplate(final String field, final String constraint, final String bundleKey,
+            final String[] parts) {
+        super();
+        Utils4J.checkNotNull("field", field);
+        Utils4J.checkNotNull("constraint", constraint);
+        this.field = field;
+        this.constraint = constraint;
+        this.bundleKey = bundleKey;
+        this.parts = parts;
+    }
+
+    /**
+     * Creates a template with text parts. The invalid value is inserted
+     * between two parts, so a message with one value has two parts and a
+     * message without a value has one part.
+     *
+     * @param field
+     *            Name of the field (XML attribute name) - Never
+     *            <code>null</code>.
+     * @param constraint
+     *            Simple name of the constraint annotation - Never
+     *            <code>null</code>.
+     * @param parts
+     *            Text before, between and after the values - Never
+     *            <code>null</code> or empty.
+     *
+     * @return New template.
+     */
+    public static FieldErrorTemplate of(final String field, final String constraint, final String... parts) {
+        Utils4J.checkNotNull("parts", parts);
+        if (parts.length == 0) {
+            throw new IllegalArgumentException("Expected at least one part");
+        }
+        return new FieldErrorTemplate(field, constraint, null, parts.clone());
+    }
+
+    /**
+     * Creates a template with a message from the validation message bundles.
+     * The message is looked up for the default locale each time it's rendered
+     * (See {@link FieldChecks#bundleMessage(String)}).
+     *
+     * @param field
+     *            Name of the field (XML attribute name) - Never
+     *            <code>null</code>.
+     * @param constraint
+     *            Simple name of the constraint annotation - Never
+     *            <code>null</code>.
+     * @param bundleKey
+     *            Key of the message - Never <code>null</code>.
+     *
+     * @return New template.
+     */
+    public static FieldErrorTemplate ofBundle(final String field, final String constraint, final String bundleKey) {
+        Utils4J.checkNotNull("bundleKey", bundleKey);
+        return new FieldErrorTemplate(field, constraint, bundleKey, null);
+    }
+
+    /**
+     * Returns the name of the field.
+     *
+     * @return XML attribute name of the field.
+     */
+    public final String getField() {
+        return field;
+    }
+
+    /**
+     * Returns the constraint.
+     *
+     * @return Simple name of the constraint annotation.
+     */
+    public final String getConstraint() {
+        return constraint;
+    }
+
+    /**
+     * Creates the message for an invalid value.
+     *
+     * @param value
+     *            Invalid value or <code>null</code>.
+     *
+     * @return Error message.
+     */
+    public final String render(final String value) {
+        if (bundleKey != null) {
+            return FieldChecks.bundleMessage(bundleKey);
+        }
+        if (parts.length == 1) {
+            return parts[0];
+        }
+        final String text = FieldChecks.text(value);
+        final StringBuilder sb = new StringBuilder(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            sb.append(text);
+            sb.append(parts[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a field error for an invalid value.
+     *
+     * @param value
+     *            Invalid value or <code>null</code>.
+     *
+     * @return New error with the rendered message.
+     */
+    public final FieldError toFieldError(final String value) {
+        return new FieldError(field, render(value));
+    }
+
+    @Override
+    public final String toString() {
+        return "FieldErrorTemplate [field=" + field + ", constraint=" + constraint + ", bundleKey=" + bundleKey
+                + ", parts=" + Arrays.toString(parts) + "]";
+    }
+
+}
@@ -16,6 +16,8 @@ import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 import javax.validation.Payload;
 
+import ch.sbb.fss.uic301.parser.constraints.FieldChecks;
+
 /**
  * Statement period. YY=Year, MM=Month, PP=Period in the month (00 default,
  * other usage must be bilaterally agreed upon).
@@ -164,15 +166,12 @@ public final class StatementPeriod implements Comparable<StatementPeriod> {
         if (str == null) {
             return true;
         }
-        if (str.length() != 6 || !str.matches("\\d{6}")) {
+        if (str.length() != 6 || !FieldChecks.digits(str)) {
             return false;
         }
-        final String yearStr = str.substring(0, 2);
-        final String monthStr = str.substring(2, 4);
-        final String periodStr = str.substring(4, 6);
-        final int year = Integer.valueOf(yearStr);
-        final int month = Integer.valueOf(monthStr);
-        final int period = Integer.valueOf(periodStr);
+        final int year = twoDigits(str, 0);
+        final int month = twoDigits(str, 2);
+        final int period = twoDigits(str, 4);
         if (year < 0 || year > 99) {
             return false;
         }
@@ -185,6 +184,10 @@ public final class StatementPeriod implements Comparable<StatementPeriod> {
         return true;
     }
 
+    private static int twoDigits(final String str, final int start) {
+        return (str.charAt(start) - '0') * 10 + (str.charAt(start + 1) - '0');
+    }
+
     /**
      * Creates an instance from the given string.
      * 
@@ -9,7 +9,7 @@ public final class SubString {
 
     private int pos;
 
-    private String str;
+    private CharSequence str;
 
     private StringBuilder trace;
 
@@ -19,7 +19,7 @@ public final class SubString {
      * @param str
      *            Text - Never <code>null</code>.
      */
-    public SubString(final String str) {
+    public SubString(final CharSequence str) {
         super();
         if (str == null) {
             throw new IllegalArgumentException("Argument null is not allowed");
@@ -54,7 +54,7 @@ public final class SubString {
         if (pos + len > str.length()) {
             sub = StringUtils.leftPad("", len, " ");
         } else {
-        	sub = str.substring(pos, pos + len);
+            sub = str.subSequence(pos, pos + len).toString();
         }
 
         if (pos > 0) {
@@ -0,0 +1,228 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Parses and validates many UIC 301 files concurrently. Every file is parsed
+ * by a {@link Uic301Parser} on a fixed number of threads. A failure of one file
+ * does not stop the others, it's reported in the {@link Uic301BatchResult}
+ * together with the successfully parsed files.<br>
+ * <br>
+ * To protect the heap, the total size of the files that are parsed at the same
+ * time is limited. A file is only started if its size fits into the remaining
+ * budget. A file that is larger than the whole budget is started as soon as no
+ * other file is in flight, so it's parsed alone. The validator is shared by all
+ * threads.
+ */
+public final class Uic301BatchParser {
+
+    /** Default maximal total size of all files parsed at the same time. */
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = Runtime.getRuntime().maxMemory() / 16;
+
+    private final int threads;
+
+    private final long maxInFlightBytes;
+
+    private final Uic301Parser parser;
+
+    /**
+     * Default constructor with one thread per processor.
+     */
+    public Uic301BatchParser() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_IN_FLIGHT_BYTES);
+    }
+
+    /**
+     * Constructor with threads and memory limit.
+     *
+     * @param threads
+     *            Maximal number of files parsed at the same time (Value &gt;
+     *            0).
+     * @param maxInFlightBytes
+     *            Maximal total size of all files parsed at the same time in
+     *            bytes (Value &gt; 0).
+     */
+    public Uic301BatchParser(final int threads, final long maxInFlightBytes) {
+        this(threads, maxInFlightBytes, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with all data.
+     *
+     * @param threads
+     *            Maximal number of files parsed at the same time (Value &gt;
+     *            0).
+     * @param maxInFlightBytes
+     *            Maximal total size of all files parsed at the same time in
+     *            bytes (Value &gt; 0).
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    public Uic301BatchParser(final int threads, final long maxInFlightBytes,
+            final Uic301DetailFactory detailFactory) {
+        super();
+        if (threads < 1) {
+            throw new IllegalArgumentException("Expected a number of threads greater than 0, but was: " + threads);
+        }
+        if (maxInFlightBytes < 1) {
+            throw new IllegalArgumentException(
+                    "Expected max in-flight bytes greater than 0, but was: " + maxInFlightBytes);
+        }
+        this.threads = threads;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.parser = new Uic301Parser(detailFactory);
+    }
+
+    /**
+     * Parses all files of a directory. Sub directories are ignored and the
+     * files are processed in the order of their names.
+     *
+     * @param dir
+     *            Directory with UIC 301 files.
+     * @param validator
+     *            Validator to use.
+     *
+     * @return Result for every file.
+     *
+     * @throws InterruptedException
+     *             The thread was interrupted while waiting for the files.
+     */
+    public final Uic301BatchResult parse(final File dir, final Validator validator) throws InterruptedException {
+        Utils4J.checkValidDir(dir);
+        final File[] files = dir.listFiles(File::isFile);
+        if (files == null) {
+            throw new RuntimeException("Failed to list files: " + dir);
+        }
+        Arrays.sort(files);
+        return parse(Arrays.asList(files), validator);
+    }
+
+    /**
+     * Parses a list of files.
+     *
+     * @param files
+     *            Files to parse. Every file must be contained only once.
+     * @param validator
+     *            Validator to use.
+     *
+     * @return Result for every file.
+     *
+     * @throws InterruptedException
+     *             The thread was interrupted while waiting for the files.
+     */
+    public final Uic301BatchResult parse(final List<File> files, final Validator validator)
+            throws InterruptedException {
+
+        Utils4J.checkNotNull("files", files);
+        Utils4J.checkNotNull("validator", validator);
+        for (final File file : files) {
+            Utils4J.checkValidFile(file);
+        }
+
+        final long started = System.currentTimeMillis();
+        final InFlightLimit limit = new InFlightLimit(maxInFlightBytes);
+        final Map<File, FutureTask<Uic301Documents>> tasks = new LinkedHashMap<>();
+        long byteCount = 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, files.size())));
+        try {
+            for (final File file : files) {
+                final long size = file.length();
+                final FutureTask<Uic301Documents> task = new FutureTask<>(() -> {
+                    try {
+                        return parser.parse(file, validator);
+                    } finally {
+                        limit.release(size);
+                    }
+                });
+                if (tasks.put(file, task) != null) {
+                    throw new IllegalArgumentException("File is contained more than once: " + file);
+                }
+                limit.acquire(size);
+                executor.execute(task);
+                byteCount = byteCount + size;
+            }
+
+            final Map<File, Uic301Documents> results = new LinkedHashMap<>();
+            final Map<File, Exception> failures = new LinkedHashMap<>();
+            for (final Map.Entry<File, FutureTask<Uic301Documents>> entry : tasks.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (final ExecutionException ex) {
+                    final Throwable cause = ex.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    failures.put(entry.getKey(), (Exception) cause);
+                }
+            }
+            return new Uic301BatchResult(results, failures, byteCount, System.currentTimeMillis() - started);
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+    /**
+     * Returns the maximal number of files parsed at the same time.
+     *
+     * @return Number of threads.
+     */
+    public final int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the maximal total size of all files parsed at the same time.
+     *
+     * @return Number of bytes.
+     */
+    public final long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * Limits the number of bytes in flight. A request larger than the limit is
+     * granted if nothing else is in flight.
+     */
+    static final class InFlightLimit {
+
+        private final long max;
+
+        private long inFlight;
+
+        InFlightLimit(final long max) {
+            super();
+            this.max = max;
+        }
+
+        synchronized void acquire(final long bytes) throws InterruptedException {
+            while (inFlight > 0 && inFlight + bytes > max) {
+                wait();
+            }
+            inFlight = inFlight + bytes;
+        }
+
+        synchronized void release(final long bytes) {
+            inFlight = inFlight - bytes;
+            notifyAll();
+        }
+
+        synchronized long getInFlight() {
+            return inFlight;
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Result of parsing multiple files with the {@link Uic301BatchParser}. Every
+ * file is either contained in the results or in the failures. Both maps keep
+ * the order of the input files.
+ */
+@Immutable
+public final class Uic301BatchResult {
+
+    private final Map<File, Uic301Documents> results;
+
+    private final Map<File, Exception> failures;
+
+    private final long byteCount;
+
+    private final long elapsedMillis;
+
+    /**
+     * Constructor with all data.
+     *
+     * @param results
+     *            Successfully parsed and validated files.
+     * @param failures
+     *            Files that couldn't be parsed and the reason.
+     * @param byteCount
+     *            Total size of all files in bytes.
+     * @param elapsedMillis
+     *            Time used to process all files in milliseconds.
+     */
+    public Uic301BatchResult(@NotNull final Map<File, Uic301Documents> results,
+            @NotNull final Map<File, Exception> failures, final long byteCount, final long elapsedMillis) {
+        super();
+        Utils4J.checkNotNull("results", results);
+        Utils4J.checkNotNull("failures", failures);
+        this.results = Collections.unmodifiableMap(results);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.byteCount = byteCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Returns the successfully parsed files.
+     *
+     * @return Unmodifiable map from file to the parsed and validated documents.
+     */
+    public final Map<File, Uic301Documents> getResults() {
+        return results;
+    }
+
+    /**
+     * Returns the files that couldn't be parsed.
+     *
+     * @return Unmodifiable map from file to the exception that occurred.
+     */
+    public final Map<File, Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Determines if all files were parsed successfully. Validation errors
+     * inside the documents are not considered.
+     *
+     * @return <code>true</code> if there are no failures.
+     */
+    public final boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Returns the number of processed files.
+     *
+     * @return Number of results and failures.
+     */
+    public final int getFileCount() {
+        return results.size() + failures.size();
+    }
+
+    /**
+     * Returns the number of documents of all successfully parsed files.
+     *
+     * @return Number of documents.
+     */
+    public final int getDocumentCount() {
+        int count = 0;
+        for (final Uic301Documents documents : results.values()) {
+            count = count + documents.getDocuments().size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of validation errors of all successfully parsed
+     * files.
+     *
+     * @return Number of errors.
+     */
+    public final int getErrorCount() {
+        int count = 0;
+        for (final Uic301Documents documents : results.values()) {
+            count = count + documents.getErrorCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total size of all files.
+     *
+     * @return Number of bytes.
+     */
+    public final long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Returns the time used to process all files.
+     *
+     * @return Elapsed time in milliseconds.
+     */
+    public final long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public final String toString() {
+        return "Uic301BatchResult [files=" + getFileCount() + ", failures=" + failures.size() + ", documents="
+                + getDocumentCount() + ", errors=" + getErrorCount() + ", bytes=" + byteCount + ", elapsedMillis="
+                + elapsedMillis + "]";
+    }
+
+}
@@ -0,0 +1,530 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes and decodes documents in the binary format of
+ * {@link Uic301BinaryWriter}. A file starts with {@link #MAGIC} and the
+ * {@link #VERSION}. Every document follows as body with a length prefix and a
+ * length of zero ends the file. A body contains:
+ * <ul>
+ * <li>Flags and the attributes of the document.</li>
+ * <li>Error counts of the document, details and totals.</li>
+ * <li>Header, details and totals as records. A record has its line number, a
+ * bit mask of irregular fields, the field values and the errors.</li>
+ * </ul>
+ * All numbers are unsigned varints (7 bits per byte, least significant group
+ * first). Field values with exactly the field's length and only ISO-8859-1
+ * characters are stored as raw bytes without length. All other values
+ * (irregular fields) and error texts are strings: <code>0</code> is
+ * <code>null</code>, an odd number <code>2 * id + 1</code> refers to a string
+ * that was already written in the same document and an even number
+ * <code>2 * (length + 1)</code> is followed by the UTF-8 bytes. Details store
+ * the difference to the line number of the previous detail in zig-zag
+ * encoding. Every body can be decoded on its own.
+ */
+final class Uic301BinaryCodec {
+
+    /** First bytes of a file. */
+    static final byte[] MAGIC = new byte[] { 'U', '3', '0', '1' };
+
+    /** Version of the format. */
+    static final int VERSION = 1;
+
+    private static final int IGNORE_BLOCK = 1;
+
+    private static final int IGNORE_BLOCK_TRUE = 1 << 1;
+
+    private static final int PATCHED = 1 << 2;
+
+    private static final int HEADER = 1 << 3;
+
+    private static final int DETAILS = 1 << 4;
+
+    private static final int TOTALS = 1 << 5;
+
+    private static final int G4 = 0;
+
+    private static final int G5 = 1;
+
+    private Uic301BinaryCodec() {
+    }
+
+    /**
+     * Writes the magic bytes and the version.
+     *
+     * @param out
+     *            Stream to write to.
+     *
+     * @throws IOException
+     *             Writing failed.
+     */
+    static void writeStart(final OutputStream out) throws IOException {
+        out.write(MAGIC);
+        writeVarint(out, VERSION);
+    }
+
+    /**
+     * Reads the magic bytes and the version.
+     *
+     * @param in
+     *            Stream to read from.
+     *
+     * @throws IOException
+     *             Reading failed.
+     * @throws Uic301Exception
+     *             The stream has another format or version.
+     */
+    static void readStart(final InputStream in) throws IOException, Uic301Exception {
+        final byte[] magic = new byte[MAGIC.length];
+        readFully(in, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new Uic301Exception("Not an UIC 301 binary file");
+        }
+        final long version = readVarint(in);
+        if (version != VERSION) {
+            throw new Uic301Exception("Expected binary format version " + VERSION + ", but was: " + version);
+        }
+    }
+
+    /**
+     * Encodes a document.
+     *
+     * @param document
+     *            Document to encode.
+     *
+     * @return Body without length prefix.
+     */
+    static byte[] encode(final Uic301Document document) {
+        return new Encoder().document(document);
+    }
+
+    /**
+     * Decodes and seals a document.
+     *
+     * @param body
+     *            Body without length prefix.
+     *
+     * @return New document.
+     *
+     * @throws Uic301Exception
+     *             The body is corrupt.
+     */
+    static Uic301Document decode(final byte[] body) throws Uic301Exception {
+        try {
+            final Uic301Document document = new Decoder(body).document();
+            document.seal();
+            return document;
+        } catch (final IndexOutOfBoundsException ex) {
+            throw new Uic301Exception("Unexpected end of document", ex);
+        }
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param out
+     *            Stream to write to.
+     * @param value
+     *            Value to write (Not negative).
+     *
+     * @throws IOException
+     *             Writing failed.
+     */
+    static void writeVarint(final OutputStream out, final long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v = v >>> 7;
+        }
+        out.write((int) v);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param in
+     *            Stream to read from.
+     *
+     * @return Value or <code>-1</code> if the stream ended before the first
+     *         byte.
+     *
+     * @throws IOException
+     *             Reading failed or the stream ended within the varint.
+     */
+    static long readVarint(final InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift = shift + 7) {
+            final int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Unexpected end of varint");
+            }
+            value = value | ((long) (b & 0x7F) << shift);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    /**
+     * Reads exactly as many bytes as the array can hold.
+     *
+     * @param in
+     *            Stream to read from.
+     * @param bytes
+     *            Array to fill.
+     *
+     * @throws IOException
+     *             Reading failed or the stream ended before.
+     */
+    static void readFully(final InputStream in, final byte[] bytes) throws IOException {
+        int pos = 0;
+        while (pos < bytes.length) {
+            final int count = in.read(bytes, pos, bytes.length - pos);
+            if (count < 0) {
+                throw new EOFException("Expected " + bytes.length + " bytes, but was: " + pos);
+            }
+            pos = pos + count;
+        }
+    }
+
+    /**
+     * Writes the body of a single document.
+     */
+    private static final class Encoder extends ByteArrayOutputStream {
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Encoder() {
+            super(8192);
+        }
+
+        byte[] document(final Uic301Document document) {
+            final Uic301Header header = document.getHeader();
+            final Uic301Details details = document.getDetails();
+            final Uic301Totals totals = document.getTotals();
+            int flags = 0;
+            if (document.getIgnoreBlock() != null) {
+                flags = flags | IGNORE_BLOCK;
+                if (document.getIgnoreBlock()) {
+                    flags = flags | IGNORE_BLOCK_TRUE;
+                }
+            }
+            if (document.getPatched()) {
+                flags = flags | PATCHED;
+            }
+            if (header != null) {
+                flags = flags | HEADER;
+            }
+            if (details != null) {
+                flags = flags | DETAILS;
+            }
+            if (totals != null) {
+                flags = flags | TOTALS;
+            }
+            write(flags);
+            string(document.getOrignalCompilingRuAttribute());
+            varint(document.getErrorCount());
+            if (header != null) {
+                varint(header.getParsedLineNo());
+                record(Uic301HeaderField.list(), header.values(), header.getErrors());
+            }
+            if (details != null) {
+                final List<Uic301Detail> list = details.getList();
+                varint(details.getErrorCount());
+                varint(list.size());
+                int lineNo = 0;
+                for (final Uic301Detail detail : list) {
+                    write(typeOf(detail));
+                    final int delta = detail.getParsedLineNo() - lineNo;
+                    varint((delta << 1) ^ (delta >> 31));
+                    lineNo = detail.getParsedLineNo();
+                    detail(detail);
+                }
+            }
+            if (totals != null) {
+                final List<Uic301Total> list = totals.getList();
+                varint(totals.getErrorCount());
+                varint(list.size());
+                for (final Uic301Total total : list) {
+                    varint(total.getParsedLineNo());
+                    record(Uic301TotalField.list(), total.values(), total.getErrors());
+                }
+            }
+            return toByteArray();
+        }
+
+        private static int typeOf(final Uic301Detail detail) {
+            if (detail instanceof Uic301G4Detail || detail instanceof Uic301G4LineDetail) {
+                return G4;
+            }
+            if (detail instanceof Uic301G5Detail || detail instanceof Uic301G5LineDetail) {
+                return G5;
+            }
+            throw new IllegalArgumentException("Unknown detail type: " + detail.getClass().getName());
+        }
+
+        private void detail(final Uic301Detail detail) {
+            if (detail instanceof Uic301LineDetail) {
+                final Uic301LineDetail<?> lineDetail = (Uic301LineDetail<?>) detail;
+                record(lineDetail.fields(), lineDetail.values(), lineDetail.getErrors());
+            } else if (detail instanceof Uic301G4Detail) {
+                final Uic301G4Detail g4 = (Uic301G4Detail) detail;
+                record(Uic301G4Field.list(), g4.values(), g4.getErrors());
+            } else if (detail instanceof Uic301G5Detail) {
+                final Uic301G5Detail g5 = (Uic301G5Detail) detail;
+                record(Uic301G5Field.list(), g5.values(), g5.getErrors());
+            } else {
+                throw new IllegalArgumentException("Unknown detail type: " + detail.getClass().getName());
+            }
+        }
+
+        private void record(final List<? extends Uic301Field> fields, final String[] values,
+                final List<FieldError> errors) {
+            long irregular = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (!isRegular(fields.get(i), values[i])) {
+                    irregular = irregular | (1L << i);
+                }
+            }
+            varint(irregular);
+            for (int i = 0; i < values.length; i++) {
+                final String value = values[i];
+                if ((irregular & (1L << i)) == 0) {
+                    for (int j = 0; j < value.length(); j++) {
+                        write(value.charAt(j));
+                    }
+                } else {
+                    string(value);
+                }
+            }
+            if (errors == null) {
+                varint(0);
+            } else {
+                varint(errors.size());
+                for (final FieldError error : errors) {
+                    string(error.getField());
+                    string(error.getError());
+                }
+            }
+        }
+
+        private void string(final String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            final Integer id = strings.get(value);
+            if (id != null) {
+                varint(2L * id + 1);
+                return;
+            }
+            strings.put(value, strings.size());
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(2L * (bytes.length + 1));
+            write(bytes, 0, bytes.length);
+        }
+
+        private void varint(final long value) {
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v = v >>> 7;
+            }
+            write((int) v);
+        }
+
+        private static boolean isRegular(final Uic301Field field, final String value) {
+            if (value == null || value.length() != field.getLength()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > 0xFF) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Reads the body of a single document.
+     */
+    private static final class Decoder {
+
+        private final byte[] body;
+
+        private final List<String> strings = new ArrayList<>();
+
+        private int pos;
+
+        Decoder(final byte[] body) {
+            this.body = body;
+        }
+
+        Uic301Document document() throws Uic301Exception {
+            final int flags = body[pos++];
+            final String orignalCompilingRu = string();
+            final int errorCount = (int) varint();
+            Uic301Header header = null;
+            if ((flags & HEADER) != 0) {
+                final int lineNo = (int) varint();
+                final String[] v = values(Uic301HeaderField.list());
+                header = new Uic301Header(v[0], v[1], v[2], v[3], v[4], v[5], lineNo);
+                final List<FieldError> errors = errors();
+                if (!errors.isEmpty()) {
+                    header.assignErrors(errors);
+                }
+            }
+            Uic301Details details = null;
+            if ((flags & DETAILS) != 0) {
+                final int detailsErrorCount = (int) varint();
+                final int size = (int) varint();
+                final List<Uic301Detail> list = new ArrayList<>(size);
+                int lineNo = 0;
+                for (int i = 0; i < size; i++) {
+                    final int type = body[pos++];
+                    final int zigZag = (int) varint();
+                    lineNo = lineNo + ((zigZag >>> 1) ^ -(zigZag & 1));
+                    list.add(detail(type, lineNo));
+                }
+                details = new Uic301Details(list);
+                details.assignErrorCount(detailsErrorCount);
+            }
+            Uic301Totals totals = null;
+            if ((flags & TOTALS) != 0) {
+                final int totalsErrorCount = (int) varint();
+                final int size = (int) varint();
+                final List<Uic301Total> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    final int lineNo = (int) varint();
+                    final String[] v = values(Uic301TotalField.list());
+                    final Uic301Total total = new Uic301Total(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8],
+                            v[9], v[10], v[11], v[12], lineNo);
+                    final List<FieldError> errors = errors();
+                    if (!errors.isEmpty()) {
+                        total.assignErrors(errors);
+                    }
+                    list.add(total);
+                }
+                totals = new Uic301Totals(list);
+                totals.assignErrorCount(totalsErrorCount);
+            }
+            if (pos != body.length) {
+                throw new Uic301Exception("Expected end of document at " + pos + ", but was: " + body.length);
+            }
+            final Uic301Document document = new Uic301Document(header, details, totals);
+            if ((flags & IGNORE_BLOCK) != 0) {
+                document.setIgnoreBlock((flags & IGNORE_BLOCK_TRUE) != 0);
+            }
+            document.setPatched((flags & PATCHED) != 0);
+            document.setOrignalCompilingRu(orignalCompilingRu);
+            document.assignErrorCount(errorCount);
+            return document;
+        }
+
+        private Uic301Detail detail(final int type, final int lineNo) throws Uic301Exception {
+            if (type == G4) {
+                final String[] v = values(Uic301G4Field.list());
+                final Uic301G4Detail detail = new Uic301G4Detail(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7],
+                        v[8], v[9], v[10], v[11], v[12], v[13], v[14], v[15], v[16], v[17], v[18], v[19], v[20],
+                        v[21], v[22], v[23], v[24], v[25], v[26], v[27], v[28], v[29], v[30], v[31], v[32], v[33],
+                        v[34], v[35], v[36], v[37], v[38], v[39], v[40], v[41], v[42], v[43], v[44], v[45], v[46],
+                        lineNo);
+                final List<FieldError> errors = errors();
+                if (!errors.isEmpty()) {
+                    detail.assignErrors(errors);
+                }
+                return detail;
+            }
+            if (type == G5) {
+                final String[] v = values(Uic301G5Field.list());
+                final Uic301G5Detail detail = new Uic301G5Detail(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7],
+                        v[8], v[9], v[10], v[11], v[12], v[13], v[14], v[15], v[16], v[17], v[18], v[19], v[20],
+                        v[21], v[22], v[23], v[24], v[25], v[26], v[27], v[28], v[29], v[30], v[31], v[32], v[33],
+                        v[34], v[35], v[36], v[37], v[38], v[39], v[40], v[41], v[42], v[43], lineNo);
+                final List<FieldError> errors = errors();
+                if (!errors.isEmpty()) {
+                    detail.assignErrors(errors);
+                }
+                return detail;
+            }
+            throw new Uic301Exception("Unknown detail type: " + type);
+        }
+
+        private String[] values(final List<? extends Uic301Field> fields) {
+            final long irregular = varint();
+            final String[] values = new String[fields.size()];
+            for (int i = 0; i < values.length; i++) {
+                if ((irregular & (1L << i)) == 0) {
+                    final int length = fields.get(i).getLength();
+                    values[i] = new String(body, pos, length, StandardCharsets.ISO_8859_1);
+                    pos = pos + length;
+                } else {
+                    values[i] = string();
+                }
+            }
+            return values;
+        }
+
+        private List<FieldError> errors() {
+            final int size = (int) varint();
+            if (size == 0) {
+                return Collections.emptyList();
+            }
+            final List<FieldError> errors = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                errors.add(new FieldError(string(), string()));
+            }
+            return errors;
+        }
+
+        private String string() {
+            final long value = varint();
+            if (value == 0) {
+                return null;
+            }
+            if ((value & 1) != 0) {
+                return strings.get((int) (value >>> 1));
+            }
+            final int length = (int) (value >>> 1) - 1;
+            if (pos + length > body.length) {
+                throw new IndexOutOfBoundsException("String exceeds document: " + length);
+            }
+            final String str = new String(body, pos, length, StandardCharsets.UTF_8);
+            pos = pos + length;
+            strings.add(str);
+            return str;
+        }
+
+        private long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift = shift + 7) {
+                final int b = body[pos++];
+                value = value | ((long) (b & 0x7F) << shift);
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IndexOutOfBoundsException("Varint is too long");
+        }
+
+    }
+
+}
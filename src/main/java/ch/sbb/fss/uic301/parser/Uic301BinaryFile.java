@@ -0,0 +1,160 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Provides random access to the documents of a file written by
+ * {@link Uic301BinaryWriter}. Opening the file only reads the length prefixes
+ * of the documents, so any document can be read later without reading the
+ * ones before. Instances are thread-safe.
+ */
+public final class Uic301BinaryFile implements AutoCloseable {
+
+    private final File file;
+
+    private final RandomAccessFile raf;
+
+    /** Position of the body of every document. */
+    private final long[] offsets;
+
+    /** Length of the body of every document. */
+    private final int[] lengths;
+
+    /**
+     * Constructor with file. The file is opened until {@link #close()} is
+     * called.
+     *
+     * @param file
+     *            Binary file to read - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Opening the file failed or it's not in the expected format
+     *             or version.
+     */
+    public Uic301BinaryFile(final File file) throws Uic301Exception {
+        super();
+        Utils4J.checkNotNull("file", file);
+        this.file = file;
+        try {
+            this.raf = new RandomAccessFile(file, "r");
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to open file: " + file, ex);
+        }
+        long[] offsets = new long[16];
+        int[] lengths = new int[16];
+        int count = 0;
+        try {
+            final byte[] magic = new byte[Uic301BinaryCodec.MAGIC.length + 1];
+            raf.readFully(magic);
+            if (!Arrays.equals(Arrays.copyOf(magic, Uic301BinaryCodec.MAGIC.length), Uic301BinaryCodec.MAGIC)
+                    || magic[magic.length - 1] != Uic301BinaryCodec.VERSION) {
+                throw new Uic301Exception("Not an UIC 301 binary file with version " + Uic301BinaryCodec.VERSION
+                        + ": " + file);
+            }
+            long length;
+            while ((length = readVarint()) > 0) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+                offsets[count] = raf.getFilePointer();
+                lengths[count] = (int) length;
+                count++;
+                raf.seek(raf.getFilePointer() + length);
+            }
+            if (length < 0 || raf.getFilePointer() > raf.length()) {
+                throw new Uic301Exception("Unexpected end of file: " + file);
+            }
+        } catch (final IOException | Uic301Exception ex) {
+            try {
+                raf.close();
+            } catch (final IOException ex2) {
+                ex.addSuppressed(ex2);
+            }
+            if (ex instanceof Uic301Exception) {
+                throw (Uic301Exception) ex;
+            }
+            throw new Uic301Exception("Failed to read file: " + file, ex);
+        }
+        this.offsets = Arrays.copyOf(offsets, count);
+        this.lengths = Arrays.copyOf(lengths, count);
+    }
+
+    /**
+     * Returns the number of documents.
+     *
+     * @return Number of documents in the file.
+     */
+    public final int getDocumentCount() {
+        return offsets.length;
+    }
+
+    /**
+     * Reads a document.
+     *
+     * @param index
+     *            Index of the document, starting with zero.
+     *
+     * @return Sealed document.
+     *
+     * @throws Uic301Exception
+     *             Reading the document failed.
+     */
+    public final Uic301Document read(final int index) throws Uic301Exception {
+        if (index < 0 || index >= offsets.length) {
+            throw new IndexOutOfBoundsException(
+                    "Expected an index from 0 to " + (offsets.length - 1) + ", but was: " + index);
+        }
+        final byte[] body = new byte[lengths[index]];
+        synchronized (raf) {
+            try {
+                raf.seek(offsets[index]);
+                raf.readFully(body);
+            } catch (final IOException ex) {
+                throw new Uic301Exception("Failed to read document " + index + " of file: " + file, ex);
+            }
+        }
+        return Uic301BinaryCodec.decode(body);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws Uic301Exception
+     *             Closing the file failed.
+     */
+    @Override
+    public final void close() throws Uic301Exception {
+        try {
+            raf.close();
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to close file: " + file, ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Uic301BinaryFile [file=" + file + ", documents=" + offsets.length + "]";
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift = shift + 7) {
+            final int b = raf.read();
+            if (b < 0) {
+                return -1;
+            }
+            value = value | ((long) (b & 0x7F) << shift);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+}
@@ -0,0 +1,121 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Reads documents written by {@link Uic301BinaryWriter} one by one. Only the
+ * current document is in memory and every document is sealed after reading.
+ * Instances are not thread-safe. The underlying stream is never closed by the
+ * reader.
+ */
+public final class Uic301BinaryReader {
+
+    private final InputStream in;
+
+    private boolean end;
+
+    /**
+     * Constructor with stream. The stream should be buffered.
+     *
+     * @param in
+     *            Stream to read from - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             The stream is not in the expected format or version.
+     */
+    public Uic301BinaryReader(final InputStream in) throws Uic301Exception {
+        super();
+        Utils4J.checkNotNull("in", in);
+        this.in = in;
+        try {
+            Uic301BinaryCodec.readStart(in);
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to read start of documents", ex);
+        }
+    }
+
+    /**
+     * Reads all documents of a file and passes them one by one to a listener.
+     *
+     * @param file
+     *            Binary file to read - Never <code>null</code>.
+     * @param listener
+     *            Listener that receives the documents - Never
+     *            <code>null</code>.
+     *
+     * @return Number of documents read.
+     *
+     * @throws Uic301Exception
+     *             Reading the file failed.
+     */
+    public static int read(final File file, final Uic301DocumentListener listener) throws Uic301Exception {
+        Utils4J.checkNotNull("file", file);
+        Utils4J.checkNotNull("listener", listener);
+        try (final InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return new Uic301BinaryReader(in).read(listener);
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to read file: " + file, ex);
+        }
+    }
+
+    /**
+     * Reads all remaining documents and passes them one by one to a listener.
+     *
+     * @param listener
+     *            Listener that receives the documents - Never
+     *            <code>null</code>.
+     *
+     * @return Number of documents read.
+     *
+     * @throws Uic301Exception
+     *             Reading a document failed.
+     */
+    public final int read(final Uic301DocumentListener listener) throws Uic301Exception {
+        Utils4J.checkNotNull("listener", listener);
+        int count = 0;
+        Uic301Document document;
+        while ((document = nextDocument()) != null) {
+            listener.onDocument(document);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the next document.
+     *
+     * @return Sealed document or <code>null</code> if there are no more
+     *         documents.
+     *
+     * @throws Uic301Exception
+     *             Reading the document failed or the stream ended without the
+     *             end of the file.
+     */
+    public final Uic301Document nextDocument() throws Uic301Exception {
+        if (end) {
+            return null;
+        }
+        try {
+            final long length = Uic301BinaryCodec.readVarint(in);
+            if (length < 0) {
+                throw new Uic301Exception("Unexpected end of file");
+            }
+            if (length == 0) {
+                end = true;
+                return null;
+            }
+            final byte[] body = new byte[(int) length];
+            Uic301BinaryCodec.readFully(in, body);
+            return Uic301BinaryCodec.decode(body);
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to read document", ex);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Writes documents one by one in a compact binary format. Fixed-width field
+ * values are stored as raw bytes, numbers as varints and every document with
+ * a length prefix, so a document can be skipped or read on its own (See
+ * {@link Uic301BinaryReader} and {@link Uic301BinaryFile}). The format is
+ * versioned and keeps everything that is written as XML: Field values, line
+ * numbers, errors and error counts.<br>
+ * <br>
+ * The writer can be passed as listener to a streaming parse, for example
+ * {@link Uic301Parser#parse(java.io.File, javax.validation.Validator, Uic301DocumentListener)}.
+ * The underlying stream is flushed, but never closed by the writer.
+ */
+public final class Uic301BinaryWriter implements Uic301DocumentListener, AutoCloseable {
+
+    private final OutputStream out;
+
+    private boolean closed;
+
+    /**
+     * Constructor with stream. The stream should be buffered.
+     *
+     * @param out
+     *            Stream to write to - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the start of the file failed.
+     */
+    public Uic301BinaryWriter(final OutputStream out) throws Uic301Exception {
+        super();
+        Utils4J.checkNotNull("out", out);
+        this.out = out;
+        try {
+            Uic301BinaryCodec.writeStart(out);
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to write start of documents", ex);
+        }
+    }
+
+    /**
+     * Writes all documents.
+     *
+     * @param documents
+     *            Documents to write - Never <code>null</code>.
+     * @param out
+     *            Stream to write to - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the documents failed.
+     */
+    public static void write(final Uic301Documents documents, final OutputStream out) throws Uic301Exception {
+        Utils4J.checkNotNull("documents", documents);
+        try (final Uic301BinaryWriter writer = new Uic301BinaryWriter(out)) {
+            for (final Uic301Document document : documents.getDocuments()) {
+                writer.write(document);
+            }
+        }
+    }
+
+    /**
+     * Writes a document. A document with pending validation is validated
+     * first (See {@link Uic301Document#validatePending()}).
+     *
+     * @param document
+     *            Document to write - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the document failed.
+     */
+    public final void write(final Uic301Document document) throws Uic301Exception {
+        Utils4J.checkNotNull("document", document);
+        if (closed) {
+            throw new IllegalStateException("The writer is already closed");
+        }
+        document.validatePending();
+        final byte[] body = Uic301BinaryCodec.encode(document);
+        try {
+            Uic301BinaryCodec.writeVarint(out, body.length);
+            out.write(body);
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to write document: " + document.getHeader(), ex);
+        }
+    }
+
+    /**
+     * Writes a document.
+     *
+     * @param document
+     *            Document to write - Never <code>null</code>.
+     *
+     * @throws IllegalStateException
+     *             Writing the document failed.
+     */
+    @Override
+    public final void onDocument(final Uic301Document document) {
+        try {
+            write(document);
+        } catch (final Uic301Exception ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Writes the end of the file and flushes the underlying stream. Calling
+     * the method again does nothing.
+     *
+     * @throws Uic301Exception
+     *             Writing the end of the file failed.
+     */
+    @Override
+    public final void close() throws Uic301Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            Uic301BinaryCodec.writeVarint(out, 0);
+            out.flush();
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to write end of documents", ex);
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Position inside an UIC 301 file at a document boundary. All documents before
+ * the position were completely parsed and passed to the listener. Parsing can
+ * be continued at the position without reading the file from the start.
+ */
+@Immutable
+public final class Uic301Checkpoint {
+
+    private static final String POSITION = "position";
+
+    private static final String LINE_COUNT = "lineCount";
+
+    private static final String STATE = "state";
+
+    private static final String DOCUMENT_COUNT = "documentCount";
+
+    private static final String COMPLETE = "complete";
+
+    /** Checkpoint at the start of a file. */
+    public static final Uic301Checkpoint START = new Uic301Checkpoint(0, 0, Uic301ParserState.INIT, 0, false);
+
+    private final long position;
+
+    private final int lineCount;
+
+    private final Uic301ParserState state;
+
+    private final int documentCount;
+
+    private final boolean complete;
+
+    /**
+     * Constructor with all data.
+     *
+     * @param position
+     *            Byte offset of the first line not parsed yet.
+     * @param lineCount
+     *            Number of non-empty lines before the position.
+     * @param state
+     *            State of the parser at the position.
+     * @param documentCount
+     *            Number of documents passed to the listener before the
+     *            position.
+     * @param complete
+     *            <code>true</code> if the whole file was parsed.
+     */
+    public Uic301Checkpoint(final long position, final int lineCount, @NotNull final Uic301ParserState state,
+            final int documentCount, final boolean complete) {
+        super();
+        Utils4J.checkNotNull("state", state);
+        this.position = position;
+        this.lineCount = lineCount;
+        this.state = state;
+        this.documentCount = documentCount;
+        this.complete = complete;
+    }
+
+    /**
+     * Returns the byte offset of the first line not parsed yet.
+     *
+     * @return Position inside the file.
+     */
+    public final long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of non-empty lines before the position.
+     *
+     * @return Number of lines.
+     */
+    public final int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the state of the parser at the position.
+     *
+     * @return State - Never <code>null</code>.
+     */
+    public final Uic301ParserState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the number of documents passed to the listener before the
+     * position.
+     *
+     * @return Number of documents.
+     */
+    public final int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * Determines if the whole file was parsed.
+     *
+     * @return <code>true</code> if nothing is left to parse.
+     */
+    public final boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Writes the checkpoint to a file. The file is replaced atomically, so a
+     * crash during writing keeps the previous checkpoint.
+     *
+     * @param file
+     *            File to write.
+     */
+    public final void write(@NotNull final File file) {
+        Utils4J.checkNotNull("file", file);
+        final Properties props = new Properties();
+        props.setProperty(POSITION, String.valueOf(position));
+        props.setProperty(LINE_COUNT, String.valueOf(lineCount));
+        props.setProperty(STATE, state.name());
+        props.setProperty(DOCUMENT_COUNT, String.valueOf(documentCount));
+        props.setProperty(COMPLETE, String.valueOf(complete));
+        final Path target = file.toPath().toAbsolutePath();
+        final Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (final OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "UIC 301 parser checkpoint");
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to write checkpoint: " + file, ex);
+        }
+    }
+
+    /**
+     * Reads a checkpoint from a file.
+     *
+     * @param file
+     *            File to read.
+     *
+     * @return Checkpoint or {@link #START} if the file does not exist.
+     */
+    public static Uic301Checkpoint read(@NotNull final File file) {
+        Utils4J.checkNotNull("file", file);
+        if (!file.exists()) {
+            return START;
+        }
+        final Properties props = new Properties();
+        try (final InputStream in = Files.newInputStream(file.toPath())) {
+            props.load(in);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read checkpoint: " + file, ex);
+        }
+        try {
+            return new Uic301Checkpoint(Long.parseLong(props.getProperty(POSITION)),
+                    Integer.parseInt(props.getProperty(LINE_COUNT)),
+                    Uic301ParserState.valueOf(props.getProperty(STATE)),
+                    Integer.parseInt(props.getProperty(DOCUMENT_COUNT)),
+                    Boolean.parseBoolean(props.getProperty(COMPLETE)));
+        } catch (final RuntimeException ex) {
+            throw new RuntimeException("Invalid checkpoint: " + file, ex);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "Uic301Checkpoint [position=" + position + ", lineCount=" + lineCount + ", state=" + state
+                + ", documentCount=" + documentCount + ", complete=" + complete + "]";
+    }
+
+}
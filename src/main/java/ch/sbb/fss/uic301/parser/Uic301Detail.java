@@ -182,10 +182,42 @@ public interface Uic301Detail extends ParsedLineItem, Uic301DocumentItem {
 
     public BigDecimal getGrossAmountToBeDebitedValue();
 
+    /**
+     * Returns the amount in cents.
+     * 
+     * @return Amount as exact number of cents.
+     */
+    public long getGrossAmountToBeDebitedCents();
+
     public String getGrossAmountToBeCredited();
 
     public BigDecimal getGrossAmountToBeCreditedValue();
 
+    /**
+     * Returns the amount in cents.
+     * 
+     * @return Amount as exact number of cents.
+     */
+    public long getGrossAmountToBeCreditedCents();
+
+    /**
+     * Returns the gross amount to be credited that is summed up and compared
+     * with the totals. This is the gross amount of the service providing RU
+     * for G4 and the gross amount for G5.
+     * 
+     * @return Amount as exact number of cents.
+     */
+    public long getSummedGrossAmountToBeCreditedCents();
+
+    /**
+     * Returns the gross amount to be debited that is summed up and compared
+     * with the totals. This is the gross amount of the service providing RU
+     * for G4 and the gross amount for G5.
+     * 
+     * @return Amount as exact number of cents.
+     */
+    public long getSummedGrossAmountToBeDebitedCents();
+
     public String getTariffCode();
 
     public String getTypeOfJourney();
@@ -232,8 +264,24 @@ public interface Uic301Detail extends ParsedLineItem, Uic301DocumentItem {
 
     public BigDecimal getAmountOfCommissionToBeDebitedTheServiceProvidingRUValue();
 
+    /**
+     * Returns the amount in cents.
+     * 
+     * @return Amount as exact number of cents.
+     */
+    public long getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents();
+
+    public String getAmountOfCommissionToBeCreditedTheServiceProvidingRU();
+
     public BigDecimal getAmountOfCommissionToBeCreditedTheServiceProvidingRUValue();
 
+    /**
+     * Returns the amount in cents.
+     * 
+     * @return Amount as exact number of cents.
+     */
+    public long getAmountOfCommissionToBeCreditedTheServiceProvidingRUCents();
+
     public void setDepartureLocationRU(String string);
 
     public void setDestinationLocationRU(String string);
@@ -0,0 +1,637 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Column oriented copy of a list of details. Every value of interest is kept
+ * in a primitive array with one entry per detail (row), in the same order as
+ * the list the columns were created from:
+ * <ul>
+ * <li>Amounts in cents (<code>long</code>). The gross amounts are the ones used
+ * for {@link CalculatedDetailAmounts}: For G4 details the amounts of the service
+ * providing RU.</li>
+ * <li>Codes of type of service, type of transaction, distribution channel and
+ * class or category as enum ordinal (<code>byte</code>, <code>-1</code> for
+ * unknown codes).</li>
+ * <li>RU codes and statement currency periods as ids into a dictionary
+ * (<code>int</code>, <code>-1</code> for <code>null</code>).</li>
+ * <li>Dates packed as YYMMDD number (<code>int</code>, <code>-1</code> for
+ * invalid dates).</li>
+ * </ul>
+ * Aggregates are calculated by scanning the arrays sequentially or in parallel
+ * on a fork/join pool. Missing amounts count as zero. Sums that don't fit into
+ * a <code>long</code> throw an {@link ArithmeticException}. Instances are
+ * immutable and thread-safe.
+ */
+public final class Uic301DetailColumns {
+
+    /** Amount columns. */
+    public static enum Amount {
+
+        /** Gross amount to be credited. */
+        GROSS_AMOUNT_TO_BE_CREDITED,
+
+        /** Gross amount to be debited. */
+        GROSS_AMOUNT_TO_BE_DEBITED,
+
+        /** Amount of commission credited. */
+        AMOUNT_COMMISSION_CREDITED,
+
+        /** Amount of commission debited. */
+        AMOUNT_COMMISSION_DEBITED;
+
+    }
+
+    /** Value of an unknown code, missing id or invalid date. */
+    public static final int NONE = -1;
+
+    /** Maximal number of rows scanned by a single task. */
+    private static final int PARTITION_SIZE = 4096;
+
+    private static final int AMOUNT_COUNT = Amount.values().length;
+
+    private final int size;
+
+    private final long[][] amounts;
+
+    private final boolean[] g4;
+
+    private final byte[] typeOfService;
+
+    private final byte[] typeOfTransaction;
+
+    private final byte[] distributionChannel;
+
+    private final byte[] classOrCategory;
+
+    private final int[] statementCurrencyPeriod;
+
+    private final int[] railUnionCompiling;
+
+    private final int[] railUnionReceiving;
+
+    private final int[] departureLocationRU;
+
+    private final int[] destinationLocationRU;
+
+    private final int[] dayOfTravel;
+
+    private final int[] transactionDate;
+
+    private final List<StatementCurrencyPeriod> periods;
+
+    private final List<String> rus;
+
+    private final Map<String, Integer> ruIds;
+
+    private Uic301DetailColumns(final List<? extends Uic301Detail> details) {
+        super();
+        size = details.size();
+        amounts = new long[AMOUNT_COUNT][size];
+        g4 = new boolean[size];
+        typeOfService = new byte[size];
+        typeOfTransaction = new byte[size];
+        distributionChannel = new byte[size];
+        classOrCategory = new byte[size];
+        statementCurrencyPeriod = new int[size];
+        railUnionCompiling = new int[size];
+        railUnionReceiving = new int[size];
+        departureLocationRU = new int[size];
+        destinationLocationRU = new int[size];
+        dayOfTravel = new int[size];
+        transactionDate = new int[size];
+
+        final List<StatementCurrencyPeriod> periodList = new ArrayList<>();
+        final Map<StatementCurrencyPeriod, Integer> periodIds = new HashMap<>();
+        final List<String> ruList = new ArrayList<>();
+        ruIds = new HashMap<>();
+
+        for (int row = 0; row < size; row++) {
+            final Uic301Detail detail = details.get(row);
+            final boolean isG4 = detail instanceof Uic301G4Detail || detail instanceof Uic301G4LineDetail;
+            g4[row] = isG4;
+            if (isG4) {
+                amounts[Amount.GROSS_AMOUNT_TO_BE_CREDITED.ordinal()][row] = cents(
+                        "grossAmountToBeCreditedTheServiceProvidingRU", g4GrossAmountToBeCredited(detail));
+                amounts[Amount.GROSS_AMOUNT_TO_BE_DEBITED.ordinal()][row] = cents(
+                        "grossAmountToBeDebitedTheServiceProvidingRU", g4GrossAmountToBeDebited(detail));
+            } else {
+                amounts[Amount.GROSS_AMOUNT_TO_BE_CREDITED.ordinal()][row] = cents("grossAmountToBeCredited",
+                        detail.getGrossAmountToBeCredited());
+                amounts[Amount.GROSS_AMOUNT_TO_BE_DEBITED.ordinal()][row] = cents("grossAmountToBeDebited",
+                        detail.getGrossAmountToBeDebited());
+            }
+            amounts[Amount.AMOUNT_COMMISSION_CREDITED.ordinal()][row] = cents(
+                    "amountOfCommissionToBeCreditedTheServiceProvidingRU",
+                    detail.getAmountOfCommissionToBeCreditedTheServiceProvidingRU());
+            amounts[Amount.AMOUNT_COMMISSION_DEBITED.ordinal()][row] = cents(
+                    "amountOfCommissionToBeDebitedTheServiceProvidingRU",
+                    detail.getAmountOfCommissionToBeDebitedTheServiceProvidingRU());
+
+            typeOfService[row] = code(detail.getTypeOfServiceValue());
+            typeOfTransaction[row] = code(detail.getTypeOfTransactionValue());
+            distributionChannel[row] = code(detail.getDistributionChannelType());
+            classOrCategory[row] = code(detail.getClassOrCategoryValue());
+
+            final StatementCurrencyPeriod period = detail.getStatementCurrencyPeriod();
+            Integer periodId = periodIds.get(period);
+            if (periodId == null) {
+                periodId = periodList.size();
+                periodIds.put(period, periodId);
+                periodList.add(period);
+            }
+            statementCurrencyPeriod[row] = periodId;
+
+            railUnionCompiling[row] = intern(ruList, detail.getRailUnionCompiling());
+            railUnionReceiving[row] = intern(ruList, detail.getRailUnionReceiving());
+            departureLocationRU[row] = intern(ruList, detail.getDepartureLocationRU());
+            destinationLocationRU[row] = intern(ruList, detail.getDestinationLocationRU());
+
+            dayOfTravel[row] = packDate(detail.getDayOfTravel());
+            transactionDate[row] = packDate(detail.getTransactionDate());
+        }
+
+        periods = Collections.unmodifiableList(periodList);
+        rus = Collections.unmodifiableList(ruList);
+    }
+
+    /**
+     * Creates the columns for a list of details.
+     *
+     * @param details
+     *            Details to copy the values from - Never <code>null</code>.
+     *
+     * @return New columns with one row per detail.
+     */
+    public static Uic301DetailColumns of(@NotNull final List<? extends Uic301Detail> details) {
+        Utils4J.checkNotNull("details", details);
+        return new Uic301DetailColumns(details);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return Number of details.
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Returns a stream of all row indexes. Call {@link IntStream#parallel()}
+     * for a parallel scan.
+     *
+     * @return Row indexes from 0 to {@link #size()} - 1.
+     */
+    public final IntStream rows() {
+        return IntStream.range(0, size);
+    }
+
+    /**
+     * Returns an amount of a row.
+     *
+     * @param amount
+     *            Amount column.
+     * @param row
+     *            Row index.
+     *
+     * @return Amount in cents.
+     */
+    public final long getAmount(@NotNull final Amount amount, final int row) {
+        return amounts[amount.ordinal()][row];
+    }
+
+    /**
+     * Determines if a row was created from a G4 detail.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return <code>true</code> for a G4 detail, <code>false</code> for a G5
+     *         detail.
+     */
+    public final boolean isG4(final int row) {
+        return g4[row];
+    }
+
+    /**
+     * Returns the type of service of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Ordinal of {@link ServiceType} or {@link #NONE}.
+     */
+    public final int getTypeOfService(final int row) {
+        return typeOfService[row];
+    }
+
+    /**
+     * Returns the type of transaction of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Ordinal of {@link TransactionType} or {@link #NONE}.
+     */
+    public final int getTypeOfTransaction(final int row) {
+        return typeOfTransaction[row];
+    }
+
+    /**
+     * Returns the distribution channel of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Ordinal of {@link DistributionChannel} or {@link #NONE}.
+     */
+    public final int getDistributionChannel(final int row) {
+        return distributionChannel[row];
+    }
+
+    /**
+     * Returns the class or category of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Ordinal of {@link ClassOrCategory} or {@link #NONE}.
+     */
+    public final int getClassOrCategory(final int row) {
+        return classOrCategory[row];
+    }
+
+    /**
+     * Returns the statement currency period of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Index into {@link #getPeriods()}.
+     */
+    public final int getStatementCurrencyPeriod(final int row) {
+        return statementCurrencyPeriod[row];
+    }
+
+    /**
+     * Returns the RU compiling the statement of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Index into {@link #getRus()} or {@link #NONE}.
+     */
+    public final int getRailUnionCompiling(final int row) {
+        return railUnionCompiling[row];
+    }
+
+    /**
+     * Returns the RU receiving the statement of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Index into {@link #getRus()} or {@link #NONE}.
+     */
+    public final int getRailUnionReceiving(final int row) {
+        return railUnionReceiving[row];
+    }
+
+    /**
+     * Returns the departure location RU of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Index into {@link #getRus()} or {@link #NONE}.
+     */
+    public final int getDepartureLocationRU(final int row) {
+        return departureLocationRU[row];
+    }
+
+    /**
+     * Returns the destination location RU of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Index into {@link #getRus()} or {@link #NONE}.
+     */
+    public final int getDestinationLocationRU(final int row) {
+        return destinationLocationRU[row];
+    }
+
+    /**
+     * Returns the day of travel of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Date as YYMMDD number or {@link #NONE}.
+     */
+    public final int getDayOfTravel(final int row) {
+        return dayOfTravel[row];
+    }
+
+    /**
+     * Returns the transaction date of a row.
+     *
+     * @param row
+     *            Row index.
+     *
+     * @return Date as YYMMDD number or {@link #NONE}.
+     */
+    public final int getTransactionDate(final int row) {
+        return transactionDate[row];
+    }
+
+    /**
+     * Returns the dictionary of statement currency periods.
+     *
+     * @return Unmodifiable list in order of first appearance.
+     */
+    public final List<StatementCurrencyPeriod> getPeriods() {
+        return periods;
+    }
+
+    /**
+     * Returns the dictionary of RU codes.
+     *
+     * @return Unmodifiable list in order of first appearance.
+     */
+    public final List<String> getRus() {
+        return rus;
+    }
+
+    /**
+     * Returns the id of an RU code.
+     *
+     * @param ru
+     *            RU code to find.
+     *
+     * @return Index into {@link #getRus()} or {@link #NONE} if no row
+     *         contains the code.
+     */
+    public final int ruIdOf(final String ru) {
+        final Integer id = ruIds.get(ru);
+        if (id == null) {
+            return NONE;
+        }
+        return id;
+    }
+
+    /**
+     * Sums up an amount column.
+     *
+     * @param amount
+     *            Column to sum up.
+     *
+     * @return Sum in cents.
+     */
+    public final long sum(@NotNull final Amount amount) {
+        return sum(amounts[amount.ordinal()], 0, size);
+    }
+
+    /**
+     * Sums up an amount column in parallel.
+     *
+     * @param amount
+     *            Column to sum up.
+     * @param pool
+     *            Pool to use.
+     *
+     * @return Sum in cents.
+     */
+    public final long sum(@NotNull final Amount amount, @NotNull final ForkJoinPool pool) {
+        final SumTask task = new SumTask(amounts[amount.ordinal()], 0, size);
+        Uic301Utils.invoke(pool, task);
+        return task.join();
+    }
+
+    /**
+     * Calculates the amounts per statement currency period. The result is the
+     * same as {@link Uic301Details#getAmounts()}.
+     *
+     * @return Sealed amounts by statement currency period.
+     */
+    public final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> calculateAmounts() {
+        return toCalculatedAmounts(accumulate(0, size));
+    }
+
+    /**
+     * Calculates the amounts per statement currency period in parallel. The
+     * result is the same as {@link Uic301Details#getAmounts()}.
+     *
+     * @param pool
+     *            Pool to use.
+     *
+     * @return Sealed amounts by statement currency period.
+     */
+    public final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> calculateAmounts(
+            @NotNull final ForkJoinPool pool) {
+        final AmountsTask task = new AmountsTask(this, 0, size);
+        Uic301Utils.invoke(pool, task);
+        return toCalculatedAmounts(task.join());
+    }
+
+    /**
+     * Converts a packed date back into a date.
+     *
+     * @param packed
+     *            Date as YYMMDD number.
+     *
+     * @return Date or <code>null</code> for {@link #NONE}.
+     */
+    public static Date toDate(final int packed) {
+        if (packed == NONE) {
+            return null;
+        }
+        return new Date(packed / 10000, (packed / 100) % 100, packed % 100);
+    }
+
+    /**
+     * Accumulates the amounts of a range of rows. For every period there are
+     * the four amounts followed by the number of G4 rows.
+     */
+    private long[] accumulate(final int from, final int to) {
+        final int width = AMOUNT_COUNT + 1;
+        final long[] acc = new long[periods.size() * width];
+        for (int row = from; row < to; row++) {
+            final int base = statementCurrencyPeriod[row] * width;
+            for (int i = 0; i < AMOUNT_COUNT; i++) {
+                acc[base + i] = Math.addExact(acc[base + i], amounts[i][row]);
+            }
+            if (g4[row]) {
+                acc[base + AMOUNT_COUNT]++;
+            }
+        }
+        return acc;
+    }
+
+    private Map<StatementCurrencyPeriod, CalculatedDetailAmounts> toCalculatedAmounts(final long[] acc) {
+        final int width = AMOUNT_COUNT + 1;
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> result = new HashMap<>();
+        for (int id = 0; id < periods.size(); id++) {
+            final int base = id * width;
+            final CalculatedDetailAmounts calcAmounts = new CalculatedDetailAmounts();
+            calcAmounts.addAmounts(acc[base + AMOUNT_COUNT] > 0 ? Uic301Type.G4 : Uic301Type.G5_ALLOCATION,
+                    acc[base + Amount.GROSS_AMOUNT_TO_BE_CREDITED.ordinal()],
+                    acc[base + Amount.GROSS_AMOUNT_TO_BE_DEBITED.ordinal()],
+                    acc[base + Amount.AMOUNT_COMMISSION_CREDITED.ordinal()],
+                    acc[base + Amount.AMOUNT_COMMISSION_DEBITED.ordinal()]);
+            calcAmounts.seal();
+            result.put(periods.get(id), calcAmounts);
+        }
+        return result;
+    }
+
+    private static long sum(final long[] values, final int from, final int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum = Math.addExact(sum, values[i]);
+        }
+        return sum;
+    }
+
+    private static long[] add(final long[] a, final long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = Math.addExact(a[i], b[i]);
+        }
+        return a;
+    }
+
+    private static String g4GrossAmountToBeCredited(final Uic301Detail detail) {
+        if (detail instanceof Uic301G4LineDetail) {
+            return ((Uic301G4LineDetail) detail).getGrossAmountToBeCreditedTheServiceProvidingRU();
+        }
+        return ((Uic301G4Detail) detail).getGrossAmountToBeCreditedTheServiceProvidingRU();
+    }
+
+    private static String g4GrossAmountToBeDebited(final Uic301Detail detail) {
+        if (detail instanceof Uic301G4LineDetail) {
+            return ((Uic301G4LineDetail) detail).getGrossAmountToBeDebitedTheServiceProvidingRU();
+        }
+        return ((Uic301G4Detail) detail).getGrossAmountToBeDebitedTheServiceProvidingRU();
+    }
+
+    private static long cents(final String name, final String value) {
+        if (value == null) {
+            return 0;
+        }
+        return Uic301Utils.centsOf(name, value);
+    }
+
+    private static byte code(final Enum<?> value) {
+        if (value == null) {
+            return (byte) NONE;
+        }
+        return (byte) value.ordinal();
+    }
+
+    private int intern(final List<String> ruList, final String ru) {
+        if (ru == null) {
+            return NONE;
+        }
+        Integer id = ruIds.get(ru);
+        if (id == null) {
+            id = ruList.size();
+            ruIds.put(ru, id);
+            ruList.add(ru);
+        }
+        return id;
+    }
+
+    private static int packDate(final String str) {
+        if (str == null || !Date.valid(str)) {
+            return NONE;
+        }
+        return Integer.parseInt(str);
+    }
+
+    @Override
+    public final String toString() {
+        return "Uic301DetailColumns [size=" + size + ", periods=" + periods + ", rus=" + rus.size() + "]";
+    }
+
+    /**
+     * Sums up a part of a column and splits it further if it's too large.
+     */
+    private static final class SumTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] values;
+
+        private final int from;
+
+        private final int to;
+
+        public SumTask(final long[] values, final int from, final int to) {
+            super();
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARTITION_SIZE) {
+                return sum(values, from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final SumTask left = new SumTask(values, from, middle);
+            left.fork();
+            final long right = new SumTask(values, middle, to).compute();
+            return Math.addExact(left.join(), right);
+        }
+
+    }
+
+    /**
+     * Accumulates the amounts per period for a part of the rows and splits
+     * it further if it's too large.
+     */
+    private static final class AmountsTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Uic301DetailColumns columns;
+
+        private final int from;
+
+        private final int to;
+
+        public AmountsTask(final Uic301DetailColumns columns, final int from, final int to) {
+            super();
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= PARTITION_SIZE) {
+                return columns.accumulate(from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final AmountsTask left = new AmountsTask(columns, from, middle);
+            left.fork();
+            final long[] right = new AmountsTask(columns, middle, to).compute();
+            return add(left.join(), right);
+        }
+
+    }
+
+}
@@ -0,0 +1,148 @@
+package ch.sbb.fss.uic301.parser;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Creates a detail from a G4 or G5 detail line.
+ */
+public interface Uic301DetailFactory {
+
+    /** Creates {@link Uic301G4Detail} and {@link Uic301G5Detail} instances. */
+    public static final Uic301DetailFactory STANDARD = (no, line) -> {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        if (recordType != null && recordType.isDetail()) {
+            if (recordType.getType() == Uic301Type.G4) {
+                return Uic301G4Detail.parse(no, line);
+            }
+            return Uic301G5Detail.parse(no, line);
+        }
+        throw new IllegalArgumentException("Input was neither G4 nor G5: '" + line + "'");
+    };
+
+    /**
+     * Creates {@link Uic301G4LineDetail} and {@link Uic301G5LineDetail}
+     * instances that only keep the line. Lines with characters outside of
+     * ISO-8859-1 are created with {@link #STANDARD}.
+     */
+    public static final Uic301DetailFactory COMPACT = (no, line) -> {
+        if (!Uic301LineDetail.isCompactable(line)) {
+            return STANDARD.create(no, line);
+        }
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        if (recordType != null && recordType.isDetail()) {
+            if (recordType.getType() == Uic301Type.G4) {
+                return Uic301G4LineDetail.parse(no, line);
+            }
+            return Uic301G5LineDetail.parse(no, line);
+        }
+        throw new IllegalArgumentException("Input was neither G4 nor G5: '" + line + "'");
+    };
+
+    /**
+     * Returns a factory that creates {@link Uic301G4Detail} and
+     * {@link Uic301G5Detail} instances like {@link #STANDARD}, but takes
+     * repeating field values from a dictionary. The same dictionary may be
+     * used for a single parse or shared by several parsers.
+     * 
+     * @param dictionary
+     *            Dictionary to use - Never <code>null</code>.
+     * 
+     * @return New factory.
+     */
+    public static Uic301DetailFactory dictionary(final Uic301FieldDictionary dictionary) {
+        Utils4J.checkNotNull("dictionary", dictionary);
+        return (no, line) -> {
+            final Uic301RecordType recordType = Uic301RecordType.classify(line);
+            if (recordType != null && recordType.isDetail()) {
+                if (recordType.getType() == Uic301Type.G4) {
+                    return Uic301G4Detail.parse(no, line, dictionary);
+                }
+                return Uic301G5Detail.parse(no, line, dictionary);
+            }
+            throw new IllegalArgumentException("Input was neither G4 nor G5: '" + line + "'");
+        };
+    }
+
+    /**
+     * Returns a factory that creates {@link Uic301G4Detail} and
+     * {@link Uic301G5Detail} instances with only the fields of a projection.
+     * The sums of the details are the same as with {@link #STANDARD}.
+     *
+     * @param projection
+     *            Fields to parse - Never <code>null</code>.
+     *
+     * @return New factory.
+     */
+    public static Uic301DetailFactory projection(final Uic301FieldProjection projection) {
+        return projection(projection, null);
+    }
+
+    /**
+     * Returns a factory that creates {@link Uic301G4Detail} and
+     * {@link Uic301G5Detail} instances with only the fields of a projection
+     * and takes repeating field values from a dictionary.
+     *
+     * @param projection
+     *            Fields to parse - Never <code>null</code>.
+     * @param dictionary
+     *            Dictionary to use or <code>null</code> if every value is a
+     *            new string.
+     *
+     * @return New factory.
+     */
+    public static Uic301DetailFactory projection(final Uic301FieldProjection projection,
+            final Uic301FieldDictionary dictionary) {
+        Utils4J.checkNotNull("projection", projection);
+        return (no, line) -> {
+            final Uic301RecordType recordType = Uic301RecordType.classify(line);
+            if (recordType != null && recordType.isDetail()) {
+                if (recordType.getType() == Uic301Type.G4) {
+                    return Uic301G4Detail.parse(no, line, dictionary, projection);
+                }
+                return Uic301G5Detail.parse(no, line, dictionary, projection);
+            }
+            throw new IllegalArgumentException("Input was neither G4 nor G5: '" + line + "'");
+        };
+    }
+
+    /**
+     * Returns a factory that only creates details for lines accepted by a
+     * filter. Rejected lines are not parsed and the factory returns
+     * <code>null</code> for them.
+     *
+     * @param filter
+     *            Filter to test the lines with - Never <code>null</code>.
+     * @param factory
+     *            Factory that creates the accepted details - Never
+     *            <code>null</code>.
+     *
+     * @return New factory.
+     */
+    public static Uic301DetailFactory filter(final Uic301LineFilter filter, final Uic301DetailFactory factory) {
+        Utils4J.checkNotNull("filter", filter);
+        Utils4J.checkNotNull("factory", factory);
+        return (no, line) -> {
+            if (!filter.accept(line)) {
+                return null;
+            }
+            return factory.create(no, line);
+        };
+    }
+
+    /**
+     * Creates a detail from a line.
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     * 
+     * @return New detail or <code>null</code> if the line was rejected by a
+     *         filter (See {@link #filter(Uic301LineFilter, Uic301DetailFactory)}).
+     * 
+     * @throws Uic301Exception
+     *             Parsing the detail failed.
+     */
+    public Uic301Detail create(int no, CharSequence line) throws Uic301Exception;
+
+}
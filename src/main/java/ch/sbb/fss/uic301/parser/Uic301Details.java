@@ -6,6 +6,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
@@ -16,6 +18,7 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElements;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 
 /**
@@ -34,10 +37,21 @@ public final class Uic301Details implements Sealable {
 
     @XmlElements({ @XmlElement(name = "detail-g4", type = Uic301G4Detail.class),
             @XmlElement(name = "detail-g5", type = Uic301G5Detail.class) })
+    @XmlJavaTypeAdapter(Uic301LineDetailXmlAdapter.class)
     private List<Uic301Detail> list;
 
     private transient Map<StatementCurrencyPeriod, CalculatedDetailAmounts> amounts;
 
+    private transient Map<StatementCurrencyPeriod, CalculatedDetailAmounts> allAmounts;
+
+    private transient Map<StatementCurrencyPeriod, CalculatedDetailAmounts> rejectedAmounts;
+
+    private transient int rejectedCount;
+
+    private transient int invalidRejectedCount;
+
+    private transient volatile Uic301DetailColumns columns;
+
     /**
      * Default constructor.
      */
@@ -83,8 +97,75 @@ public final class Uic301Details implements Sealable {
     }
 
     /**
-     * Returns the amounts of all details in the document. Always call
-     * {@link #seal()} once before using this method.
+     * Adds the amounts of a detail line that was rejected by a filter. The
+     * line is not parsed, only the statement currency, period and amounts are
+     * read. A line with an amount that is not a number is only counted (See
+     * {@link #getInvalidRejectedCount()}), so the parse continues and the
+     * sums check fails instead.
+     * 
+     * @param line
+     *            Rejected G4 or G5 detail line.
+     */
+    final void reject(final CharSequence line) {
+        assertNotSealed();
+        if (rejectedAmounts == null) {
+            rejectedAmounts = new HashMap<>();
+        }
+        try {
+            addLineAmounts(rejectedAmounts, line);
+        } catch (final NumberFormatException ex) {
+            invalidRejectedCount++;
+        }
+        rejectedCount++;
+    }
+
+    /**
+     * Adds the rejected lines of another instance.
+     * 
+     * @param other
+     *            Details of a continuation of the same document.
+     */
+    final void addRejected(final Uic301Details other) {
+        assertNotSealed();
+        if (other.rejectedAmounts == null) {
+            return;
+        }
+        if (rejectedAmounts == null) {
+            rejectedAmounts = new HashMap<>();
+        }
+        add(rejectedAmounts, other.rejectedAmounts);
+        rejectedCount = rejectedCount + other.rejectedCount;
+        invalidRejectedCount = invalidRejectedCount + other.invalidRejectedCount;
+    }
+
+    /**
+     * Returns the number of detail lines that were rejected by a filter and
+     * are not part of the list. Like the amounts of these lines, the count is
+     * only known directly after parsing: It's neither written to XML nor to
+     * the binary format, so a document read from there always returns zero
+     * and its sums only contain the details of the list.
+     * 
+     * @return Number of rejected lines.
+     */
+    public final int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the number of rejected detail lines with an amount that is not
+     * a number. These amounts are missing in {@link #getAllAmounts()}, so the
+     * sums never match the totals if the count is not zero.
+     * 
+     * @return Number of rejected lines with an invalid amount.
+     */
+    public final int getInvalidRejectedCount() {
+        return invalidRejectedCount;
+    }
+
+    /**
+     * Returns the amounts of all details in the list. If some lines were
+     * rejected by a filter, these are only the amounts of the accepted
+     * details. Always call {@link #seal()} once before using this method.
      * 
      * @return Calculated amounts from details.
      */
@@ -96,10 +177,47 @@ public final class Uic301Details implements Sealable {
         return amounts;
     }
 
+    /**
+     * Returns the amounts of all detail lines of the document including the
+     * lines rejected by a filter. These are the amounts to compare with the
+     * totals. Same as {@link #getAmounts()} if no line was rejected. Always
+     * call {@link #seal()} once before using this method.
+     * 
+     * @return Calculated amounts from all detail lines.
+     */
+    public final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> getAllAmounts() {
+        if (!sealed) {
+            throw new IllegalStateException(
+                    "The instance is not sealed. This means the amounts are not calculated yet.");
+        }
+        return allAmounts;
+    }
+
+    /**
+     * Returns a column oriented copy of the details. The columns are created
+     * on the first call and reused afterwards. Always call {@link #seal()}
+     * once before using this method.
+     * 
+     * @return Columns with one row per detail.
+     */
+    public final Uic301DetailColumns getColumns() {
+        if (!sealed) {
+            throw new IllegalStateException(
+                    "The instance is not sealed. This means the details may still change.");
+        }
+        Uic301DetailColumns result = columns;
+        if (result == null) {
+            result = Uic301DetailColumns.of(list);
+            columns = result;
+        }
+        return result;
+    }
+
     @Override
     public final void seal() {
         if (!isSealed()) {
             amounts = calculateSums(list);
+            allAmounts = allSums(amounts, rejectedAmounts);
             sealed = true;
         }
     }
@@ -137,6 +255,38 @@ public final class Uic301Details implements Sealable {
         for (final Uic301Detail entry : list) {
             entry.validate(validator);
         }
+        calculateErrorCount();
+    }
+
+    /**
+     * Validates the instance (and child instances) concurrently. Partitions of
+     * the detail list are validated in parallel. The result is the same as with
+     * {@link #validate(Validator)}.
+     * 
+     * @param validator
+     *            Validator to use (Must be thread-safe).
+     * @param pool
+     *            Pool to use.
+     */
+    public void validate(final Validator validator, final ForkJoinPool pool) {
+        assertNotSealed();
+        Uic301Utils.invoke(pool, new ValidateAction(list, 0, list.size(), validator));
+        calculateErrorCount();
+    }
+
+    /**
+     * Sets the number of errors of all details that were read from a binary file
+     * (See {@link Uic301BinaryWriter}).
+     * 
+     * @param count
+     *            Number of errors.
+     */
+    final void assignErrorCount(final int count) {
+        assertNotSealed();
+        errorCount = count > 0 ? count : null;
+    }
+
+    private void calculateErrorCount() {
         // Calculate error sum
         int count = 0;
         for (final Uic301Detail entry : list) {
@@ -147,6 +297,48 @@ public final class Uic301Details implements Sealable {
         }
     }
 
+    /**
+     * Validates a part of the detail list and splits it further if it's too
+     * large.
+     */
+    private static final class ValidateAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Maximal number of details validated by a single task. */
+        private static final int PARTITION_SIZE = 256;
+
+        private final List<Uic301Detail> list;
+
+        private final int from;
+
+        private final int to;
+
+        private final transient Validator validator;
+
+        public ValidateAction(final List<Uic301Detail> list, final int from, final int to, final Validator validator) {
+            super();
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.validator = validator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITION_SIZE) {
+                for (int i = from; i < to; i++) {
+                    list.get(i).validate(validator);
+                }
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new ValidateAction(list, from, middle, validator),
+                        new ValidateAction(list, middle, to, validator));
+            }
+        }
+
+    }
+
     private void assertNotSealed() {
         if (sealed) {
             throw new IllegalStateException("The class is sealed. No more changes are allowed.");
@@ -178,6 +370,64 @@ public final class Uic301Details implements Sealable {
 
     }
 
+    private static Map<StatementCurrencyPeriod, CalculatedDetailAmounts> allSums(
+            final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> amounts,
+            final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> rejected) {
+
+        if (rejected == null) {
+            return amounts;
+        }
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> all = new HashMap<>();
+        add(all, amounts);
+        add(all, rejected);
+        seal(all);
+        return all;
+
+    }
+
+    private static void add(final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> sums,
+            final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> amounts) {
+        for (final Map.Entry<StatementCurrencyPeriod, CalculatedDetailAmounts> entry : amounts.entrySet()) {
+            sums.computeIfAbsent(entry.getKey(), key -> new CalculatedDetailAmounts()).addAmounts(entry.getValue());
+        }
+    }
+
+    private static void addLineAmounts(final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> sums,
+            final CharSequence line) {
+
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        if (recordType == null || !recordType.isDetail()) {
+            throw new IllegalArgumentException("Input was neither G4 nor G5: '" + line + "'");
+        }
+        final Uic301Type type = recordType.getType();
+        final StatementCurrencyPeriod currencyPeriod;
+        final long[] cents;
+        if (type == Uic301Type.G4) {
+            currencyPeriod = new StatementCurrencyPeriod(
+                    FieldCursor.valueOf(line, Uic301G4Field.STATEMENT_CURRENCY),
+                    FieldCursor.valueOf(line, Uic301G4Field.STATEMENT_PERIOD));
+            cents = new long[] { cents(line, Uic301G4Field.GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU),
+                    cents(line, Uic301G4Field.GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU),
+                    cents(line, Uic301G4Field.AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU),
+                    cents(line, Uic301G4Field.AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU) };
+        } else {
+            currencyPeriod = new StatementCurrencyPeriod(
+                    FieldCursor.valueOf(line, Uic301G5Field.STATEMENT_CURRENCY),
+                    FieldCursor.valueOf(line, Uic301G5Field.STATEMENT_PERIOD));
+            cents = new long[] { cents(line, Uic301G5Field.GROSS_AMOUNT_TO_BE_CREDITED),
+                    cents(line, Uic301G5Field.GROSS_AMOUNT_TO_BE_DEBITED),
+                    cents(line, Uic301G5Field.AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU),
+                    cents(line, Uic301G5Field.AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU) };
+        }
+        sums.computeIfAbsent(currencyPeriod, key -> new CalculatedDetailAmounts()).addAmounts(type, cents[0],
+                cents[1], cents[2], cents[3]);
+
+    }
+
+    private static long cents(final CharSequence line, final Uic301Field field) {
+        return Long.parseLong(FieldCursor.valueOf(line, field));
+    }
+
     /**
      * Executed after unmarshalling of this object.
      * 
@@ -4,10 +4,12 @@ import static ch.sbb.fss.uic301.parser.Uic301Documents.copyDetails;
 import static ch.sbb.fss.uic301.parser.Uic301Documents.copyHeader;
 import static ch.sbb.fss.uic301.parser.Uic301Documents.copyTotals;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -15,6 +17,8 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.fuin.utils4j.Utils4J;
+
 import ch.sbb.fss.uic301.parser.constraints.AllSameHeader;
 import ch.sbb.fss.uic301.parser.constraints.RuRecieving;
 import ch.sbb.fss.uic301.parser.constraints.SameDetailSums;
@@ -32,6 +36,9 @@ public final class Uic301Document implements Sealable {
     public static final String TAG = "document";
 
     private transient boolean sealed;
+
+    /** Validator for a validation on first demand or <code>null</code>. */
+    private transient Validator pendingValidator;
     
     @XmlAttribute(name = "ignore-block")
     private Boolean ignoreBlock;
@@ -171,7 +178,7 @@ public final class Uic301Document implements Sealable {
      * @throws Uic301Exception
      *             Parsing the header failed.
      */
-    public final void parseHeader(final int no, final String line) throws Uic301Exception {
+    public final void parseHeader(final int no, final CharSequence line) throws Uic301Exception {
 
         assertNotSealed();
 
@@ -194,19 +201,38 @@ public final class Uic301Document implements Sealable {
      * @throws Uic301Exception
      *             Parsing the detail failed.
      */
-    public final void parseDetail(final int no, final String line) throws Uic301Exception {
+    public final void parseDetail(final int no, final CharSequence line) throws Uic301Exception {
+        parseDetail(no, line, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Parses a detail line using a given factory. If the factory returns
+     * <code>null</code>, the line is counted as rejected (See
+     * {@link Uic301Details#getRejectedCount()}).
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     * @param factory
+     *            Factory that creates the detail.
+     * 
+     * @throws Uic301Exception
+     *             Parsing the detail failed.
+     */
+    public final void parseDetail(final int no, final CharSequence line, final Uic301DetailFactory factory)
+            throws Uic301Exception {
 
         assertNotSealed();
 
         if (details == null) {
             details = new Uic301Details();
         }
-        if (Uic301G4Detail.isDetail(line)) {
-            details.add(Uic301G4Detail.parse(no, line));
-        } else if (Uic301G5Detail.isDetail(line)) {
-            details.add(Uic301G5Detail.parse(no, line));
+        final Uic301Detail detail = factory.create(no, line);
+        if (detail == null) {
+            details.reject(line);
         } else {
-            throw new IllegalArgumentException("Input was neither G4 nor G5: '" + line + "'");
+            details.add(detail);
         }
 
     }
@@ -222,7 +248,7 @@ public final class Uic301Document implements Sealable {
      * @throws Uic301Exception
      *             Parsing the total failed.
      */
-    public final void parseTotal(final int no, final String line) throws Uic301Exception {
+    public final void parseTotal(final int no, final CharSequence line) throws Uic301Exception {
 
         assertNotSealed();
 
@@ -234,15 +260,50 @@ public final class Uic301Document implements Sealable {
     }
 
 
+    /**
+     * Appends the details and totals of a document without header. Used to
+     * join parts of a document that were parsed separately.
+     * 
+     * @param continuation
+     *            Document without header that continues this one.
+     */
+    final void append(final Uic301Document continuation) {
+
+        assertNotSealed();
+
+        if (continuation.getHeader() != null) {
+            throw new IllegalArgumentException("Expected a continuation without header");
+        }
+        if (continuation.details != null) {
+            if (details == null) {
+                details = new Uic301Details();
+            }
+            for (final Uic301Detail detail : continuation.details.getList()) {
+                details.add(detail);
+            }
+            details.addRejected(continuation.details);
+        }
+        if (continuation.totals != null) {
+            if (totals == null) {
+                totals = new Uic301Totals();
+            }
+            for (final Uic301Total total : continuation.totals.getList()) {
+                totals.add(total);
+            }
+        }
+
+    }
+
     @Override
     public String toString() {
         return  getHeader().getIdentifierTypeFormatted() 
                 + " / " + getHeader().getRailUnionCompiling() 
-                    + " / " + getHeader().getPeriodTypeFormatted() +" [errors=" + getErrorCount() + "]";
+                    + " / " + getHeader().getPeriodTypeFormatted() +" [errors=" + (errorCount == null ? 0 : errorCount) + "]";
     }
 
     @Override
     public final void seal() {
+        validatePending();
         if (!isSealed()) {
             if (header != null) {
                 header.seal();
@@ -270,9 +331,83 @@ public final class Uic301Document implements Sealable {
      */
     public void validate(final Validator validator) {
         assertNotSealed();
+        pendingValidator = null;
         header.validate(validator);
         details.validate(validator);
         totals.validate(validator);
+        calculateErrorCount();
+    }
+
+    /**
+     * Validates the instance (and child instances) and uses a pool to validate
+     * the details concurrently. The result is the same as with
+     * {@link #validate(Validator)}.
+     * 
+     * @param validator
+     *            Validator to use (Must be thread-safe).
+     * @param pool
+     *            Pool to use.
+     */
+    public void validate(final Validator validator, final ForkJoinPool pool) {
+        assertNotSealed();
+        pendingValidator = null;
+        header.validate(validator);
+        details.validate(validator, pool);
+        totals.validate(validator);
+        calculateErrorCount();
+    }
+
+    /**
+     * Defers the validation until the result is needed. The document is
+     * validated and sealed on the first call to {@link #getErrorCount()},
+     * {@link #seal()} or {@link #validatePending()}, or before it's
+     * marshalled. Until then the document is neither validated nor sealed and
+     * the errors of the header, details and totals are not set.
+     * 
+     * @param validator
+     *            Validator to use later - Never <code>null</code>.
+     */
+    public final synchronized void validateLater(@NotNull final Validator validator) {
+        assertNotSealed();
+        Utils4J.checkNotNull("validator", validator);
+        pendingValidator = validator;
+    }
+
+    /**
+     * Determines if the validation was deferred and did not happen yet.
+     * 
+     * @return <code>true</code> if {@link #validateLater(Validator)} was
+     *         called and the document was not validated since.
+     */
+    public final synchronized boolean isValidationPending() {
+        return pendingValidator != null;
+    }
+
+    /**
+     * Validates and seals the document now if the validation was deferred.
+     * Does nothing otherwise.
+     */
+    public final synchronized void validatePending() {
+        final Validator validator = pendingValidator;
+        if (validator != null) {
+            validate(validator);
+            seal();
+        }
+    }
+
+    /**
+     * Sets the number of errors of a document that was read from a binary file
+     * (See {@link Uic301BinaryWriter}).
+     * 
+     * @param count
+     *            Number of errors.
+     */
+    final void assignErrorCount(final int count) {
+        assertNotSealed();
+        errorCount = count > 0 ? count : null;
+    }
+
+    private void calculateErrorCount() {
         // Calculate error count
         int count = 0;
         count = count + header.getErrorCount();
@@ -289,6 +424,7 @@ public final class Uic301Document implements Sealable {
      * @return Number of errors in the headers.
      */
     public int getErrorCount() {
+        validatePending();
         if (errorCount == null) {
             return 0;
         }
@@ -307,6 +443,16 @@ public final class Uic301Document implements Sealable {
         seal();
     }
 
+    /**
+     * Executed before marshalling of this object.
+     * 
+     * @param marshaller
+     *            Marshaller.
+     */
+    public void beforeMarshal(final Marshaller marshaller) {
+        validatePending();
+    }
+
     private void assertNotSealed() {
         if (sealed) {
             throw new IllegalStateException("The class is sealed. No more changes are allowed.");
@@ -333,6 +479,16 @@ public final class Uic301Document implements Sealable {
         return orignalCompilingRu != null? orignalCompilingRu:getHeader().getRailUnionCompiling();
     }
 
+    /**
+     * Returns the original compiling RU without falling back to the header.
+     * 
+     * @return Value of the XML attribute or <code>null</code> if it was never
+     *         set.
+     */
+    final String getOrignalCompilingRuAttribute() {
+        return orignalCompilingRu;
+    }
+
     public void setOrignalCompilingRu(String orignalCompilingRu) {
         this.orignalCompilingRu = orignalCompilingRu;
     }
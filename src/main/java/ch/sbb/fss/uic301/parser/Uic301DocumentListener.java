@@ -0,0 +1,23 @@
+package ch.sbb.fss.uic301.parser;
+
+/**
+ * Receives the documents of an UIC 301 file one by one while the file is
+ * parsed.
+ */
+public interface Uic301DocumentListener {
+
+    /**
+     * A document was completely parsed. It's usually also validated and
+     * sealed, but a parser may defer the validation (See
+     * {@link Uic301Document#validateLater(javax.validation.Validator)}). In
+     * that case {@link Uic301Document#isValidationPending()} returns
+     * <code>true</code> and the document is neither validated nor sealed
+     * until its errors are requested or
+     * {@link Uic301Document#validatePending()} is called.
+     * 
+     * @param document
+     *            Document - Never <code>null</code>.
+     */
+    public void onDocument(Uic301Document document);
+
+}
@@ -4,9 +4,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.validation.Validator;
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -14,6 +17,7 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.fuin.utils4j.Utils4J;
 
 /**
  * Multiple UIC 301 documents.
@@ -28,9 +32,10 @@ public final class Uic301Documents implements Sealable {
 
     private transient boolean sealed;
 
-    private transient Uic301ParserState currentState;
+    private transient Uic301LineParser lineParser;
 
-    private transient Uic301Document currentDoc;
+    /** The documents validate themselves on first demand. */
+    private transient boolean validationPending;
 
     @XmlAttribute(name = "errorCount")
     private Integer errorCount;
@@ -44,7 +49,6 @@ public final class Uic301Documents implements Sealable {
     public Uic301Documents() {
         super();
         sealed = false;
-        currentState = Uic301ParserState.INIT;
         documents = new ArrayList<>();
     }
 
@@ -57,7 +61,6 @@ public final class Uic301Documents implements Sealable {
     public Uic301Documents(final Uic301Document... docs) {
         super();
         sealed = false;
-        currentState = null;
         documents = new ArrayList<>();
         for (final Uic301Document doc : docs) {
             documents.add(doc);
@@ -111,6 +114,17 @@ public final class Uic301Documents implements Sealable {
         return Collections.unmodifiableList(documents);
     }
 
+    /**
+     * Adds a document that was parsed elsewhere.
+     * 
+     * @param document
+     *            Document to add.
+     */
+    final void add(final Uic301Document document) {
+        assertNotSealed();
+        documents.add(document);
+    }
+
     /**
      * Parses a single line.
      * 
@@ -122,32 +136,46 @@ public final class Uic301Documents implements Sealable {
      * @throws Uic301Exception
      *             The parse process failed.
      */
-    public final void parse(final int lineNo, final String line) throws Uic301Exception {
+    public final void parse(final int lineNo, final CharSequence line) throws Uic301Exception {
+        parse(lineNo, line, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Parses a single line using a given factory for the details. All lines
+     * of an instance have to be parsed with the same factory.
+     * 
+     * @param lineNo
+     *            Current line number (Used for error messages).
+     * @param line
+     *            Current line to parse.
+     * @param detailFactory
+     *            Factory that creates the details - Must be the same for all
+     *            calls.
+     * 
+     * @throws Uic301Exception
+     *             The parse process failed.
+     */
+    public final void parse(final int lineNo, final CharSequence line, final Uic301DetailFactory detailFactory)
+            throws Uic301Exception {
 
         assertNotSealed();
- 
-        if (Uic301Header.isHeader(line)) {
-            Uic301ParserState.verifyTransition(lineNo, currentState, Uic301ParserState.HEADER);
-            currentState = Uic301ParserState.HEADER;
-            currentDoc = new Uic301Document();
-            documents.add(currentDoc);
-            currentDoc.parseHeader(lineNo, line);
-        } else if (Uic301G4Detail.isDetail(line) || Uic301G5Detail.isDetail(line)) {
-            Uic301ParserState.verifyTransition(lineNo, currentState, Uic301ParserState.DETAIL);
-            currentState = Uic301ParserState.DETAIL;
-            currentDoc.parseDetail(lineNo, line);
-        } else if (Uic301Total.isTotal(line)) {
-            Uic301ParserState.verifyTransition(lineNo, currentState, Uic301ParserState.TOTAL);
-            currentState = Uic301ParserState.TOTAL;
-            currentDoc.parseTotal(lineNo, line);
-        } else if (currentState != Uic301ParserState.INIT || lineNo > FILE_HEADER_TOLERANCE) {
-            throw new Uic301Exception("Unknown identifier in line # " + lineNo + ": " + line);
+        Utils4J.checkNotNull("detailFactory", detailFactory);
+
+        if (lineParser == null) {
+            lineParser = new Uic301LineParser(detailFactory);
+        } else if (lineParser.getDetailFactory() != detailFactory) {
+            throw new IllegalArgumentException(
+                    "Line # " + lineNo + " uses another detail factory than the lines before");
+        }
+        if (lineParser.parse(lineNo, line)) {
+            documents.add(lineParser.getDocument());
         }
 
     }
 
     @Override
     public final void seal() {
+        validatePending();
         if (!isSealed()) {
             if (documents != null) {
                 for (final Uic301Document doc : documents) {
@@ -171,9 +199,68 @@ public final class Uic301Documents implements Sealable {
      */
     public void validate(final Validator validator) {
         assertNotSealed();
+        validationPending = false;
         for (Uic301Document document : documents) {
             document.validate(validator);
         }
+        calculateErrorCount();
+    }
+
+    /**
+     * Validates the documents concurrently. Documents and partitions of their
+     * details are validated in parallel. The result is the same as with
+     * {@link #validate(Validator)}.
+     * 
+     * @param validator
+     *            Validator to use (Must be thread-safe).
+     * @param pool
+     *            Pool to use.
+     */
+    public void validate(final Validator validator, final ForkJoinPool pool) {
+        assertNotSealed();
+        validationPending = false;
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(documents.size());
+        for (final Uic301Document document : documents) {
+            tasks.add(ForkJoinTask.adapt(() -> document.validate(validator, pool)));
+        }
+        Uic301Utils.invoke(pool, ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        calculateErrorCount();
+    }
+
+    /**
+     * Defers the validation of every document until the result is needed
+     * (See {@link Uic301Document#validateLater(Validator)}). A single document
+     * can be validated on its own. All documents that are still not validated
+     * are validated and sealed on the first call to {@link #getErrorCount()},
+     * {@link #seal()} or {@link #validatePending()}, or before marshalling.
+     * 
+     * @param validator
+     *            Validator to use later.
+     */
+    public final synchronized void validateLater(final Validator validator) {
+        assertNotSealed();
+        for (final Uic301Document document : documents) {
+            document.validateLater(validator);
+        }
+        validationPending = true;
+    }
+
+    /**
+     * Validates and seals all documents now if the validation was deferred.
+     * Does nothing otherwise.
+     */
+    public final synchronized void validatePending() {
+        if (validationPending) {
+            validationPending = false;
+            for (final Uic301Document document : documents) {
+                document.validatePending();
+            }
+            calculateErrorCount();
+            seal();
+        }
+    }
+
+    private void calculateErrorCount() {
         // Calculate total errors
         int count = 0;
         for (Uic301Document document : documents) {
@@ -190,6 +277,7 @@ public final class Uic301Documents implements Sealable {
      * @return Number of errors in the headers.
      */
     public int getErrorCount() {
+        validatePending();
         if (errorCount == null) {
             return 0;
         }
@@ -213,6 +301,16 @@ public final class Uic301Documents implements Sealable {
         seal();
     }
 
+    /**
+     * Executed before marshalling of this object.
+     * 
+     * @param marshaller
+     *            Marshaller.
+     */
+    public void beforeMarshal(final Marshaller marshaller) {
+        validatePending();
+    }
+
     private void assertNotSealed() {
         if (sealed) {
             throw new IllegalStateException("The class is sealed. No more changes are allowed.");
@@ -249,6 +347,10 @@ public final class Uic301Documents implements Sealable {
     static Uic301Detail copyDetail(Uic301Detail d) {
         if (d instanceof Uic301G4Detail) {
             return new Uic301G4Detail((Uic301G4Detail) d);
+        } else if (d instanceof Uic301G4LineDetail) {
+            return new Uic301G4LineDetail((Uic301G4LineDetail) d);
+        } else if (d instanceof Uic301G5LineDetail) {
+            return new Uic301G5LineDetail((Uic301G5LineDetail) d);
         } else {
             return new Uic301G5Detail((Uic301G5Detail) d);
         }
@@ -0,0 +1,36 @@
+package ch.sbb.fss.uic301.parser;
+
+/**
+ * Fixed width field of an UIC 301 line.
+ */
+public interface Uic301Field {
+
+    /**
+     * Returns the name of the attribute in the model class.
+     * 
+     * @return Bean attribute name.
+     */
+    public String getName();
+
+    /**
+     * Returns the name of the attribute in the XML representation.
+     * 
+     * @return XML attribute name.
+     */
+    public String getXmlName();
+
+    /**
+     * Returns the position of the first character inside the line.
+     * 
+     * @return Zero based offset.
+     */
+    public int getOffset();
+
+    /**
+     * Returns the number of characters.
+     * 
+     * @return Field length.
+     */
+    public int getLength();
+
+}
@@ -0,0 +1,337 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Dictionary for fixed width fields that repeat the same few values across
+ * many lines. The first value found for a field is kept and returned for all
+ * following lines with the same characters. No string is created for a value
+ * that is already known. Every value also gets a small integer id that is
+ * unique for the field.<br>
+ * <br>
+ * A dictionary may be used for a single parse or shared between several
+ * parsers running in parallel. Lookups never block. Adding a new value locks
+ * only the values of the field. The number of values per field is limited; if
+ * the limit is reached, new values are returned as new strings and are not
+ * added.
+ */
+@ThreadSafe
+public final class Uic301FieldDictionary {
+
+    /** Names of the fields that are added to the dictionary by default. */
+    public static final List<String> DEFAULT_FIELD_NAMES = Collections
+            .unmodifiableList(Arrays.asList("identifier", "railUnionCompiling", "railUnionReceiving", "period",
+                    "countryCode", "serviceBrandCode", "statementCurrency", "statementPeriod"));
+
+    /** Default maximum number of values per field. */
+    public static final int DEFAULT_MAX_VALUES_PER_FIELD = 256;
+
+    private final Map<String, Values> values;
+
+    private final int maxValuesPerField;
+
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    private final LongAdder savedBytes;
+
+    /**
+     * Default constructor for the {@link #DEFAULT_FIELD_NAMES}.
+     */
+    public Uic301FieldDictionary() {
+        this(DEFAULT_FIELD_NAMES, DEFAULT_MAX_VALUES_PER_FIELD);
+    }
+
+    /**
+     * Constructor with all data.
+     *
+     * @param fieldNames
+     *            Bean attribute names of the fields to add to the dictionary
+     *            (See {@link Uic301Field#getName()}) - Never <code>null</code>.
+     * @param maxValuesPerField
+     *            Maximum number of different values per field (Value &gt; 0).
+     */
+    public Uic301FieldDictionary(final Collection<String> fieldNames, final int maxValuesPerField) {
+        super();
+        Utils4J.checkNotNull("fieldNames", fieldNames);
+        if (maxValuesPerField < 1) {
+            throw new IllegalArgumentException("Expected a maximum greater than 0, but was: " + maxValuesPerField);
+        }
+        this.maxValuesPerField = maxValuesPerField;
+        final Map<String, Values> map = new HashMap<>();
+        for (final String fieldName : fieldNames) {
+            map.put(fieldName, new Values(maxValuesPerField));
+        }
+        this.values = Collections.unmodifiableMap(map);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.savedBytes = new LongAdder();
+    }
+
+    /**
+     * Determines if a field is added to the dictionary.
+     *
+     * @param field
+     *            Field to test - Never <code>null</code>.
+     *
+     * @return <code>true</code> if {@link #valueOf(CharSequence, Uic301Field)}
+     *         returns canonical values for the field.
+     */
+    public final boolean contains(final Uic301Field field) {
+        return values.containsKey(field.getName());
+    }
+
+    /**
+     * Returns the value of a field in a line. Same as
+     * {@link FieldCursor#valueOf(CharSequence, Uic301Field)}, but returns the
+     * same instance for all lines with the same value if the field is part of
+     * the dictionary.
+     *
+     * @param line
+     *            Line to read - Never <code>null</code>.
+     * @param field
+     *            Field to return - Never <code>null</code>.
+     *
+     * @return Value or all spaces if the field does not completely fit into the
+     *         line.
+     */
+    public final String valueOf(final CharSequence line, final Uic301Field field) {
+        final Values fieldValues = values.get(field.getName());
+        final int offset = field.getOffset();
+        final int length = field.getLength();
+        if (fieldValues == null || offset + length > line.length()) {
+            return FieldCursor.valueOf(line, field);
+        }
+        final String known = fieldValues.find(line, offset, length);
+        if (known != null) {
+            hits.increment();
+            savedBytes.add(estimatedSize(length));
+            return known;
+        }
+        misses.increment();
+        final String added = fieldValues.add(line, offset, length);
+        if (added != null) {
+            return added;
+        }
+        return line.subSequence(offset, offset + length).toString();
+    }
+
+    /**
+     * Returns the id of a value.
+     *
+     * @param field
+     *            Field the value belongs to - Never <code>null</code>.
+     * @param value
+     *            Value to find - Never <code>null</code>.
+     *
+     * @return Id (Value &gt;= 0) or <code>-1</code> if the value is unknown.
+     */
+    public final int idOf(final Uic301Field field, final String value) {
+        final Values fieldValues = values.get(field.getName());
+        if (fieldValues == null) {
+            return -1;
+        }
+        return fieldValues.idOf(fieldValues.find(value, 0, value.length()));
+    }
+
+    /**
+     * Returns the value with a given id.
+     *
+     * @param field
+     *            Field the value belongs to - Never <code>null</code>.
+     * @param id
+     *            Id returned by {@link #idOf(Uic301Field, String)}.
+     *
+     * @return Value or <code>null</code> if the id is unknown.
+     */
+    public final String valueOf(final Uic301Field field, final int id) {
+        final Values fieldValues = values.get(field.getName());
+        if (fieldValues == null) {
+            return null;
+        }
+        final String[] ids = fieldValues.ids;
+        if (id < 0 || id >= ids.length) {
+            return null;
+        }
+        return ids[id];
+    }
+
+    /**
+     * Returns the number of different values of a field.
+     *
+     * @param field
+     *            Field - Never <code>null</code>.
+     *
+     * @return Number of values.
+     */
+    public final int size(final Uic301Field field) {
+        final Values fieldValues = values.get(field.getName());
+        if (fieldValues == null) {
+            return 0;
+        }
+        return fieldValues.ids.length;
+    }
+
+    /**
+     * Returns the maximum number of values per field.
+     *
+     * @return Maximum number of values.
+     */
+    public final int getMaxValuesPerField() {
+        return maxValuesPerField;
+    }
+
+    /**
+     * Returns the number of lookups that returned an already known value.
+     *
+     * @return Number of values not created again.
+     */
+    public final long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a known value.
+     *
+     * @return Number of values created.
+     */
+    public final long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the estimated number of heap bytes saved by returning known
+     * values instead of new strings. The estimate is based on the size of a
+     * string on a 64 bit JVM with compressed references.
+     *
+     * @return Saved bytes.
+     */
+    public final long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    @Override
+    public final String toString() {
+        return "Uic301FieldDictionary [fields=" + values.keySet() + ", hits=" + getHits() + ", misses="
+                + getMisses() + ", savedBytes=" + getSavedBytes() + "]";
+    }
+
+    /**
+     * Returns the estimated heap size of a string.
+     *
+     * @param length
+     *            Number of characters.
+     *
+     * @return String object (24 bytes) and char array (16 bytes header plus
+     *         characters aligned to 8 bytes).
+     */
+    static long estimatedSize(final int length) {
+        return 24 + ((16 + 2L * length + 7) & ~7L);
+    }
+
+    /**
+     * Values of a single field. The hash table and the id array are never
+     * changed after they were published, a new value replaces both.
+     */
+    private static final class Values {
+
+        private final int max;
+
+        private volatile String[] table;
+
+        private volatile String[] ids;
+
+        Values(final int max) {
+            super();
+            this.max = max;
+            this.table = new String[Integer.highestOneBit(max * 2 - 1) << 1];
+            this.ids = new String[0];
+        }
+
+        String find(final CharSequence line, final int offset, final int length) {
+            final String[] current = table;
+            final int mask = current.length - 1;
+            for (int i = hash(line, offset, length) & mask;; i = (i + 1) & mask) {
+                final String value = current[i];
+                if (value == null) {
+                    return null;
+                }
+                if (matches(value, line, offset, length)) {
+                    return value;
+                }
+            }
+        }
+
+        synchronized String add(final CharSequence line, final int offset, final int length) {
+            final String known = find(line, offset, length);
+            if (known != null) {
+                return known;
+            }
+            final String[] currentIds = ids;
+            if (currentIds.length >= max) {
+                return null;
+            }
+            final String value = line.subSequence(offset, offset + length).toString();
+            final String[] newTable = table.clone();
+            final int mask = newTable.length - 1;
+            int i = value.hashCode() & mask;
+            while (newTable[i] != null) {
+                i = (i + 1) & mask;
+            }
+            newTable[i] = value;
+            final String[] newIds = Arrays.copyOf(currentIds, currentIds.length + 1);
+            newIds[currentIds.length] = value;
+            ids = newIds;
+            table = newTable;
+            return value;
+        }
+
+        int idOf(final String value) {
+            if (value == null) {
+                return -1;
+            }
+            final String[] current = ids;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int hash(final CharSequence line, final int offset, final int length) {
+            // Same as String.hashCode()
+            int h = 0;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + line.charAt(offset + i);
+            }
+            return h;
+        }
+
+        private static boolean matches(final String value, final CharSequence line, final int offset,
+                final int length) {
+            if (value.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) != line.charAt(offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
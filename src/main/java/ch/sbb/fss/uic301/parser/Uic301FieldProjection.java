@@ -0,0 +1,203 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Fields of the G4 and G5 detail lines that are parsed. All other fields are
+ * skipped by the parser and stay <code>null</code>, so no strings are created
+ * for them. The fields needed for the sums of the details (See
+ * {@link CalculatedDetailAmounts}) and for comparing the details with the
+ * header are always parsed, so a document with projected details can still
+ * be validated against its header and totals.<br>
+ * <br>
+ * Validating a projected detail only reports errors of the parsed fields.
+ */
+@Immutable
+public final class Uic301FieldProjection {
+
+    /** Names of the fields that are always parsed. */
+    public static final List<String> REQUIRED_FIELD_NAMES = Collections.unmodifiableList(Arrays.asList(
+            "identifier", "railUnionCompiling", "railUnionReceiving", "period", "statementCurrency",
+            "statementPeriod", "grossAmountToBeDebited", "grossAmountToBeCredited",
+            "grossAmountToBeDebitedTheServiceProvidingRU", "grossAmountToBeCreditedTheServiceProvidingRU",
+            "amountOfCommissionToBeDebitedTheServiceProvidingRU",
+            "amountOfCommissionToBeCreditedTheServiceProvidingRU"));
+
+    /** Projection with only the {@link #REQUIRED_FIELD_NAMES}. */
+    public static final Uic301FieldProjection AMOUNTS = new Uic301FieldProjection(Collections.emptyList());
+
+    private final Set<String> fieldNames;
+
+    private final boolean[] g4Fields;
+
+    private final boolean[] g5Fields;
+
+    private final Set<String> skippedG4XmlNames;
+
+    private final Set<String> skippedG5XmlNames;
+
+    private Uic301FieldProjection(final Collection<String> names) {
+        super();
+        final Set<String> all = new LinkedHashSet<>(REQUIRED_FIELD_NAMES);
+        all.addAll(names);
+        final Set<String> skippedG4 = new HashSet<>();
+        final Set<String> skippedG5 = new HashSet<>();
+        this.g4Fields = flags(Uic301G4Field.list(), all, skippedG4);
+        this.g5Fields = flags(Uic301G5Field.list(), all, skippedG5);
+        this.fieldNames = Collections.unmodifiableSet(all);
+        this.skippedG4XmlNames = skippedG4;
+        this.skippedG5XmlNames = skippedG5;
+    }
+
+    /**
+     * Creates a projection with the given fields and the
+     * {@link #REQUIRED_FIELD_NAMES}.
+     *
+     * @param fieldNames
+     *            Bean attribute names of the G4 or G5 fields to parse (See
+     *            {@link Uic301Field#getName()}).
+     *
+     * @return New projection.
+     */
+    public static Uic301FieldProjection of(final String... fieldNames) {
+        Utils4J.checkNotNull("fieldNames", fieldNames);
+        return of(Arrays.asList(fieldNames));
+    }
+
+    /**
+     * Creates a projection with the given fields and the
+     * {@link #REQUIRED_FIELD_NAMES}.
+     *
+     * @param fieldNames
+     *            Bean attribute names of the G4 or G5 fields to parse (See
+     *            {@link Uic301Field#getName()}) - Never <code>null</code>.
+     *
+     * @return New projection.
+     */
+    public static Uic301FieldProjection of(final Collection<String> fieldNames) {
+        Utils4J.checkNotNull("fieldNames", fieldNames);
+        final List<String> unknown = new ArrayList<>();
+        for (final String name : fieldNames) {
+            if (!isKnown(name, Uic301G4Field.list()) && !isKnown(name, Uic301G5Field.list())) {
+                unknown.add(name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown G4 or G5 detail fields: " + unknown);
+        }
+        return new Uic301FieldProjection(fieldNames);
+    }
+
+    /**
+     * Returns the names of the parsed fields.
+     *
+     * @return Unmodifiable set of bean attribute names including the
+     *         {@link #REQUIRED_FIELD_NAMES}.
+     */
+    public final Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Determines if a field is parsed.
+     *
+     * @param field
+     *            Field to test - Never <code>null</code>.
+     *
+     * @return <code>true</code> if the value of the field is parsed, else
+     *         <code>false</code>.
+     */
+    public final boolean contains(final Uic301Field field) {
+        if (field instanceof Uic301G5Field) {
+            return g5Fields[((Uic301G5Field) field).ordinal()];
+        }
+        if (field instanceof Uic301G4Field) {
+            return g4Fields[((Uic301G4Field) field).ordinal()];
+        }
+        return fieldNames.contains(field.getName());
+    }
+
+    /**
+     * Removes the errors of fields that were not parsed.
+     *
+     * @param fieldType
+     *            Fields of the detail ({@link Uic301G4Field} or
+     *            {@link Uic301G5Field}) - Never <code>null</code>.
+     * @param errors
+     *            Errors found by validating the detail - Never
+     *            <code>null</code>.
+     *
+     * @return Errors of the parsed fields. The list is returned unchanged if
+     *         all errors belong to parsed fields. A {@link CompactFieldErrors}
+     *         list is filtered into another compact list.
+     */
+    final List<FieldError> retainParsed(final Class<? extends Uic301Field> fieldType,
+            final List<FieldError> errors) {
+        final Set<String> skipped = (fieldType == Uic301G4Field.class ? skippedG4XmlNames : skippedG5XmlNames);
+        int i = 0;
+        while (i < errors.size() && !skipped.contains(errors.get(i).getField())) {
+            i++;
+        }
+        if (i == errors.size()) {
+            return errors;
+        }
+        if (errors instanceof CompactFieldErrors) {
+            final CompactFieldErrors compact = (CompactFieldErrors) errors;
+            final CompactFieldErrors result = new CompactFieldErrors();
+            for (int j = 0; j < compact.size(); j++) {
+                final FieldErrorTemplate template = compact.getTemplate(j);
+                if (!skipped.contains(template.getField())) {
+                    result.add(template, compact.getValue(j));
+                }
+            }
+            return result;
+        }
+        final List<FieldError> result = new ArrayList<>(errors.subList(0, i));
+        for (; i < errors.size(); i++) {
+            final FieldError error = errors.get(i);
+            if (!skipped.contains(error.getField())) {
+                result.add(error);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public final String toString() {
+        return "Uic301FieldProjection " + fieldNames;
+    }
+
+    private static boolean[] flags(final List<? extends Uic301Field> fields, final Set<String> names,
+            final Set<String> skippedXmlNames) {
+        final boolean[] flags = new boolean[fields.size()];
+        for (int i = 0; i < flags.length; i++) {
+            final Uic301Field field = fields.get(i);
+            flags[i] = names.contains(field.getName());
+            if (!flags[i]) {
+                skippedXmlNames.add(field.getXmlName());
+            }
+        }
+        return flags;
+    }
+
+    private static boolean isKnown(final String name, final List<? extends Uic301Field> fields) {
+        for (final Uic301Field field : fields) {
+            if (field.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,29 @@
+package ch.sbb.fss.uic301.parser;
+
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
+
+/**
+ * Validates the field constraints of an object without javax.validation. The
+ * implementations are generated at compile time for classes annotated with
+ * {@link GenerateValidator} and report the same errors as the constraint
+ * annotations do.
+ *
+ * @param <T>
+ *            Type of object to validate.
+ */
+public interface Uic301FieldValidator<T> {
+
+    /** Suffix of the generated class name. */
+    public static final String SUFFIX = "_FieldValidator";
+
+    /**
+     * Validates an object.
+     *
+     * @param obj
+     *            Object to validate - Never <code>null</code>.
+     * @param errors
+     *            List the errors are added to.
+     */
+    public void validate(T obj, CompactFieldErrors errors);
+
+}
@@ -0,0 +1,210 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Writes documents as UIC 301 fixed-width text with ISO-8859-1 encoding. Every
+ * header, detail and total is written as one line, ordered like in a parsed
+ * file. Compact details (See {@link Uic301DetailFactory#COMPACT}) keep their
+ * original line and setters change the values inside of it, so these lines
+ * are copied unchanged. All other records are formatted from their field
+ * values. Rewriting a file that was parsed with compact details therefore
+ * costs about as much as copying it.<br>
+ * <br>
+ * Every value must have exactly the length of its field, because the fields
+ * are not padded or truncated. Trailing blanks of formatted lines are not
+ * written, as the parser ignores them anyway. The underlying stream is
+ * flushed, but never closed by the writer.
+ */
+public final class Uic301FixedWidthWriter implements Uic301DocumentListener, AutoCloseable {
+
+    /** Line separator of UIC 301 files. */
+    public static final String CRLF = "\r\n";
+
+    private final OutputStream out;
+
+    private final byte[] lineSeparator;
+
+    /** Buffer for formatting a line. */
+    private byte[] buf;
+
+    private boolean closed;
+
+    /**
+     * Constructor with stream. Lines are separated with {@link #CRLF}.
+     *
+     * @param out
+     *            Stream to write to - Never <code>null</code>.
+     */
+    public Uic301FixedWidthWriter(final OutputStream out) {
+        this(out, CRLF);
+    }
+
+    /**
+     * Constructor with stream and line separator. The stream should be
+     * buffered.
+     *
+     * @param out
+     *            Stream to write to - Never <code>null</code>.
+     * @param lineSeparator
+     *            Separator written after every line - Never <code>null</code>.
+     */
+    public Uic301FixedWidthWriter(final OutputStream out, final String lineSeparator) {
+        super();
+        Utils4J.checkNotNull("out", out);
+        Utils4J.checkNotNull("lineSeparator", lineSeparator);
+        this.out = out;
+        this.lineSeparator = lineSeparator.getBytes(StandardCharsets.ISO_8859_1);
+        this.buf = new byte[256];
+    }
+
+    /**
+     * Writes all documents.
+     *
+     * @param documents
+     *            Documents to write - Never <code>null</code>.
+     * @param out
+     *            Stream to write to - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the documents failed.
+     */
+    public static void write(final Uic301Documents documents, final OutputStream out) throws Uic301Exception {
+        Utils4J.checkNotNull("documents", documents);
+        try (final Uic301FixedWidthWriter writer = new Uic301FixedWidthWriter(out)) {
+            for (final Uic301Document document : documents.getDocuments()) {
+                writer.write(document);
+            }
+        }
+    }
+
+    /**
+     * Writes the header, details and totals of a document.
+     *
+     * @param document
+     *            Document to write - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             A value does not fit into its field or writing failed.
+     */
+    public final void write(final Uic301Document document) throws Uic301Exception {
+        Utils4J.checkNotNull("document", document);
+        if (closed) {
+            throw new IllegalStateException("The writer is already closed");
+        }
+        try {
+            if (document.getHeader() != null) {
+                final Uic301Header header = document.getHeader();
+                writeRecord(Uic301HeaderField.list(), header.values(), header.getParsedLineNo());
+            }
+            if (document.getDetails() != null) {
+                for (final Uic301Detail detail : document.getDetails().getList()) {
+                    writeDetail(detail);
+                }
+            }
+            if (document.getTotals() != null) {
+                for (final Uic301Total total : document.getTotals().getList()) {
+                    writeRecord(Uic301TotalField.list(), total.values(), total.getParsedLineNo());
+                }
+            }
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to write document: " + document.getHeader(), ex);
+        }
+    }
+
+    /**
+     * Writes a document.
+     *
+     * @param document
+     *            Document to write - Never <code>null</code>.
+     *
+     * @throws IllegalStateException
+     *             Writing the document failed.
+     */
+    @Override
+    public final void onDocument(final Uic301Document document) {
+        try {
+            write(document);
+        } catch (final Uic301Exception ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Flushes the underlying stream. Calling the method again does nothing.
+     *
+     * @throws Uic301Exception
+     *             Flushing failed.
+     */
+    @Override
+    public final void close() throws Uic301Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.flush();
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to flush the stream", ex);
+        }
+    }
+
+    private void writeDetail(final Uic301Detail detail) throws IOException, Uic301Exception {
+        if (detail instanceof Uic301LineDetail) {
+            final Uic301LineDetail<?> lineDetail = (Uic301LineDetail<?>) detail;
+            final byte[] line = lineDetail.currentLine();
+            if (line == null) {
+                writeRecord(lineDetail.fields(), lineDetail.values(), detail.getParsedLineNo());
+            } else {
+                out.write(line);
+                out.write(lineSeparator);
+            }
+        } else if (detail instanceof Uic301G4Detail) {
+            writeRecord(Uic301G4Field.list(), ((Uic301G4Detail) detail).values(), detail.getParsedLineNo());
+        } else if (detail instanceof Uic301G5Detail) {
+            writeRecord(Uic301G5Field.list(), ((Uic301G5Detail) detail).values(), detail.getParsedLineNo());
+        } else {
+            throw new IllegalArgumentException("Unknown detail type: " + detail.getClass().getName());
+        }
+    }
+
+    private void writeRecord(final List<? extends Uic301Field> fields, final String[] values, final int lineNo)
+            throws IOException, Uic301Exception {
+        final Uic301Field last = fields.get(fields.size() - 1);
+        final int length = last.getOffset() + last.getLength();
+        if (buf.length < length) {
+            buf = new byte[length];
+        }
+        Arrays.fill(buf, 0, length, (byte) ' ');
+        for (int i = 0; i < values.length; i++) {
+            final Uic301Field field = fields.get(i);
+            final String value = values[i];
+            if (value == null || value.length() != field.getLength()) {
+                throw new Uic301Exception("# " + lineNo + " Expected field '" + field.getName() + "' with "
+                        + field.getLength() + " characters, but was: " + (value == null ? null : "'" + value + "'"));
+            }
+            final int offset = field.getOffset();
+            for (int j = 0; j < value.length(); j++) {
+                final char ch = value.charAt(j);
+                if (ch > 0xFF) {
+                    throw new Uic301Exception("# " + lineNo + " Field '" + field.getName()
+                            + "' contains a character that is not ISO-8859-1: '" + value + "'");
+                }
+                buf[offset + j] = (byte) ch;
+            }
+        }
+        int end = length;
+        while (end > 0 && buf[end - 1] == ' ') {
+            end--;
+        }
+        out.write(buf, 0, end);
+        out.write(lineSeparator);
+    }
+
+}
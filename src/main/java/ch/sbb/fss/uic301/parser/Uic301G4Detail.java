@@ -1,6 +1,5 @@
 package ch.sbb.fss.uic301.parser;
 
-import static ch.sbb.fss.uic301.parser.Uic301Utils.bigDecimalOf;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -28,6 +27,7 @@ import ch.sbb.fss.uic301.parser.Date.DateStr;
 import ch.sbb.fss.uic301.parser.StatementPeriod.StatementPeriodStr;
 import ch.sbb.fss.uic301.parser.constraints.CurrencyStr;
 import ch.sbb.fss.uic301.parser.constraints.FixedLenDigitsStr;
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
 import ch.sbb.fss.uic301.parser.constraints.IdentifierStr;
 import ch.sbb.fss.uic301.parser.constraints.IsoCountryCodeStr;
 import ch.sbb.fss.uic301.parser.constraints.ReservedStr;
@@ -41,6 +41,7 @@ import ch.sbb.fss.uic301.parser.constraints.RicsCodeStr;
  * </ul>
  */
 @Immutable
+@GenerateValidator
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlRootElement(name = Uic301G4Detail.TAG)
 public final class Uic301G4Detail implements Uic301Detail, Sealable {
@@ -51,10 +52,47 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     private static final String G4_DB = "144210000";
 
+    private static final int UNIT_PRICE = 0;
+
+    private static final int GROSS_AMOUNT_TO_BE_DEBITED = 1;
+
+    private static final int GROSS_AMOUNT_TO_BE_CREDITED = 2;
+
+    private static final int AMOUNT_UNIT_SHARE = 3;
+
+    private static final int GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU = 4;
+
+    private static final int GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU = 5;
+
+    private static final int PERCENTAGE_COMMISSION_RATE_OF_SERVICE_PROVIDING_RU = 6;
+
+    private static final int AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU = 7;
+
+    private static final int AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU = 8;
+
     private transient boolean sealed = false;
     
+    /** Amounts converted by {@link #seal()}. */
+    private transient DecodedAmounts amounts = DecodedAmounts.NONE;
+
+    private transient ServiceType typeOfServiceValue;
+
+    private transient TransactionType typeOfTransactionValue;
+
+    private transient DistributionChannel distributionChannelType;
+
+    private transient StatementCurrencyPeriod statementCurrencyPeriod;
+
+    private transient ClassOrCategory classOrCategoryValue;
+
+    private transient JourneyType typeOfJourneyValue;
+
+    private transient PassengerCatergory passengerCatergoryType;
+
     private transient List<String> sealedAttributes = new ArrayList<String>();
 
+    private transient Uic301FieldProjection projection;
+
     @XmlAttribute(name = "errorCount")
     private Integer errorCount;
 
@@ -940,6 +978,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public ServiceType getTypeOfServiceValue() {
+        if (typeOfServiceValue != null) {
+            return typeOfServiceValue;
+        }
         if (typeOfService == null) {
             return null;
         }
@@ -956,6 +997,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public TransactionType getTypeOfTransactionValue() {
+        if (typeOfTransactionValue != null) {
+            return typeOfTransactionValue;
+        }
         if (typeOfTransaction == null) {
             return null;
         }
@@ -972,6 +1016,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public DistributionChannel getDistributionChannelType() {
+        if (distributionChannelType != null) {
+            return distributionChannelType;
+        }
         if (distributionChannel == null) {
             return null;
         }
@@ -1006,6 +1053,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public StatementCurrencyPeriod getStatementCurrencyPeriod() {
+        if (statementCurrencyPeriod != null) {
+            return statementCurrencyPeriod;
+        }
         return new StatementCurrencyPeriod(statementCurrency, statementPeriod);
     }
 
@@ -1016,6 +1066,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public ClassOrCategory getClassOrCategoryValue() {
+        if (classOrCategoryValue != null) {
+            return classOrCategoryValue;
+        }
         if (classOrCategory == null) {
             return null;
         }
@@ -1030,7 +1083,7 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
     }
 
     public BigDecimal getUnitPriceValue() {
-        return bigDecimalOf("unitPrice", unitPrice, 2);
+        return amounts.value(UNIT_PRICE, "unitPrice", unitPrice);
     }
 
     @Override
@@ -1104,7 +1157,12 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getGrossAmountToBeDebitedValue() {
-        return bigDecimalOf("grossAmountToBeDebited", grossAmountToBeDebited, 2);
+        return amounts.value(GROSS_AMOUNT_TO_BE_DEBITED, "grossAmountToBeDebited", grossAmountToBeDebited);
+    }
+
+    @Override
+    public long getGrossAmountToBeDebitedCents() {
+        return amounts.cents(GROSS_AMOUNT_TO_BE_DEBITED, "grossAmountToBeDebited", grossAmountToBeDebited);
     }
 
     @Override
@@ -1114,9 +1172,24 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getGrossAmountToBeCreditedValue() {
-        return bigDecimalOf("grossAmountToBeCredited", grossAmountToBeCredited, 2);
+        return amounts.value(GROSS_AMOUNT_TO_BE_CREDITED, "grossAmountToBeCredited", grossAmountToBeCredited);
     }
 
+    @Override
+    public long getGrossAmountToBeCreditedCents() {
+        return amounts.cents(GROSS_AMOUNT_TO_BE_CREDITED, "grossAmountToBeCredited", grossAmountToBeCredited);
+    }
+
+    @Override
+    public long getSummedGrossAmountToBeCreditedCents() {
+        return getGrossAmountToBeCreditedTheServiceProvidingRUCents();
+    }
+
+    @Override
+    public long getSummedGrossAmountToBeDebitedCents() {
+        return getGrossAmountToBeDebitedTheServiceProvidingRUCents();
+    }
+
     public String getServiceProvidingRU() {
         return serviceProvidingRU;
     }
@@ -1137,6 +1210,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public JourneyType getTypeOfJourneyValue() {
+        if (typeOfJourneyValue != null) {
+            return typeOfJourneyValue;
+        }
         if (typeOfJourney == null) {
             return null;
         }
@@ -1163,6 +1239,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public PassengerCatergory getPassengerCatergoryType() {
+        if (passengerCatergoryType != null) {
+            return passengerCatergoryType;
+        }
         if (passengerCatergory == null) {
             return null;
         }
@@ -1179,7 +1258,7 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getAmountUnitShareValue() {
-        return bigDecimalOf("amountUnitShare", amountUnitShare, 2);
+        return amounts.value(AMOUNT_UNIT_SHARE, "amountUnitShare", amountUnitShare);
     }
 
     public String getGrossAmountToBeDebitedTheServiceProvidingRU() {
@@ -1187,8 +1266,11 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
     }
 
     public BigDecimal getGrossAmountToBeDebitedTheServiceProvidingRUValue() {
-        return bigDecimalOf("grossAmountToBeDebitedTheServiceProvidingRU", grossAmountToBeDebitedTheServiceProvidingRU,
-                2);
+        return amounts.value(GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, "grossAmountToBeDebitedTheServiceProvidingRU", grossAmountToBeDebitedTheServiceProvidingRU);
+    }
+
+    public long getGrossAmountToBeDebitedTheServiceProvidingRUCents() {
+        return amounts.cents(GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, "grossAmountToBeDebitedTheServiceProvidingRU", grossAmountToBeDebitedTheServiceProvidingRU);
     }
 
     public String getGrossAmountToBeCreditedTheServiceProvidingRU() {
@@ -1196,8 +1278,11 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
     }
 
     public BigDecimal getGrossAmountToBeCreditedTheServiceProvidingRUValue() {
-        return bigDecimalOf("grossAmountToBeCreditedTheServiceProvidingRU",
-                grossAmountToBeCreditedTheServiceProvidingRU, 2);
+        return amounts.value(GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, "grossAmountToBeCreditedTheServiceProvidingRU", grossAmountToBeCreditedTheServiceProvidingRU);
+    }
+
+    public long getGrossAmountToBeCreditedTheServiceProvidingRUCents() {
+        return amounts.cents(GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, "grossAmountToBeCreditedTheServiceProvidingRU", grossAmountToBeCreditedTheServiceProvidingRU);
     }
 
     public String getPercentageCommissionRateOfServiceProvidingRU() {
@@ -1205,8 +1290,7 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
     }
 
     public BigDecimal getPercentageCommissionRateOfServiceProvidingRUValue() {
-        return bigDecimalOf("percentageCommissionRateOfServiceProvidingRU",
-                percentageCommissionRateOfServiceProvidingRU, 2);
+        return amounts.value(PERCENTAGE_COMMISSION_RATE_OF_SERVICE_PROVIDING_RU, "percentageCommissionRateOfServiceProvidingRU", percentageCommissionRateOfServiceProvidingRU);
     }
 
     @Override
@@ -1216,18 +1300,27 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getAmountOfCommissionToBeDebitedTheServiceProvidingRUValue() {
-        return bigDecimalOf("amountOfCommissionToBeDebitedTheServiceProvidingRU",
-                amountOfCommissionToBeDebitedTheServiceProvidingRU, 2);
+        return amounts.value(AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeDebitedTheServiceProvidingRU", amountOfCommissionToBeDebitedTheServiceProvidingRU);
     }
 
+    @Override
+    public long getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents() {
+        return amounts.cents(AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeDebitedTheServiceProvidingRU", amountOfCommissionToBeDebitedTheServiceProvidingRU);
+    }
+
+    @Override
     public String getAmountOfCommissionToBeCreditedTheServiceProvidingRU() {
         return amountOfCommissionToBeCreditedTheServiceProvidingRU;
     }
 
     @Override
     public BigDecimal getAmountOfCommissionToBeCreditedTheServiceProvidingRUValue() {
-        return bigDecimalOf("amountOfCommissionToBeCreditedTheServiceProvidingRU",
-                amountOfCommissionToBeCreditedTheServiceProvidingRU, 2);
+        return amounts.value(AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeCreditedTheServiceProvidingRU", amountOfCommissionToBeCreditedTheServiceProvidingRU);
+    }
+
+    @Override
+    public long getAmountOfCommissionToBeCreditedTheServiceProvidingRUCents() {
+        return amounts.cents(AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeCreditedTheServiceProvidingRU", amountOfCommissionToBeCreditedTheServiceProvidingRU);
     }
 
     public String getReserved4() {
@@ -1550,6 +1643,29 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
         return result;
     }
 
+    /**
+     * Returns the values of all fields.
+     * 
+     * @return Values in the order of {@link Uic301G4Field}.
+     */
+    final String[] values() {
+        return new String[] { getIdentifier(), getRailUnionCompiling(), getRailUnionReceiving(), getPeriod(),
+                getReserved1(), getTypeOfService(), getTypeOfTransaction(), getDistributionChannel(),
+                getCodeIssuingOffice(), getRequestingTerminalRU(), getRequestingTerminalNo(), getStatementCurrency(),
+                getStatementPeriod(), getClassOrCategory(), getUnitPrice(), getTrainNumber(), getCoachNumber(),
+                getDayOfTravel(), getDepartureLocationRU(), getDepartureLocationStation(), getReserved2(),
+                getDestinationLocationRU(), getDestinationLocationStation(), getReserved3(), getReferenceNumber(),
+                getDialogueNumber(), getTransactionDate(), getNumberOfServices(), getAdjustment(),
+                getGrossAmountToBeDebited(), getGrossAmountToBeCredited(), getServiceProvidingRU(),
+                getAfterSalesFeeSharePercentage(), getTariffCode(), getTypeOfJourney(), getPrimaryRouteFirstSectionRU(),
+                getPrimaryRouteFirstSectionSerialNo(), getPassengerCatergory(), getAmountUnitShare(),
+                getGrossAmountToBeDebitedTheServiceProvidingRU(), getGrossAmountToBeCreditedTheServiceProvidingRU(),
+                getPercentageCommissionRateOfServiceProvidingRU(),
+                getAmountOfCommissionToBeDebitedTheServiceProvidingRU(),
+                getAmountOfCommissionToBeCreditedTheServiceProvidingRU(), getReserved4(), getCountryCode(),
+                getServiceBrandCode() };
+    }
+
     @Override
     public void changePeriodCounter(int i) {
         this.period = Uic301Utils.changePeriodCounter(this.period, i);
@@ -1929,7 +2045,7 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
     @Override
     public void validate(@NotNull final Validator validator) {
         assertNotSealed();
-        final List<FieldError> list = Uic301Utils.validate(validator, this);
+        final List<FieldError> list = retainParsed(Uic301Utils.validate(validator, this));
         if (list.size() == 0) {
             errorCount = null;
         } else {
@@ -1938,6 +2054,19 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
         }
     }
 
+    /**
+     * Sets the errors found by validating an instance with the same values
+     * (Used for transferring the errors of a {@link Uic301LineDetail}).
+     * 
+     * @param list
+     *            Errors to set - Never <code>null</code> or empty.
+     */
+    void assignErrors(@NotNull final List<FieldError> list) {
+        assertNotSealed();
+        errors = list;
+        errorCount = errors.size();
+    }
+
     /**
      * Returns a number of errors.
      * 
@@ -1967,10 +2096,51 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
     @Override
     public void seal() {
         if (!sealed) {
+            decode();
             sealed = true;
         }
     }
 
+    /**
+     * Converts the typed values once, so the getters don't need to parse the
+     * strings again after sealing. Values that cannot be converted are still
+     * converted on every call.
+     */
+    private void decode() {
+        typeOfServiceValue = getTypeOfServiceValue();
+        typeOfTransactionValue = getTypeOfTransactionValue();
+        distributionChannelType = getDistributionChannelType();
+        statementCurrencyPeriod = getStatementCurrencyPeriod();
+        classOrCategoryValue = getClassOrCategoryValue();
+        typeOfJourneyValue = getTypeOfJourneyValue();
+        passengerCatergoryType = getPassengerCatergoryType();
+        amounts = new DecodedAmounts(unitPrice,
+                grossAmountToBeDebited,
+                grossAmountToBeCredited,
+                amountUnitShare,
+                grossAmountToBeDebitedTheServiceProvidingRU,
+                grossAmountToBeCreditedTheServiceProvidingRU,
+                percentageCommissionRateOfServiceProvidingRU,
+                amountOfCommissionToBeDebitedTheServiceProvidingRU,
+                amountOfCommissionToBeCreditedTheServiceProvidingRU);
+    }
+
+    /**
+     * Returns the fields that were parsed.
+     * 
+     * @return Projection or <code>null</code> if all fields were parsed.
+     */
+    public Uic301FieldProjection getProjection() {
+        return projection;
+    }
+
+    private List<FieldError> retainParsed(final List<FieldError> list) {
+        if (projection == null) {
+            return list;
+        }
+        return projection.retainParsed(Uic301G4Field.class, list);
+    }
+
     @Override
     public boolean isSealed() {
         return sealed;
@@ -2035,76 +2205,123 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
      * @throws Uic301Exception
      *             Parsing the detail failed.
      */
-    public static Uic301G4Detail parse(final int no, final String line) throws Uic301Exception {
+    public static Uic301G4Detail parse(final int no, final CharSequence line) throws Uic301Exception {
+        return parse(no, line, null);
+    }
+
+    /**
+     * Creates a new detail line by parsing a string and takes repeating
+     * values from a dictionary.
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     * @param dictionary
+     *            Dictionary for the field values or <code>null</code> if
+     *            every value is a new string.
+     *
+     * @return Returns a new instance with the parsed data.
+     * 
+     * @throws Uic301Exception
+     *             Parsing the detail failed.
+     */
+    public static Uic301G4Detail parse(final int no, final CharSequence line, final Uic301FieldDictionary dictionary)
+            throws Uic301Exception {
+        return parse(no, line, dictionary, null);
+    }
+
+    /**
+     * Creates a new detail line by parsing only the fields of a projection.
+     * All other fields are <code>null</code>.
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     * @param dictionary
+     *            Dictionary for the field values or <code>null</code> if
+     *            every value is a new string.
+     * @param projection
+     *            Fields to parse or <code>null</code> to parse all fields.
+     *
+     * @return Returns a new instance with the parsed data.
+     * 
+     * @throws Uic301Exception
+     *             Parsing the detail failed.
+     */
+    public static Uic301G4Detail parse(final int no, final CharSequence line, final Uic301FieldDictionary dictionary,
+            final Uic301FieldProjection projection) throws Uic301Exception {
         if (!isDetail(line)) {
             throw new IllegalArgumentException("# " + no + " is no G4 detail line: '" + line + "'");
         }
 
-        final SubString subStr = new SubString(line);
-        final String identifier = subStr.next("identifier", 9);
-        final String railUnionCompiling = subStr.next("railUnionCompiling", 4);
-        final String railUnionReceiving = subStr.next("railUnionReceiving", 4);
-        final String period = subStr.next("period", 6);
-        final String reserved1 = subStr.next("reserved1", 1);
-        final String typeOfService = subStr.next("typeOfService", 2);
-        final String typeofTransaction = subStr.next("typeofTransaction", 1);
-        final String distributionChannel = subStr.next("distributionChannel", 1);
-        final String codeIssuingOffice = subStr.next("codeIssuingOffice", 5);
-        final String requestingTerminalRU = subStr.next("requestingTerminalRU", 4);
-        final String requestingTerminalNo = subStr.next("requestingTerminalNo", 7);
-        final String statementCurrency = subStr.next("statementCurrency", 3);
-        final String statementPeriod = subStr.next("statementPeriod", 2);
-        final String classOrCategory = subStr.next("classOrCategory", 3);
-        final String unitPrice = subStr.next("unitPrice", 8);
-        final String trainNumber = subStr.next("trainNumber", 5);
-        final String coachNumber = subStr.next("coachNumber", 3);
-        final String dayOfTravel = subStr.next("dayOfTravel", 6);
-        final String departureLocationRU = subStr.next("departureLocationRU", 4);
-        final String departureLocationStation = subStr.next("departureLocationStation", 5);
-        final String reserved2 = subStr.next("reserved2", 1);
-        final String destinationLocationRU = subStr.next("destinationLocationRU", 4);
-        final String destinationLocationStation = subStr.next("destinationLocationStation", 5);
-        final String reserved3 = subStr.next("reserved3", 1);
-        final String referenceNumber = subStr.next("referenceNumber", 14);
-        final String dialogueNumber = subStr.next("dialogueNumber", 5);
-        final String transactionDate = subStr.next("transactionDate", 6);
-        final String numberOfServices = subStr.next("numberOfServices", 5);
-        final String adjustment = subStr.next("adjustment", 1);
-        final String grossAmountToBeDebited = subStr.next("grossAmountToBeDebited", 10);
-        final String grossAmountToBeCredited = subStr.next("grossAmountToBeCredited", 10);
-        final String serviceProvidingRU = subStr.next("serviceProvidingRU", 4);
-        final String afterSalesFeeSharePercentage = subStr.next("afterSalesFeeSharePercentage", 2);
-        final String tariffCode = subStr.next("tariffCode", 5);
-        final String typeOfJourney = subStr.next("typeOfJourney", 1);
-        final String primaryRouteFirstSectionRU = subStr.next("primaryRouteFirstSectionRU", 4);
-        final String primaryRouteFirstSectionSerialNo = subStr.next("primaryRouteFirstSectionSerialNo", 5);
-        final String passengerCatergory = subStr.next("passengerCatergory", 2);
-        final String amountUnitShare = subStr.next("amountUnitShare", 8);
-        final String grossAmountToBeDebitedTheServiceProvidingRU = subStr
-                .next("grossAmountToBeDebitedTheServiceProvidingRU", 10);
-        final String grossAmountToBeCreditedTheServiceProvidingRU = subStr
-                .next("grossAmountToBeCreditedTheServiceProvidingRU", 10);
-        final String percentageCommissionRateOfServiceProvidingRU = subStr
-                .next("percentageCommissionRateOfServiceProvidingRU", 4);
-        final String amountOfCommissionToBeDebitedTheServiceProvidingRU = subStr
-                .next("amountOfCommissionToBeDebitedTheServiceProvidingRU", 10);
-        final String amountOfCommissionToBeCreditedTheServiceProvidingRU = subStr
-                .next("amountOfCommissionToBeCreditedTheServiceProvidingRU", 10);
-        final String reserved4 = subStr.next("reserved4", 3);
-        final String countryCode = subStr.next("countryCode", 2);
-        final String serviceBrandCode = subStr.next("serviceBrandCode", 4);
-
-        return new Uic301G4Detail(identifier, railUnionCompiling, railUnionReceiving, period, reserved1,
-                typeOfService, typeofTransaction, distributionChannel, codeIssuingOffice, requestingTerminalRU,
-                requestingTerminalNo, statementCurrency, statementPeriod, classOrCategory, unitPrice, trainNumber,
-                coachNumber, dayOfTravel, departureLocationRU, departureLocationStation, reserved2,
-                destinationLocationRU, destinationLocationStation, reserved3, referenceNumber, dialogueNumber,
-                transactionDate, numberOfServices, adjustment, grossAmountToBeDebited, grossAmountToBeCredited,
-                serviceProvidingRU, afterSalesFeeSharePercentage, tariffCode, typeOfJourney,
-                primaryRouteFirstSectionRU, primaryRouteFirstSectionSerialNo, passengerCatergory, amountUnitShare,
-                grossAmountToBeDebitedTheServiceProvidingRU, grossAmountToBeCreditedTheServiceProvidingRU,
-                percentageCommissionRateOfServiceProvidingRU, amountOfCommissionToBeDebitedTheServiceProvidingRU,
-                amountOfCommissionToBeCreditedTheServiceProvidingRU, reserved4, countryCode, serviceBrandCode, no);
+        final FieldCursor cursor = new FieldCursor(line, Uic301G4Field.list(), dictionary, projection);
+        try {
+            final String identifier = cursor.next();
+            final String railUnionCompiling = cursor.next();
+            final String railUnionReceiving = cursor.next();
+            final String period = cursor.next();
+            final String reserved1 = cursor.next();
+            final String typeOfService = cursor.next();
+            final String typeofTransaction = cursor.next();
+            final String distributionChannel = cursor.next();
+            final String codeIssuingOffice = cursor.next();
+            final String requestingTerminalRU = cursor.next();
+            final String requestingTerminalNo = cursor.next();
+            final String statementCurrency = cursor.next();
+            final String statementPeriod = cursor.next();
+            final String classOrCategory = cursor.next();
+            final String unitPrice = cursor.next();
+            final String trainNumber = cursor.next();
+            final String coachNumber = cursor.next();
+            final String dayOfTravel = cursor.next();
+            final String departureLocationRU = cursor.next();
+            final String departureLocationStation = cursor.next();
+            final String reserved2 = cursor.next();
+            final String destinationLocationRU = cursor.next();
+            final String destinationLocationStation = cursor.next();
+            final String reserved3 = cursor.next();
+            final String referenceNumber = cursor.next();
+            final String dialogueNumber = cursor.next();
+            final String transactionDate = cursor.next();
+            final String numberOfServices = cursor.next();
+            final String adjustment = cursor.next();
+            final String grossAmountToBeDebited = cursor.next();
+            final String grossAmountToBeCredited = cursor.next();
+            final String serviceProvidingRU = cursor.next();
+            final String afterSalesFeeSharePercentage = cursor.next();
+            final String tariffCode = cursor.next();
+            final String typeOfJourney = cursor.next();
+            final String primaryRouteFirstSectionRU = cursor.next();
+            final String primaryRouteFirstSectionSerialNo = cursor.next();
+            final String passengerCatergory = cursor.next();
+            final String amountUnitShare = cursor.next();
+            final String grossAmountToBeDebitedTheServiceProvidingRU = cursor.next();
+            final String grossAmountToBeCreditedTheServiceProvidingRU = cursor.next();
+            final String percentageCommissionRateOfServiceProvidingRU = cursor.next();
+            final String amountOfCommissionToBeDebitedTheServiceProvidingRU = cursor.next();
+            final String amountOfCommissionToBeCreditedTheServiceProvidingRU = cursor.next();
+            final String reserved4 = cursor.next();
+            final String countryCode = cursor.next();
+            final String serviceBrandCode = cursor.next();
+
+            final Uic301G4Detail detail = new Uic301G4Detail(identifier, railUnionCompiling, railUnionReceiving, period, reserved1,
+                    typeOfService, typeofTransaction, distributionChannel, codeIssuingOffice, requestingTerminalRU,
+                    requestingTerminalNo, statementCurrency, statementPeriod, classOrCategory, unitPrice, trainNumber,
+                    coachNumber, dayOfTravel, departureLocationRU, departureLocationStation, reserved2,
+                    destinationLocationRU, destinationLocationStation, reserved3, referenceNumber, dialogueNumber,
+                    transactionDate, numberOfServices, adjustment, grossAmountToBeDebited, grossAmountToBeCredited,
+                    serviceProvidingRU, afterSalesFeeSharePercentage, tariffCode, typeOfJourney,
+                    primaryRouteFirstSectionRU, primaryRouteFirstSectionSerialNo, passengerCatergory, amountUnitShare,
+                    grossAmountToBeDebitedTheServiceProvidingRU, grossAmountToBeCreditedTheServiceProvidingRU,
+                    percentageCommissionRateOfServiceProvidingRU, amountOfCommissionToBeDebitedTheServiceProvidingRU,
+                    amountOfCommissionToBeCreditedTheServiceProvidingRU, reserved4, countryCode, serviceBrandCode, no);
+            detail.projection = projection;
+            return detail;
+        } catch (final RuntimeException ex) {
+            throw new IllegalArgumentException("# " + no + " failed to parse G4 detail line: " + cursor.getTrace(), ex);
+        }
 
     }
 
@@ -2116,8 +2333,9 @@ public final class Uic301G4Detail implements Uic301Detail, Sealable {
      * 
      * @return True if the line starts with a G4 detail identifier.
      */
-    public static boolean isDetail(final String line) {
-        return line != null && (line.startsWith(G4) || line.startsWith(G4_DB));
+    public static boolean isDetail(final CharSequence line) {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        return recordType != null && recordType.isDetail() && recordType.getType() == Uic301Type.G4;
     }
 
     public void setParsedLineNo(int parsedLineNo) {
@@ -0,0 +1,203 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed width fields of a {@link Uic301G4Detail} line in the order they appear in
+ * the line.
+ */
+public enum Uic301G4Field implements Uic301Field {
+
+    /** Identifier ('_1'). */
+    IDENTIFIER("identifier", "_1", 0, 9),
+
+    /** Rail union compiling ('_2'). */
+    RAIL_UNION_COMPILING("railUnionCompiling", "_2", 9, 4),
+
+    /** Rail union receiving ('_3'). */
+    RAIL_UNION_RECEIVING("railUnionReceiving", "_3", 13, 4),
+
+    /** Period ('_4'). */
+    PERIOD("period", "_4", 17, 6),
+
+    /** Reserved 1 ('_5'). */
+    RESERVED1("reserved1", "_5", 23, 1),
+
+    /** Type of service ('_6'). */
+    TYPE_OF_SERVICE("typeOfService", "_6", 24, 2),
+
+    /** Type of transaction ('_7'). */
+    TYPE_OF_TRANSACTION("typeOfTransaction", "_7", 26, 1),
+
+    /** Distribution channel ('_8'). */
+    DISTRIBUTION_CHANNEL("distributionChannel", "_8", 27, 1),
+
+    /** Code issuing office ('_9'). */
+    CODE_ISSUING_OFFICE("codeIssuingOffice", "_9", 28, 5),
+
+    /** Requesting terminal RU ('_10-1'). */
+    REQUESTING_TERMINAL_RU("requestingTerminalRU", "_10-1", 33, 4),
+
+    /** Requesting terminal no ('_10-2'). */
+    REQUESTING_TERMINAL_NO("requestingTerminalNo", "_10-2", 37, 7),
+
+    /** Statement currency ('_11-1'). */
+    STATEMENT_CURRENCY("statementCurrency", "_11-1", 44, 3),
+
+    /** Statement period ('_11-2'). */
+    STATEMENT_PERIOD("statementPeriod", "_11-2", 47, 2),
+
+    /** Class or category ('_12'). */
+    CLASS_OR_CATEGORY("classOrCategory", "_12", 49, 3),
+
+    /** Unit price ('_13'). */
+    UNIT_PRICE("unitPrice", "_13", 52, 8),
+
+    /** Train number ('_14'). */
+    TRAIN_NUMBER("trainNumber", "_14", 60, 5),
+
+    /** Coach number ('_15'). */
+    COACH_NUMBER("coachNumber", "_15", 65, 3),
+
+    /** Day of travel ('_16'). */
+    DAY_OF_TRAVEL("dayOfTravel", "_16", 68, 6),
+
+    /** Departure location RU ('_17-1'). */
+    DEPARTURE_LOCATION_RU("departureLocationRU", "_17-1", 74, 4),
+
+    /** Departure location station ('_17-2'). */
+    DEPARTURE_LOCATION_STATION("departureLocationStation", "_17-2", 78, 5),
+
+    /** Reserved 2 ('_18'). */
+    RESERVED2("reserved2", "_18", 83, 1),
+
+    /** Destination location RU ('_19-1'). */
+    DESTINATION_LOCATION_RU("destinationLocationRU", "_19-1", 84, 4),
+
+    /** Destination location station ('_19-2'). */
+    DESTINATION_LOCATION_STATION("destinationLocationStation", "_19-2", 88, 5),
+
+    /** Reserved 3 ('_20'). */
+    RESERVED3("reserved3", "_20", 93, 1),
+
+    /** Reference number ('_21'). */
+    REFERENCE_NUMBER("referenceNumber", "_21", 94, 14),
+
+    /** Dialogue number ('_22'). */
+    DIALOGUE_NUMBER("dialogueNumber", "_22", 108, 5),
+
+    /** Transaction date ('_23'). */
+    TRANSACTION_DATE("transactionDate", "_23", 113, 6),
+
+    /** Number of services ('_24'). */
+    NUMBER_OF_SERVICES("numberOfServices", "_24", 119, 5),
+
+    /** Adjustment ('_25'). */
+    ADJUSTMENT("adjustment", "_25", 124, 1),
+
+    /** Gross amount to be debited ('_26'). */
+    GROSS_AMOUNT_TO_BE_DEBITED("grossAmountToBeDebited", "_26", 125, 10),
+
+    /** Gross amount to be credited ('_27'). */
+    GROSS_AMOUNT_TO_BE_CREDITED("grossAmountToBeCredited", "_27", 135, 10),
+
+    /** Service providing RU ('_28'). */
+    SERVICE_PROVIDING_RU("serviceProvidingRU", "_28", 145, 4),
+
+    /** After sales fee share percentage ('_29'). */
+    AFTER_SALES_FEE_SHARE_PERCENTAGE("afterSalesFeeSharePercentage", "_29", 149, 2),
+
+    /** Tariff code ('_30'). */
+    TARIFF_CODE("tariffCode", "_30", 151, 5),
+
+    /** Type of journey ('_31'). */
+    TYPE_OF_JOURNEY("typeOfJourney", "_31", 156, 1),
+
+    /** Primary route first section RU ('_32-1'). */
+    PRIMARY_ROUTE_FIRST_SECTION_RU("primaryRouteFirstSectionRU", "_32-1", 157, 4),
+
+    /** Primary route first section serial no ('_32-2'). */
+    PRIMARY_ROUTE_FIRST_SECTION_SERIAL_NO("primaryRouteFirstSectionSerialNo", "_32-2", 161, 5),
+
+    /** Passenger catergory ('_33'). */
+    PASSENGER_CATERGORY("passengerCatergory", "_33", 166, 2),
+
+    /** Amount unit share ('_34'). */
+    AMOUNT_UNIT_SHARE("amountUnitShare", "_34", 168, 8),
+
+    /** Gross amount to be debited the service providing RU ('_35'). */
+    GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU("grossAmountToBeDebitedTheServiceProvidingRU", "_35", 176, 10),
+
+    /** Gross amount to be credited the service providing RU ('_36'). */
+    GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU("grossAmountToBeCreditedTheServiceProvidingRU", "_36", 186, 10),
+
+    /** Percentage commission rate of service providing RU ('_37'). */
+    PERCENTAGE_COMMISSION_RATE_OF_SERVICE_PROVIDING_RU("percentageCommissionRateOfServiceProvidingRU", "_37", 196, 4),
+
+    /** Amount of commission to be debited the service providing RU ('_38'). */
+    AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU("amountOfCommissionToBeDebitedTheServiceProvidingRU", "_38", 200, 10),
+
+    /** Amount of commission to be credited the service providing RU ('_39'). */
+    AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU("amountOfCommissionToBeCreditedTheServiceProvidingRU", "_39", 210, 10),
+
+    /** Reserved 4 ('_40a'). */
+    RESERVED4("reserved4", "_40a", 220, 3),
+
+    /** Country code ('_40b'). */
+    COUNTRY_CODE("countryCode", "_40b", 223, 2),
+
+    /** Service brand code ('_40c'). */
+    SERVICE_BRAND_CODE("serviceBrandCode", "_40c", 225, 4);
+
+    /** Number of characters of a complete line. */
+    public static final int LINE_LENGTH = 229;
+
+    private static final List<Uic301G4Field> LIST = Collections.unmodifiableList(Arrays.asList(values()));
+
+    private final String name;
+
+    private final String xmlName;
+
+    private final int offset;
+
+    private final int length;
+
+    private Uic301G4Field(final String name, final String xmlName, final int offset, final int length) {
+        this.name = name;
+        this.xmlName = xmlName;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public final String getName() {
+        return name;
+    }
+
+    @Override
+    public final String getXmlName() {
+        return xmlName;
+    }
+
+    @Override
+    public final int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public final int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns all fields in the order they appear in the line.
+     * 
+     * @return Unmodifiable list of fields.
+     */
+    public static List<Uic301G4Field> list() {
+        return LIST;
+    }
+
+}
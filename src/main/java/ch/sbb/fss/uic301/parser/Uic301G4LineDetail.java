@@ -0,0 +1,640 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301Utils.bigDecimalOf;
+import static ch.sbb.fss.uic301.parser.Uic301Utils.centsOf;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
+
+/**
+ * Compact variant of a {@link Uic301G4Detail} that only keeps the original
+ * line. See {@link Uic301LineDetail} for details.
+ */
+@GenerateValidator(Uic301G4Detail.class)
+public final class Uic301G4LineDetail extends Uic301LineDetail<Uic301G4Field> {
+
+    /**
+     * Constructor with line.
+     * 
+     * @param line
+     *            G4 detail line with ISO-8859-1 characters only - Never
+     *            <code>null</code>.
+     * @param parsedLineNo
+     *            Number of the line in the file.
+     */
+    Uic301G4LineDetail(@NotNull final CharSequence line, final int parsedLineNo) {
+        super(line, parsedLineNo);
+    }
+
+    /**
+     * Copy constructor. Fields errorCount, errors and sealed will NOT be
+     * copied.
+     * 
+     * @param toCopy
+     *            Instance to copy all fields from.
+     */
+    Uic301G4LineDetail(@NotNull final Uic301G4LineDetail toCopy) {
+        super(toCopy);
+    }
+
+    @Override
+    protected List<Uic301G4Field> fields() {
+        return Uic301G4Field.list();
+    }
+
+    @Override
+    public Uic301G4Detail toDetail() {
+        final String[] v = values();
+        final Uic301G4Detail detail = new Uic301G4Detail(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], v[9],
+                v[10], v[11], v[12], v[13], v[14], v[15], v[16], v[17], v[18], v[19], v[20], v[21], v[22], v[23], v[24],
+                v[25], v[26], v[27], v[28], v[29], v[30], v[31], v[32], v[33], v[34], v[35], v[36], v[37], v[38], v[39],
+                v[40], v[41], v[42], v[43], v[44], v[45], v[46], getParsedLineNo());
+        return transferState(detail, detail::assignErrors);
+    }
+
+    @Override
+    public Uic301Type getIdentifierType() {
+        return Uic301Type.G4;
+    }
+
+    @Override
+    public String getRailUnionCompiling() {
+        return value(Uic301G4Field.RAIL_UNION_COMPILING);
+    }
+
+    @Override
+    public String getRailUnionReceiving() {
+        return value(Uic301G4Field.RAIL_UNION_RECEIVING);
+    }
+
+    @Override
+    public String getPeriod() {
+        return value(Uic301G4Field.PERIOD);
+    }
+
+    public String getReserved1() {
+        return value(Uic301G4Field.RESERVED1);
+    }
+
+    @Override
+    public String getTypeOfService() {
+        return value(Uic301G4Field.TYPE_OF_SERVICE);
+    }
+
+    @Override
+    public ServiceType getTypeOfServiceValue() {
+        final String code = getTypeOfService();
+        if (code == null || !ServiceType.valid(code)) {
+            return null;
+        }
+        return ServiceType.forCode(code);
+    }
+
+    @Override
+    public String getTypeOfTransaction() {
+        return value(Uic301G4Field.TYPE_OF_TRANSACTION);
+    }
+
+    @Override
+    public TransactionType getTypeOfTransactionValue() {
+        final String code = getTypeOfTransaction();
+        if (code == null || !TransactionType.valid(code)) {
+            return null;
+        }
+        return TransactionType.forCode(code);
+    }
+
+    @Override
+    public String getDistributionChannel() {
+        return value(Uic301G4Field.DISTRIBUTION_CHANNEL);
+    }
+
+    @Override
+    public DistributionChannel getDistributionChannelType() {
+        final String code = getDistributionChannel();
+        if (code == null || !DistributionChannel.valid(code)) {
+            return null;
+        }
+        return DistributionChannel.forCode(code);
+    }
+
+    @Override
+    public String getCodeIssuingOffice() {
+        return value(Uic301G4Field.CODE_ISSUING_OFFICE);
+    }
+
+    public String getRequestingTerminalRU() {
+        return value(Uic301G4Field.REQUESTING_TERMINAL_RU);
+    }
+
+    public String getRequestingTerminalNo() {
+        return value(Uic301G4Field.REQUESTING_TERMINAL_NO);
+    }
+
+    @Override
+    public String getStatementCurrency() {
+        return value(Uic301G4Field.STATEMENT_CURRENCY);
+    }
+
+    @Override
+    public String getStatementPeriod() {
+        return value(Uic301G4Field.STATEMENT_PERIOD);
+    }
+
+    @Override
+    public StatementCurrencyPeriod getStatementCurrencyPeriod() {
+        return new StatementCurrencyPeriod(getStatementCurrency(), getStatementPeriod());
+    }
+
+    @Override
+    public String getClassOrCategory() {
+        return value(Uic301G4Field.CLASS_OR_CATEGORY);
+    }
+
+    @Override
+    public ClassOrCategory getClassOrCategoryValue() {
+        final String code = getClassOrCategory();
+        if (code == null || !ClassOrCategory.valid(code)) {
+            return null;
+        }
+        return ClassOrCategory.forCode(code);
+    }
+
+    public String getUnitPrice() {
+        return value(Uic301G4Field.UNIT_PRICE);
+    }
+
+    public BigDecimal getUnitPriceValue() {
+        return bigDecimalOf("unitPrice", getUnitPrice(), 2);
+    }
+
+    @Override
+    public String getTrainNumber() {
+        return value(Uic301G4Field.TRAIN_NUMBER);
+    }
+
+    @Override
+    public String getCoachNumber() {
+        return value(Uic301G4Field.COACH_NUMBER);
+    }
+
+    @Override
+    public String getDayOfTravel() {
+        return value(Uic301G4Field.DAY_OF_TRAVEL);
+    }
+
+    @Override
+    public String getDepartureLocationRU() {
+        return value(Uic301G4Field.DEPARTURE_LOCATION_RU);
+    }
+
+    @Override
+    public String getDepartureLocationStation() {
+        return value(Uic301G4Field.DEPARTURE_LOCATION_STATION);
+    }
+
+    public String getReserved2() {
+        return value(Uic301G4Field.RESERVED2);
+    }
+
+    @Override
+    public String getDestinationLocationRU() {
+        return value(Uic301G4Field.DESTINATION_LOCATION_RU);
+    }
+
+    @Override
+    public String getDestinationLocationStation() {
+        return value(Uic301G4Field.DESTINATION_LOCATION_STATION);
+    }
+
+    public String getReserved3() {
+        return value(Uic301G4Field.RESERVED3);
+    }
+
+    public String getReferenceNumber() {
+        return value(Uic301G4Field.REFERENCE_NUMBER);
+    }
+
+    public String getDialogueNumber() {
+        return value(Uic301G4Field.DIALOGUE_NUMBER);
+    }
+
+    @Override
+    public String getTransactionDate() {
+        return value(Uic301G4Field.TRANSACTION_DATE);
+    }
+
+    @Override
+    public String getNumberOfServices() {
+        return value(Uic301G4Field.NUMBER_OF_SERVICES);
+    }
+
+    @Override
+    public String getAdjustment() {
+        return value(Uic301G4Field.ADJUSTMENT);
+    }
+
+    @Override
+    public String getGrossAmountToBeDebited() {
+        return value(Uic301G4Field.GROSS_AMOUNT_TO_BE_DEBITED);
+    }
+
+    @Override
+    public BigDecimal getGrossAmountToBeDebitedValue() {
+        return bigDecimalOf("grossAmountToBeDebited", getGrossAmountToBeDebited(), 2);
+    }
+
+    @Override
+    public long getGrossAmountToBeDebitedCents() {
+        return centsOf("grossAmountToBeDebited", getGrossAmountToBeDebited());
+    }
+
+    @Override
+    public String getGrossAmountToBeCredited() {
+        return value(Uic301G4Field.GROSS_AMOUNT_TO_BE_CREDITED);
+    }
+
+    @Override
+    public BigDecimal getGrossAmountToBeCreditedValue() {
+        return bigDecimalOf("grossAmountToBeCredited", getGrossAmountToBeCredited(), 2);
+    }
+
+    @Override
+    public long getGrossAmountToBeCreditedCents() {
+        return centsOf("grossAmountToBeCredited", getGrossAmountToBeCredited());
+    }
+
+    @Override
+    public long getSummedGrossAmountToBeCreditedCents() {
+        return getGrossAmountToBeCreditedTheServiceProvidingRUCents();
+    }
+
+    @Override
+    public long getSummedGrossAmountToBeDebitedCents() {
+        return getGrossAmountToBeDebitedTheServiceProvidingRUCents();
+    }
+
+    public String getServiceProvidingRU() {
+        return value(Uic301G4Field.SERVICE_PROVIDING_RU);
+    }
+
+    public String getAfterSalesFeeSharePercentage() {
+        return value(Uic301G4Field.AFTER_SALES_FEE_SHARE_PERCENTAGE);
+    }
+
+    @Override
+    public String getTariffCode() {
+        return value(Uic301G4Field.TARIFF_CODE);
+    }
+
+    @Override
+    public String getTypeOfJourney() {
+        return value(Uic301G4Field.TYPE_OF_JOURNEY);
+    }
+
+    @Override
+    public JourneyType getTypeOfJourneyValue() {
+        final String code = getTypeOfJourney();
+        if (code == null || !JourneyType.valid(code)) {
+            return null;
+        }
+        return JourneyType.forCode(code);
+    }
+
+    @Override
+    public String getPrimaryRouteFirstSectionRU() {
+        return value(Uic301G4Field.PRIMARY_ROUTE_FIRST_SECTION_RU);
+    }
+
+    @Override
+    public String getPrimaryRouteFirstSectionSerialNo() {
+        return value(Uic301G4Field.PRIMARY_ROUTE_FIRST_SECTION_SERIAL_NO);
+    }
+
+    @Override
+    public String getPassengerCatergory() {
+        return value(Uic301G4Field.PASSENGER_CATERGORY);
+    }
+
+    @Override
+    public PassengerCatergory getPassengerCatergoryType() {
+        final String code = getPassengerCatergory();
+        if (code == null || !PassengerCatergory.valid(code)) {
+            return null;
+        }
+        return PassengerCatergory.forCode(code);
+    }
+
+    @Override
+    public String getAmountUnitShare() {
+        return value(Uic301G4Field.AMOUNT_UNIT_SHARE);
+    }
+
+    @Override
+    public BigDecimal getAmountUnitShareValue() {
+        return bigDecimalOf("amountUnitShare", getAmountUnitShare(), 2);
+    }
+
+    public String getGrossAmountToBeDebitedTheServiceProvidingRU() {
+        return value(Uic301G4Field.GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU);
+    }
+
+    public BigDecimal getGrossAmountToBeDebitedTheServiceProvidingRUValue() {
+        return bigDecimalOf("grossAmountToBeDebitedTheServiceProvidingRU", getGrossAmountToBeDebitedTheServiceProvidingRU(), 2);
+    }
+
+    public long getGrossAmountToBeDebitedTheServiceProvidingRUCents() {
+        return centsOf("grossAmountToBeDebitedTheServiceProvidingRU", getGrossAmountToBeDebitedTheServiceProvidingRU());
+    }
+
+    public String getGrossAmountToBeCreditedTheServiceProvidingRU() {
+        return value(Uic301G4Field.GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU);
+    }
+
+    public BigDecimal getGrossAmountToBeCreditedTheServiceProvidingRUValue() {
+        return bigDecimalOf("grossAmountToBeCreditedTheServiceProvidingRU", getGrossAmountToBeCreditedTheServiceProvidingRU(), 2);
+    }
+
+    public long getGrossAmountToBeCreditedTheServiceProvidingRUCents() {
+        return centsOf("grossAmountToBeCreditedTheServiceProvidingRU", getGrossAmountToBeCreditedTheServiceProvidingRU());
+    }
+
+    public String getPercentageCommissionRateOfServiceProvidingRU() {
+        return value(Uic301G4Field.PERCENTAGE_COMMISSION_RATE_OF_SERVICE_PROVIDING_RU);
+    }
+
+    public BigDecimal getPercentageCommissionRateOfServiceProvidingRUValue() {
+        return bigDecimalOf("percentageCommissionRateOfServiceProvidingRU", getPercentageCommissionRateOfServiceProvidingRU(), 2);
+    }
+
+    @Override
+    public String getAmountOfCommissionToBeDebitedTheServiceProvidingRU() {
+        return value(Uic301G4Field.AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU);
+    }
+
+    @Override
+    public BigDecimal getAmountOfCommissionToBeDebitedTheServiceProvidingRUValue() {
+        return bigDecimalOf("amountOfCommissionToBeDebitedTheServiceProvidingRU", getAmountOfCommissionToBeDebitedTheServiceProvidingRU(), 2);
+    }
+
+    @Override
+    public long getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents() {
+        return centsOf("amountOfCommissionToBeDebitedTheServiceProvidingRU", getAmountOfCommissionToBeDebitedTheServiceProvidingRU());
+    }
+
+    @Override
+    public String getAmountOfCommissionToBeCreditedTheServiceProvidingRU() {
+        return value(Uic301G4Field.AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU);
+    }
+
+    @Override
+    public BigDecimal getAmountOfCommissionToBeCreditedTheServiceProvidingRUValue() {
+        return bigDecimalOf("amountOfCommissionToBeCreditedTheServiceProvidingRU", getAmountOfCommissionToBeCreditedTheServiceProvidingRU(), 2);
+    }
+
+    @Override
+    public long getAmountOfCommissionToBeCreditedTheServiceProvidingRUCents() {
+        return centsOf("amountOfCommissionToBeCreditedTheServiceProvidingRU", getAmountOfCommissionToBeCreditedTheServiceProvidingRU());
+    }
+
+    public String getReserved4() {
+        return value(Uic301G4Field.RESERVED4);
+    }
+
+    @Override
+    public String getCountryCode() {
+        return value(Uic301G4Field.COUNTRY_CODE);
+    }
+
+    @Override
+    public String getServiceBrandCode() {
+        return value(Uic301G4Field.SERVICE_BRAND_CODE);
+    }
+
+    public final void setIdentifier(final String identifier) {
+        set(Uic301G4Field.IDENTIFIER, identifier);
+    }
+
+    @Override
+    public final void setRailUnionCompiling(final String railUnionCompiling) {
+        set(Uic301G4Field.RAIL_UNION_COMPILING, railUnionCompiling);
+    }
+
+    @Override
+    public final void setRailUnionReceiving(final String railUnionReceiving) {
+        set(Uic301G4Field.RAIL_UNION_RECEIVING, railUnionReceiving);
+    }
+
+    public final void setPeriod(final String period) {
+        set(Uic301G4Field.PERIOD, period);
+    }
+
+    public final void setReserved1(final String reserved1) {
+        set(Uic301G4Field.RESERVED1, reserved1);
+    }
+
+    public final void setTypeOfService(final String typeOfService) {
+        set(Uic301G4Field.TYPE_OF_SERVICE, typeOfService);
+    }
+
+    public final void setTypeOfTransaction(final String typeOfTransaction) {
+        set(Uic301G4Field.TYPE_OF_TRANSACTION, typeOfTransaction);
+    }
+
+    public final void setDistributionChannel(final String distributionChannel) {
+        set(Uic301G4Field.DISTRIBUTION_CHANNEL, distributionChannel);
+    }
+
+    public final void setCodeIssuingOffice(final String codeIssuingOffice) {
+        set(Uic301G4Field.CODE_ISSUING_OFFICE, codeIssuingOffice);
+    }
+
+    public final void setRequestingTerminalRU(final String requestingTerminalRU) {
+        set(Uic301G4Field.REQUESTING_TERMINAL_RU, requestingTerminalRU);
+    }
+
+    public final void setRequestingTerminalNo(final String requestingTerminalNo) {
+        set(Uic301G4Field.REQUESTING_TERMINAL_NO, requestingTerminalNo);
+    }
+
+    public final void setStatementCurrency(final String statementCurrency) {
+        set(Uic301G4Field.STATEMENT_CURRENCY, statementCurrency);
+    }
+
+    public final void setStatementPeriod(final String statementPeriod) {
+        set(Uic301G4Field.STATEMENT_PERIOD, statementPeriod);
+    }
+
+    public final void setClassOrCategory(final String classOrCategory) {
+        set(Uic301G4Field.CLASS_OR_CATEGORY, classOrCategory);
+    }
+
+    public final void setUnitPrice(final String unitPrice) {
+        set(Uic301G4Field.UNIT_PRICE, unitPrice);
+    }
+
+    public final void setTrainNumber(final String trainNumber) {
+        set(Uic301G4Field.TRAIN_NUMBER, trainNumber);
+    }
+
+    public final void setCoachNumber(final String coachNumber) {
+        set(Uic301G4Field.COACH_NUMBER, coachNumber);
+    }
+
+    public final void setDayOfTravel(final String dayOfTravel) {
+        set(Uic301G4Field.DAY_OF_TRAVEL, dayOfTravel);
+    }
+
+    @Override
+    public final void setDepartureLocationRU(final String departureLocationRU) {
+        set(Uic301G4Field.DEPARTURE_LOCATION_RU, departureLocationRU);
+    }
+
+    public final void setDepartureLocationStation(final String departureLocationStation) {
+        set(Uic301G4Field.DEPARTURE_LOCATION_STATION, departureLocationStation);
+    }
+
+    public final void setReserved2(final String reserved2) {
+        set(Uic301G4Field.RESERVED2, reserved2);
+    }
+
+    @Override
+    public final void setDestinationLocationRU(final String destinationLocationRU) {
+        set(Uic301G4Field.DESTINATION_LOCATION_RU, destinationLocationRU);
+    }
+
+    public final void setDestinationLocationStation(final String destinationLocationStation) {
+        set(Uic301G4Field.DESTINATION_LOCATION_STATION, destinationLocationStation);
+    }
+
+    public final void setReserved3(final String reserved3) {
+        set(Uic301G4Field.RESERVED3, reserved3);
+    }
+
+    public final void setReferenceNumber(final String referenceNumber) {
+        set(Uic301G4Field.REFERENCE_NUMBER, referenceNumber);
+    }
+
+    public final void setDialogueNumber(final String dialogueNumber) {
+        set(Uic301G4Field.DIALOGUE_NUMBER, dialogueNumber);
+    }
+
+    public final void setTransactionDate(final String transactionDate) {
+        set(Uic301G4Field.TRANSACTION_DATE, transactionDate);
+    }
+
+    public final void setNumberOfServices(final String numberOfServices) {
+        set(Uic301G4Field.NUMBER_OF_SERVICES, numberOfServices);
+    }
+
+    public final void setAdjustment(final String adjustment) {
+        set(Uic301G4Field.ADJUSTMENT, adjustment);
+    }
+
+    public final void setGrossAmountToBeDebited(final String grossAmountToBeDebited) {
+        set(Uic301G4Field.GROSS_AMOUNT_TO_BE_DEBITED, grossAmountToBeDebited);
+    }
+
+    public final void setGrossAmountToBeCredited(final String grossAmountToBeCredited) {
+        set(Uic301G4Field.GROSS_AMOUNT_TO_BE_CREDITED, grossAmountToBeCredited);
+    }
+
+    public final void setServiceProvidingRU(final String serviceProvidingRU) {
+        set(Uic301G4Field.SERVICE_PROVIDING_RU, serviceProvidingRU);
+    }
+
+    public final void setAfterSalesFeeSharePercentage(final String afterSalesFeeSharePercentage) {
+        set(Uic301G4Field.AFTER_SALES_FEE_SHARE_PERCENTAGE, afterSalesFeeSharePercentage);
+    }
+
+    public final void setTariffCode(final String tariffCode) {
+        set(Uic301G4Field.TARIFF_CODE, tariffCode);
+    }
+
+    public final void setTypeOfJourney(final String typeOfJourney) {
+        set(Uic301G4Field.TYPE_OF_JOURNEY, typeOfJourney);
+    }
+
+    @Override
+    public final void setPrimaryRouteFirstSectionRU(final String primaryRouteFirstSectionRU) {
+        set(Uic301G4Field.PRIMARY_ROUTE_FIRST_SECTION_RU, primaryRouteFirstSectionRU);
+    }
+
+    public final void setPrimaryRouteFirstSectionSerialNo(final String primaryRouteFirstSectionSerialNo) {
+        set(Uic301G4Field.PRIMARY_ROUTE_FIRST_SECTION_SERIAL_NO, primaryRouteFirstSectionSerialNo);
+    }
+
+    public final void setPassengerCatergory(final String passengerCatergory) {
+        set(Uic301G4Field.PASSENGER_CATERGORY, passengerCatergory);
+    }
+
+    public final void setAmountUnitShare(final String amountUnitShare) {
+        set(Uic301G4Field.AMOUNT_UNIT_SHARE, amountUnitShare);
+    }
+
+    public final void setGrossAmountToBeDebitedTheServiceProvidingRU(final String grossAmountToBeDebitedTheServiceProvidingRU) {
+        set(Uic301G4Field.GROSS_AMOUNT_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, grossAmountToBeDebitedTheServiceProvidingRU);
+    }
+
+    public final void setGrossAmountToBeCreditedTheServiceProvidingRU(final String grossAmountToBeCreditedTheServiceProvidingRU) {
+        set(Uic301G4Field.GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, grossAmountToBeCreditedTheServiceProvidingRU);
+    }
+
+    public final void setPercentageCommissionRateOfServiceProvidingRU(final String percentageCommissionRateOfServiceProvidingRU) {
+        set(Uic301G4Field.PERCENTAGE_COMMISSION_RATE_OF_SERVICE_PROVIDING_RU, percentageCommissionRateOfServiceProvidingRU);
+    }
+
+    public final void setAmountOfCommissionToBeDebitedTheServiceProvidingRU(final String amountOfCommissionToBeDebitedTheServiceProvidingRU) {
+        set(Uic301G4Field.AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, amountOfCommissionToBeDebitedTheServiceProvidingRU);
+    }
+
+    public final void setAmountOfCommissionToBeCreditedTheServiceProvidingRU(final String amountOfCommissionToBeCreditedTheServiceProvidingRU) {
+        set(Uic301G4Field.AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, amountOfCommissionToBeCreditedTheServiceProvidingRU);
+    }
+
+    public final void setReserved4(final String reserved4) {
+        set(Uic301G4Field.RESERVED4, reserved4);
+    }
+
+    public final void setCountryCode(final String countryCode) {
+        set(Uic301G4Field.COUNTRY_CODE, countryCode);
+    }
+
+    public final void setServiceBrandCode(final String serviceBrandCode) {
+        set(Uic301G4Field.SERVICE_BRAND_CODE, serviceBrandCode);
+    }
+
+    @Override
+    public void changePeriodCounter(final int i) {
+        put(Uic301G4Field.PERIOD, Uic301Utils.changePeriodCounter(getPeriod(), i));
+    }
+
+    @Override
+    public boolean isAmountMissing() {
+        return !(positive(getGrossAmountToBeCreditedValue()) || positive(getGrossAmountToBeDebitedValue())
+                || positive(getGrossAmountToBeCreditedTheServiceProvidingRUValue())
+                || positive(getGrossAmountToBeDebitedTheServiceProvidingRUValue()));
+    }
+
+    /**
+     * Creates a new compact detail from a line.
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     *
+     * @return Returns a new instance with the line.
+     */
+    public static Uic301G4LineDetail parse(final int no, final CharSequence line) {
+        if (!Uic301G4Detail.isDetail(line)) {
+            throw new IllegalArgumentException("# " + no + " is no G4 detail line: '" + line + "'");
+        }
+        return new Uic301G4LineDetail(line, no);
+    }
+
+}
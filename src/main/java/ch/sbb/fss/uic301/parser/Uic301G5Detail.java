@@ -1,6 +1,5 @@
 package ch.sbb.fss.uic301.parser;
 
-import static ch.sbb.fss.uic301.parser.Uic301Utils.bigDecimalOf;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -27,6 +26,7 @@ import ch.sbb.fss.uic301.parser.Date.DateStr;
 import ch.sbb.fss.uic301.parser.StatementPeriod.StatementPeriodStr;
 import ch.sbb.fss.uic301.parser.constraints.CurrencyStr;
 import ch.sbb.fss.uic301.parser.constraints.FixedLenDigitsStr;
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
 import ch.sbb.fss.uic301.parser.constraints.IdentifierStr;
 import ch.sbb.fss.uic301.parser.constraints.IsoCountryCodeStr;
 import ch.sbb.fss.uic301.parser.constraints.ReservedStr;
@@ -42,22 +42,58 @@ import ch.sbb.fss.uic301.parser.constraints.RicsCodeStr;
  * G5/Issues [NRT = Non (integrated) Reservation Ticket / RPT = Rail Pass
  * Ticket]<br>
  */
+@GenerateValidator
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlRootElement(name = Uic301G5Detail.TAG)
 public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     public static final String TAG = "detail-g5";
 
-    private static final String G5_ALLOCATIONS = "142210000";
+    static final String G5_ALLOCATIONS = "142210000";
 
     private static final String G5_ALLOCATIONS_DB = "145210000";
 
-    private static final String G5_ISSUES = "143210000";
+    static final String G5_ISSUES = "143210000";
+
+    private static final int AMOUNT_UNIT_SHARE = 0;
+
+    private static final int GROSS_AMOUNT_TO_BE_DEBITED = 1;
+
+    private static final int GROSS_AMOUNT_TO_BE_CREDITED = 2;
+
+    private static final int SERVICE_PROVIDING_RUS_COMMISSION_RATE = 3;
+
+    private static final int AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU = 4;
+
+    private static final int AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU = 5;
 
     private transient boolean sealed = false;
 
+    /** Amounts converted by {@link #seal()}. */
+    private transient DecodedAmounts amounts = DecodedAmounts.NONE;
+
+    private transient Uic301Type identifierType;
+
+    private transient ServiceType typeOfServiceValue;
+
+    private transient TransactionType typeOfTransactionValue;
+
+    private transient DistributionChannel distributionChannelType;
+
+    private transient StatementCurrencyPeriod statementCurrencyPeriod;
+
+    private transient JourneyType typeOfJourneyValue;
+
+    private transient ClassOrCategory classOrCategoryValue;
+
+    private transient IssueAllocationIdentifier typeIdentifierValue;
+
+    private transient PassengerCatergory passengerCatergoryType;
+
     private transient List<String> sealedAttributes = new ArrayList<String>();
 
+    private transient Uic301FieldProjection projection;
+
     @XmlAttribute(name = "errorCount")
     private Integer errorCount;
 
@@ -851,11 +887,12 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public Uic301Type getIdentifierType() {
-        if (G5_ALLOCATIONS.equals(identifier)) {
-            return Uic301Type.G5_ALLOCATION;
+        if (identifierType != null) {
+            return identifierType;
         }
-        if (G5_ISSUES.equals(identifier)) {
-            return Uic301Type.G5_ISSUE;
+        final Uic301RecordType recordType = Uic301RecordType.of(identifier);
+        if (recordType != null && recordType.isDetail() && !recordType.isDb() && recordType.getType() != Uic301Type.G4) {
+            return recordType.getType();
         }
         throw new IllegalStateException("Identifier is unknown: " + identifier);
     }
@@ -891,6 +928,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public ServiceType getTypeOfServiceValue() {
+        if (typeOfServiceValue != null) {
+            return typeOfServiceValue;
+        }
         if (typeOfService == null) {
             return null;
         }
@@ -907,6 +947,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public TransactionType getTypeOfTransactionValue() {
+        if (typeOfTransactionValue != null) {
+            return typeOfTransactionValue;
+        }
         if (typeOfTransaction == null) {
             return null;
         }
@@ -923,6 +966,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public DistributionChannel getDistributionChannelType() {
+        if (distributionChannelType != null) {
+            return distributionChannelType;
+        }
         if (distributionChannel == null) {
             return null;
         }
@@ -963,6 +1009,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public StatementCurrencyPeriod getStatementCurrencyPeriod() {
+        if (statementCurrencyPeriod != null) {
+            return statementCurrencyPeriod;
+        }
         return new StatementCurrencyPeriod(statementCurrency, statementPeriod);
     }
 
@@ -978,6 +1027,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public JourneyType getTypeOfJourneyValue() {
+        if (typeOfJourneyValue != null) {
+            return typeOfJourneyValue;
+        }
         if (typeOfJourney == null) {
             return null;
         }
@@ -994,6 +1046,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public ClassOrCategory getClassOrCategoryValue() {
+        if (classOrCategoryValue != null) {
+            return classOrCategoryValue;
+        }
         if (classOrCategory == null) {
             return null;
         }
@@ -1010,7 +1065,7 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getAmountUnitShareValue() {
-        return bigDecimalOf("amountUnitShare", amountUnitShare, 2);
+        return amounts.value(AMOUNT_UNIT_SHARE, "amountUnitShare", amountUnitShare);
     }
 
     @Override
@@ -1064,6 +1119,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
      *         enum, else the corresponding enum.
      */
     public IssueAllocationIdentifier getTypeIdentifierValue() {
+        if (typeIdentifierValue != null) {
+            return typeIdentifierValue;
+        }
         if (typeIdentifier == null) {
             return null;
         }
@@ -1103,7 +1161,12 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getGrossAmountToBeDebitedValue() {
-        return bigDecimalOf("grossAmountToBeDebited", grossAmountToBeDebited, 2);
+        return amounts.value(GROSS_AMOUNT_TO_BE_DEBITED, "grossAmountToBeDebited", grossAmountToBeDebited);
+    }
+
+    @Override
+    public long getGrossAmountToBeDebitedCents() {
+        return amounts.cents(GROSS_AMOUNT_TO_BE_DEBITED, "grossAmountToBeDebited", grossAmountToBeDebited);
     }
 
     @Override
@@ -1113,9 +1176,24 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getGrossAmountToBeCreditedValue() {
-        return bigDecimalOf("grossAmountToBeCredited", grossAmountToBeCredited, 2);
+        return amounts.value(GROSS_AMOUNT_TO_BE_CREDITED, "grossAmountToBeCredited", grossAmountToBeCredited);
     }
 
+    @Override
+    public long getGrossAmountToBeCreditedCents() {
+        return amounts.cents(GROSS_AMOUNT_TO_BE_CREDITED, "grossAmountToBeCredited", grossAmountToBeCredited);
+    }
+
+    @Override
+    public long getSummedGrossAmountToBeCreditedCents() {
+        return getGrossAmountToBeCreditedCents();
+    }
+
+    @Override
+    public long getSummedGrossAmountToBeDebitedCents() {
+        return getGrossAmountToBeDebitedCents();
+    }
+
     public String getAfterSalesPercentageFee() {
         return afterSalesPercentageFee;
     }
@@ -1141,6 +1219,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public PassengerCatergory getPassengerCatergoryType() {
+        if (passengerCatergoryType != null) {
+            return passengerCatergoryType;
+        }
         if (passengerCatergory == null) {
             return null;
         }
@@ -1155,7 +1236,7 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
     }
 
     public BigDecimal getServiceProvidingRUsCommissionRateValue() {
-        return bigDecimalOf("serviceProvidingRUsCommissionRate", serviceProvidingRUsCommissionRate, 2);
+        return amounts.value(SERVICE_PROVIDING_RUS_COMMISSION_RATE, "serviceProvidingRUsCommissionRate", serviceProvidingRUsCommissionRate);
     }
 
     @Override
@@ -1165,18 +1246,27 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
 
     @Override
     public BigDecimal getAmountOfCommissionToBeDebitedTheServiceProvidingRUValue() {
-        return bigDecimalOf("amountOfCommissionToBeDebitedTheServiceProvidingRU",
-                amountOfCommissionToBeDebitedTheServiceProvidingRU, 2);
+        return amounts.value(AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeDebitedTheServiceProvidingRU", amountOfCommissionToBeDebitedTheServiceProvidingRU);
     }
 
+    @Override
+    public long getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents() {
+        return amounts.cents(AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeDebitedTheServiceProvidingRU", amountOfCommissionToBeDebitedTheServiceProvidingRU);
+    }
+
+    @Override
     public String getAmountOfCommissionToBeCreditedTheServiceProvidingRU() {
         return amountOfCommissionToBeCreditedTheServiceProvidingRU;
     }
 
     @Override
     public BigDecimal getAmountOfCommissionToBeCreditedTheServiceProvidingRUValue() {
-        return bigDecimalOf("amountOfCommissionToBeCreditedTheServiceProvidingRU",
-                amountOfCommissionToBeCreditedTheServiceProvidingRU, 2);
+        return amounts.value(AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeCreditedTheServiceProvidingRU", amountOfCommissionToBeCreditedTheServiceProvidingRU);
+    }
+
+    @Override
+    public long getAmountOfCommissionToBeCreditedTheServiceProvidingRUCents() {
+        return amounts.cents(AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU, "amountOfCommissionToBeCreditedTheServiceProvidingRU", amountOfCommissionToBeCreditedTheServiceProvidingRU);
     }
 
     public String getPrimaryRouteSecondSectionRU() {
@@ -1415,6 +1505,27 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
         this.primaryRouteSecondSectionSerialNo = primaryRouteSecondSectionSerialNo;
     }
 
+    /**
+     * Returns the values of all fields.
+     * 
+     * @return Values in the order of {@link Uic301G5Field}.
+     */
+    final String[] values() {
+        return new String[] { getIdentifier(), getRailUnionCompiling(), getRailUnionReceiving(), getPeriod(),
+                getReserved1(), getTypeOfService(), getTypeOfTransaction(), getDistributionChannel(),
+                getCodeIssuingOffice(), getReserved2(), getCountryCode(), getServiceBrandCode(), getStatementCurrency(),
+                getStatementPeriod(), getTariffCode(), getTypeOfJourney(), getClassOrCategory(), getAmountUnitShare(),
+                getTrainNumber(), getCoachNumber(), getDayOfTravel(), getDepartureLocationRU(),
+                getDepartureLocationStation(), getReserved3(), getDestinationLocationRU(),
+                getDestinationLocationStation(), getTypeIdentifier(), getNumberIdentifiers(), getDialogueNumber(),
+                getTransactionDate(), getNumberOfServices(), getAdjustment(), getGrossAmountToBeDebited(),
+                getGrossAmountToBeCredited(), getAfterSalesPercentageFee(), getTransactionRU(),
+                getPrimaryRouteFirstSectionRU(), getPrimaryRouteFirstSectionSerialNo(), getPassengerCatergory(),
+                getServiceProvidingRUsCommissionRate(), getAmountOfCommissionToBeDebitedTheServiceProvidingRU(),
+                getAmountOfCommissionToBeCreditedTheServiceProvidingRU(), getPrimaryRouteSecondSectionRU(),
+                getPrimaryRouteSecondSectionSerialNo() };
+    }
+
     @Override
     public void changePeriodCounter(int i) {
         this.period = Uic301Utils.changePeriodCounter(this.period, i);
@@ -1827,7 +1938,7 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
     @Override
     public void validate(@NotNull final Validator validator) {
         assertNotSealed();
-        final List<FieldError> list = Uic301Utils.validate(validator, this);
+        final List<FieldError> list = retainParsed(Uic301Utils.validate(validator, this));
         if (list.size() == 0) {
             errorCount = null;
         } else {
@@ -1836,6 +1947,19 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
         }
     }
 
+    /**
+     * Sets the errors found by validating an instance with the same values
+     * (Used for transferring the errors of a {@link Uic301LineDetail}).
+     * 
+     * @param list
+     *            Errors to set - Never <code>null</code> or empty.
+     */
+    void assignErrors(@NotNull final List<FieldError> list) {
+        assertNotSealed();
+        errors = list;
+        errorCount = errors.size();
+    }
+
     /**
      * Returns a number of errors.
      * 
@@ -1865,10 +1989,52 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
     @Override
     public void seal() {
         if (!sealed) {
+            decode();
             sealed = true;
         }
     }
 
+    /**
+     * Converts the typed values once, so the getters don't need to parse the
+     * strings again after sealing. Values that cannot be converted are still
+     * converted on every call.
+     */
+    private void decode() {
+        if (G5_ALLOCATIONS.equals(identifier) || G5_ISSUES.equals(identifier)) {
+            identifierType = getIdentifierType();
+        }
+        typeOfServiceValue = getTypeOfServiceValue();
+        typeOfTransactionValue = getTypeOfTransactionValue();
+        distributionChannelType = getDistributionChannelType();
+        statementCurrencyPeriod = getStatementCurrencyPeriod();
+        typeOfJourneyValue = getTypeOfJourneyValue();
+        classOrCategoryValue = getClassOrCategoryValue();
+        typeIdentifierValue = getTypeIdentifierValue();
+        passengerCatergoryType = getPassengerCatergoryType();
+        amounts = new DecodedAmounts(amountUnitShare,
+                grossAmountToBeDebited,
+                grossAmountToBeCredited,
+                serviceProvidingRUsCommissionRate,
+                amountOfCommissionToBeDebitedTheServiceProvidingRU,
+                amountOfCommissionToBeCreditedTheServiceProvidingRU);
+    }
+
+    /**
+     * Returns the fields that were parsed.
+     * 
+     * @return Projection or <code>null</code> if all fields were parsed.
+     */
+    public Uic301FieldProjection getProjection() {
+        return projection;
+    }
+
+    private List<FieldError> retainParsed(final List<FieldError> list) {
+        if (projection == null) {
+            return list;
+        }
+        return projection.retainParsed(Uic301G5Field.class, list);
+    }
+
     @Override
     public boolean isSealed() {
         return sealed;
@@ -1938,70 +2104,120 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
      * @throws Uic301Exception
      *             Parsing the detail failed.
      */
-    public static Uic301G5Detail parse(final int no, final String line) throws Uic301Exception {
+    public static Uic301G5Detail parse(final int no, final CharSequence line) throws Uic301Exception {
+        return parse(no, line, null);
+    }
+
+    /**
+     * Creates a new detail line by parsing a string and takes repeating
+     * values from a dictionary.
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     * @param dictionary
+     *            Dictionary for the field values or <code>null</code> if
+     *            every value is a new string.
+     *
+     * @return Returns a new instance with the parsed data.
+     * 
+     * @throws Uic301Exception
+     *             Parsing the detail failed.
+     */
+    public static Uic301G5Detail parse(final int no, final CharSequence line, final Uic301FieldDictionary dictionary)
+            throws Uic301Exception {
+        return parse(no, line, dictionary, null);
+    }
+
+    /**
+     * Creates a new detail line by parsing only the fields of a projection.
+     * All other fields are <code>null</code>.
+     * 
+     * @param no
+     *            Line number.
+     * @param line
+     *            Line to parse.
+     * @param dictionary
+     *            Dictionary for the field values or <code>null</code> if
+     *            every value is a new string.
+     * @param projection
+     *            Fields to parse or <code>null</code> to parse all fields.
+     *
+     * @return Returns a new instance with the parsed data.
+     * 
+     * @throws Uic301Exception
+     *             Parsing the detail failed.
+     */
+    public static Uic301G5Detail parse(final int no, final CharSequence line, final Uic301FieldDictionary dictionary,
+            final Uic301FieldProjection projection) throws Uic301Exception {
         if (!isDetail(line)) {
             throw new IllegalArgumentException("# " + no + " is no G5 detail line: '" + line + "'");
         }
 
-        final SubString subStr = new SubString(line);
-        final String identifier = subStr.next("identifier", 9);
-        final String railUnionCompiling = subStr.next("railUnionCompiling", 4);
-        final String railUnionReceiving = subStr.next("railUnionReceiving", 4);
-        final String period = subStr.next("period", 6);
-        final String reserved1 = subStr.next("reserved1", 1);
-        final String typeOfService = subStr.next("typeOfService", 2);
-        final String typeofTransaction = subStr.next("typeofTransaction", 1);
-        final String distributionChannel = subStr.next("distributionChannel", 1);
-        final String codeIssuingOffice = subStr.next("codeIssuingOffice", 5);
-        final String reserve1 = subStr.next("reserve1", 1);
-        final String countryCode = subStr.next("countryCode", 2);
-        final String serviceBrandCode = subStr.next("serviceBrandCode", 4);
-        final String statementCurrency = subStr.next("statementCurrency", 3);
-        final String statementPeriod = subStr.next("statementPeriod", 2);
-        final String tariffCode = subStr.next("tariffCode", 5);
-        final String typeOfJourney = subStr.next("typeOfJourney", 1);
-        final String classOrCategory = subStr.next("classOrCategory", 3);
-        final String amountUnitShare = subStr.next("amountUnitShare", 8);
-        final String trainNumber = subStr.next("trainNumber", 5);
-        final String coachNumber = subStr.next("coachNumber", 3);
-        final String dayOfTravel = subStr.next("dayOfTravel", 6);
-        final String departureLocationRU = subStr.next("departureLocationRU", 4);
-        final String departureLocationStation = subStr.next("departureLocationStation", 5);
-        final String reserved2 = subStr.next("reserved2", 1);
-        final String destinationLocationRU = subStr.next("destinationLocationRU", 4);
-        final String destinationLocationStation = subStr.next("destinationLocationStation", 5);
-        final String typeIdentifier = subStr.next("typeIdentifier", 1);
-        final String numberIdentifiers = subStr.next("numberIdentifiers", 14);
-        final String dialogueNumber = subStr.next("dialogueNumber", 5);
-        final String transactionDate = subStr.next("transactionDate", 6);
-        final String numberOfServices = subStr.next("numberOfServices", 5);
-        final String adjustment = subStr.next("adjustment", 1);
-        final String grossAmountToBeDebited = subStr.next("grossAmountToBeDebited", 10);
-        final String grossAmountToBeCredited = subStr.next("grossAmountToBeCredited", 10);
-        final String afterSalesPercentageFee = subStr.next("afterSalesPercentageFee", 2);
-        final String transactionRU = subStr.next("transactionRU", 4);
-        final String primaryRouteFirstSectionRU = subStr.next("primaryRouteFirstSectionRU", 4);
-        final String primaryRouteFirstSectionSerialNo = subStr.next("primaryRouteFirstSectionSerialNo", 5);
-        final String passengerCatergory = subStr.next("passengerCatergory", 2);
-        final String serviceProvidingRUsCommissionRate = subStr.next("serviceProvidingRUsCommissionRate", 4);
-        final String amountOfCommissionToBeDebitedTheServiceProvidingRU = subStr
-                .next("amountOfCommissionToBeDebitedTheServiceProvidingRU", 10);
-        final String amountOfCommissionToBeCreditedTheServiceProvidingRU = subStr
-                .next("amountOfCommissionToBeCreditedTheServiceProvidingRU", 10);
-        final String primaryRouteSecondSectionRU = subStr.next("primaryRouteSecondSectionRU", 4);
-        final String primaryRouteSecondSectionSerialNo = subStr.next("primaryRouteSecondSectionSerialNo", 5);
-
-        return new Uic301G5Detail(identifier, railUnionCompiling, railUnionReceiving, period, reserved1,
-                typeOfService, typeofTransaction, distributionChannel, codeIssuingOffice, reserve1, countryCode,
-                serviceBrandCode, statementCurrency, statementPeriod, tariffCode, typeOfJourney, classOrCategory,
-                amountUnitShare, trainNumber, coachNumber, dayOfTravel, departureLocationRU,
-                departureLocationStation, reserved2, destinationLocationRU, destinationLocationStation,
-                typeIdentifier, numberIdentifiers, dialogueNumber, transactionDate, numberOfServices, adjustment,
-                grossAmountToBeDebited, grossAmountToBeCredited, afterSalesPercentageFee, transactionRU,
-                primaryRouteFirstSectionRU, primaryRouteFirstSectionSerialNo, passengerCatergory,
-                serviceProvidingRUsCommissionRate, amountOfCommissionToBeDebitedTheServiceProvidingRU,
-                amountOfCommissionToBeCreditedTheServiceProvidingRU, primaryRouteSecondSectionRU,
-                primaryRouteSecondSectionSerialNo, no);
+        final FieldCursor cursor = new FieldCursor(line, Uic301G5Field.list(), dictionary, projection);
+        try {
+            final String identifier = cursor.next();
+            final String railUnionCompiling = cursor.next();
+            final String railUnionReceiving = cursor.next();
+            final String period = cursor.next();
+            final String reserved1 = cursor.next();
+            final String typeOfService = cursor.next();
+            final String typeofTransaction = cursor.next();
+            final String distributionChannel = cursor.next();
+            final String codeIssuingOffice = cursor.next();
+            final String reserve1 = cursor.next();
+            final String countryCode = cursor.next();
+            final String serviceBrandCode = cursor.next();
+            final String statementCurrency = cursor.next();
+            final String statementPeriod = cursor.next();
+            final String tariffCode = cursor.next();
+            final String typeOfJourney = cursor.next();
+            final String classOrCategory = cursor.next();
+            final String amountUnitShare = cursor.next();
+            final String trainNumber = cursor.next();
+            final String coachNumber = cursor.next();
+            final String dayOfTravel = cursor.next();
+            final String departureLocationRU = cursor.next();
+            final String departureLocationStation = cursor.next();
+            final String reserved2 = cursor.next();
+            final String destinationLocationRU = cursor.next();
+            final String destinationLocationStation = cursor.next();
+            final String typeIdentifier = cursor.next();
+            final String numberIdentifiers = cursor.next();
+            final String dialogueNumber = cursor.next();
+            final String transactionDate = cursor.next();
+            final String numberOfServices = cursor.next();
+            final String adjustment = cursor.next();
+            final String grossAmountToBeDebited = cursor.next();
+            final String grossAmountToBeCredited = cursor.next();
+            final String afterSalesPercentageFee = cursor.next();
+            final String transactionRU = cursor.next();
+            final String primaryRouteFirstSectionRU = cursor.next();
+            final String primaryRouteFirstSectionSerialNo = cursor.next();
+            final String passengerCatergory = cursor.next();
+            final String serviceProvidingRUsCommissionRate = cursor.next();
+            final String amountOfCommissionToBeDebitedTheServiceProvidingRU = cursor.next();
+            final String amountOfCommissionToBeCreditedTheServiceProvidingRU = cursor.next();
+            final String primaryRouteSecondSectionRU = cursor.next();
+            final String primaryRouteSecondSectionSerialNo = cursor.next();
+
+            final Uic301G5Detail detail = new Uic301G5Detail(identifier, railUnionCompiling, railUnionReceiving, period, reserved1,
+                    typeOfService, typeofTransaction, distributionChannel, codeIssuingOffice, reserve1, countryCode,
+                    serviceBrandCode, statementCurrency, statementPeriod, tariffCode, typeOfJourney, classOrCategory,
+                    amountUnitShare, trainNumber, coachNumber, dayOfTravel, departureLocationRU,
+                    departureLocationStation, reserved2, destinationLocationRU, destinationLocationStation,
+                    typeIdentifier, numberIdentifiers, dialogueNumber, transactionDate, numberOfServices, adjustment,
+                    grossAmountToBeDebited, grossAmountToBeCredited, afterSalesPercentageFee, transactionRU,
+                    primaryRouteFirstSectionRU, primaryRouteFirstSectionSerialNo, passengerCatergory,
+                    serviceProvidingRUsCommissionRate, amountOfCommissionToBeDebitedTheServiceProvidingRU,
+                    amountOfCommissionToBeCreditedTheServiceProvidingRU, primaryRouteSecondSectionRU,
+                    primaryRouteSecondSectionSerialNo, no);
+            detail.projection = projection;
+            return detail;
+        } catch (final RuntimeException ex) {
+            throw new IllegalArgumentException("# " + no + " failed to parse G5 detail line: " + cursor.getTrace(), ex);
+        }
 
     }
 
@@ -2013,9 +2229,9 @@ public final class Uic301G5Detail implements Uic301Detail, Sealable {
      * 
      * @return True if the line starts with a G4 detail identifier.
      */
-    public static boolean isDetail(final String line) {
-        return line != null && (line.startsWith(G5_ALLOCATIONS) || line.startsWith(G5_ALLOCATIONS_DB)
-                || line.startsWith(G5_ISSUES));
+    public static boolean isDetail(final CharSequence line) {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        return recordType != null && recordType.isDetail() && recordType.getType() != Uic301Type.G4;
     }
 
 }
@@ -0,0 +1,194 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed width fields of a {@link Uic301G5Detail} line in the order they appear in
+ * the line.
+ */
+public enum Uic301G5Field implements Uic301Field {
+
+    /** Identifier ('_1'). */
+    IDENTIFIER("identifier", "_1", 0, 9),
+
+    /** Rail union compiling ('_2'). */
+    RAIL_UNION_COMPILING("railUnionCompiling", "_2", 9, 4),
+
+    /** Rail union receiving ('_3'). */
+    RAIL_UNION_RECEIVING("railUnionReceiving", "_3", 13, 4),
+
+    /** Period ('_4'). */
+    PERIOD("period", "_4", 17, 6),
+
+    /** Reserved 1 ('_5'). */
+    RESERVED1("reserved1", "_5", 23, 1),
+
+    /** Type of service ('_6'). */
+    TYPE_OF_SERVICE("typeOfService", "_6", 24, 2),
+
+    /** Type of transaction ('_7'). */
+    TYPE_OF_TRANSACTION("typeOfTransaction", "_7", 26, 1),
+
+    /** Distribution channel ('_8'). */
+    DISTRIBUTION_CHANNEL("distributionChannel", "_8", 27, 1),
+
+    /** Code issuing office ('_9'). */
+    CODE_ISSUING_OFFICE("codeIssuingOffice", "_9", 28, 5),
+
+    /** Reserved 2 ('_10a'). */
+    RESERVED2("reserved2", "_10a", 33, 1),
+
+    /** Country code ('_10b'). */
+    COUNTRY_CODE("countryCode", "_10b", 34, 2),
+
+    /** Service brand code ('_10c'). */
+    SERVICE_BRAND_CODE("serviceBrandCode", "_10c", 36, 4),
+
+    /** Statement currency ('_11-1'). */
+    STATEMENT_CURRENCY("statementCurrency", "_11-1", 40, 3),
+
+    /** Statement period ('_11-2'). */
+    STATEMENT_PERIOD("statementPeriod", "_11-2", 43, 2),
+
+    /** Tariff code ('_12'). */
+    TARIFF_CODE("tariffCode", "_12", 45, 5),
+
+    /** Type of journey ('_13'). */
+    TYPE_OF_JOURNEY("typeOfJourney", "_13", 50, 1),
+
+    /** Class or category ('_14'). */
+    CLASS_OR_CATEGORY("classOrCategory", "_14", 51, 3),
+
+    /** Amount unit share ('_15'). */
+    AMOUNT_UNIT_SHARE("amountUnitShare", "_15", 54, 8),
+
+    /** Train number ('_16'). */
+    TRAIN_NUMBER("trainNumber", "_16", 62, 5),
+
+    /** Coach number ('_17'). */
+    COACH_NUMBER("coachNumber", "_17", 67, 3),
+
+    /** Day of travel ('_18'). */
+    DAY_OF_TRAVEL("dayOfTravel", "_18", 70, 6),
+
+    /** Departure location RU ('_19-1'). */
+    DEPARTURE_LOCATION_RU("departureLocationRU", "_19-1", 76, 4),
+
+    /** Departure location station ('_19-2'). */
+    DEPARTURE_LOCATION_STATION("departureLocationStation", "_19-2", 80, 5),
+
+    /** Reserved 3 ('_20'). */
+    RESERVED3("reserved3", "_20", 85, 1),
+
+    /** Destination location RU ('_21-1'). */
+    DESTINATION_LOCATION_RU("destinationLocationRU", "_21-1", 86, 4),
+
+    /** Destination location station ('_21-2'). */
+    DESTINATION_LOCATION_STATION("destinationLocationStation", "_21-2", 90, 5),
+
+    /** Type identifier ('_22'). */
+    TYPE_IDENTIFIER("typeIdentifier", "_22", 95, 1),
+
+    /** Number identifiers ('_23'). */
+    NUMBER_IDENTIFIERS("numberIdentifiers", "_23", 96, 14),
+
+    /** Dialogue number ('_24'). */
+    DIALOGUE_NUMBER("dialogueNumber", "_24", 110, 5),
+
+    /** Transaction date ('_25'). */
+    TRANSACTION_DATE("transactionDate", "_25", 115, 6),
+
+    /** Number of services ('_26'). */
+    NUMBER_OF_SERVICES("numberOfServices", "_26", 121, 5),
+
+    /** Adjustment ('_27'). */
+    ADJUSTMENT("adjustment", "_27", 126, 1),
+
+    /** Gross amount to be debited ('_28'). */
+    GROSS_AMOUNT_TO_BE_DEBITED("grossAmountToBeDebited", "_28", 127, 10),
+
+    /** Gross amount to be credited ('_29'). */
+    GROSS_AMOUNT_TO_BE_CREDITED("grossAmountToBeCredited", "_29", 137, 10),
+
+    /** After sales percentage fee ('_30'). */
+    AFTER_SALES_PERCENTAGE_FEE("afterSalesPercentageFee", "_30", 147, 2),
+
+    /** Transaction RU ('_31'). */
+    TRANSACTION_RU("transactionRU", "_31", 149, 4),
+
+    /** Primary route first section RU ('_32-1'). */
+    PRIMARY_ROUTE_FIRST_SECTION_RU("primaryRouteFirstSectionRU", "_32-1", 153, 4),
+
+    /** Primary route first section serial no ('_32-2'). */
+    PRIMARY_ROUTE_FIRST_SECTION_SERIAL_NO("primaryRouteFirstSectionSerialNo", "_32-2", 157, 5),
+
+    /** Passenger catergory ('_33'). */
+    PASSENGER_CATERGORY("passengerCatergory", "_33", 162, 2),
+
+    /** Service providing RUs commission rate ('_34'). */
+    SERVICE_PROVIDING_RUS_COMMISSION_RATE("serviceProvidingRUsCommissionRate", "_34", 164, 4),
+
+    /** Amount of commission to be debited the service providing RU ('_35'). */
+    AMOUNT_OF_COMMISSION_TO_BE_DEBITED_THE_SERVICE_PROVIDING_RU("amountOfCommissionToBeDebitedTheServiceProvidingRU", "_35", 168, 10),
+
+    /** Amount of commission to be credited the service providing RU ('_36'). */
+    AMOUNT_OF_COMMISSION_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU("amountOfCommissionToBeCreditedTheServiceProvidingRU", "_36", 178, 10),
+
+    /** Primary route second section RU ('_37-1'). */
+    PRIMARY_ROUTE_SECOND_SECTION_RU("primaryRouteSecondSectionRU", "_37-1", 188, 4),
+
+    /** Primary route second section serial no ('_37-2'). */
+    PRIMARY_ROUTE_SECOND_SECTION_SERIAL_NO("primaryRouteSecondSectionSerialNo", "_37-2", 192, 5);
+
+    /** Number of characters of a complete line. */
+    public static final int LINE_LENGTH = 197;
+
+    private static final List<Uic301G5Field> LIST = Collections.unmodifiableList(Arrays.asList(values()));
+
+    private final String name;
+
+    private final String xmlName;
+
+    private final int offset;
+
+    private final int length;
+
+    private Uic301G5Field(final String name, final String xmlName, final int offset, final int length) {
+        this.name = name;
+        this.xmlName = xmlName;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public final String getName() {
+        return name;
+    }
+
+    @Override
+    public final String getXmlName() {
+        return xmlName;
+    }
+
+    @Override
+    public final int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public final int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns all fields in the order they appear in the line.
+     * 
+     * @return Unmodifiable list of fields.
+     */
+    public static List<Uic301G5Field> list() {
+        return LIST;
+    }
+
+}
@@ -5,6 +5,7 @@ import static ch.sbb.fss.uic301.parser.Uic301Utils.integerOf;
 import java.text.DecimalFormat;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
@@ -19,6 +20,7 @@ import org.apache.commons.lang3.math.NumberUtils;
 
 import ch.sbb.fss.uic301.parser.StatementPeriod.StatementPeriodStr;
 import ch.sbb.fss.uic301.parser.constraints.FixedLenDigitsStr;
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
 import ch.sbb.fss.uic301.parser.constraints.IdentifierStr;
 import ch.sbb.fss.uic301.parser.constraints.RicsCodeStr;
 
@@ -28,6 +30,7 @@ import ch.sbb.fss.uic301.parser.constraints.RicsCodeStr;
  * This is a value object and so equals and has code are based on the values of
  * all fields.
  */
+@GenerateValidator
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlRootElement(name = Uic301Header.TAG)
 public final class Uic301Header implements Sealable, Uic301DocumentItem {
@@ -46,6 +49,14 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
 
     private transient boolean sealed = false;
 
+    private transient Uic301Type identifierType;
+
+    private transient StatementPeriod periodType;
+
+    private transient Integer noOfDetailPhrasesValue;
+
+    private transient Integer noOfTotalPhrasesValue;
+
     @XmlAttribute(name = "errorCount")
     private Integer errorCount;
 
@@ -151,17 +162,15 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
      * @return Identifier type.
      */
     public Uic301Type getIdentifierType() {
+        if (identifierType != null) {
+            return identifierType;
+        }
         if (identifier == null) {
             return null;
         }
-        if (G4.equals(identifier) || G4_DB.equals(identifier)) {
-            return Uic301Type.G4;
-        }
-        if (G5_ALLOCATION.equals(identifier) || G5_ALLOCATION_DB.equals(identifier)) {
-            return Uic301Type.G5_ALLOCATION;
-        }
-        if (G5_ISSUES.equals(identifier)) {
-            return Uic301Type.G5_ISSUE;
+        final Uic301RecordType recordType = Uic301RecordType.of(identifier);
+        if (recordType != null && recordType.isHeader()) {
+            return recordType.getType();
         }
         throw new IllegalArgumentException("Unknown identifier type: '" + identifier + "'");
     }
@@ -194,6 +203,9 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
      * @return Statement period.
      */
     public StatementPeriod getPeriodType() {
+        if (periodType != null) {
+            return periodType;
+        }
         if (period == null) {
             return null;
         }
@@ -235,6 +247,9 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
     }
 
     public Integer getNoOfDetailPhrasesValue() {
+        if (noOfDetailPhrasesValue != null) {
+            return noOfDetailPhrasesValue;
+        }
         if (noOfDetailPhrases == null) {
             return null;
         }
@@ -264,6 +279,9 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
     }
 
     public Integer getNoOfTotalPhrasesValue() {
+        if (noOfTotalPhrasesValue != null) {
+            return noOfTotalPhrasesValue;
+        }
         if (noOfTotalPhrases == null) {
             return null;
         }
@@ -301,9 +319,22 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
         this.railUnionReceiving = railUnionReceiving;
     }
     
+    /**
+     * Returns the values of all fields.
+     * 
+     * @return Values in the order of {@link Uic301HeaderField}.
+     */
+    final String[] values() {
+        return new String[] { getIdentifier(), getRailUnionCompiling(), getRailUnionReceiving(), getPeriod(),
+                getNoOfDetailPhrases(), getNoOfTotalPhrases() };
+    }
+
     @Override
     public void changePeriodCounter(int i) {
         this.period = Uic301Utils.changePeriodCounter(this.period, i);
+        if (sealed) {
+            decode();
+        }
     }
 
     @Override
@@ -412,6 +443,19 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
         }
     }
 
+    /**
+     * Sets the errors of a header that was read from a binary file (See
+     * {@link Uic301BinaryWriter}).
+     * 
+     * @param list
+     *            Errors to set - Never <code>null</code> or empty.
+     */
+    void assignErrors(@NotNull final List<FieldError> list) {
+        assertNotSealed();
+        errors = list;
+        errorCount = errors.size();
+    }
+
     /**
      * Returns a number of errors.
      * 
@@ -445,14 +489,42 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
     @Override
     public void seal() {
         if (!sealed) {
+            decode();
             sealed = true;
         }
     }
+
+    /**
+     * Converts the typed values once, so the getters don't need to parse the
+     * strings again after sealing. Values that cannot be converted are still
+     * converted on every call.
+     */
+    private void decode() {
+        identifierType = null;
+        periodType = null;
+        noOfDetailPhrasesValue = null;
+        noOfTotalPhrasesValue = null;
+        identifierType = valueOrNull(this::getIdentifierType);
+        periodType = valueOrNull(this::getPeriodType);
+        noOfDetailPhrasesValue = valueOrNull(this::getNoOfDetailPhrasesValue);
+        noOfTotalPhrasesValue = valueOrNull(this::getNoOfTotalPhrasesValue);
+    }
+
+    private static <T> T valueOrNull(final Supplier<T> getter) {
+        try {
+            return getter.get();
+        } catch (final RuntimeException ex) {
+            return null;
+        }
+    }
     
     void merge(Uic301Header other) {
         this.noOfDetailPhrases = String.format("%06d", 
                 (NumberUtils.toInt(this.noOfDetailPhrases) + NumberUtils.toInt(other.noOfDetailPhrases)));
         this.noOfTotalPhrases = String.format("%06d",Math.max(this.getNoOfTotalPhrasesValue(), other.getNoOfTotalPhrasesValue()));
+        if (sealed) {
+            decode();
+        }
     }
 
     @Override
@@ -491,21 +563,25 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
      * @throws Uic301Exception
      *             Parsing the header failed.
      */
-    public static Uic301Header parse(final int no, final String line) throws Uic301Exception {
+    public static Uic301Header parse(final int no, final CharSequence line) throws Uic301Exception {
         if (!isHeader(line)) {
             throw new IllegalArgumentException("# " + no + " is no header line: '" + line + "'");
         }
 
-        final SubString subStr = new SubString(line);
-        final String identifier = subStr.next("identifier", 9);
-        final String railUnionCompiling = subStr.next("railUnionCompiling", 4);
-        final String railUnionReceiving = subStr.next("railUnionReceiving", 4);
-        final String period = subStr.next("period", 6);
-        final String noOfDetailPhrases = subStr.next("noOfDetailPhrases", 6);
-        final String noOfTotalPhrases = subStr.next("noOfTotalPhrases", 6);
-
-        return new Uic301Header(identifier, railUnionCompiling, railUnionReceiving, period, noOfDetailPhrases,
-                noOfTotalPhrases, no);
+        final FieldCursor cursor = new FieldCursor(line, Uic301HeaderField.list());
+        try {
+            final String identifier = cursor.next();
+            final String railUnionCompiling = cursor.next();
+            final String railUnionReceiving = cursor.next();
+            final String period = cursor.next();
+            final String noOfDetailPhrases = cursor.next();
+            final String noOfTotalPhrases = cursor.next();
+
+            return new Uic301Header(identifier, railUnionCompiling, railUnionReceiving, period, noOfDetailPhrases,
+                    noOfTotalPhrases, no);
+        } catch (final RuntimeException ex) {
+            throw new IllegalArgumentException("# " + no + " failed to parse header line: " + cursor.getTrace(), ex);
+        }
 
     }
 
@@ -517,9 +593,9 @@ public final class Uic301Header implements Sealable, Uic301DocumentItem {
      * 
      * @return True if the line starts with a known header identifier.
      */
-    public static boolean isHeader(final String line) {
-        return line != null && (line.startsWith(G4) || line.startsWith(G4_DB) || line.startsWith(G5_ALLOCATION)
-                || line.startsWith(G5_ALLOCATION_DB) || line.startsWith(G5_ISSUES));
+    public static boolean isHeader(final CharSequence line) {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        return recordType != null && recordType.isHeader();
     }
 
 }
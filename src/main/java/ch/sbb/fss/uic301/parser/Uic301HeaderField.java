@@ -0,0 +1,80 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed width fields of a {@link Uic301Header} line in the order they appear in
+ * the line.
+ */
+public enum Uic301HeaderField implements Uic301Field {
+
+    /** Identifier. */
+    IDENTIFIER("identifier", "identifier", 0, 9),
+
+    /** Rail union compiling. */
+    RAIL_UNION_COMPILING("railUnionCompiling", "railUnionCompiling", 9, 4),
+
+    /** Rail union receiving. */
+    RAIL_UNION_RECEIVING("railUnionReceiving", "railUnionReceiving", 13, 4),
+
+    /** Period. */
+    PERIOD("period", "period", 17, 6),
+
+    /** No of detail phrases. */
+    NO_OF_DETAIL_PHRASES("noOfDetailPhrases", "noOfDetailPhrases", 23, 6),
+
+    /** No of total phrases. */
+    NO_OF_TOTAL_PHRASES("noOfTotalPhrases", "noOfTotalPhrases", 29, 6);
+
+    /** Number of characters of a complete line. */
+    public static final int LINE_LENGTH = 35;
+
+    private static final List<Uic301HeaderField> LIST = Collections.unmodifiableList(Arrays.asList(values()));
+
+    private final String name;
+
+    private final String xmlName;
+
+    private final int offset;
+
+    private final int length;
+
+    private Uic301HeaderField(final String name, final String xmlName, final int offset, final int length) {
+        this.name = name;
+        this.xmlName = xmlName;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public final String getName() {
+        return name;
+    }
+
+    @Override
+    public final String getXmlName() {
+        return xmlName;
+    }
+
+    @Override
+    public final int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public final int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns all fields in the order they appear in the line.
+     * 
+     * @return Unmodifiable list of fields.
+     */
+    public static List<Uic301HeaderField> list() {
+        return LIST;
+    }
+
+}
@@ -0,0 +1,392 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.validation.Validator;
+import javax.validation.constraints.NotNull;
+
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
+
+/**
+ * Compact detail that keeps the original fixed width line as a single byte
+ * array instead of one string per field. Field values are only created when a
+ * getter is called. Every character of the line has to fit into one byte
+ * (ISO-8859-1), what is the case for UIC 301 files.<br>
+ * <br>
+ * The detail behaves like the corresponding standard detail: Setters can only
+ * be called once per attribute and not after sealing the instance. The
+ * constraints of the standard detail are checked with a validator generated
+ * for the compact detail (See {@link GenerateValidator}), so the field errors
+ * are exactly the same. Only a validator with a configuration that differs
+ * from the default validates a temporary standard detail created by
+ * {@link #toDetail()}. For XML output the detail is replaced with the standard
+ * detail.
+ *
+ * @param <F>
+ *            Type of fields of the line.
+ */
+public abstract class Uic301LineDetail<F extends Enum<F> & Uic301Field> implements Uic301Detail, Sealable {
+
+    private final byte[] line;
+
+    /** Values that don't fit into the line (Index is the field's ordinal). */
+    private String[] overrides;
+
+    /** Bit per field's ordinal: Value is stored in {@link #overrides}. */
+    private long overridden;
+
+    /** Bit per field's ordinal: Setter was already called. */
+    private long assigned;
+
+    private int parsedLineNo;
+
+    private Integer errorCount;
+
+    private List<FieldError> errors;
+
+    private boolean sealed;
+
+    /**
+     * Constructor with line.
+     *
+     * @param line
+     *            Line with ISO-8859-1 characters only - Never
+     *            <code>null</code>.
+     * @param parsedLineNo
+     *            Number of the line in the file.
+     */
+    protected Uic301LineDetail(@NotNull final CharSequence line, final int parsedLineNo) {
+        super();
+        final int len = line.length();
+        this.line = new byte[len];
+        for (int i = 0; i < len; i++) {
+            final char ch = line.charAt(i);
+            if (ch > 0xFF) {
+                throw new IllegalArgumentException("# " + parsedLineNo + " contains a character that is not "
+                        + "ISO-8859-1 at position " + i + ": '" + line + "'");
+            }
+            this.line[i] = (byte) ch;
+        }
+        this.parsedLineNo = parsedLineNo;
+    }
+
+    /**
+     * Copy constructor. Fields {@link #errorCount}, {@link #errors} and
+     * {@link #sealed} will NOT be copied.
+     *
+     * @param toCopy
+     *            Instance to copy all fields from.
+     */
+    protected Uic301LineDetail(@NotNull final Uic301LineDetail<F> toCopy) {
+        super();
+        this.line = toCopy.line.clone();
+        if (toCopy.overrides != null) {
+            this.overrides = toCopy.overrides.clone();
+        }
+        this.overridden = toCopy.overridden;
+        this.parsedLineNo = toCopy.parsedLineNo;
+    }
+
+    /**
+     * Returns the fields of the line in the order they appear in the line.
+     *
+     * @return All fields.
+     */
+    protected abstract List<F> fields();
+
+    /**
+     * Creates a standard detail with the same field values and line number.
+     * Errors and the sealed state are also transferred.
+     *
+     * @return New standard detail.
+     */
+    public abstract Uic301Detail toDetail();
+
+    /**
+     * Returns the value of a field.
+     *
+     * @param field
+     *            Field to return.
+     *
+     * @return Value or <code>null</code> if the value was set to
+     *         <code>null</code>. A field that is not contained in the line
+     *         returns blanks.
+     */
+    protected final String value(@NotNull final F field) {
+        final int bit = field.ordinal();
+        if ((overridden & (1L << bit)) != 0) {
+            return overrides[bit];
+        }
+        final int offset = field.getOffset();
+        final int length = field.getLength();
+        if (offset + length > line.length) {
+            return FieldCursor.valueOf("", field);
+        }
+        return new String(line, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the values of all fields.
+     *
+     * @return Values in the order of {@link #fields()}.
+     */
+    protected final String[] values() {
+        final List<F> fields = fields();
+        final String[] values = new String[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value(fields.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the line if it contains the current value of every field. This
+     * is the original line, unless a setter replaced a value with one of the
+     * same length.
+     *
+     * @return Line bytes (Must not be changed) or <code>null</code> if a value
+     *         is kept outside of the line.
+     */
+    final byte[] currentLine() {
+        if (overridden != 0) {
+            return null;
+        }
+        return line;
+    }
+
+    /**
+     * Sets a field value once. Calling the method after sealing the instance
+     * or setting the same field twice is not allowed.
+     *
+     * @param field
+     *            Field to set.
+     * @param value
+     *            Value to set.
+     */
+    protected final void set(@NotNull final F field, final String value) {
+        assertNotSealed();
+        final long mask = 1L << field.ordinal();
+        if ((assigned & mask) != 0) {
+            throw new IllegalStateException("The Attribute is sealed. No more changes are allowed.");
+        }
+        assigned = assigned | mask;
+        put(field, value);
+    }
+
+    /**
+     * Replaces a field value without any checks. Values with the exact field
+     * length are written into the line, all others are kept separately.
+     *
+     * @param field
+     *            Field to set.
+     * @param value
+     *            Value to set.
+     */
+    protected final void put(@NotNull final F field, final String value) {
+        final int bit = field.ordinal();
+        final int offset = field.getOffset();
+        final int length = field.getLength();
+        if (value != null && value.length() == length && offset + length <= line.length && isCompactable(value)) {
+            for (int i = 0; i < length; i++) {
+                line[offset + i] = (byte) value.charAt(i);
+            }
+            overridden = overridden & ~(1L << bit);
+            if (overrides != null) {
+                overrides[bit] = null;
+            }
+        } else {
+            if (overrides == null) {
+                overrides = new String[fields().size()];
+            }
+            overrides[bit] = value;
+            overridden = overridden | (1L << bit);
+        }
+    }
+
+    /**
+     * Copies errors and the sealed state to a standard detail created from
+     * this one.
+     *
+     * @param detail
+     *            Standard detail with the same values.
+     * @param errors
+     *            Callback that sets the errors of the standard detail.
+     *
+     * @return The detail.
+     *
+     * @param <T>
+     *            Type of the standard detail.
+     */
+    protected final <T extends Uic301Detail & Sealable> T transferState(final T detail,
+            final Consumer<List<FieldError>> errors) {
+        if (errorCount != null) {
+            errors.accept(this.errors);
+        }
+        if (sealed) {
+            detail.seal();
+        }
+        return detail;
+    }
+
+    @Override
+    public final String getIdentifier() {
+        return value(fields().get(0));
+    }
+
+    @Override
+    public final int getParsedLineNo() {
+        return parsedLineNo;
+    }
+
+    @Override
+    public final void setParsedLineNo(final int parsedLineNo) {
+        this.parsedLineNo = parsedLineNo;
+    }
+
+    /**
+     * Validates this object and saves the violations as errors. The
+     * constraints of the standard detail are used.
+     */
+    @Override
+    public final void validate(@NotNull final Validator validator) {
+        assertNotSealed();
+        final Uic301ValidationService service = Uic301ValidationService.of(validator);
+        final List<FieldError> list;
+        if (service.isGenerated() && Uic301Utils.fieldValidator(this) != null) {
+            list = service.validate(this);
+        } else {
+            list = service.validate(toDetail());
+        }
+        if (list.size() == 0) {
+            errorCount = null;
+        } else {
+            errors = list;
+            errorCount = errors.size();
+        }
+    }
+
+    @Override
+    public final int getErrorCount() {
+        if (errorCount == null) {
+            return 0;
+        }
+        return errorCount;
+    }
+
+    /**
+     * Returns a list of errors.
+     *
+     * @return Errors in the detail.
+     */
+    @NotNull
+    public final List<FieldError> getErrors() {
+        if (errors == null) {
+            return Collections.emptyList();
+        }
+        return errors;
+    }
+
+    @Override
+    public final void seal() {
+        if (!sealed) {
+            sealed = true;
+        }
+    }
+
+    @Override
+    public final boolean isSealed() {
+        return sealed;
+    }
+
+    @Override
+    public final int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Arrays.hashCode(values());
+        result = prime * result + ((errorCount == null) ? 0 : errorCount.hashCode());
+        result = prime * result + ((errors == null) ? 0 : errors.hashCode());
+        result = prime * result + parsedLineNo;
+        return result;
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final Uic301LineDetail<?> other = (Uic301LineDetail<?>) obj;
+        if (parsedLineNo != other.parsedLineNo) {
+            return false;
+        }
+        if (errorCount == null) {
+            if (other.errorCount != null) {
+                return false;
+            }
+        } else if (!errorCount.equals(other.errorCount)) {
+            return false;
+        }
+        if (errors == null) {
+            if (other.errors != null) {
+                return false;
+            }
+        } else if (!errors.equals(other.errors)) {
+            return false;
+        }
+        return Arrays.equals(values(), other.values());
+    }
+
+    @Override
+    public final String toString() {
+        return getClass().getSimpleName() + " [parsedLineNo=" + parsedLineNo + ", line='"
+                + new String(line, StandardCharsets.ISO_8859_1) + "']";
+    }
+
+    private void assertNotSealed() {
+        if (sealed) {
+            throw new IllegalStateException("The class is sealed. No more changes are allowed.");
+        }
+    }
+
+    /**
+     * Determines if an amount is greater than zero.
+     *
+     * @param amount
+     *            Amount to test.
+     *
+     * @return <code>true</code> if the amount is not <code>null</code> and
+     *         positive.
+     */
+    protected static boolean positive(final BigDecimal amount) {
+        return amount != null && amount.doubleValue() > 0.0;
+    }
+
+    /**
+     * Determines if all characters of a line fit into a single byte.
+     *
+     * @param line
+     *            Line to verify.
+     *
+     * @return <code>true</code> if the line only contains ISO-8859-1
+     *         characters.
+     */
+    static boolean isCompactable(final CharSequence line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,25 @@
+package ch.sbb.fss.uic301.parser;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Replaces compact details with standard details when writing XML. This way
+ * the XML is the same, no matter what kind of detail was created by the
+ * parser. Reading XML always creates standard details.
+ */
+final class Uic301LineDetailXmlAdapter extends XmlAdapter<Uic301Detail, Uic301Detail> {
+
+    @Override
+    public Uic301Detail unmarshal(final Uic301Detail detail) {
+        return detail;
+    }
+
+    @Override
+    public Uic301Detail marshal(final Uic301Detail detail) {
+        if (detail instanceof Uic301LineDetail) {
+            return ((Uic301LineDetail<?>) detail).toDetail();
+        }
+        return detail;
+    }
+
+}
@@ -0,0 +1,201 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Decides if a G4 or G5 detail line is parsed at all. The filter is tested on
+ * the raw line before any detail is created, so it should only look at a few
+ * fixed width fields. Rejected lines are only counted and their amounts are
+ * added to the sums used for checking the totals (See
+ * {@link Uic301Details#getAllAmounts()}).
+ */
+@FunctionalInterface
+public interface Uic301LineFilter {
+
+    /**
+     * Determines if a detail line is parsed.
+     *
+     * @param line
+     *            G4 or G5 detail line.
+     *
+     * @return <code>true</code> if the detail is created, <code>false</code>
+     *         if the line is skipped.
+     */
+    public boolean accept(CharSequence line);
+
+    /**
+     * Returns a filter that only accepts lines both filters accept.
+     *
+     * @param other
+     *            Filter to test if this one accepts the line - Never
+     *            <code>null</code>.
+     *
+     * @return New filter.
+     */
+    public default Uic301LineFilter and(final Uic301LineFilter other) {
+        Utils4J.checkNotNull("other", other);
+        return line -> accept(line) && other.accept(line);
+    }
+
+    /**
+     * Returns a filter that accepts lines accepted by one of the filters.
+     *
+     * @param other
+     *            Filter to test if this one rejects the line - Never
+     *            <code>null</code>.
+     *
+     * @return New filter.
+     */
+    public default Uic301LineFilter or(final Uic301LineFilter other) {
+        Utils4J.checkNotNull("other", other);
+        return line -> accept(line) || other.accept(line);
+    }
+
+    /**
+     * Returns a filter that accepts the lines this one rejects.
+     *
+     * @return New filter.
+     */
+    public default Uic301LineFilter negate() {
+        return line -> !accept(line);
+    }
+
+    /**
+     * Returns a filter that accepts lines with one of the given values in a
+     * field. The characters of the line are compared directly, no string is
+     * created. The field is looked up by name in the G4 or G5 fields,
+     * depending on the type of the line.
+     *
+     * @param fieldName
+     *            Bean attribute name of the field (See
+     *            {@link Uic301Field#getName()}) - Never <code>null</code>.
+     * @param values
+     *            Accepted values with the length of the field - Never
+     *            <code>null</code> or empty.
+     *
+     * @return New filter.
+     */
+    public static Uic301LineFilter fieldIn(final String fieldName, final String... values) {
+        Utils4J.checkNotNull("fieldName", fieldName);
+        Utils4J.checkNotNull("values", values);
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Expected at least one value");
+        }
+        final Uic301Field g4Field = fieldOf(fieldName, Uic301G4Field.list());
+        final Uic301Field g5Field = fieldOf(fieldName, Uic301G5Field.list());
+        if (g4Field == null && g5Field == null) {
+            throw new IllegalArgumentException("Unknown G4 or G5 detail field: " + fieldName);
+        }
+        final List<String> wrongLength = new ArrayList<>();
+        for (final String value : values) {
+            Utils4J.checkNotNull("value", value);
+            final int length = (g4Field == null ? g5Field : g4Field).getLength();
+            if (value.length() != length) {
+                wrongLength.add(value);
+            }
+        }
+        if (!wrongLength.isEmpty()) {
+            throw new IllegalArgumentException("Expected values with the length of field '" + fieldName + "', but was: "
+                    + wrongLength);
+        }
+        final String[] accepted = values.clone();
+        return line -> {
+            final Uic301RecordType recordType = Uic301RecordType.classify(line);
+            if (recordType == null) {
+                return false;
+            }
+            final Uic301Field field = (recordType.getType() == Uic301Type.G4 ? g4Field : g5Field);
+            if (field == null) {
+                return false;
+            }
+            for (final String value : accepted) {
+                if (matches(line, field, value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Returns a filter that accepts lines with a given value in a field.
+     *
+     * @param fieldName
+     *            Bean attribute name of the field (See
+     *            {@link Uic301Field#getName()}) - Never <code>null</code>.
+     * @param value
+     *            Accepted value with the length of the field - Never
+     *            <code>null</code>.
+     *
+     * @return New filter.
+     */
+    public static Uic301LineFilter fieldEquals(final String fieldName, final String value) {
+        return fieldIn(fieldName, value);
+    }
+
+    /**
+     * Returns a filter that accepts lines with a given statement currency and
+     * period.
+     *
+     * @param currencyPeriod
+     *            Accepted statement currency and period - Never
+     *            <code>null</code>.
+     *
+     * @return New filter.
+     */
+    public static Uic301LineFilter statementCurrencyPeriod(final StatementCurrencyPeriod currencyPeriod) {
+        Utils4J.checkNotNull("currencyPeriod", currencyPeriod);
+        return fieldEquals("statementCurrency", currencyPeriod.getCurrency())
+                .and(fieldEquals("statementPeriod", currencyPeriod.getPeriod()));
+    }
+
+    /**
+     * Determines if a field of a line has a given value.
+     *
+     * @param line
+     *            Line to test.
+     * @param field
+     *            Field to compare.
+     * @param value
+     *            Value with the length of the field.
+     *
+     * @return <code>true</code> if the characters of the field are the same
+     *         as the value.
+     */
+    static boolean matches(final CharSequence line, final Uic301Field field, final String value) {
+        final int offset = field.getOffset();
+        final int length = field.getLength();
+        if (offset + length > line.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a field by name.
+     *
+     * @param name
+     *            Bean attribute name.
+     * @param fields
+     *            Fields to search.
+     *
+     * @return Field or <code>null</code> if there is no field with the name.
+     */
+    static Uic301Field fieldOf(final String name, final List<? extends Uic301Field> fields) {
+        for (final Uic301Field field : fields) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+}
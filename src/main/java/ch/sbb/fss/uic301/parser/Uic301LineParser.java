@@ -0,0 +1,162 @@
+package ch.sbb.fss.uic301.parser;
+
+/**
+ * Parses the lines of a file that may contain multiple UIC 301 documents and
+ * keeps track of the {@link Uic301ParserState}. The parser only knows the
+ * document that is currently built. What happens with a document after the
+ * next header line started a new one is up to the caller.
+ */
+final class Uic301LineParser {
+
+    private Uic301ParserState state;
+
+    private Uic301Document document;
+
+    private final Uic301DetailFactory detailFactory;
+
+    /**
+     * Default constructor.
+     */
+    Uic301LineParser() {
+        this(Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with detail factory.
+     *
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    Uic301LineParser(final Uic301DetailFactory detailFactory) {
+        this(Uic301ParserState.INIT, null, detailFactory);
+    }
+
+    /**
+     * Constructor with the state to start with.
+     *
+     * @param state
+     *            State before parsing the first line.
+     */
+    Uic301LineParser(final Uic301ParserState state) {
+        this(state, null);
+    }
+
+    /**
+     * Constructor with state and document to continue with. Used for parsing
+     * a part of a file that starts in the middle of a document.
+     *
+     * @param state
+     *            State before parsing the first line.
+     * @param document
+     *            Document that receives details and totals until the next
+     *            header line is found.
+     */
+    Uic301LineParser(final Uic301ParserState state, final Uic301Document document) {
+        this(state, document, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with all data.
+     *
+     * @param state
+     *            State before parsing the first line.
+     * @param document
+     *            Document that receives details and totals until the next
+     *            header line is found.
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    Uic301LineParser(final Uic301ParserState state, final Uic301Document document,
+            final Uic301DetailFactory detailFactory) {
+        super();
+        this.state = state;
+        this.document = document;
+        this.detailFactory = detailFactory;
+    }
+
+    /**
+     * Returns the factory that creates the details.
+     *
+     * @return Detail factory.
+     */
+    Uic301DetailFactory getDetailFactory() {
+        return detailFactory;
+    }
+
+    /**
+     * Parses a single line.
+     *
+     * @param lineNo
+     *            Current line number (Used for error messages).
+     * @param line
+     *            Current line to parse.
+     *
+     * @return <code>true</code> if the line was a header that started a new
+     *         document, else <code>false</code>.
+     *
+     * @throws Uic301Exception
+     *             The parse process failed.
+     */
+    boolean parse(final int lineNo, final CharSequence line) throws Uic301Exception {
+
+        final Uic301ParserState next = typeOf(line);
+        if (next == Uic301ParserState.HEADER) {
+            Uic301ParserState.verifyTransition(lineNo, state, Uic301ParserState.HEADER);
+            state = Uic301ParserState.HEADER;
+            document = new Uic301Document();
+            document.parseHeader(lineNo, line);
+            return true;
+        }
+        if (next == Uic301ParserState.DETAIL) {
+            Uic301ParserState.verifyTransition(lineNo, state, Uic301ParserState.DETAIL);
+            state = Uic301ParserState.DETAIL;
+            document.parseDetail(lineNo, line, detailFactory);
+        } else if (next == Uic301ParserState.TOTAL) {
+            Uic301ParserState.verifyTransition(lineNo, state, Uic301ParserState.TOTAL);
+            state = Uic301ParserState.TOTAL;
+            document.parseTotal(lineNo, line);
+        } else if (state != Uic301ParserState.INIT || lineNo > Uic301Documents.FILE_HEADER_TOLERANCE) {
+            throw new Uic301Exception("Unknown identifier in line # " + lineNo + ": " + line);
+        }
+        return false;
+
+    }
+
+    /**
+     * Determines the type of a line.
+     *
+     * @param line
+     *            Line to analyze.
+     *
+     * @return {@link Uic301ParserState#HEADER}, {@link Uic301ParserState#DETAIL}
+     *         or {@link Uic301ParserState#TOTAL} - <code>null</code> if the
+     *         line has an unknown identifier.
+     */
+    static Uic301ParserState typeOf(final CharSequence line) {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        if (recordType == null) {
+            return null;
+        }
+        return recordType.getKind();
+    }
+
+    /**
+     * Returns the document that is currently parsed.
+     *
+     * @return Document started by the last header line or <code>null</code>
+     *         if no header was parsed yet.
+     */
+    Uic301Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return State after the last parsed line.
+     */
+    Uic301ParserState getState() {
+        return state;
+    }
+
+}
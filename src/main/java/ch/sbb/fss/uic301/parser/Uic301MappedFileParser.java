@@ -0,0 +1,162 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Parser for a file that contains one or more UIC 301 documents. Other than
+ * {@link Uic301Parser} it does not decode the file into characters. The file
+ * is memory mapped chunk by chunk and the fixed width fields are directly
+ * created from the bytes. This requires the file to use a single byte
+ * character set (ASCII or ISO-8859-1), what is the case for UIC 301 files. The
+ * result (model objects, line numbers and errors) is the same as with
+ * {@link Uic301Parser}.
+ */
+public final class Uic301MappedFileParser {
+
+    /** Default number of bytes mapped at once. */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private final int chunkSize;
+
+    private final Uic301DetailFactory detailFactory;
+
+    /**
+     * Default constructor.
+     */
+    public Uic301MappedFileParser() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor with chunk size.
+     * 
+     * @param chunkSize
+     *            Number of bytes mapped at once (Value &gt; 0).
+     */
+    public Uic301MappedFileParser(final int chunkSize) {
+        this(chunkSize, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param chunkSize
+     *            Number of bytes mapped at once (Value &gt; 0).
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    public Uic301MappedFileParser(final int chunkSize, final Uic301DetailFactory detailFactory) {
+        super();
+        Utils4J.checkNotNull("detailFactory", detailFactory);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Expected a chunk size greater than 0, but was: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.detailFactory = detailFactory;
+    }
+
+    /**
+     * Parses an UIC 301 file and validates it.
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final Uic301Documents parse(final File inputFile, final Validator validator) throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("validator", validator);
+
+        final Uic301Documents documents = new Uic301Documents();
+        scan(inputFile, 0, inputFile.length(), chunkSize,
+                new AsciiLineScanner((lineNo, line, position) -> documents.parse(lineNo, line, detailFactory)));
+        documents.validate(validator);
+        documents.seal();
+        return documents;
+
+    }
+
+    /**
+     * Parses an UIC 301 file document by document. Every document is
+     * validated, sealed and passed to the listener as soon as it is complete.
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final int parse(final File inputFile, final Validator validator, final Uic301DocumentListener listener)
+            throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+
+        final Uic301StreamingParser parser = new Uic301StreamingParser(new Uic301LineParser(detailFactory), validator,
+                listener);
+        scan(inputFile, 0, inputFile.length(), chunkSize,
+                new AsciiLineScanner((lineNo, line, position) -> parser.parse(lineNo, line)));
+        parser.finish();
+        return parser.getDocumentCount();
+
+    }
+
+    /**
+     * Maps a range of a file chunk by chunk and passes the bytes to a scanner.
+     * The scanner is finished after the last chunk.
+     * 
+     * @param file
+     *            File to read.
+     * @param start
+     *            First byte to read.
+     * @param end
+     *            Position after the last byte to read.
+     * @param chunkSize
+     *            Number of bytes mapped at once.
+     * @param scanner
+     *            Scanner that receives the bytes.
+     * 
+     * @throws Uic301Exception
+     *             The scanner failed to process a line.
+     */
+    static void scan(final File file, final long start, final long end, final int chunkSize,
+            final AsciiLineScanner scanner) throws Uic301Exception {
+
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long pos = start;
+            while (pos < end) {
+                final long size = Math.min(chunkSize, end - pos);
+                final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, pos, size);
+                scanner.scan(buffer);
+                pos = pos + size;
+            }
+            scanner.finish();
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read file: " + file, ex);
+        }
+
+    }
+
+}
@@ -0,0 +1,335 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Parser for a large file that contains one or more UIC 301 documents. The
+ * file is split into byte ranges that end at line boundaries. The ranges are
+ * parsed concurrently on a fork/join pool and the results are joined into a
+ * single {@link Uic301Documents} instance afterwards. A range may start in the
+ * middle of a document. Its details and totals are appended to the last
+ * document of the range before.<br>
+ * <br>
+ * Line numbers, state transition checks and error messages are the same as
+ * with a sequential parse: In a first step the lines of all ranges are counted
+ * to know the number of the first line of every range. When joining the
+ * ranges, the state transition at the start of every range is verified and the
+ * first error in file order is thrown. The documents are also validated
+ * concurrently using the same pool. Like {@link Uic301MappedFileParser} the
+ * parser expects a single byte character set.
+ */
+public final class Uic301ParallelParser {
+
+    /** Default minimal number of bytes parsed by a single task. */
+    public static final long DEFAULT_MIN_RANGE_SIZE = 4 * 1024 * 1024;
+
+    /** Number of ranges per thread of the pool (for a better load balance). */
+    private static final int RANGES_PER_THREAD = 4;
+
+    private static final int SEARCH_BUFFER_SIZE = 8 * 1024;
+
+    private final ForkJoinPool pool;
+
+    private final long minRangeSize;
+
+    private final Uic301DetailFactory detailFactory;
+
+    /**
+     * Default constructor using the common pool.
+     */
+    public Uic301ParallelParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with pool.
+     * 
+     * @param pool
+     *            Pool used for parsing.
+     */
+    public Uic301ParallelParser(final ForkJoinPool pool) {
+        this(pool, DEFAULT_MIN_RANGE_SIZE);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param pool
+     *            Pool used for parsing.
+     * @param minRangeSize
+     *            Minimal number of bytes parsed by a single task (Value &gt;
+     *            0).
+     */
+    public Uic301ParallelParser(final ForkJoinPool pool, final long minRangeSize) {
+        this(pool, minRangeSize, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param pool
+     *            Pool used for parsing.
+     * @param minRangeSize
+     *            Minimal number of bytes parsed by a single task (Value &gt;
+     *            0).
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    public Uic301ParallelParser(final ForkJoinPool pool, final long minRangeSize,
+            final Uic301DetailFactory detailFactory) {
+        super();
+        Utils4J.checkNotNull("pool", pool);
+        Utils4J.checkNotNull("detailFactory", detailFactory);
+        if (minRangeSize < 1) {
+            throw new IllegalArgumentException("Expected a minimal range size greater than 0, but was: " + minRangeSize);
+        }
+        this.pool = pool;
+        this.minRangeSize = minRangeSize;
+        this.detailFactory = detailFactory;
+    }
+
+    /**
+     * Parses an UIC 301 file and validates it.
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final Uic301Documents parse(final File inputFile, final Validator validator) throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("validator", validator);
+
+        final long[] bounds = split(inputFile);
+        final int count = bounds.length - 1;
+        if (count < 2) {
+            return new Uic301MappedFileParser(Uic301MappedFileParser.DEFAULT_CHUNK_SIZE, detailFactory).parse(inputFile,
+                        validator);
+        }
+
+        // Count lines to know the first line number of every range
+        final List<ForkJoinTask<Integer>> counters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final long start = bounds[i];
+            final long end = bounds[i + 1];
+            counters.add(pool.submit(() -> countLines(inputFile, start, end)));
+        }
+        final List<ForkJoinTask<Range>> parsers = new ArrayList<>(count);
+        int lineCount = 0;
+        for (int i = 0; i < count; i++) {
+            final Range range = new Range(i == 0, detailFactory);
+            final long start = bounds[i];
+            final long end = bounds[i + 1];
+            final int lineNo = lineCount;
+            parsers.add(pool.submit(() -> range.parse(inputFile, start, end, lineNo)));
+            lineCount = lineCount + counters.get(i).join();
+        }
+
+        // Join the ranges in file order
+        final Uic301Documents documents = new Uic301Documents();
+        Uic301Document last = null;
+        Uic301ParserState state = Uic301ParserState.INIT;
+        for (int i = 0; i < count; i++) {
+            final Range range = parsers.get(i).join();
+            if (range.lineParser == null) {
+                // Nothing but empty lines - unless reading the range failed
+                range.rethrow();
+                continue;
+            }
+            if (i > 0) {
+                if (state == Uic301ParserState.INIT && range.firstLineNo <= Uic301Documents.FILE_HEADER_TOLERANCE) {
+                    // Unknown lines may still be tolerated: The range was
+                    // parsed with the wrong assumption
+                    return new Uic301MappedFileParser(Uic301MappedFileParser.DEFAULT_CHUNK_SIZE, detailFactory).parse(inputFile,
+                        validator);
+                }
+                if (range.firstType != null) {
+                    Uic301ParserState.verifyTransition(range.firstLineNo, state, range.firstType);
+                }
+            }
+            range.rethrow();
+            if (range.continuation != null) {
+                last.append(range.continuation);
+            }
+            for (final Uic301Document document : range.documents) {
+                documents.add(document);
+                last = document;
+            }
+            state = range.lineParser.getState();
+        }
+        documents.validate(validator, pool);
+        documents.seal();
+        return documents;
+
+    }
+
+    /**
+     * Splits the file into ranges that start at the beginning of a line.
+     * 
+     * @param file
+     *            File to split.
+     * 
+     * @return Start positions of the ranges plus the file size as last
+     *         element.
+     */
+    private long[] split(final File file) {
+        final long size = file.length();
+        final long max = Math.max(1, Math.min((long) pool.getParallelism() * RANGES_PER_THREAD, size / minRangeSize));
+        final List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (long i = 1; i < max; i++) {
+                final long pos = nextLineStart(channel, i * size / max, size);
+                if (pos > bounds.get(bounds.size() - 1) && pos < size) {
+                    bounds.add(pos);
+                }
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read file: " + file, ex);
+        }
+        bounds.add(size);
+        final long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position of the first line that starts at or after a given
+     * position.
+     * 
+     * @param channel
+     *            Channel to read.
+     * @param pos
+     *            Position to start the search at.
+     * @param size
+     *            File size.
+     * 
+     * @return Position of the line start or the file size if there is no
+     *         other line.
+     * 
+     * @throws IOException
+     *             Error reading the file.
+     */
+    private static long nextLineStart(final FileChannel channel, final long pos, final long size) throws IOException {
+        if (pos == 0) {
+            return 0;
+        }
+        final ByteBuffer buf = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+        // Check the byte before the position: It might already be a line end
+        long bufPos = pos - 1;
+        while (bufPos < size) {
+            buf.clear();
+            final int read = channel.read(buf, bufPos);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                final byte b = buf.get(i);
+                if (b == '\n' || b == '\r') {
+                    return bufPos + i + 1;
+                }
+            }
+            bufPos = bufPos + read;
+        }
+        return size;
+    }
+
+    private static int countLines(final File file, final long start, final long end) throws Uic301Exception {
+        final AsciiLineScanner scanner = new AsciiLineScanner((lineNo, line, position) -> {
+            // Only count
+        });
+        Uic301MappedFileParser.scan(file, start, end, Uic301MappedFileParser.DEFAULT_CHUNK_SIZE, scanner);
+        return scanner.getLineCount();
+    }
+
+    /**
+     * Result of parsing a single range.
+     */
+    private static final class Range {
+
+        private final boolean first;
+
+        private final List<Uic301Document> documents;
+
+        private final Uic301DetailFactory detailFactory;
+
+        private Uic301LineParser lineParser;
+
+        private Uic301ParserState firstType;
+
+        private int firstLineNo;
+
+        /** Details and totals before the first header of the range. */
+        private Uic301Document continuation;
+
+        private Exception error;
+
+        public Range(final boolean first, final Uic301DetailFactory detailFactory) {
+            super();
+            this.first = first;
+            this.detailFactory = detailFactory;
+            this.documents = new ArrayList<>();
+        }
+
+        public Range parse(final File file, final long start, final long end, final int lineCount) {
+            final AsciiLineScanner scanner = new AsciiLineScanner((lineNo, line, position) -> parse(lineNo, line),
+                    start, lineCount);
+            try {
+                Uic301MappedFileParser.scan(file, start, end, Uic301MappedFileParser.DEFAULT_CHUNK_SIZE, scanner);
+            } catch (final Uic301Exception | RuntimeException ex) {
+                error = ex;
+            }
+            return this;
+        }
+
+        private void parse(final int lineNo, final CharSequence line) throws Uic301Exception {
+            if (lineParser == null) {
+                firstLineNo = lineNo;
+                firstType = Uic301LineParser.typeOf(line);
+                if (first) {
+                    lineParser = new Uic301LineParser(detailFactory);
+                } else if (firstType == null || firstType == Uic301ParserState.HEADER) {
+                    // State before is verified when joining the ranges
+                    lineParser = new Uic301LineParser(Uic301ParserState.TOTAL, null, detailFactory);
+                } else {
+                    continuation = new Uic301Document();
+                    lineParser = new Uic301LineParser(firstType, continuation, detailFactory);
+                }
+            }
+            if (lineParser.parse(lineNo, line)) {
+                documents.add(lineParser.getDocument());
+            }
+        }
+
+        public void rethrow() throws Uic301Exception {
+            if (error instanceof Uic301Exception) {
+                throw (Uic301Exception) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+        }
+
+    }
+
+}
@@ -1,57 +1,559 @@
-package ch.sbb.fss.uic301.parser;
-
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.LineNumberReader;
-
-import javax.validation.Validator;
-
-import org.fuin.utils4j.Utils4J;
-
-/**
- * Parser for a file that contains one or more UIC 301 documents.
- */
-public final class Uic301Parser {
-
-    /**
-     * Parses an UIC 301 file and validates it.
-     * 
-     * @param inputFile
-     *            Text file with one or more UIC 301 documents to parse.
-     * @param validator
-     *            Validator to use.
-     * 
-     * @return Parsed data structure and errors.
-     * 
-     * @throws Uic301Exception
-     *             The file couldn't be parsed.
-     */
-    public final Uic301Documents parse(final File inputFile, final Validator validator) throws Uic301Exception {
-
-    	Utils4J.checkValidFile(inputFile);
-    	Utils4J.checkNotNull("validator", validator);
-    	
-        final Uic301Documents documents = new Uic301Documents();
-        String line = null;
-        try {
-            int count = 0;
-            try (final LineNumberReader lnr = new LineNumberReader(new BufferedReader(new FileReader(inputFile)))) {
-                while ((line = lnr.readLine()) != null) {
-                    final String trimmed = line.trim();
-                    if (trimmed.length() > 0) {
-                        documents.parse(++count, trimmed);
-                    }
-                }
-            }
-            documents.validate(validator);
-            documents.seal();
-        } catch (final IOException ex) {
-            throw new RuntimeException("Failed to read line: '" + line + "'", ex);
-        }
-        return documents;
-
-    }
-
-}
+package ch.sbb.fss.uic301.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.LineNumberReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Parser for a file that contains one or more UIC 301 documents.<br>
+ * <br>
+ * Besides files the parser also reads streams, channels, buffers and
+ * compressed (GZIP or ZIP) input. These inputs are not decoded into characters
+ * but scanned byte by byte like {@link Uic301MappedFileParser} does it. This
+ * requires a single byte character set (ASCII or ISO-8859-1), what is the case
+ * for UIC 301 files. Streams and channels are never closed by the parser.
+ */
+public final class Uic301Parser {
+
+    /** Number of bytes read at once from a stream or channel. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Uic301DetailFactory detailFactory;
+
+    /**
+     * Default constructor.
+     */
+    public Uic301Parser() {
+        this(Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with detail factory.
+     * 
+     * @param detailFactory
+     *            Factory that creates the details, for example
+     *            {@link Uic301DetailFactory#COMPACT} to keep only the lines of
+     *            the details in memory.
+     */
+    public Uic301Parser(final Uic301DetailFactory detailFactory) {
+        super();
+        Utils4J.checkNotNull("detailFactory", detailFactory);
+        this.detailFactory = detailFactory;
+    }
+
+    /**
+     * Constructor with detail factory and a filter for the detail lines. Lines
+     * rejected by the filter are skipped before any detail is created. The
+     * sums of the accepted details are returned by
+     * {@link Uic301Details#getAmounts()}, the totals are still checked against
+     * the sums of all lines (See {@link Uic301Details#getAllAmounts()}).
+     *
+     * @param detailFactory
+     *            Factory that creates the accepted details.
+     * @param filter
+     *            Filter that decides which detail lines are parsed.
+     */
+    public Uic301Parser(final Uic301DetailFactory detailFactory, final Uic301LineFilter filter) {
+        this(Uic301DetailFactory.filter(filter, detailFactory));
+    }
+
+    /**
+     * Parses an UIC 301 file and validates it.
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final Uic301Documents parse(final File inputFile, final Validator validator) throws Uic301Exception {
+
+    	Utils4J.checkValidFile(inputFile);
+    	Utils4J.checkNotNull("validator", validator);
+    	
+        final Uic301Documents documents = parseOnly(inputFile);
+        documents.validate(validator);
+        documents.seal();
+        return documents;
+
+    }
+
+    /**
+     * Parses an UIC 301 file without validating it. The documents are not
+     * sealed, so the caller may validate and seal them later - or never, if
+     * only some of the data is needed. Useful to look at the headers and
+     * totals of large files at the cost of only parsing them.
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * 
+     * @return Parsed data structure without errors.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final Uic301Documents parseOnly(final File inputFile) throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+
+        final Uic301Documents documents = new Uic301Documents();
+        readLines(inputFile, (lineNo, line) -> documents.parse(lineNo, line, detailFactory));
+        return documents;
+
+    }
+
+    /**
+     * Parses an UIC 301 file and defers the validation. Every document is
+     * validated and sealed on first demand or when the caller requests it
+     * (See {@link Uic301Documents#validateLater(Validator)}).
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use later (Must be thread-safe if the
+     *            documents are used by multiple threads).
+     * 
+     * @return Parsed data structure that validates itself on demand.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final Uic301Documents parseDeferred(final File inputFile, final Validator validator)
+            throws Uic301Exception {
+
+        Utils4J.checkNotNull("validator", validator);
+
+        final Uic301Documents documents = parseOnly(inputFile);
+        documents.validateLater(validator);
+        return documents;
+
+    }
+
+    /**
+     * Parses an UIC 301 file document by document and defers the validation.
+     * Every document is passed to the listener as soon as it is complete, but
+     * only validated and sealed on first demand (See
+     * {@link Uic301Document#validateLater(Validator)}).
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use later.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final int parseDeferred(final File inputFile, final Validator validator,
+            final Uic301DocumentListener listener) throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+
+        final Uic301StreamingParser parser = new Uic301StreamingParser(new Uic301LineParser(detailFactory), validator,
+                listener, false, true);
+        readLines(inputFile, parser::parse);
+        parser.finish();
+        return parser.getDocumentCount();
+
+    }
+
+    /**
+     * Parses an UIC 301 file document by document. Every document is
+     * validated, sealed and passed to the listener as soon as it is complete.
+     * A document is complete when the next header line starts a new document
+     * or when the end of the file is reached. This way only one document has to
+     * be kept in memory at a time.
+     * 
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final int parse(final File inputFile, final Validator validator, final Uic301DocumentListener listener)
+            throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+
+        final Uic301StreamingParser parser = new Uic301StreamingParser(new Uic301LineParser(detailFactory), validator,
+                listener);
+        readLines(inputFile, parser::parse);
+        parser.finish();
+        return parser.getDocumentCount();
+
+    }
+
+    /**
+     * Parses UIC 301 data from a channel and validates it. The channel is read
+     * until its end.
+     * 
+     * @param channel
+     *            Channel with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final Uic301Documents parse(final ReadableByteChannel channel, final Validator validator)
+            throws Uic301Exception {
+        Utils4J.checkNotNull("channel", channel);
+        return parseInput(scanner -> read(channel, scanner), validator);
+    }
+
+    /**
+     * Parses UIC 301 data from a channel document by document. Every document
+     * is validated, sealed and passed to the listener as soon as it is
+     * complete.
+     * 
+     * @param channel
+     *            Channel with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final int parse(final ReadableByteChannel channel, final Validator validator,
+            final Uic301DocumentListener listener) throws Uic301Exception {
+        Utils4J.checkNotNull("channel", channel);
+        return parseInput(scanner -> read(channel, scanner), validator, listener);
+    }
+
+    /**
+     * Parses UIC 301 data from a stream and validates it. The stream is read
+     * until its end.
+     * 
+     * @param in
+     *            Stream with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final Uic301Documents parse(final InputStream in, final Validator validator) throws Uic301Exception {
+        Utils4J.checkNotNull("in", in);
+        return parse(Channels.newChannel(in), validator);
+    }
+
+    /**
+     * Parses UIC 301 data from a stream document by document. Every document
+     * is validated, sealed and passed to the listener as soon as it is
+     * complete.
+     * 
+     * @param in
+     *            Stream with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final int parse(final InputStream in, final Validator validator, final Uic301DocumentListener listener)
+            throws Uic301Exception {
+        Utils4J.checkNotNull("in", in);
+        return parse(Channels.newChannel(in), validator, listener);
+    }
+
+    /**
+     * Parses UIC 301 data from a buffer and validates it. All bytes between
+     * the buffer's position and limit are parsed. The position of the buffer
+     * is not changed.
+     * 
+     * @param buffer
+     *            Buffer with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final Uic301Documents parse(final ByteBuffer buffer, final Validator validator) throws Uic301Exception {
+        Utils4J.checkNotNull("buffer", buffer);
+        return parseInput(scanner -> scanner.scan(buffer.duplicate()), validator);
+    }
+
+    /**
+     * Parses UIC 301 data from a buffer document by document. Every document
+     * is validated, sealed and passed to the listener as soon as it is
+     * complete. The position of the buffer is not changed.
+     * 
+     * @param buffer
+     *            Buffer with one or more UIC 301 documents to parse.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final int parse(final ByteBuffer buffer, final Validator validator, final Uic301DocumentListener listener)
+            throws Uic301Exception {
+        Utils4J.checkNotNull("buffer", buffer);
+        return parseInput(scanner -> scanner.scan(buffer.duplicate()), validator, listener);
+    }
+
+    /**
+     * Decompresses a GZIP stream and parses the contained UIC 301 data in one
+     * pass.
+     * 
+     * @param in
+     *            GZIP compressed stream with one or more UIC 301 documents.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final Uic301Documents parseGzip(final InputStream in, final Validator validator) throws Uic301Exception {
+        Utils4J.checkNotNull("in", in);
+        return parseInput(scanner -> readGzip(in, scanner), validator);
+    }
+
+    /**
+     * Decompresses a GZIP stream and parses the contained UIC 301 data
+     * document by document. Every document is validated, sealed and passed to
+     * the listener as soon as it is complete.
+     * 
+     * @param in
+     *            GZIP compressed stream with one or more UIC 301 documents.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * 
+     * @return Number of documents passed to the listener.
+     * 
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final int parseGzip(final InputStream in, final Validator validator,
+            final Uic301DocumentListener listener) throws Uic301Exception {
+        Utils4J.checkNotNull("in", in);
+        return parseInput(scanner -> readGzip(in, scanner), validator, listener);
+    }
+
+    /**
+     * Decompresses a ZIP stream and parses every contained file in one pass.
+     * Directory entries are ignored.
+     * 
+     * @param in
+     *            ZIP compressed stream with one or more UIC 301 files.
+     * @param validator
+     *            Validator to use.
+     * 
+     * @return Parsed data structure and errors per file, in the order of the
+     *         ZIP entries. The key is the name of the entry.
+     * 
+     * @throws Uic301Exception
+     *             One of the files couldn't be parsed.
+     */
+    public final Map<String, Uic301Documents> parseZip(final InputStream in, final Validator validator)
+            throws Uic301Exception {
+        Utils4J.checkNotNull("in", in);
+        Utils4J.checkNotNull("validator", validator);
+
+        final Map<String, Uic301Documents> result = new LinkedHashMap<>();
+        try (final ZipInputStream zin = new ZipInputStream(new UnclosedInputStream(in))) {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    final ReadableByteChannel channel = Channels.newChannel(zin);
+                    result.put(entry.getName(), parseInput(scanner -> read(channel, scanner), validator));
+                }
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read ZIP input", ex);
+        }
+        return result;
+
+    }
+
+    private Uic301Documents parseInput(final Input input, final Validator validator) throws Uic301Exception {
+
+        Utils4J.checkNotNull("validator", validator);
+
+        final Uic301Documents documents = new Uic301Documents();
+        final AsciiLineScanner scanner = new AsciiLineScanner(
+                (lineNo, line, position) -> documents.parse(lineNo, line, detailFactory));
+        scan(input, scanner);
+        documents.validate(validator);
+        documents.seal();
+        return documents;
+
+    }
+
+    private int parseInput(final Input input, final Validator validator, final Uic301DocumentListener listener)
+            throws Uic301Exception {
+
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+
+        final Uic301StreamingParser parser = new Uic301StreamingParser(new Uic301LineParser(detailFactory), validator,
+                listener);
+        scan(input, new AsciiLineScanner((lineNo, line, position) -> parser.parse(lineNo, line)));
+        parser.finish();
+        return parser.getDocumentCount();
+
+    }
+
+    /**
+     * Reads a text file and passes every non-empty line (trimmed) to a
+     * handler. Empty lines are not counted.
+     */
+    private static void readLines(final File inputFile, final LineHandler handler) throws Uic301Exception {
+        String line = null;
+        try {
+            int count = 0;
+            try (final LineNumberReader lnr = new LineNumberReader(new BufferedReader(new FileReader(inputFile)))) {
+                while ((line = lnr.readLine()) != null) {
+                    final String trimmed = line.trim();
+                    if (trimmed.length() > 0) {
+                        handler.handle(++count, trimmed);
+                    }
+                }
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read line: '" + line + "'", ex);
+        }
+    }
+
+    private static void scan(final Input input, final AsciiLineScanner scanner) throws Uic301Exception {
+        try {
+            input.read(scanner);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read input after line # " + scanner.getLineCount(), ex);
+        }
+        scanner.finish();
+    }
+
+    private static void read(final ReadableByteChannel channel, final AsciiLineScanner scanner)
+            throws IOException, Uic301Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            scanner.scan(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static void readGzip(final InputStream in, final AsciiLineScanner scanner)
+            throws IOException, Uic301Exception {
+        try (final GZIPInputStream gin = new GZIPInputStream(new UnclosedInputStream(in), BUFFER_SIZE)) {
+            read(Channels.newChannel(gin), scanner);
+        }
+    }
+
+    /**
+     * Receives the lines of a text file.
+     */
+    @FunctionalInterface
+    private static interface LineHandler {
+
+        /**
+         * Handles a line.
+         * 
+         * @param lineNo
+         *            Number of the line (Empty lines are not counted).
+         * @param line
+         *            Trimmed line.
+         * 
+         * @throws Uic301Exception
+         *             The line couldn't be parsed.
+         */
+        public void handle(int lineNo, String line) throws Uic301Exception;
+
+    }
+
+    /**
+     * Source of bytes that are passed to a scanner.
+     */
+    @FunctionalInterface
+    private static interface Input {
+
+        /**
+         * Passes all bytes of the input to the scanner.
+         * 
+         * @param scanner
+         *            Scanner to use.
+         * 
+         * @throws IOException
+         *             Error reading the input.
+         * @throws Uic301Exception
+         *             The scanner failed to process a line.
+         */
+        public void read(AsciiLineScanner scanner) throws IOException, Uic301Exception;
+
+    }
+
+    /**
+     * Stream that doesn't close the wrapped stream. Used to release the
+     * resources of decompressing streams without closing the caller's stream.
+     */
+    private static final class UnclosedInputStream extends FilterInputStream {
+
+        UnclosedInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // Caller's stream stays open
+        }
+
+    }
+
+}
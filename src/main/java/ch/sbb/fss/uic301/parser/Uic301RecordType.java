@@ -0,0 +1,234 @@
+package ch.sbb.fss.uic301.parser;
+
+/**
+ * Kind of a record derived from the 9 digit identifier at the start of a line.
+ * An identifier has the form <code>14GK10000</code>: The group digit
+ * <code>G</code> defines the {@link Uic301Type} (1=G4, 2=G5 allocations, 3=G5
+ * issues, 4=G4 DB, 5=G5 allocations DB) and the kind digit <code>K</code>
+ * defines header (1), detail (2) or total (3). A line is classified with a
+ * single pass over the identifier and a table lookup.
+ */
+public enum Uic301RecordType {
+
+    /** G4 header. */
+    G4_HEADER(1, Uic301ParserState.HEADER, Uic301Type.G4, false),
+
+    /** G4 detail. */
+    G4_DETAIL(1, Uic301ParserState.DETAIL, Uic301Type.G4, false),
+
+    /** G4 total. */
+    G4_TOTAL(1, Uic301ParserState.TOTAL, Uic301Type.G4, false),
+
+    /** G5 allocations header. */
+    G5_ALLOCATION_HEADER(2, Uic301ParserState.HEADER, Uic301Type.G5_ALLOCATION, false),
+
+    /** G5 allocations detail. */
+    G5_ALLOCATION_DETAIL(2, Uic301ParserState.DETAIL, Uic301Type.G5_ALLOCATION, false),
+
+    /** G5 allocations total. */
+    G5_ALLOCATION_TOTAL(2, Uic301ParserState.TOTAL, Uic301Type.G5_ALLOCATION, false),
+
+    /** G5 issues header. */
+    G5_ISSUE_HEADER(3, Uic301ParserState.HEADER, Uic301Type.G5_ISSUE, false),
+
+    /** G5 issues detail. */
+    G5_ISSUE_DETAIL(3, Uic301ParserState.DETAIL, Uic301Type.G5_ISSUE, false),
+
+    /** G5 issues total. */
+    G5_ISSUE_TOTAL(3, Uic301ParserState.TOTAL, Uic301Type.G5_ISSUE, false),
+
+    /** G4 DB header. */
+    G4_DB_HEADER(4, Uic301ParserState.HEADER, Uic301Type.G4, true),
+
+    /** G4 DB detail. */
+    G4_DB_DETAIL(4, Uic301ParserState.DETAIL, Uic301Type.G4, true),
+
+    /** G4 DB total. */
+    G4_DB_TOTAL(4, Uic301ParserState.TOTAL, Uic301Type.G4, true),
+
+    /** G5 allocations DB header. */
+    G5_ALLOCATION_DB_HEADER(5, Uic301ParserState.HEADER, Uic301Type.G5_ALLOCATION, true),
+
+    /** G5 allocations DB detail. */
+    G5_ALLOCATION_DB_DETAIL(5, Uic301ParserState.DETAIL, Uic301Type.G5_ALLOCATION, true),
+
+    /** G5 allocations DB total. */
+    G5_ALLOCATION_DB_TOTAL(5, Uic301ParserState.TOTAL, Uic301Type.G5_ALLOCATION, true);
+
+    /** Length of an identifier. */
+    public static final int IDENTIFIER_LENGTH = 9;
+
+    private static final String PREFIX = "14";
+
+    private static final String SUFFIX = "10000";
+
+    private static final int MAX_GROUP = 5;
+
+    private static final int MAX_KIND = 3;
+
+    /** Record types by group and kind digit. */
+    private static final Uic301RecordType[] TABLE = new Uic301RecordType[(MAX_GROUP + 1) * (MAX_KIND + 1)];
+
+    static {
+        for (final Uic301RecordType recordType : values()) {
+            TABLE[index(recordType.group, kindDigit(recordType.kind))] = recordType;
+        }
+    }
+
+    private final int group;
+
+    private final Uic301ParserState kind;
+
+    private final Uic301Type type;
+
+    private final boolean db;
+
+    private final String identifier;
+
+    private Uic301RecordType(final int group, final Uic301ParserState kind, final Uic301Type type,
+            final boolean db) {
+        this.group = group;
+        this.kind = kind;
+        this.type = type;
+        this.db = db;
+        this.identifier = PREFIX + group + kindDigit(kind) + SUFFIX;
+    }
+
+    /**
+     * Returns the identifier of the record type.
+     *
+     * @return Identifier with 9 digits.
+     */
+    public final String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Returns the kind of record.
+     *
+     * @return {@link Uic301ParserState#HEADER},
+     *         {@link Uic301ParserState#DETAIL} or
+     *         {@link Uic301ParserState#TOTAL}.
+     */
+    public final Uic301ParserState getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the type of document the record belongs to.
+     *
+     * @return Document type.
+     */
+    public final Uic301Type getType() {
+        return type;
+    }
+
+    /**
+     * Determines if this is a DB variant of the type.
+     *
+     * @return <code>true</code> for 144xx0000 and 145xx0000 identifiers.
+     */
+    public final boolean isDb() {
+        return db;
+    }
+
+    /**
+     * Determines if the record is a header.
+     *
+     * @return <code>true</code> if the kind is {@link Uic301ParserState#HEADER}.
+     */
+    public final boolean isHeader() {
+        return kind == Uic301ParserState.HEADER;
+    }
+
+    /**
+     * Determines if the record is a detail.
+     *
+     * @return <code>true</code> if the kind is {@link Uic301ParserState#DETAIL}.
+     */
+    public final boolean isDetail() {
+        return kind == Uic301ParserState.DETAIL;
+    }
+
+    /**
+     * Determines if the record is a total.
+     *
+     * @return <code>true</code> if the kind is {@link Uic301ParserState#TOTAL}.
+     */
+    public final boolean isTotal() {
+        return kind == Uic301ParserState.TOTAL;
+    }
+
+    /**
+     * Determines if the other record type may be part of the same document.
+     * This is the case if both have the same type and DB variant.
+     *
+     * @param other
+     *            Record type to compare with.
+     *
+     * @return <code>true</code> if both identifiers have the same group.
+     */
+    public final boolean isSameGroup(final Uic301RecordType other) {
+        return other != null && group == other.group;
+    }
+
+    /**
+     * Classifies a line by the identifier at its start.
+     *
+     * @param line
+     *            Line to classify.
+     *
+     * @return Record type or <code>null</code> if the line is
+     *         <code>null</code> or does not start with a known identifier.
+     */
+    public static Uic301RecordType classify(final CharSequence line) {
+        if (line == null || line.length() < IDENTIFIER_LENGTH || line.charAt(0) != '1' || line.charAt(1) != '4') {
+            return null;
+        }
+        for (int i = 0; i < SUFFIX.length(); i++) {
+            if (line.charAt(4 + i) != SUFFIX.charAt(i)) {
+                return null;
+            }
+        }
+        final int group = line.charAt(2) - '0';
+        final int kind = line.charAt(3) - '0';
+        if (group < 0 || group > MAX_GROUP || kind < 0 || kind > MAX_KIND) {
+            return null;
+        }
+        return TABLE[index(group, kind)];
+    }
+
+    /**
+     * Returns the record type of an identifier.
+     *
+     * @param identifier
+     *            Identifier with exactly 9 digits.
+     *
+     * @return Record type or <code>null</code> if the identifier is
+     *         <code>null</code> or unknown.
+     */
+    public static Uic301RecordType of(final String identifier) {
+        if (identifier == null || identifier.length() != IDENTIFIER_LENGTH) {
+            return null;
+        }
+        return classify(identifier);
+    }
+
+    private static int index(final int group, final int kind) {
+        return group * (MAX_KIND + 1) + kind;
+    }
+
+    private static int kindDigit(final Uic301ParserState kind) {
+        switch (kind) {
+        case HEADER:
+            return 1;
+        case DETAIL:
+            return 2;
+        case TOTAL:
+            return 3;
+        default:
+            throw new IllegalArgumentException("No record kind: " + kind);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Parses an UIC 301 file document by document and writes a
+ * {@link Uic301Checkpoint} at every document boundary. If the parse process is
+ * interrupted (for example by a restart of the JVM), a new run continues at
+ * the last checkpoint. Documents that were already passed to the listener are
+ * skipped, so at most one document has to be parsed again.<br>
+ * <br>
+ * A document is complete as soon as all totals announced in its header were
+ * parsed (or with the next header if the header is invalid). Like
+ * {@link Uic301MappedFileParser} the file is memory mapped and not decoded
+ * into characters, so it has to use a single byte character set.
+ */
+public final class Uic301ResumableParser {
+
+    private final int chunkSize;
+
+    private final Uic301DetailFactory detailFactory;
+
+    /**
+     * Default constructor.
+     */
+    public Uic301ResumableParser() {
+        this(Uic301MappedFileParser.DEFAULT_CHUNK_SIZE, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with all data.
+     *
+     * @param chunkSize
+     *            Number of bytes mapped at once (Value &gt; 0).
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    public Uic301ResumableParser(final int chunkSize, final Uic301DetailFactory detailFactory) {
+        super();
+        Utils4J.checkNotNull("detailFactory", detailFactory);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Expected a chunk size greater than 0, but was: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.detailFactory = detailFactory;
+    }
+
+    /**
+     * Parses an UIC 301 file starting at the last checkpoint. Every document
+     * is validated, sealed and passed to the listener as soon as it is
+     * complete. The checkpoint file is updated after every document and when
+     * the end of the file is reached.
+     *
+     * @param inputFile
+     *            Text file with one or more UIC 301 documents to parse.
+     * @param checkpointFile
+     *            File with the last checkpoint. If it does not exist, the
+     *            parser starts at the beginning of the input file.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents not passed in a previous
+     *            run.
+     *
+     * @return Number of documents of the file (including the documents passed
+     *         to the listener in previous runs).
+     *
+     * @throws Uic301Exception
+     *             The file couldn't be parsed.
+     */
+    public final int parse(final File inputFile, final File checkpointFile, final Validator validator,
+            final Uic301DocumentListener listener) throws Uic301Exception {
+
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("checkpointFile", checkpointFile);
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+
+        final Uic301Checkpoint start = Uic301Checkpoint.read(checkpointFile);
+        if (start.isComplete()) {
+            return start.getDocumentCount();
+        }
+        final long end = inputFile.length();
+        if (start.getPosition() > end) {
+            throw new Uic301Exception("Checkpoint position " + start.getPosition() + " is after the end of the file ("
+                    + end + " bytes): " + inputFile);
+        }
+
+        final Uic301StreamingParser parser = new Uic301StreamingParser(
+                new Uic301LineParser(start.getState(), null, detailFactory), validator, listener, true);
+        final Checkpoints checkpoints = new Checkpoints(checkpointFile, parser, start.getDocumentCount());
+        final AsciiLineScanner scanner = new AsciiLineScanner(checkpoints::line, start.getPosition(),
+                start.getLineCount());
+        Uic301MappedFileParser.scan(inputFile, start.getPosition(), end, chunkSize, scanner);
+        parser.finish();
+
+        final int count = start.getDocumentCount() + parser.getDocumentCount();
+        new Uic301Checkpoint(end, scanner.getLineCount(), parser.getLineParser().getState(), count, true)
+                .write(checkpointFile);
+        return count;
+
+    }
+
+    /**
+     * Passes lines to the parser and writes a checkpoint before the first line
+     * that follows a completed document.
+     */
+    private static final class Checkpoints {
+
+        private final File file;
+
+        private final Uic301StreamingParser parser;
+
+        private final int previousDocuments;
+
+        /** A document was completed, but no checkpoint was written yet. */
+        private boolean pending;
+
+        Checkpoints(final File file, final Uic301StreamingParser parser, final int previousDocuments) {
+            super();
+            this.file = file;
+            this.parser = parser;
+            this.previousDocuments = previousDocuments;
+        }
+
+        void line(final int lineNo, final CharSequence line, final long position) throws Uic301Exception {
+            final Uic301ParserState before = parser.getLineParser().getState();
+            if (pending) {
+                write(position, lineNo - 1, before);
+                pending = false;
+            }
+            if (parser.parse(lineNo, line)) {
+                final Uic301Document current = parser.getLineParser().getDocument();
+                if (current.isSealed()) {
+                    // Completed by it's last total: Checkpoint is after this line
+                    pending = true;
+                } else {
+                    // Completed by the header of the next document
+                    write(position, lineNo - 1, before);
+                }
+            }
+        }
+
+        private void write(final long position, final int lineCount, final Uic301ParserState state) {
+            new Uic301Checkpoint(position, lineCount, state, previousDocuments + parser.getDocumentCount(), false)
+                    .write(file);
+        }
+
+    }
+
+}
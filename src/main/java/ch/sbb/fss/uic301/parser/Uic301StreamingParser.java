@@ -0,0 +1,207 @@
+package ch.sbb.fss.uic301.parser;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Parses lines one by one and passes every document to a listener as soon as
+ * it is complete. A document is complete when the next header starts a new
+ * one or when the end of the input is reached. Optionally a document is
+ * already complete when the number of totals announced in the header has been
+ * parsed. Before the document is passed to the listener it is validated and
+ * sealed.
+ */
+final class Uic301StreamingParser {
+
+    private final Uic301LineParser lineParser;
+
+    private final Validator validator;
+
+    private final Uic301DocumentListener listener;
+
+    private final boolean completeOnTotals;
+
+    private final boolean validateLater;
+
+    private int documentCount;
+
+    /** Last document passed to the listener. */
+    private Uic301Document completed;
+
+    /**
+     * Constructor with all mandatory data.
+     * 
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the completed documents.
+     */
+    Uic301StreamingParser(final Validator validator, final Uic301DocumentListener listener) {
+        this(new Uic301LineParser(), validator, listener);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param lineParser
+     *            Line parser to use.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the completed documents.
+     */
+    Uic301StreamingParser(final Uic301LineParser lineParser, final Validator validator,
+            final Uic301DocumentListener listener) {
+        this(lineParser, validator, listener, false);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param lineParser
+     *            Line parser to use.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the completed documents.
+     * @param completeOnTotals
+     *            <code>true</code> if a document is complete as soon as the
+     *            number of totals announced in the header was parsed. More
+     *            totals than announced will lead to an exception in this
+     *            case. <code>false</code> if only the next header or the end of
+     *            the input completes a document.
+     */
+    Uic301StreamingParser(final Uic301LineParser lineParser, final Validator validator,
+            final Uic301DocumentListener listener, final boolean completeOnTotals) {
+        this(lineParser, validator, listener, completeOnTotals, false);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param lineParser
+     *            Line parser to use.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the completed documents.
+     * @param completeOnTotals
+     *            <code>true</code> if a document is complete as soon as the
+     *            number of totals announced in the header was parsed.
+     * @param validateLater
+     *            <code>true</code> if the documents are passed to the listener
+     *            without validating and sealing them. They validate themselves
+     *            on first demand (See
+     *            {@link Uic301Document#validateLater(Validator)}).
+     */
+    Uic301StreamingParser(final Uic301LineParser lineParser, final Validator validator,
+            final Uic301DocumentListener listener, final boolean completeOnTotals, final boolean validateLater) {
+        super();
+        Utils4J.checkNotNull("lineParser", lineParser);
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+        this.lineParser = lineParser;
+        this.validator = validator;
+        this.listener = listener;
+        this.completeOnTotals = completeOnTotals;
+        this.validateLater = validateLater;
+    }
+
+    /**
+     * Parses a single line. If the line starts a new document, the previous
+     * one is passed to the listener.
+     * 
+     * @param lineNo
+     *            Current line number (Used for error messages).
+     * @param line
+     *            Current line to parse.
+     * 
+     * @return <code>true</code> if the line completed a document, else
+     *         <code>false</code>.
+     * 
+     * @throws Uic301Exception
+     *             The parse process failed.
+     */
+    boolean parse(final int lineNo, final CharSequence line) throws Uic301Exception {
+        final Uic301Document previous = lineParser.getDocument();
+        if (previous != null && previous == completed) {
+            // The document was already passed to the listener
+            final Uic301ParserState type = Uic301LineParser.typeOf(line);
+            if (type == Uic301ParserState.TOTAL) {
+                throw new Uic301Exception(
+                        "More totals than announced in the header of the document [Line # " + lineNo + "]");
+            }
+            if (type == Uic301ParserState.DETAIL) {
+                throw new Uic301Exception(
+                        "Detail after the totals announced in the header of the document [Line # " + lineNo + "]");
+            }
+        }
+        if (lineParser.parse(lineNo, line)) {
+            if (previous != null && previous != completed) {
+                complete(previous);
+                return true;
+            }
+            return false;
+        }
+        final Uic301Document current = lineParser.getDocument();
+        if (completeOnTotals && lineParser.getState() == Uic301ParserState.TOTAL && allTotalsParsed(current)) {
+            complete(current);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Signals the end of the input and passes the last document (if any) to
+     * the listener.
+     */
+    void finish() {
+        final Uic301Document last = lineParser.getDocument();
+        if (last != null && last != completed) {
+            complete(last);
+        }
+    }
+
+    /**
+     * Returns the number of documents passed to the listener so far.
+     * 
+     * @return Number of completed documents.
+     */
+    int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * Returns the line parser.
+     * 
+     * @return Line parser used.
+     */
+    Uic301LineParser getLineParser() {
+        return lineParser;
+    }
+
+    private static boolean allTotalsParsed(final Uic301Document document) {
+        final Integer expected;
+        try {
+            expected = document.getHeader().getNoOfTotalPhrasesValue();
+        } catch (final RuntimeException ex) {
+            // Invalid header: Wait for the next header or the end of input
+            return false;
+        }
+        return expected != null && document.getTotals().getList().size() >= expected;
+    }
+
+    private void complete(final Uic301Document document) {
+        if (validateLater) {
+            document.validateLater(validator);
+        } else {
+            document.validate(validator);
+            document.seal();
+        }
+        completed = document;
+        documentCount++;
+        listener.onDocument(document);
+    }
+
+}
@@ -0,0 +1,263 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import javax.validation.Validator;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Follows an UIC 301 file that is still being written and parses the complete
+ * lines that are available so far. A line that is not terminated yet is kept
+ * until the rest arrives. The {@link Uic301ParserState} and the current
+ * document are carried from one read to the next.<br>
+ * <br>
+ * Every document is validated, sealed and passed to the listener as soon as
+ * all totals announced in its header were parsed. There is no need to wait for
+ * the next header or the end of the file. If the header doesn't contain a
+ * valid number of totals, the document is complete with the next header or
+ * the end of the file like with {@link Uic301Parser}.<br>
+ * <br>
+ * Like {@link Uic301MappedFileParser} the bytes are not decoded into
+ * characters, so the file has to use a single byte character set. An instance
+ * follows exactly one file and is not thread safe.
+ */
+public final class Uic301TailingParser {
+
+    /** Default time to wait between two reads in milliseconds. */
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 500;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File inputFile;
+
+    private final Uic301StreamingParser parser;
+
+    private final AsciiLineScanner scanner;
+
+    private final ByteBuffer buffer;
+
+    /** Number of bytes of the file already passed to the scanner. */
+    private long readPosition;
+
+    private boolean finished;
+
+    /**
+     * Constructor with mandatory data.
+     *
+     * @param inputFile
+     *            File to follow. The file must already exist.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     */
+    public Uic301TailingParser(final File inputFile, final Validator validator,
+            final Uic301DocumentListener listener) {
+        this(inputFile, validator, listener, Uic301DetailFactory.STANDARD);
+    }
+
+    /**
+     * Constructor with all data.
+     *
+     * @param inputFile
+     *            File to follow. The file must already exist.
+     * @param validator
+     *            Validator to use.
+     * @param listener
+     *            Listener that receives the documents.
+     * @param detailFactory
+     *            Factory that creates the details.
+     */
+    public Uic301TailingParser(final File inputFile, final Validator validator,
+            final Uic301DocumentListener listener, final Uic301DetailFactory detailFactory) {
+        super();
+        Utils4J.checkValidFile(inputFile);
+        Utils4J.checkNotNull("validator", validator);
+        Utils4J.checkNotNull("listener", listener);
+        Utils4J.checkNotNull("detailFactory", detailFactory);
+        this.inputFile = inputFile;
+        this.parser = new Uic301StreamingParser(new Uic301LineParser(detailFactory), validator, listener, true);
+        this.scanner = new AsciiLineScanner((lineNo, line, position) -> parser.parse(lineNo, line));
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.readPosition = 0;
+        this.finished = false;
+    }
+
+    /**
+     * Parses all bytes that were appended to the file since the last call.
+     * Completed documents are passed to the listener.
+     *
+     * @return Number of new bytes read.
+     *
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final long read() throws Uic301Exception {
+        assertNotFinished();
+        final long start = readPosition;
+        try (final FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < readPosition) {
+                throw new Uic301Exception("File was truncated to " + channel.size() + " bytes after reading "
+                        + readPosition + " bytes: " + inputFile);
+            }
+            channel.position(readPosition);
+            int count;
+            while ((count = channel.read(buffer)) > 0) {
+                readPosition = readPosition + count;
+                buffer.flip();
+                scanner.scan(buffer);
+                buffer.clear();
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read file: " + inputFile, ex);
+        }
+        return readPosition - start;
+    }
+
+    /**
+     * Signals that the file is complete. The remaining bytes are read and the
+     * last document (if not already done) is passed to the listener. No more
+     * reads are possible afterwards.
+     *
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     */
+    public final void finish() throws Uic301Exception {
+        read();
+        scanner.finish();
+        parser.finish();
+        finished = true;
+    }
+
+    /**
+     * Follows the file until it is complete. The file is complete if the
+     * completion marker file exists or if no new bytes arrived within the idle
+     * timeout. Between two reads without new data the method waits for
+     * {@link #DEFAULT_POLL_INTERVAL_MILLIS}.
+     *
+     * @param completionMarker
+     *            File that is created after the input file was completely
+     *            written or <code>null</code> to rely only on the idle timeout.
+     * @param idleTimeoutMillis
+     *            Maximum time to wait for new bytes in milliseconds.
+     *
+     * @return Number of documents passed to the listener.
+     *
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     * @throws InterruptedException
+     *             The thread was interrupted while waiting for new data.
+     */
+    public final int follow(final File completionMarker, final long idleTimeoutMillis)
+            throws Uic301Exception, InterruptedException {
+        return follow(completionMarker, idleTimeoutMillis, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Follows the file until it is complete. The file is complete if the
+     * completion marker file exists or if no new bytes arrived within the idle
+     * timeout.
+     *
+     * @param completionMarker
+     *            File that is created after the input file was completely
+     *            written or <code>null</code> to rely only on the idle timeout.
+     * @param idleTimeoutMillis
+     *            Maximum time to wait for new bytes in milliseconds.
+     * @param pollIntervalMillis
+     *            Time to wait between two reads without new data in
+     *            milliseconds.
+     *
+     * @return Number of documents passed to the listener.
+     *
+     * @throws Uic301Exception
+     *             The data couldn't be parsed.
+     * @throws InterruptedException
+     *             The thread was interrupted while waiting for new data.
+     */
+    public final int follow(final File completionMarker, final long idleTimeoutMillis,
+            final long pollIntervalMillis) throws Uic301Exception, InterruptedException {
+
+        if (idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Expected an idle timeout of 0 or more, but was: " + idleTimeoutMillis);
+        }
+        if (pollIntervalMillis < 1) {
+            throw new IllegalArgumentException(
+                    "Expected a poll interval greater than 0, but was: " + pollIntervalMillis);
+        }
+
+        long lastData = System.currentTimeMillis();
+        while (true) {
+            // The marker is checked before reading, so bytes written before
+            // the marker was created are always read
+            final boolean complete = completionMarker != null && completionMarker.exists();
+            if (read() > 0) {
+                lastData = System.currentTimeMillis();
+            } else if (complete || System.currentTimeMillis() - lastData >= idleTimeoutMillis) {
+                break;
+            } else {
+                Thread.sleep(pollIntervalMillis);
+            }
+        }
+        finish();
+        return parser.getDocumentCount();
+
+    }
+
+    /**
+     * Returns the state of the parser after the last complete line.
+     *
+     * @return Current state.
+     */
+    public final Uic301ParserState getState() {
+        return parser.getLineParser().getState();
+    }
+
+    /**
+     * Returns the number of bytes read from the file so far.
+     *
+     * @return Number of bytes.
+     */
+    public final long getReadPosition() {
+        return readPosition;
+    }
+
+    /**
+     * Returns the number of non-empty lines parsed so far.
+     *
+     * @return Number of lines.
+     */
+    public final int getLineCount() {
+        return scanner.getLineCount();
+    }
+
+    /**
+     * Returns the number of documents passed to the listener so far.
+     *
+     * @return Number of completed documents.
+     */
+    public final int getDocumentCount() {
+        return parser.getDocumentCount();
+    }
+
+    /**
+     * Determines if the parser was finished.
+     *
+     * @return <code>true</code> if {@link #finish()} was called.
+     */
+    public final boolean isFinished() {
+        return finished;
+    }
+
+    private void assertNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("The parser is already finished: " + inputFile);
+        }
+    }
+
+}
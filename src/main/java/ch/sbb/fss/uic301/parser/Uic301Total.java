@@ -1,6 +1,5 @@
 package ch.sbb.fss.uic301.parser;
 
-import static ch.sbb.fss.uic301.parser.Uic301Utils.bigDecimalOf;
 import static ch.sbb.fss.uic301.parser.Uic301Utils.integerOf;
 
 import java.math.BigDecimal;
@@ -26,6 +25,7 @@ import org.fuin.objects4j.ui.Tooltip;
 import ch.sbb.fss.uic301.parser.StatementPeriod.StatementPeriodStr;
 import ch.sbb.fss.uic301.parser.constraints.CurrencyStr;
 import ch.sbb.fss.uic301.parser.constraints.FixedLenDigitsStr;
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
 import ch.sbb.fss.uic301.parser.constraints.IdentifierStr;
 import ch.sbb.fss.uic301.parser.constraints.ReservedStr;
 import ch.sbb.fss.uic301.parser.constraints.RicsCodeStr;
@@ -36,6 +36,7 @@ import ch.sbb.fss.uic301.parser.constraints.RicsCodeStr;
  * This is a value object and so equals and has code are based on the values of
  * all fields.
  */
+@GenerateValidator
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlRootElement(name = Uic301Total.TAG)
 public final class Uic301Total implements ParsedLineItem, Sealable, Uic301DocumentItem {
@@ -52,8 +53,27 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
 
     private static final String G5_ISSUES = "143310000";
 
+    private static final int GROSS_DEBIT = 0;
+
+    private static final int GROSS_CREDIT = 1;
+
+    private static final int AMOUNT_COMMISSION_DEBITED = 2;
+
+    private static final int AMOUNT_COMMISSION_CREDITED = 3;
+
+    private static final int NET_BALANCE_AMOUNT = 4;
+
     private transient boolean sealed = false;
 
+    /** Amounts converted by {@link #seal()}. */
+    private transient DecodedAmounts amounts = DecodedAmounts.NONE;
+
+    private transient Uic301Type identifierType;
+
+    private transient StatementCurrencyPeriod statementCurrencyPeriod;
+
+    private transient NetBalanceType debitCreditBalanceType;
+
     @XmlAttribute(name = "errorCount")
     private Integer errorCount;
 
@@ -307,14 +327,12 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
      * @return Identifier type.
      */
     public Uic301Type getIdentifierType() {
-        if (G4.equals(identifier)) {
-            return Uic301Type.G4;
-        }
-        if (G5_ALLOCATION.equals(identifier)) {
-            return Uic301Type.G5_ALLOCATION;
+        if (identifierType != null) {
+            return identifierType;
         }
-        if (G5_ISSUES.equals(identifier)) {
-            return Uic301Type.G5_ISSUE;
+        final Uic301RecordType recordType = Uic301RecordType.of(identifier);
+        if (recordType != null && recordType.isTotal() && !recordType.isDb()) {
+            return recordType.getType();
         }
         return null;
     }
@@ -353,6 +371,9 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
      * @return Currency and period.
      */
     public StatementCurrencyPeriod getStatementCurrencyPeriod() {
+        if (statementCurrencyPeriod != null) {
+            return statementCurrencyPeriod;
+        }
         return new StatementCurrencyPeriod(statementCurrency, statementPeriod);
     }
 
@@ -361,7 +382,11 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     }
 
     public BigDecimal getGrossDebitValue() {
-        return bigDecimalOf("grossDebit", grossDebit, 2);
+        return amounts.value(GROSS_DEBIT, "grossDebit", grossDebit);
+    }
+
+    public Long getGrossDebitCents() {
+        return amounts.nullableCents(GROSS_DEBIT, "grossDebit", grossDebit);
     }
 
     public String getGrossCredit() {
@@ -369,7 +394,11 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     }
 
     public BigDecimal getGrossCreditValue() {
-        return bigDecimalOf("grossCredit", grossCredit, 2);
+        return amounts.value(GROSS_CREDIT, "grossCredit", grossCredit);
+    }
+
+    public Long getGrossCreditCents() {
+        return amounts.nullableCents(GROSS_CREDIT, "grossCredit", grossCredit);
     }
 
     public String getAmountCommissionDebited() {
@@ -377,7 +406,11 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     }
 
     public BigDecimal getAmountCommissionDebitedValue() {
-        return bigDecimalOf("amountCommissionDebited", amountCommissionDebited, 2);
+        return amounts.value(AMOUNT_COMMISSION_DEBITED, "amountCommissionDebited", amountCommissionDebited);
+    }
+
+    public Long getAmountCommissionDebitedCents() {
+        return amounts.nullableCents(AMOUNT_COMMISSION_DEBITED, "amountCommissionDebited", amountCommissionDebited);
     }
 
     public String getAmountCommissionCredited() {
@@ -385,7 +418,11 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     }
 
     public BigDecimal getAmountCommissionCreditedValue() {
-        return bigDecimalOf("amountCommissionCredited", amountCommissionCredited, 2);
+        return amounts.value(AMOUNT_COMMISSION_CREDITED, "amountCommissionCredited", amountCommissionCredited);
+    }
+
+    public Long getAmountCommissionCreditedCents() {
+        return amounts.nullableCents(AMOUNT_COMMISSION_CREDITED, "amountCommissionCredited", amountCommissionCredited);
     }
 
     public String getDebitCreditBalance() {
@@ -393,6 +430,9 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     }
 
     public NetBalanceType getDebitCreditBalanceType() {
+        if (debitCreditBalanceType != null) {
+            return debitCreditBalanceType;
+        }
         if (debitCreditBalance == null) {
             return null;
         }
@@ -411,7 +451,11 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     }
 
     public BigDecimal getNetBalanceAmountValue() {
-        return bigDecimalOf("netBalanceAmount", netBalanceAmount, 2);
+        return amounts.value(NET_BALANCE_AMOUNT, "netBalanceAmount", netBalanceAmount);
+    }
+
+    public Long getNetBalanceAmountCents() {
+        return amounts.nullableCents(NET_BALANCE_AMOUNT, "netBalanceAmount", netBalanceAmount);
     }
 
     @Override
@@ -590,6 +634,19 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
         }
     }
 
+    /**
+     * Sets the errors of a total that was read from a binary file (See
+     * {@link Uic301BinaryWriter}).
+     * 
+     * @param list
+     *            Errors to set - Never <code>null</code> or empty.
+     */
+    void assignErrors(@NotNull final List<FieldError> list) {
+        assertNotSealed();
+        errors = list;
+        errorCount = errors.size();
+    }
+
     /**
      * Returns a number of errors.
      * 
@@ -618,10 +675,24 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
     @Override
     public void seal() {
         if (!sealed) {
+            decode();
             sealed = true;
         }
     }
 
+    /**
+     * Converts the typed values once, so the getters don't need to parse the
+     * strings again after sealing. Values that cannot be converted are still
+     * converted on every call.
+     */
+    private void decode() {
+        identifierType = getIdentifierType();
+        statementCurrencyPeriod = getStatementCurrencyPeriod();
+        debitCreditBalanceType = getDebitCreditBalanceType();
+        amounts = new DecodedAmounts(grossDebit, grossCredit, amountCommissionDebited, amountCommissionCredited,
+                netBalanceAmount);
+    }
+
     @Override
     public boolean isSealed() {
         return sealed;
@@ -649,6 +720,18 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
         this.parsedLineNo = parsedLineNo;
     }
 
+    /**
+     * Returns the values of all fields.
+     * 
+     * @return Values in the order of {@link Uic301TotalField}.
+     */
+    final String[] values() {
+        return new String[] { getIdentifier(), getRailUnionCompiling(), getRailUnionReceiving(), getPeriod(),
+                getReserved(), getStatementCurrency(), getStatementPeriod(), getGrossDebit(), getGrossCredit(),
+                getAmountCommissionDebited(), getAmountCommissionCredited(), getDebitCreditBalance(),
+                getNetBalanceAmount() };
+    }
+
     @Override
     public void changePeriodCounter(int i) {
         this.period = Uic301Utils.changePeriodCounter(this.period, i);
@@ -667,29 +750,33 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
      * @throws Uic301Exception
      *             Parsing the total failed.
      */
-    public static Uic301Total parse(final int no, final String line) throws Uic301Exception {
+    public static Uic301Total parse(final int no, final CharSequence line) throws Uic301Exception {
         if (!isTotal(line)) {
             throw new IllegalArgumentException("# " + no + " is no total line: '" + line + "'");
         }
 
-        final SubString subStr = new SubString(line);
-        final String identifier = subStr.next("identifier", 9);
-        final String railUnionCompiling = subStr.next("railUnionCompiling", 4);
-        final String railUnionReceiving = subStr.next("railUnionReceiving", 4);
-        final String period = subStr.next("period", 6);
-        final String reserved = subStr.next("reserved", 1);
-        final String statementCurrency = subStr.next("statementCurrency", 3);
-        final String statementPeriod = subStr.next("statementPeriod", 2);
-        final String grossDebit = subStr.next("grossDebit", 12);
-        final String grossCredit = subStr.next("grossCredit", 12);
-        final String amountCommissionDebited = subStr.next("amountCommissionDebited", 11);
-        final String amountCommissionCredited = subStr.next("amountCommissionCredited", 11);
-        final String debitCreditBalance = subStr.next("debitCreditBalance", 1);
-        final String netBalanceAmount = subStr.next("netBalanceAmount", 12);
-
-        return new Uic301Total(identifier, railUnionCompiling, railUnionReceiving, period, reserved,
-                statementCurrency, statementPeriod, grossDebit, grossCredit, amountCommissionDebited,
-                amountCommissionCredited, debitCreditBalance, netBalanceAmount, no);
+        final FieldCursor cursor = new FieldCursor(line, Uic301TotalField.list());
+        try {
+            final String identifier = cursor.next();
+            final String railUnionCompiling = cursor.next();
+            final String railUnionReceiving = cursor.next();
+            final String period = cursor.next();
+            final String reserved = cursor.next();
+            final String statementCurrency = cursor.next();
+            final String statementPeriod = cursor.next();
+            final String grossDebit = cursor.next();
+            final String grossCredit = cursor.next();
+            final String amountCommissionDebited = cursor.next();
+            final String amountCommissionCredited = cursor.next();
+            final String debitCreditBalance = cursor.next();
+            final String netBalanceAmount = cursor.next();
+
+            return new Uic301Total(identifier, railUnionCompiling, railUnionReceiving, period, reserved,
+                    statementCurrency, statementPeriod, grossDebit, grossCredit, amountCommissionDebited,
+                    amountCommissionCredited, debitCreditBalance, netBalanceAmount, no);
+        } catch (final RuntimeException ex) {
+            throw new IllegalArgumentException("# " + no + " failed to parse total line: " + cursor.getTrace(), ex);
+        }
 
     }
 
@@ -701,8 +788,8 @@ public final class Uic301Total implements ParsedLineItem, Sealable, Uic301Docume
      * 
      * @return True if the line starts with a known total identifier.
      */
-    public static boolean isTotal(final String line) {
-        return line != null && (line.startsWith(G4) || line.startsWith(G4_DB) || line.startsWith(G5_ALLOCATION)
-                || line.startsWith(G5_ALLOCATION_DB) || line.startsWith(G5_ISSUES));
+    public static boolean isTotal(final CharSequence line) {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        return recordType != null && recordType.isTotal();
     }
 }
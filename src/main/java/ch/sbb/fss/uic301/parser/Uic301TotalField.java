@@ -0,0 +1,101 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed width fields of a {@link Uic301Total} line in the order they appear in
+ * the line.
+ */
+public enum Uic301TotalField implements Uic301Field {
+
+    /** Identifier. */
+    IDENTIFIER("identifier", "identifier", 0, 9),
+
+    /** Rail union compiling. */
+    RAIL_UNION_COMPILING("railUnionCompiling", "railUnionCompiling", 9, 4),
+
+    /** Rail union receiving. */
+    RAIL_UNION_RECEIVING("railUnionReceiving", "railUnionReceiving", 13, 4),
+
+    /** Period. */
+    PERIOD("period", "period", 17, 6),
+
+    /** Reserved. */
+    RESERVED("reserved", "reserved", 23, 1),
+
+    /** Statement currency. */
+    STATEMENT_CURRENCY("statementCurrency", "statementCurrency", 24, 3),
+
+    /** Statement period. */
+    STATEMENT_PERIOD("statementPeriod", "statementPeriod", 27, 2),
+
+    /** Gross debit. */
+    GROSS_DEBIT("grossDebit", "grossDebit", 29, 12),
+
+    /** Gross credit. */
+    GROSS_CREDIT("grossCredit", "grossCredit", 41, 12),
+
+    /** Amount commission debited. */
+    AMOUNT_COMMISSION_DEBITED("amountCommissionDebited", "amountCommissionDebited", 53, 11),
+
+    /** Amount commission credited. */
+    AMOUNT_COMMISSION_CREDITED("amountCommissionCredited", "amountCommissionCredited", 64, 11),
+
+    /** Debit credit balance. */
+    DEBIT_CREDIT_BALANCE("debitCreditBalance", "debitCreditBalance", 75, 1),
+
+    /** Net balance amount. */
+    NET_BALANCE_AMOUNT("netBalanceAmount", "netBalanceAmount", 76, 12);
+
+    /** Number of characters of a complete line. */
+    public static final int LINE_LENGTH = 88;
+
+    private static final List<Uic301TotalField> LIST = Collections.unmodifiableList(Arrays.asList(values()));
+
+    private final String name;
+
+    private final String xmlName;
+
+    private final int offset;
+
+    private final int length;
+
+    private Uic301TotalField(final String name, final String xmlName, final int offset, final int length) {
+        this.name = name;
+        this.xmlName = xmlName;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public final String getName() {
+        return name;
+    }
+
+    @Override
+    public final String getXmlName() {
+        return xmlName;
+    }
+
+    @Override
+    public final int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public final int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns all fields in the order they appear in the line.
+     * 
+     * @return Unmodifiable list of fields.
+     */
+    public static List<Uic301TotalField> list() {
+        return LIST;
+    }
+
+}
@@ -193,6 +193,18 @@ public final class Uic301Totals implements Sealable  {
         return true;
     }
 
+    /**
+     * Sets the number of errors of all totals that were read from a binary file
+     * (See {@link Uic301BinaryWriter}).
+     * 
+     * @param count
+     *            Number of errors.
+     */
+    final void assignErrorCount(final int count) {
+        assertNotSealed();
+        errorCount = count > 0 ? count : null;
+    }
+
     private void assertNotSealed() {
         if (sealed) {
             throw new IllegalStateException("The class is sealed. No more changes are allowed.");
@@ -1,28 +1,21 @@
 package ch.sbb.fss.uic301.parser;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
-import javax.xml.bind.annotation.XmlAttribute;
 
 import org.apache.commons.lang3.StringUtils;
 
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
+
 /**
  * Utilities for the package.
  */
 public final class Uic301Utils {
 
-    private static final Map<Class<?>, Map<String, String>> beanAttrToXmlAttr = new HashMap<Class<?>, Map<String, String>>();
-
     private Uic301Utils() {
     }
 
@@ -44,8 +37,7 @@ public final class Uic301Utils {
             return null;
         }
         try {
-            final Long value = Long.valueOf(str);
-            return BigDecimal.valueOf(value, scale).setScale(scale, BigDecimal.ROUND_HALF_UP);
+            return BigDecimal.valueOf(Long.parseLong(str), scale);
         } catch (final NumberFormatException ex) {
             throw new RuntimeException(
                     "Failed to convert value for field '" + name + "' into a big decimal: '" + str + "'", ex);
@@ -53,64 +45,114 @@ public final class Uic301Utils {
     }
 
     /**
-     * Validates the object and returns a list of field errors.
+     * Converts an amount with two decimal places into cents.
      * 
-     * @param validator Validator to use.
+     * @param name
+     *            Name of the field (Used for error messages).
+     * @param str
+     *            Amount without decimal point - Never <code>null</code>.
+     * 
+     * @return Amount in cents.
+     */
+    public static long centsOf(final String name, final String str) {
+        try {
+            return Long.parseLong(str);
+        } catch (final NumberFormatException ex) {
+            throw new RuntimeException(
+                    "Failed to convert value for field '" + name + "' into cents: '" + str + "'", ex);
+        }
+    }
+
+    /**
+     * Converts an optional amount with two decimal places into cents.
+     * 
+     * @param name
+     *            Name of the field (Used for error messages).
+     * @param str
+     *            Amount without decimal point or <code>null</code>.
+     * 
+     * @return Amount in cents or <code>null</code> if the string was
+     *         <code>null</code>.
+     */
+    public static Long nullableCentsOf(final String name, final String str) {
+        if (str == null) {
+            return null;
+        }
+        return centsOf(name, str);
+    }
+
+    /**
+     * Validates the object and returns a list of field errors. The errors are
+     * sorted by field and message, so the result is always the same for the
+     * same object (The validator returns the violations in no specific
+     * order).<br>
+     * <br>
+     * If a validator was generated at compile time for the class of the
+     * object (See {@link GenerateValidator}) and the validator has the default
+     * configuration, the generated one is used. It reports the same errors
+     * without reflection. A validator with any other configuration is always
+     * used itself. This is checked only once per validator (See
+     * {@link Uic301ValidationService#of(Validator)}).
+     * 
+     * @param validator Validator to use if there is no generated one.
      * @param obj Object to validate.
      *
      * @return List of field errors.
      *
      * @param <T> Type of object being validated.
+     * 
+     * @see Uic301ValidationService#validate(Object)
      */
     public static <T> List<FieldError> validate(final Validator validator, final T obj) {
-        final List<FieldError> errors = new ArrayList<>();
-        final Set<ConstraintViolation<T>> violations = validator.validate(obj);
-        for (final ConstraintViolation<T> violation : violations) {
-            final String field = violation.getPropertyPath().iterator().next().toString();
-            errors.add(new FieldError(getXmlAttributeForBeanAttribute(field, obj), violation.getMessage()));
-        }
-        return errors;
+        return Uic301ValidationService.of(validator).validate(obj);
     }
 
     /**
+     * Validates the object with javax.validation only and returns a list of
+     * field errors sorted by field and message.
      * 
-     * @param <T>
-     * @param attributeName - bean attribute
-     * @param obj
-     * @return xml attribute name of the given bean attribute
+     * @param validator Validator to use.
+     * @param obj Object to validate.
+     *
+     * @return List of field errors.
+     *
+     * @param <T> Type of object being validated.
      */
-    private static <T> String getXmlAttributeForBeanAttribute(String attributeName, final T obj) {
-        if (beanAttrToXmlAttr.get(obj.getClass()) == null) {
-            initBeanAttrToXmlAttrMapping(obj);
-        }
-        return beanAttrToXmlAttr.get(obj.getClass()).get(attributeName);
+    public static <T> List<FieldError> validateWithValidator(final Validator validator, final T obj) {
+        return Uic301ValidationService.of(validator).validateWithValidator(obj);
     }
 
     /**
-     * Creates mapping of object attribute name to their XML element attribute names. Stores the object mapping in
-     * an object<->mapping map.
-     * @param <T>
-     * @param obj
+     * Returns the validator generated for the class of an object.
+     * 
+     * @param obj Object to validate.
+     *
+     * @return Generated validator or <code>null</code> if there is none.
+     *
+     * @param <T> Type of object being validated.
      */
-    private static <T> void initBeanAttrToXmlAttrMapping(T obj) {
-        Field[] nameFields = obj.getClass().getDeclaredFields();
-        Map<String, String> map = Arrays.stream(nameFields)
-                .collect(Collectors.toMap(f -> f.getName(), f -> mapFiledToXmlAttribute(f)));
-        beanAttrToXmlAttr.put(obj.getClass(), map);
+    static <T> Uic301FieldValidator<T> fieldValidator(final T obj) {
+        return Uic301ValidationService.<T> fieldValidator(obj.getClass());
     }
 
-   /**
-    *
-    * maps attribute (filed) name to its xml element name
-    * @param field
-    * @return xml attribute name of this field
-    */
-    private static String mapFiledToXmlAttribute(Field field) {
-        field.setAccessible(true);
-        XmlAttribute a = field.getAnnotation(XmlAttribute.class);
-        return a != null ? a.name() : field.getName();
+    /**
+     * Runs a task in a pool and waits for the result. If the current thread
+     * already belongs to the pool, the task is executed directly (and its
+     * sub tasks are forked into the pool).
+     * 
+     * @param pool
+     *            Pool to use.
+     * @param task
+     *            Task to execute.
+     */
+    static void invoke(final ForkJoinPool pool, final ForkJoinTask<?> task) {
+        if (ForkJoinTask.getPool() == pool) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
     }
-    
+
     static String addAmounts(String filedName, String a1, String a2) {
         long l1;
         long l2;
@@ -126,6 +168,29 @@ public final class Uic301Utils {
         }
     }
     
+    /**
+     * Determines if a character sequence starts with the given prefix.
+     * 
+     * @param seq
+     *            Sequence to test - Never <code>null</code>.
+     * @param prefix
+     *            Expected prefix - Never <code>null</code>.
+     * 
+     * @return <code>true</code> if the sequence starts with the prefix.
+     */
+    static boolean startsWith(final CharSequence seq, final String prefix) {
+        final int len = prefix.length();
+        if (seq.length() < len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (seq.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static String changePeriodCounter(final String period, final int i) {
         if(period == null || period.length() < 6) {
             return period;
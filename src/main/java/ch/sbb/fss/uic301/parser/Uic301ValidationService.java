@@ -0,0 +1,498 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.beans.Introspector;
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.Constraint;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.fuin.utils4j.Utils4J;
+
+import ch.sbb.fss.uic301.parser.constraints.GenerateValidator;
+
+/**
+ * Validates the model classes and converts the violations into field errors.
+ * Everything that is needed per class is computed once: The XML attribute
+ * name of every field, the validator generated at compile time (See
+ * {@link GenerateValidator}) and if the validator has any constraints for the
+ * class at all. This is done for the {@link #MODEL_CLASSES} when the service
+ * is created and for other classes on first use.<br>
+ * <br>
+ * The generated validators render the messages of the default message
+ * interpolator with the default locale and ignore the configuration of the
+ * validator (Message interpolator, locale or additional constraints). So they
+ * are only used if this was requested when the service was created, or by
+ * {@link #of(Validator)} if the validator reports the same errors as the
+ * generated validators. This is the case for a validator with the default
+ * configuration, like the ones created by
+ * <code>Validation.buildDefaultValidatorFactory().getValidator()</code>.<br>
+ * <br>
+ * An instance keeps the validator and can be shared by any number of threads.
+ */
+@ThreadSafe
+public final class Uic301ValidationService {
+
+    /** Classes that are prepared when an instance is created. */
+    public static final List<Class<?>> MODEL_CLASSES = Collections.unmodifiableList(
+            Arrays.asList(Uic301Header.class, Uic301G4Detail.class, Uic301G5Detail.class, Uic301Total.class));
+
+    private static final Comparator<FieldError> FIELD_ERROR_ORDER = Comparator.comparing(FieldError::getField)
+            .thenComparing(FieldError::getError);
+
+    /** Metadata that does not depend on the validator. */
+    private static final Map<Class<?>, ClassInfo> CLASS_INFOS = new ConcurrentHashMap<>();
+
+    /**
+     * Service per validator (See {@link #of(Validator)}). The service
+     * references the validator, so it's only softly referenced to let the
+     * entry go with the validator.
+     */
+    private static final ConcurrentMap<ValidatorKey, SoftReference<Uic301ValidationService>> SERVICES
+            = new ConcurrentHashMap<>();
+
+    /** Keys of validators that are no longer used. */
+    private static final ReferenceQueue<Validator> UNUSED_VALIDATORS = new ReferenceQueue<>();
+
+    /** Service returned by the last call of {@link #of(Validator)}. */
+    private static volatile Uic301ValidationService last;
+
+    static {
+        for (final Class<?> clasz : MODEL_CLASSES) {
+            classInfo(clasz);
+        }
+    }
+
+    private final Validator validator;
+
+    private final boolean generated;
+
+    private final Map<Class<?>, Boolean> constrained;
+
+    /**
+     * Constructor with validator. The generated validators are not used.
+     *
+     * @param validator
+     *            Validator to use (Must be thread-safe) - Never
+     *            <code>null</code>.
+     */
+    public Uic301ValidationService(final Validator validator) {
+        this(validator, false);
+    }
+
+    /**
+     * Constructor with all data.
+     *
+     * @param validator
+     *            Validator to use if there is no generated one for a class or
+     *            generated validators are not used (Must be thread-safe) -
+     *            Never <code>null</code>.
+     * @param generated
+     *            Use the validators generated at compile time. Only set this
+     *            to <code>true</code> if the validator has the default
+     *            configuration, as the generated validators ignore it.
+     */
+    public Uic301ValidationService(final Validator validator, final boolean generated) {
+        super();
+        Utils4J.checkNotNull("validator", validator);
+        this.validator = validator;
+        this.generated = generated;
+        this.constrained = new ConcurrentHashMap<>();
+        for (final Class<?> clasz : MODEL_CLASSES) {
+            isConstrained(clasz);
+        }
+    }
+
+    /**
+     * Returns the service for a validator. Services are kept per validator,
+     * so usually only a single service per validator is created. The lookup
+     * does not lock, so any number of threads can use the method for every
+     * object they validate.<br>
+     * <br>
+     * The service uses the generated validators if the validator has the
+     * same constraints as the annotations of the {@link #MODEL_CLASSES} and
+     * reports the same messages for sample objects with invalid values (See
+     * {@link #isLikeGenerated(Validator)}). A validator with any other
+     * configuration is always used itself.
+     *
+     * @param validator
+     *            Validator to use (Must be thread-safe) - Never
+     *            <code>null</code>.
+     *
+     * @return Service with the validator.
+     */
+    public static Uic301ValidationService of(final Validator validator) {
+        final Uic301ValidationService cached = last;
+        if (cached != null && cached.validator == validator) {
+            return cached;
+        }
+        Utils4J.checkNotNull("validator", validator);
+        removeUnused();
+        final SoftReference<Uic301ValidationService> ref = SERVICES.get(new ValidatorKey(validator, null));
+        Uic301ValidationService service = ref == null ? null : ref.get();
+        if (service == null) {
+            // Creating two services for the same validator in a race is harmless
+            service = new Uic301ValidationService(validator, isLikeGenerated(validator));
+            SERVICES.put(new ValidatorKey(validator, UNUSED_VALIDATORS), new SoftReference<>(service));
+        }
+        last = service;
+        return service;
+    }
+
+    /**
+     * Returns a service with the default validator of the default validation
+     * provider that uses the generated validators. The validator is only built
+     * once.
+     *
+     * @return Shared instance.
+     */
+    public static Uic301ValidationService getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the validator used if there is no generated one for a class.
+     *
+     * @return Validator.
+     */
+    public final Validator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Determines if the validators generated at compile time are used.
+     *
+     * @return <code>true</code> if a generated validator is used instead of
+     *         the validator if there is one for a class.
+     */
+    public final boolean isGenerated() {
+        return generated;
+    }
+
+    /**
+     * Validates an object and returns a list of field errors sorted by field and
+     * message. If generated validators are used and there is one for the
+     * class, the result is a {@link CompactFieldErrors} that only creates the
+     * messages when they are read.
+     *
+     * @param obj
+     *            Object to validate - Never <code>null</code>.
+     *
+     * @return List of field errors.
+     *
+     * @param <T>
+     *            Type of object being validated.
+     */
+    public final <T> List<FieldError> validate(final T obj) {
+        return validate(classInfo(obj.getClass()), obj);
+    }
+
+    /**
+     * Validates a list of objects. The metadata is only looked up again if the
+     * class changes from one object to the next.
+     *
+     * @param objs
+     *            Objects to validate - Never <code>null</code>.
+     *
+     * @return List of field errors for every object (same order as the
+     *         objects), each sorted by field and message.
+     *
+     * @param <T>
+     *            Type of objects being validated.
+     */
+    public final <T> List<List<FieldError>> validateAll(final List<? extends T> objs) {
+        Utils4J.checkNotNull("objs", objs);
+        final List<List<FieldError>> result = new ArrayList<>(objs.size());
+        Class<?> lastClass = null;
+        ClassInfo info = null;
+        for (final T obj : objs) {
+            if (obj.getClass() != lastClass) {
+                lastClass = obj.getClass();
+                info = classInfo(lastClass);
+            }
+            final List<FieldError> errors = validate(info, obj);
+            if (errors.isEmpty()) {
+                result.add(Collections.emptyList());
+            } else {
+                result.add(errors);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Validates an object with the validator only (Ignores a generated
+     * validator) and returns a list of field errors sorted by field and
+     * message.
+     *
+     * @param obj
+     *            Object to validate - Never <code>null</code>.
+     *
+     * @return List of field errors.
+     *
+     * @param <T>
+     *            Type of object being validated.
+     */
+    public final <T> List<FieldError> validateWithValidator(final T obj) {
+        final List<FieldError> errors = new ArrayList<>();
+        validateWithValidator(classInfo(obj.getClass()), obj, errors);
+        errors.sort(FIELD_ERROR_ORDER);
+        return errors;
+    }
+
+    /**
+     * Returns the name of the XML attribute for a field.
+     *
+     * @param clasz
+     *            Class of the field - Never <code>null</code>.
+     * @param fieldName
+     *            Name of the bean attribute.
+     *
+     * @return XML attribute name or <code>null</code> if the class has no such
+     *         field.
+     */
+    public static String xmlAttributeOf(final Class<?> clasz, final String fieldName) {
+        return classInfo(clasz).xmlNames.get(fieldName);
+    }
+
+    /**
+     * Returns the validator generated for a class.
+     *
+     * @param clasz
+     *            Class to return the validator for - Never <code>null</code>.
+     *
+     * @return Generated validator or <code>null</code> if there is none.
+     *
+     * @param <T>
+     *            Type of object being validated.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Uic301FieldValidator<T> fieldValidator(final Class<?> clasz) {
+        return (Uic301FieldValidator<T>) classInfo(clasz).fieldValidator;
+    }
+
+    private <T> List<FieldError> validate(final ClassInfo info, final T obj) {
+        if (generated && info.fieldValidator != null) {
+            final CompactFieldErrors errors = new CompactFieldErrors();
+            info.validate(obj, errors);
+            return errors;
+        }
+        final List<FieldError> errors = new ArrayList<>();
+        validateWithValidator(info, obj, errors);
+        errors.sort(FIELD_ERROR_ORDER);
+        return errors;
+    }
+
+    private <T> void validateWithValidator(final ClassInfo info, final T obj, final List<FieldError> errors) {
+        if (!isConstrained(info.clasz)) {
+            return;
+        }
+        final Set<ConstraintViolation<T>> violations = validator.validate(obj);
+        for (final ConstraintViolation<T> violation : violations) {
+            final String field = violation.getPropertyPath().iterator().next().toString();
+            errors.add(new FieldError(info.xmlNames.get(field), violation.getMessage()));
+        }
+    }
+
+    private boolean isConstrained(final Class<?> clasz) {
+        return constrained.computeIfAbsent(clasz, c -> validator.getConstraintsForClass(c).isBeanConstrained());
+    }
+
+    private static ClassInfo classInfo(final Class<?> clasz) {
+        return CLASS_INFOS.computeIfAbsent(clasz, ClassInfo::new);
+    }
+
+    /**
+     * Determines if a validator reports the same errors as the generated
+     * validators. For every model class with a generated validator, the
+     * constraints known to the validator must be the constraint annotations
+     * of the class, its fields and getters, and sample objects with <code>null</code>
+     * and blank values must get exactly the same errors. A different message
+     * interpolator, locale or constraint mapping makes the check fail.
+     *
+     * @param validator
+     *            Validator to check - Never <code>null</code>.
+     *
+     * @return <code>true</code> if the generated validators can be used
+     *         instead of the validator.
+     */
+    static boolean isLikeGenerated(final Validator validator) {
+        final Uic301ValidationService service = new Uic301ValidationService(validator, false);
+        for (final Object sample : samples()) {
+            final ClassInfo info = classInfo(sample.getClass());
+            if (info.fieldValidator == null) {
+                continue;
+            }
+            if (!constraintsOf(validator.getConstraintsForClass(info.clasz)).equals(info.constraints)) {
+                return false;
+            }
+            final CompactFieldErrors expected = new CompactFieldErrors();
+            info.validate(sample, expected);
+            if (!expected.equals(service.validateWithValidator(sample))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Object> samples() {
+        try {
+            // Identifiers only: All other fields are blank
+            return Arrays.asList(new Uic301Header(), Uic301Header.parse(1, "141110000"), new Uic301G4Detail(),
+                    Uic301G4Detail.parse(1, "141210000"), new Uic301G5Detail(), Uic301G5Detail.parse(1, "142210000"),
+                    new Uic301Total(), Uic301Total.parse(1, "142310000"));
+        } catch (final Uic301Exception ex) {
+            throw new IllegalStateException("Failed to create samples", ex);
+        }
+    }
+
+    private static Set<String> constraintsOf(final BeanDescriptor bean) {
+        final Set<String> constraints = new TreeSet<>();
+        for (final ConstraintDescriptor<?> descriptor : bean.getConstraintDescriptors()) {
+            constraints.add("@" + descriptor.getAnnotation().annotationType().getName());
+        }
+        for (final PropertyDescriptor property : bean.getConstrainedProperties()) {
+            for (final ConstraintDescriptor<?> descriptor : property.getConstraintDescriptors()) {
+                constraints.add(property.getPropertyName() + "@" + descriptor.getAnnotation().annotationType().getName());
+            }
+        }
+        return constraints;
+    }
+
+    private static void addConstraints(final Set<String> constraints, final String name,
+            final AnnotatedElement element) {
+        for (final Annotation annotation : element.getAnnotations()) {
+            if (annotation.annotationType().isAnnotationPresent(Constraint.class)) {
+                constraints.add(name + "@" + annotation.annotationType().getName());
+            }
+        }
+    }
+
+    private static void removeUnused() {
+        Reference<? extends Validator> key;
+        while ((key = UNUSED_VALIDATORS.poll()) != null) {
+            SERVICES.remove(key);
+        }
+    }
+
+    /**
+     * Weak key that compares the validators by identity.
+     */
+    private static final class ValidatorKey extends WeakReference<Validator> {
+
+        private final int hash;
+
+        ValidatorKey(final Validator validator, final ReferenceQueue<Validator> queue) {
+            super(validator, queue);
+            this.hash = System.identityHashCode(validator);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ValidatorKey)) {
+                return false;
+            }
+            final Validator validator = get();
+            return validator != null && validator == ((ValidatorKey) obj).get();
+        }
+
+    }
+
+    /**
+     * Metadata of a class.
+     */
+    private static final class ClassInfo {
+
+        private final Class<?> clasz;
+
+        private final Map<String, String> xmlNames;
+
+        private final Uic301FieldValidator<?> fieldValidator;
+
+        /** Constraint annotations of the class, its fields and getters. */
+        private final Set<String> constraints;
+
+        ClassInfo(final Class<?> clasz) {
+            super();
+            this.clasz = clasz;
+            final Map<String, String> names = new HashMap<>();
+            final Set<String> annotated = new TreeSet<>();
+            addConstraints(annotated, "", clasz);
+            for (final Field field : clasz.getDeclaredFields()) {
+                final XmlAttribute attr = field.getAnnotation(XmlAttribute.class);
+                names.put(field.getName(), attr != null ? attr.name() : field.getName());
+                addConstraints(annotated, field.getName(), field);
+            }
+            for (final Method method : clasz.getDeclaredMethods()) {
+                final String name = method.getName();
+                if (method.getParameterCount() == 0 && name.startsWith("get") && name.length() > 3) {
+                    addConstraints(annotated, Introspector.decapitalize(name.substring(3)), method);
+                }
+            }
+            this.xmlNames = Collections.unmodifiableMap(names);
+            this.fieldValidator = loadFieldValidator(clasz);
+            this.constraints = Collections.unmodifiableSet(annotated);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> void validate(final T obj, final CompactFieldErrors errors) {
+            ((Uic301FieldValidator<T>) fieldValidator).validate(obj, errors);
+        }
+
+        private static Uic301FieldValidator<?> loadFieldValidator(final Class<?> clasz) {
+            try {
+                final Class<?> generated = Class.forName(clasz.getName() + Uic301FieldValidator.SUFFIX, true,
+                        clasz.getClassLoader());
+                return (Uic301FieldValidator<?>) generated.getDeclaredConstructor().newInstance();
+            } catch (final ClassNotFoundException ex) {
+                return null;
+            } catch (final ReflectiveOperationException ex) {
+                throw new RuntimeException("Failed to create generated validator for: " + clasz.getName(), ex);
+            }
+        }
+
+    }
+
+    /**
+     * Creates the default instance on first use.
+     */
+    private static final class DefaultHolder {
+
+        private static final Uic301ValidationService INSTANCE = new Uic301ValidationService(
+                Validation.buildDefaultValidatorFactory().getValidator(), true);
+
+    }
+
+}
@@ -0,0 +1,260 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Reads the documents of an UIC 301 XML file one by one. The file is read
+ * with StAX and only the current document (or detail) is unmarshalled with
+ * JAXB, so the whole {@link Uic301Documents} graph is never in memory and no
+ * index file is required (See {@link Uic301XmlIndexFile}). Every document or
+ * detail is sealed like after unmarshalling the complete file.<br>
+ * <br>
+ * Instances are not thread-safe. The underlying reader or stream is never
+ * closed by the reader.
+ */
+public final class Uic301XmlReader implements AutoCloseable {
+
+    private static final String DETAIL_G4 = "detail-g4";
+
+    private static final String DETAIL_G5 = "detail-g5";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static final JAXBContext CONTEXT = createContext();
+
+    private final XMLStreamReader xml;
+
+    private final Unmarshaller unmarshaller;
+
+    private boolean closed;
+
+    /**
+     * Constructor with stream. The encoding is taken from the XML
+     * declaration.
+     *
+     * @param in
+     *            Stream to read from - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Reading the start of the XML failed.
+     */
+    public Uic301XmlReader(final InputStream in) throws Uic301Exception {
+        super();
+        Utils4J.checkNotNull("in", in);
+        try {
+            this.xml = FACTORY.createXMLStreamReader(in);
+        } catch (final XMLStreamException ex) {
+            throw new Uic301Exception("Failed to read start of documents", ex);
+        }
+        this.unmarshaller = createUnmarshaller();
+    }
+
+    /**
+     * Constructor with reader.
+     *
+     * @param reader
+     *            Reader to read from - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Reading the start of the XML failed.
+     */
+    public Uic301XmlReader(final Reader reader) throws Uic301Exception {
+        super();
+        Utils4J.checkNotNull("reader", reader);
+        try {
+            this.xml = FACTORY.createXMLStreamReader(reader);
+        } catch (final XMLStreamException ex) {
+            throw new Uic301Exception("Failed to read start of documents", ex);
+        }
+        this.unmarshaller = createUnmarshaller();
+    }
+
+    /**
+     * Reads all documents of a file and passes them one by one to a listener.
+     *
+     * @param file
+     *            XML file to read - Never <code>null</code>.
+     * @param listener
+     *            Listener that receives the documents - Never
+     *            <code>null</code>.
+     *
+     * @return Number of documents read.
+     *
+     * @throws Uic301Exception
+     *             Reading the file failed.
+     */
+    public static int read(final File file, final Uic301DocumentListener listener) throws Uic301Exception {
+        Utils4J.checkNotNull("file", file);
+        Utils4J.checkNotNull("listener", listener);
+        try (final InputStream in = new BufferedInputStream(new FileInputStream(file));
+                final Uic301XmlReader reader = new Uic301XmlReader(in)) {
+            return reader.read(listener);
+        } catch (final IOException ex) {
+            throw new Uic301Exception("Failed to read file: " + file, ex);
+        }
+    }
+
+    /**
+     * Reads all remaining documents and passes them one by one to a listener.
+     *
+     * @param listener
+     *            Listener that receives the documents - Never
+     *            <code>null</code>.
+     *
+     * @return Number of documents read.
+     *
+     * @throws Uic301Exception
+     *             Reading a document failed.
+     */
+    public final int read(final Uic301DocumentListener listener) throws Uic301Exception {
+        Utils4J.checkNotNull("listener", listener);
+        int count = 0;
+        Uic301Document document;
+        while ((document = nextDocument()) != null) {
+            listener.onDocument(document);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the next document.
+     *
+     * @return Sealed document or <code>null</code> if there are no more
+     *         documents.
+     *
+     * @throws Uic301Exception
+     *             Reading the document failed.
+     */
+    public final Uic301Document nextDocument() throws Uic301Exception {
+        if (!toStart(Uic301Document.TAG, null)) {
+            return null;
+        }
+        return unmarshal(Uic301Document.class);
+    }
+
+    /**
+     * Reads the next G4 or G5 detail. Headers and totals are skipped and the
+     * details of all documents are returned one after the other.
+     *
+     * @return Sealed detail or <code>null</code> if there are no more
+     *         details.
+     *
+     * @throws Uic301Exception
+     *             Reading the detail failed.
+     */
+    public final Uic301Detail nextDetail() throws Uic301Exception {
+        if (!toStart(DETAIL_G4, DETAIL_G5)) {
+            return null;
+        }
+        if (DETAIL_G4.equals(xml.getLocalName())) {
+            return unmarshal(Uic301G4Detail.class);
+        }
+        return unmarshal(Uic301G5Detail.class);
+    }
+
+    /**
+     * Closes the XML reader, but not the underlying reader or stream. Calling
+     * the method again does nothing.
+     *
+     * @throws Uic301Exception
+     *             Closing the XML reader failed.
+     */
+    @Override
+    public final void close() throws Uic301Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            xml.close();
+        } catch (final XMLStreamException ex) {
+            throw new Uic301Exception("Failed to close the XML reader", ex);
+        }
+    }
+
+    /**
+     * Moves to the next start element with one of the given names.
+     *
+     * @param name
+     *            Name of the element.
+     * @param otherName
+     *            Other name of the element or <code>null</code>.
+     *
+     * @return <code>true</code> if the reader is positioned on the start
+     *         element or <code>false</code> if the end of the XML was
+     *         reached.
+     *
+     * @throws Uic301Exception
+     *             Reading the XML failed.
+     */
+    private boolean toStart(final String name, final String otherName) throws Uic301Exception {
+        if (closed) {
+            throw new IllegalStateException("The reader is already closed");
+        }
+        try {
+            while (true) {
+                if (xml.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                    final String localName = xml.getLocalName();
+                    if (localName.equals(name) || localName.equals(otherName)) {
+                        return true;
+                    }
+                }
+                if (!xml.hasNext()) {
+                    return false;
+                }
+                xml.next();
+            }
+        } catch (final XMLStreamException ex) {
+            throw new Uic301Exception("Failed to read XML at " + xml.getLocation(), ex);
+        }
+    }
+
+    private <T> T unmarshal(final Class<T> type) throws Uic301Exception {
+        try {
+            return unmarshaller.unmarshal(xml, type).getValue();
+        } catch (final JAXBException ex) {
+            throw new Uic301Exception("Failed to unmarshal " + type.getSimpleName() + " at " + xml.getLocation(),
+                    ex);
+        }
+    }
+
+    private static Unmarshaller createUnmarshaller() throws Uic301Exception {
+        try {
+            return CONTEXT.createUnmarshaller();
+        } catch (final JAXBException ex) {
+            throw new Uic301Exception("Failed to create unmarshaller", ex);
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static JAXBContext createContext() {
+        try {
+            return JAXBContext.newInstance(Uic301Documents.class);
+        } catch (final JAXBException ex) {
+            throw new IllegalStateException("Failed to create JAXB context", ex);
+        }
+    }
+
+}
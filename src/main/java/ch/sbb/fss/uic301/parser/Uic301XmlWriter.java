@@ -0,0 +1,456 @@
+package ch.sbb.fss.uic301.parser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.fuin.utils4j.Utils4J;
+
+/**
+ * Writes documents as XML one by one while they are parsed. The XML is the
+ * same as marshalling {@link Uic301Documents} with JAXB and
+ * {@link javax.xml.bind.Marshaller#JAXB_FORMATTED_OUTPUT}, but only the
+ * current document has to be in memory and no reflection is used. The writer
+ * can be passed as listener to a streaming parse, for example
+ * {@link Uic301Parser#parse(java.io.File, javax.validation.Validator, Uic301DocumentListener)},
+ * to convert a whole file into XML.<br>
+ * <br>
+ * The number of errors of all documents is only known at the end, so the
+ * root element has no <code>errorCount</code> attribute if the documents are
+ * written one by one. {@link #write(Uic301Documents, Writer)} writes the
+ * attribute like JAXB.<br>
+ * <br>
+ * The underlying writer or stream is flushed, but never closed by the
+ * writer.
+ */
+public final class Uic301XmlWriter implements Uic301DocumentListener, AutoCloseable {
+
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String[] INDENTS = new String[] { "\n", "\n    ", "\n        ", "\n            ",
+            "\n                " };
+
+    private static final XMLOutputFactory FACTORY = XMLOutputFactory.newInstance();
+
+    private final Writer writer;
+
+    private final XMLStreamWriter xml;
+
+    private boolean closed;
+
+    /**
+     * Constructor with stream. The XML is written with UTF-8 encoding.
+     *
+     * @param out
+     *            Stream to write to - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the start of the XML failed.
+     */
+    public Uic301XmlWriter(final OutputStream out) throws Uic301Exception {
+        this(new BufferedWriter(new OutputStreamWriter(checkNotNull("out", out), StandardCharsets.UTF_8)), null);
+    }
+
+    /**
+     * Constructor with writer. The XML declares UTF-8 encoding, so the writer
+     * should use the same.
+     *
+     * @param writer
+     *            Writer to write to - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the start of the XML failed.
+     */
+    public Uic301XmlWriter(final Writer writer) throws Uic301Exception {
+        this(checkNotNull("writer", writer), null);
+    }
+
+    private Uic301XmlWriter(final Writer writer, final Integer errorCount) throws Uic301Exception {
+        super();
+        this.writer = writer;
+        try {
+            writer.write(DECLARATION);
+            this.xml = FACTORY.createXMLStreamWriter(writer);
+            xml.writeStartElement(Uic301Documents.TAG);
+            if (errorCount != null && errorCount > 0) {
+                attribute("errorCount", errorCount);
+            }
+        } catch (final IOException | XMLStreamException ex) {
+            throw new Uic301Exception("Failed to write start of documents", ex);
+        }
+    }
+
+    /**
+     * Writes all documents with JAXB compatible output including the number
+     * of errors of the root element.
+     *
+     * @param documents
+     *            Documents to write - Never <code>null</code>.
+     * @param writer
+     *            Writer to write to - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the XML failed.
+     */
+    public static void write(final Uic301Documents documents, final Writer writer) throws Uic301Exception {
+        Utils4J.checkNotNull("documents", documents);
+        Utils4J.checkNotNull("writer", writer);
+        final int errorCount = documents.getErrorCount();
+        try (final Uic301XmlWriter xmlWriter = new Uic301XmlWriter(writer, errorCount)) {
+            for (final Uic301Document document : documents.getDocuments()) {
+                xmlWriter.write(document);
+            }
+        }
+    }
+
+    /**
+     * Writes a document. A document with pending validation is validated
+     * first (See {@link Uic301Document#validatePending()}).
+     *
+     * @param document
+     *            Document to write - Never <code>null</code>.
+     *
+     * @throws Uic301Exception
+     *             Writing the document failed.
+     */
+    public final void write(final Uic301Document document) throws Uic301Exception {
+        Utils4J.checkNotNull("document", document);
+        if (closed) {
+            throw new IllegalStateException("The writer is already closed");
+        }
+        document.validatePending();
+        try {
+            writeDocument(document);
+        } catch (final XMLStreamException ex) {
+            throw new Uic301Exception("Failed to write document: " + document.getHeader(), ex);
+        }
+    }
+
+    /**
+     * Writes a document.
+     *
+     * @param document
+     *            Document to write - Never <code>null</code>.
+     *
+     * @throws IllegalStateException
+     *             Writing the document failed.
+     */
+    @Override
+    public final void onDocument(final Uic301Document document) {
+        try {
+            write(document);
+        } catch (final Uic301Exception ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Writes the end of the XML and flushes the underlying writer. Calling
+     * the method again does nothing.
+     *
+     * @throws Uic301Exception
+     *             Writing the end of the XML failed.
+     */
+    @Override
+    public final void close() throws Uic301Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            xml.writeCharacters(INDENTS[0]);
+            xml.writeEndElement();
+            xml.writeCharacters(INDENTS[0]);
+            xml.flush();
+            writer.flush();
+        } catch (final IOException | XMLStreamException ex) {
+            throw new Uic301Exception("Failed to write end of documents", ex);
+        }
+    }
+
+    private void writeDocument(final Uic301Document document) throws XMLStreamException {
+        start(1, Uic301Document.TAG, false);
+        if (document.getIgnoreBlock() != null) {
+            attribute("ignore-block", document.getIgnoreBlock().toString());
+        }
+        attribute("patched", Boolean.toString(document.getPatched()));
+        attribute("orignalCompilingRu", document.getOrignalCompilingRuAttribute());
+        if (document.getErrorCount() > 0) {
+            attribute("errorCount", document.getErrorCount());
+        }
+        if (document.getHeader() != null) {
+            writeHeader(document.getHeader());
+        }
+        if (document.getDetails() != null) {
+            writeDetails(document.getDetails());
+        }
+        if (document.getTotals() != null) {
+            writeTotals(document.getTotals());
+        }
+        end(1);
+    }
+
+    private void writeHeader(final Uic301Header header) throws XMLStreamException {
+        final List<FieldError> errors = header.getErrors();
+        start(2, Uic301Header.TAG, errors.isEmpty());
+        if (header.getErrorCount() > 0) {
+            attribute("errorCount", header.getErrorCount());
+        }
+        attribute("identifier", header.getIdentifier());
+        attribute("railUnionCompiling", header.getRailUnionCompiling());
+        attribute("railUnionReceiving", header.getRailUnionReceiving());
+        attribute("period", header.getPeriod());
+        attribute("noOfDetailPhrases", header.getNoOfDetailPhrases());
+        attribute("noOfTotalPhrases", header.getNoOfTotalPhrases());
+        attribute("lineNo", header.getParsedLineNo());
+        writeErrors(3, errors);
+    }
+
+    private void writeDetails(final Uic301Details details) throws XMLStreamException {
+        final List<Uic301Detail> list = details.getList();
+        start(2, Uic301Details.TAG, list.isEmpty());
+        if (details.getErrorCount() > 0) {
+            attribute("errorCount", details.getErrorCount());
+        }
+        for (final Uic301Detail detail : list) {
+            if (detail instanceof Uic301LineDetail) {
+                writeLineDetail((Uic301LineDetail<?>) detail);
+            } else if (detail instanceof Uic301G4Detail) {
+                writeG4Detail((Uic301G4Detail) detail);
+            } else if (detail instanceof Uic301G5Detail) {
+                writeG5Detail((Uic301G5Detail) detail);
+            } else {
+                throw new IllegalArgumentException("Unknown detail type: " + detail.getClass().getName());
+            }
+        }
+        if (!list.isEmpty()) {
+            end(2);
+        }
+    }
+
+    private void writeLineDetail(final Uic301LineDetail<?> detail) throws XMLStreamException {
+        final List<FieldError> errors = detail.getErrors();
+        start(3, detail.getIdentifierType() == Uic301Type.G4 ? "detail-g4" : "detail-g5", errors.isEmpty());
+        if (detail.getErrorCount() > 0) {
+            attribute("errorCount", detail.getErrorCount());
+        }
+        final List<? extends Uic301Field> fields = detail.fields();
+        final String[] values = detail.values();
+        for (int i = 0; i < values.length; i++) {
+            attribute(fields.get(i).getXmlName(), values[i]);
+        }
+        attribute("no", detail.getParsedLineNo());
+        writeErrors(4, errors);
+    }
+
+    private void writeG4Detail(final Uic301G4Detail detail) throws XMLStreamException {
+        final List<FieldError> errors = errorsOf(detail.getErrors());
+        start(3, "detail-g4", errors.isEmpty());
+        if (detail.getErrorCount() > 0) {
+            attribute("errorCount", detail.getErrorCount());
+        }
+        attribute("_1", detail.getIdentifier());
+        attribute("_2", detail.getRailUnionCompiling());
+        attribute("_3", detail.getRailUnionReceiving());
+        attribute("_4", detail.getPeriod());
+        attribute("_5", detail.getReserved1());
+        attribute("_6", detail.getTypeOfService());
+        attribute("_7", detail.getTypeOfTransaction());
+        attribute("_8", detail.getDistributionChannel());
+        attribute("_9", detail.getCodeIssuingOffice());
+        attribute("_10-1", detail.getRequestingTerminalRU());
+        attribute("_10-2", detail.getRequestingTerminalNo());
+        attribute("_11-1", detail.getStatementCurrency());
+        attribute("_11-2", detail.getStatementPeriod());
+        attribute("_12", detail.getClassOrCategory());
+        attribute("_13", detail.getUnitPrice());
+        attribute("_14", detail.getTrainNumber());
+        attribute("_15", detail.getCoachNumber());
+        attribute("_16", detail.getDayOfTravel());
+        attribute("_17-1", detail.getDepartureLocationRU());
+        attribute("_17-2", detail.getDepartureLocationStation());
+        attribute("_18", detail.getReserved2());
+        attribute("_19-1", detail.getDestinationLocationRU());
+        attribute("_19-2", detail.getDestinationLocationStation());
+        attribute("_20", detail.getReserved3());
+        attribute("_21", detail.getReferenceNumber());
+        attribute("_22", detail.getDialogueNumber());
+        attribute("_23", detail.getTransactionDate());
+        attribute("_24", detail.getNumberOfServices());
+        attribute("_25", detail.getAdjustment());
+        attribute("_26", detail.getGrossAmountToBeDebited());
+        attribute("_27", detail.getGrossAmountToBeCredited());
+        attribute("_28", detail.getServiceProvidingRU());
+        attribute("_29", detail.getAfterSalesFeeSharePercentage());
+        attribute("_30", detail.getTariffCode());
+        attribute("_31", detail.getTypeOfJourney());
+        attribute("_32-1", detail.getPrimaryRouteFirstSectionRU());
+        attribute("_32-2", detail.getPrimaryRouteFirstSectionSerialNo());
+        attribute("_33", detail.getPassengerCatergory());
+        attribute("_34", detail.getAmountUnitShare());
+        attribute("_35", detail.getGrossAmountToBeDebitedTheServiceProvidingRU());
+        attribute("_36", detail.getGrossAmountToBeCreditedTheServiceProvidingRU());
+        attribute("_37", detail.getPercentageCommissionRateOfServiceProvidingRU());
+        attribute("_38", detail.getAmountOfCommissionToBeDebitedTheServiceProvidingRU());
+        attribute("_39", detail.getAmountOfCommissionToBeCreditedTheServiceProvidingRU());
+        attribute("_40a", detail.getReserved4());
+        attribute("_40b", detail.getCountryCode());
+        attribute("_40c", detail.getServiceBrandCode());
+        attribute("no", detail.getParsedLineNo());
+        writeErrors(4, errors);
+    }
+
+    private void writeG5Detail(final Uic301G5Detail detail) throws XMLStreamException {
+        final List<FieldError> errors = errorsOf(detail.getErrors());
+        start(3, "detail-g5", errors.isEmpty());
+        if (detail.getErrorCount() > 0) {
+            attribute("errorCount", detail.getErrorCount());
+        }
+        attribute("_1", detail.getIdentifier());
+        attribute("_2", detail.getRailUnionCompiling());
+        attribute("_3", detail.getRailUnionReceiving());
+        attribute("_4", detail.getPeriod());
+        attribute("_5", detail.getReserved1());
+        attribute("_6", detail.getTypeOfService());
+        attribute("_7", detail.getTypeOfTransaction());
+        attribute("_8", detail.getDistributionChannel());
+        attribute("_9", detail.getCodeIssuingOffice());
+        attribute("_10a", detail.getReserved2());
+        attribute("_10b", detail.getCountryCode());
+        attribute("_10c", detail.getServiceBrandCode());
+        attribute("_11-1", detail.getStatementCurrency());
+        attribute("_11-2", detail.getStatementPeriod());
+        attribute("_12", detail.getTariffCode());
+        attribute("_13", detail.getTypeOfJourney());
+        attribute("_14", detail.getClassOrCategory());
+        attribute("_15", detail.getAmountUnitShare());
+        attribute("_16", detail.getTrainNumber());
+        attribute("_17", detail.getCoachNumber());
+        attribute("_18", detail.getDayOfTravel());
+        attribute("_19-1", detail.getDepartureLocationRU());
+        attribute("_19-2", detail.getDepartureLocationStation());
+        attribute("_20", detail.getReserved3());
+        attribute("_21-1", detail.getDestinationLocationRU());
+        attribute("_21-2", detail.getDestinationLocationStation());
+        attribute("_22", detail.getTypeIdentifier());
+        attribute("_23", detail.getNumberIdentifiers());
+        attribute("_24", detail.getDialogueNumber());
+        attribute("_25", detail.getTransactionDate());
+        attribute("_26", detail.getNumberOfServices());
+        attribute("_27", detail.getAdjustment());
+        attribute("_28", detail.getGrossAmountToBeDebited());
+        attribute("_29", detail.getGrossAmountToBeCredited());
+        attribute("_30", detail.getAfterSalesPercentageFee());
+        attribute("_31", detail.getTransactionRU());
+        attribute("_32-1", detail.getPrimaryRouteFirstSectionRU());
+        attribute("_32-2", detail.getPrimaryRouteFirstSectionSerialNo());
+        attribute("_33", detail.getPassengerCatergory());
+        attribute("_34", detail.getServiceProvidingRUsCommissionRate());
+        attribute("_35", detail.getAmountOfCommissionToBeDebitedTheServiceProvidingRU());
+        attribute("_36", detail.getAmountOfCommissionToBeCreditedTheServiceProvidingRU());
+        attribute("_37-1", detail.getPrimaryRouteSecondSectionRU());
+        attribute("_37-2", detail.getPrimaryRouteSecondSectionSerialNo());
+        attribute("no", detail.getParsedLineNo());
+        writeErrors(4, errors);
+    }
+
+    private void writeTotals(final Uic301Totals totals) throws XMLStreamException {
+        final List<Uic301Total> list = totals.getList();
+        start(2, Uic301Totals.TAG, list.isEmpty());
+        if (totals.getErrorCount() > 0) {
+            attribute("errorCount", totals.getErrorCount());
+        }
+        for (final Uic301Total total : list) {
+            writeTotal(total);
+        }
+        if (!list.isEmpty()) {
+            end(2);
+        }
+    }
+
+    private void writeTotal(final Uic301Total total) throws XMLStreamException {
+        final List<FieldError> errors = total.getErrors();
+        start(3, Uic301Total.TAG, errors.isEmpty());
+        if (total.getErrorCount() > 0) {
+            attribute("errorCount", total.getErrorCount());
+        }
+        attribute("identifier", total.getIdentifier());
+        attribute("railUnionCompiling", total.getRailUnionCompiling());
+        attribute("railUnionReceiving", total.getRailUnionReceiving());
+        attribute("period", total.getPeriod());
+        attribute("reserved", total.getReserved());
+        attribute("statementCurrency", total.getStatementCurrency());
+        attribute("statementPeriod", total.getStatementPeriod());
+        attribute("grossDebit", total.getGrossDebit());
+        attribute("grossCredit", total.getGrossCredit());
+        attribute("amountCommissionDebited", total.getAmountCommissionDebited());
+        attribute("amountCommissionCredited", total.getAmountCommissionCredited());
+        attribute("debitCreditBalance", total.getDebitCreditBalance());
+        attribute("netBalanceAmount", total.getNetBalanceAmount());
+        attribute("lineNo", total.getParsedLineNo());
+        writeErrors(4, errors);
+    }
+
+    /**
+     * Writes the errors of an element that was started with
+     * {@link #start(int, String, boolean)} and ends the element if there are
+     * errors.
+     */
+    private void writeErrors(final int level, final List<FieldError> errors) throws XMLStreamException {
+        if (errors.isEmpty()) {
+            return;
+        }
+        for (final FieldError error : errors) {
+            start(level, FieldError.TAG, true);
+            attribute("field", error.getField());
+            attribute("error", error.getError());
+        }
+        end(level - 1);
+    }
+
+    private void start(final int level, final String tag, final boolean empty) throws XMLStreamException {
+        xml.writeCharacters(INDENTS[level]);
+        if (empty) {
+            xml.writeEmptyElement(tag);
+        } else {
+            xml.writeStartElement(tag);
+        }
+    }
+
+    private void end(final int level) throws XMLStreamException {
+        xml.writeCharacters(INDENTS[level]);
+        xml.writeEndElement();
+    }
+
+    private void attribute(final String name, final String value) throws XMLStreamException {
+        if (value != null) {
+            xml.writeAttribute(name, value);
+        }
+    }
+
+    private void attribute(final String name, final int value) throws XMLStreamException {
+        xml.writeAttribute(name, Integer.toString(value));
+    }
+
+    private static List<FieldError> errorsOf(final List<FieldError> errors) {
+        if (errors == null) {
+            return Collections.emptyList();
+        }
+        return errors;
+    }
+
+    private static <T> T checkNotNull(final String name, final T value) {
+        Utils4J.checkNotNull(name, value);
+        return value;
+    }
+
+}
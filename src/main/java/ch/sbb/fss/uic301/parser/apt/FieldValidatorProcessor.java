@@ -0,0 +1,483 @@
+package ch.sbb.fss.uic301.parser.apt;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Generates plain Java validators for classes annotated with
+ * <code>ch.sbb.fss.uic301.parser.constraints.GenerateValidator</code>. The
+ * constraint annotations of the fields are translated into direct calls of
+ * <code>FieldChecks</code> and the annotation's message templates are
+ * translated into <code>FieldErrorTemplate</code> constants at compile time.
+ * There is no reflection and no regular expression. An error only records the
+ * template and the invalid value, the message is rendered when it's read. If
+ * the annotation names another class, the constraints of that class are
+ * checked using the getters of the annotated class.<br>
+ * <br>
+ * Only the constraints used by the UIC 301 classes are supported. If a field
+ * uses any other constraint, no validator is generated for the class and a
+ * warning is reported. The class is then validated with javax.validation.<br>
+ * <br>
+ * The processor only depends on the compiler API, so it can be compiled before
+ * the classes it processes.
+ */
+@SupportedAnnotationTypes(FieldValidatorProcessor.GENERATE_VALIDATOR)
+public final class FieldValidatorProcessor extends AbstractProcessor {
+
+    /** Marker annotation for classes to process. */
+    static final String GENERATE_VALIDATOR = "ch.sbb.fss.uic301.parser.constraints.GenerateValidator";
+
+    private static final String CONSTRAINTS = "ch.sbb.fss.uic301.parser.constraints.";
+
+    private static final String NOT_NULL = "javax.validation.constraints.NotNull";
+
+    private static final String PATTERN = "javax.validation.constraints.Pattern";
+
+    private static final String CONSTRAINT = "javax.validation.Constraint";
+
+    private static final String XML_ATTRIBUTE = "javax.xml.bind.annotation.XmlAttribute";
+
+    private static final String VALIDATOR_INTERFACE = "ch.sbb.fss.uic301.parser.Uic301FieldValidator";
+
+    private static final String FIELD_ERROR_TEMPLATE = "ch.sbb.fss.uic301.parser.FieldErrorTemplate";
+
+    private static final String COMPACT_FIELD_ERRORS = "ch.sbb.fss.uic301.parser.CompactFieldErrors";
+
+    private static final String SUFFIX = "_FieldValidator";
+
+    private static final String VALIDATED_VALUE = "${validatedValue}";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        // The generated code is plain Java 8 that compiles with later versions
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        final TypeElement marker = processingEnv.getElementUtils().getTypeElement(GENERATE_VALIDATOR);
+        if (marker == null) {
+            return false;
+        }
+        for (final Element element : roundEnv.getElementsAnnotatedWith(marker)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                final TypeElement type = (TypeElement) element;
+                generate(type, constraintsOf(type, marker));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the class named by the annotation or the annotated class if
+     * there is none.
+     */
+    private TypeElement constraintsOf(final TypeElement type, final TypeElement marker) {
+        for (final AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(marker)) {
+                final Object value = value(mirror.getElementValues(), "value");
+                if (value instanceof DeclaredType) {
+                    return (TypeElement) ((DeclaredType) value).asElement();
+                }
+            }
+        }
+        return type;
+    }
+
+    private void generate(final TypeElement type, final TypeElement source) {
+
+        final List<String> templates = new ArrayList<>();
+        final List<String> checks = new ArrayList<>();
+        for (final VariableElement field : ElementFilter.fieldsIn(source.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            try {
+                checks.addAll(checks(type, field, templates));
+            } catch (final UnsupportedConstraintException ex) {
+                processingEnv.getMessager().printMessage(Kind.WARNING,
+                        "No validator generated for " + type.getSimpleName() + ", javax.validation will be used: "
+                                + ex.getMessage(), type.equals(source) ? field : type);
+                return;
+            }
+        }
+
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        final String simpleName = type.getSimpleName() + SUFFIX;
+        final String qualifiedName = pkg.getQualifiedName() + "." + simpleName;
+        try (final Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write("package " + pkg.getQualifiedName() + ";\n\n");
+            writer.write("import ch.sbb.fss.uic301.parser.constraints.FieldChecks;\n\n");
+            // No @Generated: Its package differs between Java 8 and later versions
+            final String target = type.equals(source) ? "" : " for a {@link " + type.getSimpleName() + "}";
+            writer.write("/**\n * Validates the field constraints of {@link " + source.getSimpleName() + "}"
+                    + target + ".<br>\n * <br>\n * Generated by " + getClass().getName() + " - Do not edit.\n */\n");
+            writer.write("final class " + simpleName + " implements " + VALIDATOR_INTERFACE + "<"
+                    + type.getSimpleName() + "> {\n\n");
+            for (int i = 0; i < templates.size(); i++) {
+                writer.write("    private static final " + FIELD_ERROR_TEMPLATE + " T" + i + " = "
+                        + templates.get(i) + ";\n\n");
+            }
+            writer.write("    @Override\n");
+            writer.write("    public void validate(final " + type.getSimpleName()
+                    + " obj, final " + COMPACT_FIELD_ERRORS + " errors) {\n");
+            writer.write("        String value;\n");
+            for (final String check : checks) {
+                writer.write(check);
+            }
+            writer.write("    }\n\n}\n");
+        } catch (final IOException ex) {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    "Failed to write " + qualifiedName + ": " + ex.getMessage(), type);
+        }
+
+    }
+
+    private List<String> checks(final TypeElement type, final VariableElement field, final List<String> templates)
+            throws UnsupportedConstraintException {
+
+        final List<String> conditions = new ArrayList<>();
+        final List<String> constraints = new ArrayList<>();
+        final List<List<String>> messages = new ArrayList<>();
+        String xmlName = field.getSimpleName().toString();
+        for (final AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            final TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            final String name = annotation.getQualifiedName().toString();
+            final Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv
+                    .getElementUtils().getElementValuesWithDefaults(mirror);
+            if (name.equals(XML_ATTRIBUTE)) {
+                xmlName = (String) value(values, "name");
+                continue;
+            }
+            final String condition = condition(name, values);
+            if (condition == null) {
+                if (isConstraint(annotation)) {
+                    throw new UnsupportedConstraintException("@" + annotation.getSimpleName());
+                }
+                continue;
+            }
+            final Object groups = value(values, "groups");
+            if (groups instanceof List && !((List<?>) groups).isEmpty()) {
+                throw new UnsupportedConstraintException("Groups of @" + annotation.getSimpleName());
+            }
+            conditions.add(condition);
+            constraints.add(annotation.getSimpleName().toString());
+            messages.add(
+                    message((String) value(values, "message"), value(values, "value"), name.equals(NOT_NULL)));
+        }
+        if (conditions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (!isString(field.asType())) {
+            throw new UnsupportedConstraintException("Type of field '" + field.getSimpleName() + "'");
+        }
+        final String getter = getter(type, field);
+
+        final List<String> checks = new ArrayList<>();
+        checks.add("        value = obj." + getter + "();\n");
+        for (int i = 0; i < conditions.size(); i++) {
+            final List<String> message = messages.get(i);
+            final String factory = message.get(0) == null ? "ofBundle" : "of";
+            final List<String> args = new ArrayList<>();
+            args.add(literal(xmlName));
+            args.add(literal(constraints.get(i)));
+            for (final String part : message.subList(factory.equals("of") ? 0 : 1, message.size())) {
+                args.add(literal(part));
+            }
+            checks.add("        if (" + conditions.get(i) + ") {\n            errors.add(T" + templates.size()
+                    + ", value);\n        }\n");
+            templates.add(FIELD_ERROR_TEMPLATE + "." + factory + "(" + String.join(", ", args) + ")");
+        }
+        return checks;
+
+    }
+
+    private String condition(final String name, final Map<? extends ExecutableElement, ? extends AnnotationValue> values)
+            throws UnsupportedConstraintException {
+        switch (name) {
+        case NOT_NULL:
+            return "value == null";
+        case CONSTRAINTS + "FixedLenDigitsStr":
+            return "!FieldChecks.fixedLenDigits(value, " + value(values, "value") + ")";
+        case CONSTRAINTS + "ReservedStr":
+            return "!FieldChecks.reserved(value, " + value(values, "value") + ")";
+        case CONSTRAINTS + "RicsCodeStr":
+            return "!FieldChecks.ricsCode(value)";
+        case CONSTRAINTS + "CurrencyStr":
+            return "!FieldChecks.currency(value)";
+        case CONSTRAINTS + "IsoCountryCodeStr":
+            return "!FieldChecks.isoCountryCode(value)";
+        case CONSTRAINTS + "IdentifierStr":
+            return "value != null && " + notOneOf(strings(value(values, "value")));
+        case "ch.sbb.fss.uic301.parser.Date.DateStr":
+            return "!ch.sbb.fss.uic301.parser.Date.valid(value)";
+        case "ch.sbb.fss.uic301.parser.StatementPeriod.StatementPeriodStr":
+            return "!ch.sbb.fss.uic301.parser.StatementPeriod.valid(value)";
+        case PATTERN:
+            final String regexp = (String) value(values, "regexp");
+            if (!((List<?>) value(values, "flags")).isEmpty()) {
+                throw new UnsupportedConstraintException("@Pattern(flags)");
+            }
+            return "value != null && !(" + matches(regexp) + ")";
+        default:
+            return null;
+        }
+    }
+
+    private static String notOneOf(final String[] expected) {
+        final StringBuilder sb = new StringBuilder("!(");
+        for (int i = 0; i < expected.length; i++) {
+            if (i > 0) {
+                sb.append(" || ");
+            }
+            sb.append("value.equals(").append(literal(expected[i])).append(")");
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * Translates a regular expression into a Java expression that tests the
+     * variable "value". Supported are alternatives ("a|b") of letters, digits
+     * and character classes with letters, digits and ranges ("[1-2]"). There
+     * are no quantifiers, so every alternative has a fixed length.
+     */
+    private static String matches(final String regexp) throws UnsupportedConstraintException {
+        final StringBuilder sb = new StringBuilder();
+        for (final String alternative : regexp.split("\\|", -1)) {
+            if (sb.length() > 0) {
+                sb.append(" || ");
+            }
+            final List<String> chars = new ArrayList<>();
+            int i = 0;
+            while (i < alternative.length()) {
+                final char ch = alternative.charAt(i);
+                if (ch == '[') {
+                    final int end = alternative.indexOf(']', i);
+                    if (end < 0) {
+                        throw unsupportedPattern(regexp);
+                    }
+                    chars.add(charClass(regexp, alternative.substring(i + 1, end), chars.size()));
+                    i = end + 1;
+                } else if (isAlphaNumeric(ch)) {
+                    chars.add("value.charAt(" + chars.size() + ") == '" + ch + "'");
+                    i++;
+                } else {
+                    throw unsupportedPattern(regexp);
+                }
+            }
+            sb.append("(value.length() == ").append(chars.size());
+            for (final String cond : chars) {
+                sb.append(" && ").append(cond);
+            }
+            sb.append(")");
+        }
+        return sb.toString();
+    }
+
+    private static String charClass(final String regexp, final String content, final int index)
+            throws UnsupportedConstraintException {
+        if (content.isEmpty()) {
+            throw unsupportedPattern(regexp);
+        }
+        final String ch = "value.charAt(" + index + ")";
+        final StringBuilder sb = new StringBuilder("(");
+        int i = 0;
+        while (i < content.length()) {
+            if (i > 0) {
+                sb.append(" || ");
+            }
+            final char from = content.charAt(i);
+            if (!isAlphaNumeric(from)) {
+                throw unsupportedPattern(regexp);
+            }
+            if (i + 2 < content.length() && content.charAt(i + 1) == '-') {
+                final char to = content.charAt(i + 2);
+                if (!isAlphaNumeric(to) || to < from) {
+                    throw unsupportedPattern(regexp);
+                }
+                sb.append("(").append(ch).append(" >= '").append(from).append("' && ").append(ch).append(" <= '")
+                        .append(to).append("')");
+                i = i + 3;
+            } else {
+                sb.append(ch).append(" == '").append(from).append("'");
+                i++;
+            }
+        }
+        return sb.append(")").toString();
+    }
+
+    private static boolean isAlphaNumeric(final char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9');
+    }
+
+    private static UnsupportedConstraintException unsupportedPattern(final String regexp) {
+        return new UnsupportedConstraintException("@Pattern(regexp = \"" + regexp + "\")");
+    }
+
+    /**
+     * Translates a message template into the text parts around the validated
+     * value. Supported are the validated value, the "value" attribute of the
+     * annotation and (only if it's the complete template) a key of the
+     * validation message bundles. A bundle key is returned as a
+     * <code>null</code> followed by the key.
+     */
+    private static List<String> message(final String template, final Object attribute, final boolean bundleAllowed)
+            throws UnsupportedConstraintException {
+
+        if (bundleAllowed && template.matches("\\{[A-Za-z0-9_]+(\\.[A-Za-z0-9_]+)+\\}")) {
+            return Arrays.asList(null, template.substring(1, template.length() - 1));
+        }
+        final List<String> parts = new ArrayList<>();
+        final StringBuilder text = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            final char ch = template.charAt(i);
+            if (template.startsWith(VALIDATED_VALUE, i)) {
+                parts.add(text.toString());
+                text.setLength(0);
+                i = i + VALIDATED_VALUE.length();
+            } else if (ch == '{') {
+                final int end = template.indexOf('}', i);
+                if (end < 0) {
+                    throw new UnsupportedConstraintException("Message '" + template + "'");
+                }
+                final String param = template.substring(i + 1, end);
+                if (param.equals("value") && attribute != null) {
+                    text.append(format(attribute));
+                } else {
+                    throw new UnsupportedConstraintException("Message '" + template + "'");
+                }
+                i = end + 1;
+            } else if (ch == '$' || ch == '\\' || ch == '}') {
+                throw new UnsupportedConstraintException("Message '" + template + "'");
+            } else {
+                text.append(ch);
+                i++;
+            }
+        }
+        parts.add(text.toString());
+        return parts;
+
+    }
+
+    /**
+     * Formats an annotation attribute like Hibernate Validator does it.
+     */
+    private static String format(final Object attribute) {
+        if (attribute instanceof List) {
+            final StringBuilder sb = new StringBuilder("[");
+            final List<?> list = (List<?>) attribute;
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(((AnnotationValue) list.get(i)).getValue());
+            }
+            return sb.append("]").toString();
+        }
+        return String.valueOf(attribute);
+    }
+
+    private static String[] strings(final Object attribute) {
+        final List<?> list = (List<?>) attribute;
+        final String[] result = new String[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (String) ((AnnotationValue) list.get(i)).getValue();
+        }
+        return result;
+    }
+
+    private String getter(final TypeElement type, final VariableElement field)
+            throws UnsupportedConstraintException {
+        final String fieldName = field.getSimpleName().toString();
+        final String name = "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        for (final ExecutableElement method : ElementFilter
+                .methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && isString(method.getReturnType())) {
+                return name;
+            }
+        }
+        throw new UnsupportedConstraintException("No getter '" + name + "()' for field '" + fieldName + "'");
+    }
+
+    private boolean isString(final TypeMirror type) {
+        final TypeElement string = processingEnv.getElementUtils().getTypeElement(String.class.getName());
+        return processingEnv.getTypeUtils().isSameType(type, string.asType());
+    }
+
+    private static boolean isConstraint(final TypeElement annotation) {
+        for (final AnnotationMirror meta : annotation.getAnnotationMirrors()) {
+            final TypeElement metaType = (TypeElement) meta.getAnnotationType().asElement();
+            if (metaType.getQualifiedName().contentEquals(CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object value(final Map<? extends ExecutableElement, ? extends AnnotationValue> values,
+            final String name) {
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String literal(final String str) {
+        final StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < str.length(); i++) {
+            final char ch = str.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            } else if (ch < ' ' || ch > '~') {
+                sb.append(String.format("\\u%04x", (int) ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * A field uses a constraint the generator cannot translate.
+     */
+    private static final class UnsupportedConstraintException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedConstraintException(final String message) {
+            super(message);
+        }
+
+    }
+
+}
@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import ch.sbb.fss.uic301.parser.Uic301Detail;
 import ch.sbb.fss.uic301.parser.Uic301Document;
 import ch.sbb.fss.uic301.parser.Uic301Header;
+import ch.sbb.fss.uic301.parser.Uic301RecordType;
 import ch.sbb.fss.uic301.parser.Uic301Total;
 
 /**
@@ -35,13 +36,12 @@ public class AllSameHeaderValidator
         }
 
         final Uic301Header header = doc.getHeader();
-        final String headerIdSub = header.getIdentifier().substring(0, 3);
+        final Uic301RecordType headerType = Uic301RecordType.of(header.getIdentifier());
 
         String err = null;
         for (final Uic301Detail detail : doc.getDetails().getList()) {
 
-            final String detailIdSub = detail.getIdentifier().substring(0, 3);
-            if (!Objects.equals(headerIdSub, detailIdSub)) {
+            if (!sameGroup(header.getIdentifier(), headerType, detail.getIdentifier())) {
                 final String msg = MessageFormat.format(
                         "Identifier mismatch: line #{0}, header=''{1}'', detail=''{2}''",
                         detail.getParsedLineNo(), header.getIdentifier(),
@@ -78,8 +78,7 @@ public class AllSameHeaderValidator
 
         for (Uic301Total total : doc.getTotals().getList()) {
 
-            final String detailIdSub = total.getIdentifier().substring(0, 3);
-            if (!Objects.equals(headerIdSub, detailIdSub)) {
+            if (!sameGroup(header.getIdentifier(), headerType, total.getIdentifier())) {
                 final String msg = MessageFormat.format(
                         "Identifier mismatch: line #{0}, header=''{1}'', total=''{2}''",
                         total.getParsedLineNo(), header.getIdentifier(),
@@ -123,6 +122,18 @@ public class AllSameHeaderValidator
         return err == null;
     }
 
+    /**
+     * Determines if an identifier belongs to the same group as the header.
+     * Unknown identifiers are compared by their first three digits.
+     */
+    private static boolean sameGroup(final String headerId, final Uic301RecordType headerType, final String id) {
+        final Uic301RecordType type = Uic301RecordType.of(id);
+        if (headerType != null && type != null) {
+            return headerType.isSameGroup(type);
+        }
+        return Objects.equals(headerId.substring(0, 3), id.substring(0, 3));
+    }
+
     private static String warn(final String err, final String msg) {
         LOG.warn(msg);
         if (err == null) {
@@ -0,0 +1,204 @@
+package ch.sbb.fss.uic301.parser.constraints;
+
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * Checks of the field constraints without regular expressions. Used by the
+ * constraint validators and by the validators generated at compile time (See
+ * {@link GenerateValidator}).
+ */
+public final class FieldChecks {
+
+    /** Bundle of the application that may override the standard messages. */
+    private static final String USER_BUNDLE = "ValidationMessages";
+
+    /** Bundle with the standard messages of Hibernate Validator. */
+    private static final String PROVIDER_BUNDLE = "org.hibernate.validator.ValidationMessages";
+
+    private FieldChecks() {
+    }
+
+    /**
+     * Determines if a string consists only of the digits 0-9.
+     *
+     * @param value
+     *            Value to test - Never <code>null</code>.
+     *
+     * @return <code>true</code> if there is no other character than a digit.
+     */
+    public static boolean digits(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Implements {@link FixedLenDigitsStr}.
+     *
+     * @param value
+     *            Value to test.
+     * @param len
+     *            Expected length.
+     *
+     * @return <code>true</code> if the value is <code>null</code> or has
+     *         exactly the length and only digits.
+     */
+    public static boolean fixedLenDigits(final String value, final int len) {
+        if (value == null) {
+            return true;
+        }
+        return value.length() == len && digits(value);
+    }
+
+    /**
+     * Implements {@link ReservedStr}.
+     *
+     * @param value
+     *            Value to test.
+     * @param len
+     *            Expected length.
+     *
+     * @return <code>true</code> if the value is not <code>null</code> and has
+     *         exactly the length and only zeroes.
+     */
+    public static boolean reserved(final String value, final int len) {
+        if (value == null || value.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Implements {@link RicsCodeStr}.
+     *
+     * @param value
+     *            Value to test.
+     *
+     * @return <code>true</code> if the value is <code>null</code> or has four
+     *         letters or digits.
+     */
+    public static boolean ricsCode(final String value) {
+        if (value == null) {
+            return true;
+        }
+        if (value.length() != 4) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            final char ch = value.charAt(i);
+            if (!(ch >= 'a' && ch <= 'z') && !(ch >= 'A' && ch <= 'Z') && !(ch >= '0' && ch <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Implements {@link CurrencyStr}.
+     *
+     * @param value
+     *            Value to test.
+     *
+     * @return <code>true</code> if the value is <code>null</code> or has three
+     *         uppercase letters.
+     */
+    public static boolean currency(final String value) {
+        if (value == null) {
+            return true;
+        }
+        if (value.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (!upper(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Implements {@link IsoCountryCodeStr}.
+     *
+     * @param value
+     *            Value to test.
+     *
+     * @return <code>true</code> if the value is <code>null</code>, two
+     *         uppercase letters or "00".
+     */
+    public static boolean isoCountryCode(final String value) {
+        if (value == null) {
+            return true;
+        }
+        if (value.length() != 2) {
+            return false;
+        }
+        final char first = value.charAt(0);
+        final char second = value.charAt(1);
+        return (upper(first) && upper(second)) || (first == '0' && second == '0');
+    }
+
+    /**
+     * Returns the text used for <code>${validatedValue}</code> in a message.
+     *
+     * @param value
+     *            Value or <code>null</code>.
+     *
+     * @return Value or an empty string for <code>null</code>.
+     */
+    public static String text(final String value) {
+        if (value == null) {
+            return "";
+        }
+        return value;
+    }
+
+    /**
+     * Returns a message from the validation bundles for the default locale.
+     * Like with Hibernate Validator the bundle <code>ValidationMessages</code>
+     * of the application is used before the standard messages.
+     *
+     * @param key
+     *            Key of the message.
+     *
+     * @return Message or the key in braces if it's not found.
+     */
+    public static String bundleMessage(final String key) {
+        final String message = bundleMessage(USER_BUNDLE, key);
+        if (message != null) {
+            return message;
+        }
+        final String standard = bundleMessage(PROVIDER_BUNDLE, key);
+        if (standard != null) {
+            return standard;
+        }
+        return "{" + key + "}";
+    }
+
+    private static String bundleMessage(final String bundleName, final String key) {
+        try {
+            final ResourceBundle bundle = ResourceBundle.getBundle(bundleName);
+            if (bundle.containsKey(key)) {
+                return bundle.getString(key);
+            }
+            return null;
+        } catch (final MissingResourceException ex) {
+            return null;
+        }
+    }
+
+    private static boolean upper(final char ch) {
+        return ch >= 'A' && ch <= 'Z';
+    }
+
+}
@@ -20,13 +20,7 @@ public final class FixedLenDigitsStrValidator
     @Override
     public boolean isValid(final String value,
             final ConstraintValidatorContext context) {
-        if (value == null) {
-            return true;
-        }
-        if (value.length() != expectedLen) {
-            return false;
-        }
-        return value.matches("[0-9]*");
+        return FieldChecks.fixedLenDigits(value, expectedLen);
     }
 
 }
@@ -0,0 +1,35 @@
+package ch.sbb.fss.uic301.parser.constraints;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a validator for the field constraints of the annotated class at
+ * compile time. The generated class has the name of the annotated class with
+ * the suffix "_FieldValidator" and implements
+ * <code>ch.sbb.fss.uic301.parser.Uic301FieldValidator</code>. If a field uses
+ * a constraint that is not supported by the generator, no validator is
+ * generated and the class is validated with javax.validation.<br>
+ * <br>
+ * A class without constraints of its own can be validated with the field
+ * constraints of another class, if it has a getter for every constrained
+ * field of that class (See {@link #value()}).
+ */
+@Documented
+@Target(TYPE)
+@Retention(SOURCE)
+public @interface GenerateValidator {
+
+    /**
+     * Returns the class with the field constraints to check.
+     * 
+     * @return Class with the constraints or <code>void.class</code> for the
+     *         annotated class itself.
+     */
+    Class<?> value() default void.class;
+
+}
@@ -20,13 +20,7 @@ public final class ReservedStrValidator
     @Override
     public boolean isValid(final String value,
             final ConstraintValidatorContext context) {
-        if (value == null) {
-            return false;
-        }
-        if (value.length() != expectedLen) {
-            return false;
-        }
-        return value.matches("[0]*");
+        return FieldChecks.reserved(value, expectedLen);
     }
 
 }
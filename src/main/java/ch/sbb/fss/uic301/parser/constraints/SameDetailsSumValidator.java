@@ -16,7 +16,8 @@ import ch.sbb.fss.uic301.parser.Uic301Type;
 
 /**
  * Ensures that the calculated sums of the detail section and the totals are
- * identical.
+ * identical. The amounts are compared in cents, {@link java.math.BigDecimal}
+ * values are only created for the error messages.
  */
 public class SameDetailsSumValidator
         implements ConstraintValidator<SameDetailSums, Uic301Document> {
@@ -35,7 +36,7 @@ public class SameDetailsSumValidator
         final List<Uic301Total> totals = doc.getTotals().getList();
         for (final Uic301Total total : totals) {
             final CalculatedDetailAmounts calculated = doc.getDetails()
-                    .getAmounts().get(total.getStatementCurrencyPeriod());
+                    .getAllAmounts().get(total.getStatementCurrencyPeriod());
 
             if (calculated == null) {
                 final String msg = MessageFormat.format(
@@ -56,6 +57,17 @@ public class SameDetailsSumValidator
 
         }
 
+        final int invalidRejected = doc.getDetails().getInvalidRejectedCount();
+        if (invalidRejected > 0) {
+            final String msg = MessageFormat.format(
+                    "Sum details incomplete: {0} rejected detail line(s) with an invalid amount",
+                    invalidRejected);
+            if (err.length() > 0) {
+                err.append(", ");
+            }
+            err.append(msg);
+        }
+
         if (err.length() > 0) {
             final HibernateConstraintValidatorContext ctx = context
                     .unwrap(HibernateConstraintValidatorContext.class);
@@ -66,8 +78,8 @@ public class SameDetailsSumValidator
     }
 
     private void validateG5(Uic301Total total, CalculatedDetailAmounts calculated, StringBuilder err) {
-        if (!Objects.equals(total.getGrossCreditValue(),
-                calculated.getGrossAmountToBeCredited())) {
+        if (!sameCents(total.getGrossCreditCents(),
+                calculated.getGrossAmountToBeCreditedCents())) {
             final String msg = MessageFormat.format(
                     "Gross credit mismatch: total={0}, sum details={1}",
                     total.getGrossCredit(),
@@ -78,8 +90,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getGrossDebitValue(),
-                calculated.getGrossAmountToBeDebited())) {
+        if (!sameCents(total.getGrossDebitCents(),
+                calculated.getGrossAmountToBeDebitedCents())) {
             final String msg = MessageFormat.format(
                     "Gross debit mismatch: total={0}, sum details={1}",
                     total.getGrossDebit(),
@@ -90,8 +102,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getAmountCommissionCreditedValue(),
-                calculated.getAmountCommissionCredited())) {
+        if (!sameCents(total.getAmountCommissionCreditedCents(),
+                calculated.getAmountCommissionCreditedCents())) {
             final String msg = MessageFormat.format(
                     "Amount commission credited mismatch: total={0}, sum details={1}",
                     total.getAmountCommissionCreditedValue(),
@@ -102,8 +114,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getAmountCommissionDebitedValue(),
-                calculated.getAmountCommissionDebited())) {
+        if (!sameCents(total.getAmountCommissionDebitedCents(),
+                calculated.getAmountCommissionDebitedCents())) {
             final String msg = MessageFormat.format(
                     "Amount commission debited mismatch: total={0}, sum details={1}",
                     total.getAmountCommissionDebitedValue(),
@@ -114,8 +126,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getNetBalanceAmountValue(),
-                calculated.getNetBalanceAmount())) {
+        if (!sameCents(total.getNetBalanceAmountCents(),
+                calculated.getNetBalanceAmountCents())) {
             final String msg = MessageFormat.format(
                     "Net balance amount mismatch: total={0}, sum details={1}",
                     total.getNetBalanceAmountValue(),
@@ -141,8 +153,8 @@ public class SameDetailsSumValidator
     }
 
     private void validateG4(final Uic301Total total, final CalculatedDetailAmounts calculated,  final StringBuilder err) {
-        if (!Objects.equals(total.getGrossCreditValue(),
-                calculated.getGrossAmountToBeDebited())) {
+        if (!sameCents(total.getGrossCreditCents(),
+                calculated.getGrossAmountToBeDebitedCents())) {
             final String msg = MessageFormat.format(
                     "Gross credit mismatch: total={0}, sum details={1}",
                     total.getGrossCredit(),
@@ -153,8 +165,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getGrossDebitValue(),
-                calculated.getGrossAmountToBeCredited())) {
+        if (!sameCents(total.getGrossDebitCents(),
+                calculated.getGrossAmountToBeCreditedCents())) {
             final String msg = MessageFormat.format(
                     "Gross debit mismatch: total={0}, sum details={1}",
                     total.getGrossDebit(),
@@ -165,8 +177,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getAmountCommissionCreditedValue(),
-                calculated.getAmountCommissionDebited())) {
+        if (!sameCents(total.getAmountCommissionCreditedCents(),
+                calculated.getAmountCommissionDebitedCents())) {
             final String msg = MessageFormat.format(
                     "Amount commission credited mismatch: total={0}, sum details={1}",
                     total.getAmountCommissionCreditedValue(),
@@ -177,8 +189,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getAmountCommissionDebitedValue(),
-                calculated.getAmountCommissionCredited())) {
+        if (!sameCents(total.getAmountCommissionDebitedCents(),
+                calculated.getAmountCommissionCreditedCents())) {
             final String msg = MessageFormat.format(
                     "Amount commission debited mismatch: total={0}, sum details={1}",
                     total.getAmountCommissionDebitedValue(),
@@ -189,8 +201,8 @@ public class SameDetailsSumValidator
             err.append(msg);
         }
 
-        if (!Objects.equals(total.getNetBalanceAmountValue(),
-                calculated.getNetBalanceAmount())) {
+        if (!sameCents(total.getNetBalanceAmountCents(),
+                calculated.getNetBalanceAmountCents())) {
             final String msg = MessageFormat.format(
                     "Net balance amount mismatch: total={0}, sum details={1}",
                     total.getNetBalanceAmountValue(),
@@ -215,4 +227,8 @@ public class SameDetailsSumValidator
         
     }
 
+    private static boolean sameCents(final Long total, final long calculated) {
+        return total != null && total.longValue() == calculated;
+    }
+
 }
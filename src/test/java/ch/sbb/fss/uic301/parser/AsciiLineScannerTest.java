@@ -0,0 +1,92 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link AsciiLineScanner} class.
+ */
+public class AsciiLineScannerTest {
+
+    @Test
+    public void testScanChunks() throws Uic301Exception {
+
+        // PREPARE
+        final byte[] data = " abc \r\n\r\n\tdef\rghi\n\n  \njkl".getBytes(StandardCharsets.ISO_8859_1);
+        final List<String> lines = new ArrayList<>();
+        final AsciiLineScanner testee = new AsciiLineScanner(
+                (lineNo, line, position) -> lines.add(lineNo + ":" + line + "@" + position));
+
+        // TEST
+        for (int i = 0; i < data.length; i = i + 3) {
+            testee.scan(ByteBuffer.wrap(data, i, Math.min(3, data.length - i)));
+        }
+        testee.finish();
+
+        // VERIFY
+        assertThat(lines).containsExactly("1:abc@0", "2:def@9", "3:ghi@14", "4:jkl@22");
+        assertThat(testee.getLineCount()).isEqualTo(4);
+        assertThat(testee.getPosition()).isEqualTo(data.length);
+
+    }
+
+    @Test
+    public void testScanLongLine() throws Uic301Exception {
+
+        // PREPARE
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append((char) ('a' + (i % 26)));
+        }
+        final String longLine = sb.toString();
+        final List<String> lines = new ArrayList<>();
+        final AsciiLineScanner testee = new AsciiLineScanner(
+                (lineNo, line, position) -> lines.add(line.toString()), 100, 7);
+
+        // TEST
+        testee.scan(ByteBuffer.wrap((longLine + "\nx\n").getBytes(StandardCharsets.ISO_8859_1)));
+        testee.finish();
+
+        // VERIFY
+        assertThat(lines).containsExactly(longLine, "x");
+        assertThat(testee.getLineCount()).isEqualTo(9);
+        assertThat(testee.getPosition()).isEqualTo(100 + longLine.length() + 3);
+
+    }
+
+    @Test
+    public void testScanDirectChunks() throws Uic301Exception {
+
+        // PREPARE
+        final byte[] data = " abc \r\n\r\n\tdef\rghi\n\n  \njklmnopqrstuvwxyz\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        for (int size = 1; size <= data.length; size++) {
+            final List<String> lines = new ArrayList<>();
+            final AsciiLineScanner testee = new AsciiLineScanner((lineNo, line, position) -> lines
+                    .add(lineNo + ":" + line + ":" + line.subSequence(1, line.length()) + "@" + position));
+
+            // TEST
+            for (int i = 0; i < data.length; i = i + size) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(Math.min(size, data.length - i));
+                buffer.put(data, i, buffer.capacity());
+                buffer.flip();
+                testee.scan(buffer);
+                assertThat(buffer.hasRemaining()).isFalse();
+            }
+            testee.finish();
+
+            // VERIFY
+            assertThat(lines).containsExactly("1:abc:bc@0", "2:def:ef@9", "3:ghi:hi@14",
+                    "4:jklmnopqrstuvwxyz:klmnopqrstuvwxyz@22");
+            assertThat(testee.getPosition()).isEqualTo(data.length);
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package ch.sbb.fss.uic301.parser;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 
 import org.junit.Test;
@@ -86,4 +87,84 @@ public class CalculatedDetailAmountsTest {
 
     }
 
+    @Test
+    public void testCentsAndBalance() {
+
+        // PREPARE
+        final CalculatedDetailAmounts amounts = new CalculatedDetailAmounts();
+        amounts.addAmounts(new BigDecimal("0.10"), new BigDecimal("0.20"), new BigDecimal("0.005"),
+                new BigDecimal("0.01"));
+
+        // TEST
+        amounts.seal();
+
+        // VERIFY
+        assertThat(amounts.getGrossAmountToBeCreditedCents()).isEqualTo(10);
+        assertThat(amounts.getGrossAmountToBeDebitedCents()).isEqualTo(20);
+        assertThat(amounts.getAmountCommissionCreditedCents()).isEqualTo(1);
+        assertThat(amounts.getAmountCommissionDebitedCents()).isEqualTo(1);
+        assertThat(amounts.getNetBalanceType()).isEqualTo(NetBalanceType.DEBIT);
+        assertThat(amounts.getNetBalanceAmountCents()).isEqualTo(10);
+        assertThat(amounts.getNetBalanceAmount()).isEqualTo(new BigDecimal("0.10"));
+
+    }
+
+    @Test
+    public void testAddRoundsSum() {
+
+        // PREPARE
+        final CalculatedDetailAmounts amounts = new CalculatedDetailAmounts();
+        amounts.addAmounts(new BigDecimal("1.00"), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        // TEST
+        amounts.addAmounts(new BigDecimal("-0.005"), new BigDecimal("0.004"), BigDecimal.ZERO, BigDecimal.ZERO);
+        amounts.addAmounts(BigDecimal.ZERO, new BigDecimal("0.004"), BigDecimal.ZERO, BigDecimal.ZERO);
+
+        // VERIFY
+        assertThat(amounts.getGrossAmountToBeCredited()).isEqualTo(new BigDecimal("1.00"));
+        assertThat(amounts.getGrossAmountToBeDebited()).isEqualTo(new BigDecimal("0.00"));
+
+    }
+
+    @Test
+    public void testOverflow() {
+
+        // PREPARE
+        final CalculatedDetailAmounts amounts = new CalculatedDetailAmounts();
+        amounts.addAmounts(Uic301Type.G5_ALLOCATION, Long.MAX_VALUE, 0, 0, 0);
+
+        // TEST
+        try {
+            amounts.addAmounts(Uic301Type.G5_ALLOCATION, 1, 0, 0, 0);
+            fail();
+        } catch (final ArithmeticException ex) {
+            // OK
+        }
+
+        // VERIFY
+        assertThat(amounts.getGrossAmountToBeCreditedCents()).isEqualTo(Long.MAX_VALUE);
+
+    }
+
+    @Test
+    public void testUnknownDetailType() {
+
+        // PREPARE
+        final CalculatedDetailAmounts amounts = new CalculatedDetailAmounts();
+        final Uic301Detail detail = (Uic301Detail) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Uic301Detail.class }, (proxy, method, args) -> 0L);
+
+        // TEST
+        try {
+            amounts.addAmounts(detail);
+            fail();
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).startsWith("Unknown detail type: ");
+        }
+
+        // VERIFY
+        assertThat(amounts.getGrossAmountToBeCreditedCents()).isEqualTo(0);
+
+    }
+
 }
@@ -0,0 +1,102 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link CompactFieldErrors} class.
+ */
+public class CompactFieldErrorsTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final FieldErrorTemplate NOT_NULL = FieldErrorTemplate.ofBundle("b", "NotNull",
+            "javax.validation.constraints.NotNull.message");
+
+    private static final FieldErrorTemplate DIGITS = FieldErrorTemplate.of("b", "FixedLenDigitsStr",
+            "Expected exactly 2 digit(s), but was: '", "'");
+
+    private static final FieldErrorTemplate RICS = FieldErrorTemplate.of("a", "RicsCodeStr", "Wrong RICS code (",
+            ")");
+
+    @Test
+    public void testSortedAndRenderedOnRead() {
+
+        // PREPARE
+        final CompactFieldErrors testee = new CompactFieldErrors();
+
+        // TEST
+        testee.add(DIGITS, null);
+        testee.add(NOT_NULL, null);
+        testee.add(RICS, "1-2");
+
+        // VERIFY
+        final FieldError notNull = NOT_NULL.toFieldError(null);
+        assertThat(testee).containsExactly(new FieldError("a", "Wrong RICS code (1-2)"),
+                new FieldError("b", "Expected exactly 2 digit(s), but was: ''"), notNull);
+        assertThat(testee).isEqualTo(Arrays.asList(testee.get(0), testee.get(1), testee.get(2)));
+        assertThat(testee.getTemplate(0)).isSameAs(RICS);
+        assertThat(testee.getValue(0)).isEqualTo("1-2");
+        assertThat(testee.get(0)).isNotSameAs(testee.get(0));
+
+    }
+
+    @Test
+    public void testUnmodifiable() {
+
+        final CompactFieldErrors testee = new CompactFieldErrors();
+        testee.add(RICS, "1-2");
+        try {
+            testee.add(new FieldError("a", "b"));
+            fail();
+        } catch (final UnsupportedOperationException ex) {
+            // OK
+        }
+        try {
+            testee.get(1);
+            fail();
+        } catch (final IndexOutOfBoundsException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Index: 1, Size: 1");
+        }
+
+    }
+
+    @Test
+    public void testGrow() {
+
+        final CompactFieldErrors testee = new CompactFieldErrors();
+        for (int i = 0; i < 5; i++) {
+            testee.add(RICS, "" + (4 - i));
+        }
+        assertThat(testee).hasSize(5);
+        assertThat(testee.getValue(0)).isEqualTo("0");
+        assertThat(testee.getValue(4)).isEqualTo("4");
+
+    }
+
+    @Test
+    public void testSameAsValidator() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301G5Detail detail = Uic301G5Detail.parse(1, "142210000");
+
+        // TEST
+        final List<FieldError> errors = Uic301Utils
+                .validate(Uic301ValidationService.getDefault().getValidator(), detail);
+
+        // VERIFY
+        assertThat(errors).isInstanceOf(CompactFieldErrors.class);
+        assertThat(errors).isNotEmpty();
+        assertThat(errors).isEqualTo(Uic301Utils.validateWithValidator(VALIDATOR, detail));
+
+    }
+
+}
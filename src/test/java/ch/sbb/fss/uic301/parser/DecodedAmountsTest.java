@@ -0,0 +1,47 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link DecodedAmounts} class.
+ */
+public class DecodedAmountsTest {
+
+    @Test
+    public void testDecoded() {
+
+        // TEST
+        final DecodedAmounts testee = new DecodedAmounts("0000012100", null, "-0000000001");
+
+        // VERIFY
+        assertThat(testee.value(0, "a", "0000012100")).isEqualTo(new BigDecimal("121.00"));
+        assertThat(testee.cents(0, "a", "0000012100")).isEqualTo(12100);
+        assertThat(testee.value(1, "b", null)).isNull();
+        assertThat(testee.nullableCents(1, "b", null)).isNull();
+        assertThat(testee.nullableCents(2, "c", "-0000000001")).isEqualTo(-1L);
+
+    }
+
+    @Test
+    public void testNotDecoded() {
+
+        // PREPARE
+        final DecodedAmounts testee = new DecodedAmounts("00001 100");
+
+        // TEST
+        try {
+            testee.cents(0, "a", "00001 100");
+            fail();
+        } catch (final RuntimeException ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo("Failed to convert value for field 'a' into cents: '00001 100'");
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link FieldCursor}.
+ */
+public final class FieldCursorTest {
+
+    private static final String HEADER = "14211000011851185190100001602000001";
+
+    @Test
+    public void testNullConstructor() {
+        try {
+            new FieldCursor(null, Uic301HeaderField.list());
+            fail();
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Argument 'line' null is not allowed");
+        }
+    }
+
+    @Test
+    public void testNext() {
+        final FieldCursor testee = new FieldCursor(HEADER, Uic301HeaderField.list());
+        assertThat(testee.next()).isEqualTo("142110000");
+        assertThat(testee.next()).isEqualTo("1185");
+        assertThat(testee.skip()).isEqualTo(13);
+        assertThat(testee.next()).isEqualTo("190100");
+        assertThat(testee.next()).isEqualTo("001602");
+        assertThat(testee.hasNext()).isTrue();
+        assertThat(testee.next()).isEqualTo("000001");
+        assertThat(testee.hasNext()).isFalse();
+        try {
+            testee.next();
+            fail();
+        } catch (final IllegalStateException ex) {
+            assertThat(ex.getMessage()).isEqualTo("No more fields: 6");
+        }
+    }
+
+    @Test
+    public void testNextLineTooShort() {
+        final FieldCursor testee = new FieldCursor("1421100001185", Uic301HeaderField.list());
+        assertThat(testee.next()).isEqualTo("142110000");
+        assertThat(testee.next()).isEqualTo("1185");
+        assertThat(testee.skip()).isEqualTo(-1);
+        assertThat(testee.next()).isEqualTo("      ");
+    }
+
+    @Test
+    public void testGetTrace() {
+        final FieldCursor testee = new FieldCursor(HEADER, Uic301HeaderField.list());
+        assertThat(testee.getTrace()).isEmpty();
+        testee.next();
+        testee.skip();
+        assertThat(testee.getTrace()).isEqualTo("identifier='142110000', railUnionCompiling='1185'");
+    }
+
+}
@@ -0,0 +1,47 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link FieldErrorTemplate} class.
+ */
+public class FieldErrorTemplateTest {
+
+    @Test
+    public void testRender() {
+
+        assertThat(FieldErrorTemplate.of("f", "C", "Constant").render("x")).isEqualTo("Constant");
+        assertThat(FieldErrorTemplate.of("f", "C", "Was: '", "'").render("x")).isEqualTo("Was: 'x'");
+        assertThat(FieldErrorTemplate.of("f", "C", "Was: '", "'").render(null)).isEqualTo("Was: ''");
+        assertThat(FieldErrorTemplate.of("f", "C", "", " and ", "").render("x")).isEqualTo("x and x");
+        assertThat(FieldErrorTemplate.ofBundle("f", "NotNull", "javax.validation.constraints.NotNull.message")
+                .render(null)).isNotEmpty().doesNotStartWith("{");
+
+    }
+
+    @Test
+    public void testToFieldError() {
+
+        final FieldErrorTemplate testee = FieldErrorTemplate.of("field", "RicsCodeStr", "Wrong (", ")");
+        assertThat(testee.getField()).isEqualTo("field");
+        assertThat(testee.getConstraint()).isEqualTo("RicsCodeStr");
+        assertThat(testee.toFieldError("1")).isEqualTo(new FieldError("field", "Wrong (1)"));
+
+    }
+
+    @Test
+    public void testNoParts() {
+
+        try {
+            FieldErrorTemplate.of("f", "C");
+            fail();
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Expected at least one part");
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301BatchParser} class.
+ */
+public class Uic301BatchParserTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testParseDirectory() throws IOException, InterruptedException {
+
+        // PREPARE
+        final File dir = tmp.newFolder();
+        final File fileA = new File(dir, "BAHN0001.TXT");
+        final File fileB = new File(dir, "BAHN0002.TXT");
+        final File fileC = new File(dir, "BAHN0003.TXT");
+        FileUtils.copyFile(BAHN55, fileC);
+        FileUtils.copyFile(BAHN55, fileA);
+        final String detail = FileUtils.readLines(BAHN55, StandardCharsets.ISO_8859_1).get(1) + "\n";
+        FileUtils.writeStringToFile(fileB, detail, StandardCharsets.ISO_8859_1);
+        final Uic301BatchParser testee = new Uic301BatchParser(2, 1);
+
+        // TEST
+        final Uic301BatchResult result = testee.parse(dir, VALIDATOR);
+
+        // VERIFY
+        assertThat(result.getFileCount()).isEqualTo(3);
+        assertThat(result.getResults().keySet()).containsExactly(fileA, fileC);
+        assertThat(result.getFailures().keySet()).containsExactly(fileB);
+        assertThat(result.getFailures().get(fileB)).isInstanceOf(Uic301Exception.class);
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getDocumentCount()).isEqualTo(2);
+        assertThat(result.getErrorCount()).isEqualTo(2 * 3204);
+        assertThat(result.getByteCount()).isEqualTo(2 * BAHN55.length() + fileB.length());
+
+    }
+
+    @Test
+    public void testParseSameAsSequential() throws Uic301Exception, IOException, InterruptedException {
+
+        // PREPARE
+        final File twoDocs = Uic301ParserTest.createTwoDocumentsFile(tmp);
+        final Uic301BatchParser testee = new Uic301BatchParser(4, Long.MAX_VALUE);
+
+        // TEST
+        final Uic301BatchResult result = testee.parse(Arrays.asList(BAHN55, twoDocs), VALIDATOR);
+
+        // VERIFY
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getDocumentCount()).isEqualTo(3);
+        assertThat(result.getResults().get(BAHN55)).isEqualTo(new Uic301Parser().parse(BAHN55, VALIDATOR));
+        assertThat(result.getResults().get(twoDocs)).isEqualTo(new Uic301Parser().parse(twoDocs, VALIDATOR));
+
+    }
+
+    @Test
+    public void testInFlightLimit() throws InterruptedException {
+
+        // PREPARE
+        final Uic301BatchParser.InFlightLimit testee = new Uic301BatchParser.InFlightLimit(100);
+        testee.acquire(60);
+        final Thread thread = new Thread(() -> {
+            try {
+                testee.acquire(50);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // TEST
+        thread.start();
+        thread.join(100);
+        assertThat(thread.isAlive()).isTrue();
+        testee.release(60);
+        thread.join(1000);
+
+        // VERIFY
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(testee.getInFlight()).isEqualTo(50);
+        testee.release(50);
+        testee.acquire(1000);
+        assertThat(testee.getInFlight()).isEqualTo(1000);
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301BinaryFile} class.
+ */
+public class Uic301BinaryFileTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testRead() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Documents expected = new Uic301Parser().parse(createTwoDocumentsFile(tmp), VALIDATOR);
+        final File binFile = write(expected);
+
+        // TEST
+        try (final Uic301BinaryFile testee = new Uic301BinaryFile(binFile)) {
+
+            // VERIFY
+            assertThat(testee.getDocumentCount()).isEqualTo(2);
+            assertThat(testee.read(1)).isEqualTo(expected.getDocuments().get(1));
+            assertThat(testee.read(0)).isEqualTo(expected.getDocuments().get(0));
+            assertThat(testee.read(1).isSealed()).isTrue();
+
+        }
+
+    }
+
+    @Test
+    public void testTruncated() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File binFile = write(new Uic301Parser().parse(createTwoDocumentsFile(tmp), VALIDATOR));
+        final byte[] bytes = Files.readAllBytes(binFile.toPath());
+        Files.write(binFile.toPath(), Arrays.copyOf(bytes, bytes.length - 100));
+
+        // TEST
+        try (final Uic301BinaryFile testee = new Uic301BinaryFile(binFile)) {
+            fail("Expected an exception, but was: " + testee);
+        } catch (final Uic301Exception ex) {
+
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo("Unexpected end of file: " + binFile);
+
+        }
+
+    }
+
+    private File write(final Uic301Documents documents) throws IOException, Uic301Exception {
+        final File binFile = tmp.newFile("documents.bin");
+        try (final OutputStream out = new FileOutputStream(binFile)) {
+            Uic301BinaryWriter.write(documents, out);
+        }
+        return binFile;
+    }
+
+}
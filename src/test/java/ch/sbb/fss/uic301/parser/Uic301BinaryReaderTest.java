@@ -0,0 +1,104 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301BinaryReader} class.
+ */
+public class Uic301BinaryReaderTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testReadFile() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Documents expected = new Uic301Parser().parse(createTwoDocumentsFile(tmp), VALIDATOR);
+        final File binFile = tmp.newFile("documents.bin");
+        try (final OutputStream out = new FileOutputStream(binFile)) {
+            Uic301BinaryWriter.write(expected, out);
+        }
+        final List<Uic301Document> documents = new ArrayList<>();
+
+        // TEST
+        final int count = Uic301BinaryReader.read(binFile, documents::add);
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        for (final Uic301Document document : documents) {
+            assertThat(document.isSealed()).isTrue();
+        }
+        assertThat(documents).isEqualTo(expected.getDocuments());
+
+    }
+
+    @Test
+    public void testNextDocumentEmpty() throws Uic301Exception {
+
+        // PREPARE
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Uic301BinaryWriter.write(new Uic301Documents(), out);
+        final Uic301BinaryReader testee = new Uic301BinaryReader(new ByteArrayInputStream(out.toByteArray()));
+
+        // TEST & VERIFY
+        assertThat(testee.nextDocument()).isNull();
+        assertThat(testee.nextDocument()).isNull();
+
+    }
+
+    @Test
+    public void testInvalid() throws Uic301Exception, IOException {
+
+        try {
+            new Uic301BinaryReader(new ByteArrayInputStream("<?xml".getBytes()));
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            assertThat(ex.getMessage()).isEqualTo("Not an UIC 301 binary file");
+        }
+
+        try {
+            new Uic301BinaryReader(new ByteArrayInputStream(new byte[] { 'U', '3', '0', '1', 2 }));
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            assertThat(ex.getMessage()).isEqualTo("Expected binary format version 1, but was: 2");
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Uic301BinaryWriter.write(new Uic301Parser().parse(createTwoDocumentsFile(tmp), VALIDATOR), out);
+        final byte[] bytes = out.toByteArray();
+        final Uic301BinaryReader truncated = new Uic301BinaryReader(
+                new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThat(truncated.nextDocument()).isNotNull();
+        assertThat(truncated.nextDocument()).isNotNull();
+        try {
+            truncated.nextDocument();
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            assertThat(ex.getMessage()).isEqualTo("Unexpected end of file");
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.fuin.utils4j.JaxbUtils;
+import org.fuin.utils4j.Utils4J;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301BinaryWriter} class.
+ */
+public class Uic301BinaryWriterTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testWriteDocuments() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        Uic301BinaryWriter.write(documents, out);
+
+        // VERIFY
+        final List<Uic301Document> read = readAll(out.toByteArray());
+        assertThat(read).isEqualTo(documents.getDocuments());
+        assertThat(xmlOf(read)).isEqualTo(xmlOf(documents.getDocuments()));
+        assertThat(read.get(0).getErrorCount()).isEqualTo(3204);
+        assertThat(out.size()).isLessThan(xmlOf(read).length() / 3);
+
+    }
+
+    @Test
+    public void testWriteCompactDocuments() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser(Uic301DetailFactory.COMPACT).parse(BAHN55, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        Uic301BinaryWriter.write(documents, out);
+
+        // VERIFY
+        final List<Uic301Document> read = readAll(out.toByteArray());
+        assertThat(xmlOf(read)).isEqualTo(xmlOf(documents.getDocuments()));
+        assertThat(read.get(0).getDetails().getAmounts().keySet())
+                .isEqualTo(documents.getDocuments().get(0).getDetails().getAmounts().keySet());
+
+    }
+
+    @Test
+    public void testWriteStreaming() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Documents expected = new Uic301Parser().parse(file, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        final int count;
+        try (final Uic301BinaryWriter testee = new Uic301BinaryWriter(out)) {
+            count = new Uic301Parser().parse(file, VALIDATOR, testee);
+        }
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        final List<Uic301Document> read = readAll(out.toByteArray());
+        Uic301ParserTest.assertSameDocuments(read, expected.getDocuments());
+        assertThat(xmlOf(read)).isEqualTo(xmlOf(expected.getDocuments()));
+
+    }
+
+    @Test
+    public void testWriteIrregularValues() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final Uic301Document document = documents.getDocuments().get(0);
+        document.setIgnoreBlock(true);
+        document.setPatched(true);
+        document.setOrignalCompilingRu("€<&>");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        Uic301BinaryWriter.write(documents, out);
+
+        // VERIFY
+        final Uic301Document read = readAll(out.toByteArray()).get(0);
+        assertThat(read.getIgnoreBlock()).isTrue();
+        assertThat(read.getPatched()).isTrue();
+        assertThat(read.getOrignalCompilingRu()).isEqualTo("€<&>");
+        assertThat(read).isEqualTo(document);
+
+    }
+
+    @Test
+    public void testWriteG4Details() throws Exception {
+
+        // PREPARE
+        final String xml = Utils4J
+                .readAsString(this.getClass().getResource("/uic301-documents.xml").toURI().toURL(), "utf-8", 1024);
+        final Uic301Documents documents = JaxbUtils.unmarshal(xml, Uic301Documents.class);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        Uic301BinaryWriter.write(documents, out);
+
+        // VERIFY
+        final List<Uic301Document> read = readAll(out.toByteArray());
+        assertThat(read.get(0).getDetails().getList().get(0)).isInstanceOf(Uic301G4Detail.class);
+        assertThat(read).isEqualTo(documents.getDocuments());
+        assertThat(xmlOf(read)).isEqualTo(xmlOf(documents.getDocuments()));
+
+    }
+
+    private static List<Uic301Document> readAll(final byte[] bytes) throws Uic301Exception {
+        final List<Uic301Document> documents = new ArrayList<>();
+        new Uic301BinaryReader(new ByteArrayInputStream(bytes)).read(documents::add);
+        return documents;
+    }
+
+    private static String xmlOf(final List<Uic301Document> documents) throws Uic301Exception {
+        final StringWriter writer = new StringWriter();
+        Uic301XmlWriter.write(new Uic301Documents(documents.toArray(new Uic301Document[documents.size()])),
+                writer);
+        return writer.toString();
+    }
+
+}
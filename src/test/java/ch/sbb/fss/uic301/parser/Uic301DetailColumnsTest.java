@@ -0,0 +1,120 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+import ch.sbb.fss.uic301.parser.Uic301DetailColumns.Amount;
+
+/**
+ * Test for the {@link Uic301DetailColumns} class.
+ */
+public class Uic301DetailColumnsTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    private static final String G4_LINE = "14121000000871185171100007010000011850000000EUR01001000121000921300017112400877130401185000100008718980231420000017112200001000000121000000000000008700100011008700271110001210000000000000000012100100000000012100000000000000CH0000";
+
+    private static final String G5_LINE = "1422100000087118517110000511000000IT0000EUR0110001100200003040092110001712231185000100118503000100870933451367000591711050000200000006080000000000000008311850208911050000000000000000000304000000000";
+
+    @Test
+    public void testCalculateAmountsSameAsDetails() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Details details = new Uic301Parser().parse(BAHN55, VALIDATOR).getDocuments().get(0)
+                .getDetails();
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> expected = details.getAmounts();
+        final Uic301DetailColumns testee = details.getColumns();
+
+        // TEST
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> sequential = testee.calculateAmounts();
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> parallel = testee
+                .calculateAmounts(new ForkJoinPool(4));
+
+        // VERIFY
+        assertThat(testee.size()).isEqualTo(1602);
+        assertThat(details.getColumns()).isSameAs(testee);
+        assertSameAmounts(sequential, expected);
+        assertSameAmounts(parallel, expected);
+
+    }
+
+    @Test
+    public void testSum() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Details details = new Uic301Parser(Uic301DetailFactory.COMPACT).parse(BAHN55, VALIDATOR)
+                .getDocuments().get(0).getDetails();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (final Uic301Detail detail : details.getList()) {
+            expected = expected.add(detail.getGrossAmountToBeCreditedValue());
+        }
+        final Uic301DetailColumns testee = details.getColumns();
+
+        // TEST
+        final long sequential = testee.sum(Amount.GROSS_AMOUNT_TO_BE_CREDITED);
+        final long parallel = testee.sum(Amount.GROSS_AMOUNT_TO_BE_CREDITED, new ForkJoinPool(4));
+
+        // VERIFY
+        assertThat(BigDecimal.valueOf(sequential, 2)).isEqualTo(expected);
+        assertThat(parallel).isEqualTo(sequential);
+
+    }
+
+    @Test
+    public void testColumns() throws Uic301Exception {
+
+        // PREPARE
+        final List<Uic301Detail> details = Arrays.asList(Uic301G4Detail.parse(1, G4_LINE),
+                Uic301G5LineDetail.parse(2, G5_LINE));
+
+        // TEST
+        final Uic301DetailColumns testee = Uic301DetailColumns.of(details);
+
+        // VERIFY
+        assertThat(testee.size()).isEqualTo(2);
+        assertThat(testee.isG4(0)).isTrue();
+        assertThat(testee.isG4(1)).isFalse();
+        assertThat(testee.getAmount(Amount.GROSS_AMOUNT_TO_BE_CREDITED, 0)).isEqualTo(12100);
+        assertThat(testee.getAmount(Amount.AMOUNT_COMMISSION_DEBITED, 0)).isEqualTo(1210);
+        assertThat(testee.getTypeOfService(0)).isEqualTo(ServiceType.IRT_INTERNATIONAL.ordinal());
+        assertThat(testee.getClassOrCategory(0)).isEqualTo(ClassOrCategory.forCode("001").ordinal());
+        assertThat(testee.getRus()).containsExactly("0087", "1185");
+        assertThat(testee.getRailUnionCompiling(1)).isEqualTo(testee.ruIdOf("0087"));
+        assertThat(testee.getDestinationLocationRU(0)).isEqualTo(testee.ruIdOf("1185"));
+        assertThat(testee.ruIdOf("9999")).isEqualTo(Uic301DetailColumns.NONE);
+        assertThat(testee.getPeriods()).containsExactly(new StatementCurrencyPeriod("EUR", "01"));
+        assertThat(testee.getDayOfTravel(0)).isEqualTo(171124);
+        assertThat(Uic301DetailColumns.toDate(testee.getDayOfTravel(0))).isEqualTo(new Date(17, 11, 24));
+        assertThat(testee.rows().parallel().filter(testee::isG4).count()).isEqualTo(1);
+
+    }
+
+    private static void assertSameAmounts(final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> actual,
+            final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> expected) {
+        assertThat(actual.keySet()).isEqualTo(expected.keySet());
+        for (final StatementCurrencyPeriod key : expected.keySet()) {
+            final CalculatedDetailAmounts a = actual.get(key);
+            final CalculatedDetailAmounts e = expected.get(key);
+            assertThat(a.getGrossAmountToBeCredited()).isEqualTo(e.getGrossAmountToBeCredited());
+            assertThat(a.getGrossAmountToBeDebited()).isEqualTo(e.getGrossAmountToBeDebited());
+            assertThat(a.getAmountCommissionCredited()).isEqualTo(e.getAmountCommissionCredited());
+            assertThat(a.getAmountCommissionDebited()).isEqualTo(e.getAmountCommissionDebited());
+            assertThat(a.getNetBalanceType()).isEqualTo(e.getNetBalanceType());
+            assertThat(a.getNetBalanceAmount()).isEqualTo(e.getNetBalanceAmount());
+        }
+    }
+
+}
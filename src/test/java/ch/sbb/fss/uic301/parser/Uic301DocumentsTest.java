@@ -1,10 +1,17 @@
 package ch.sbb.fss.uic301.parser;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.validation.Validation;
 import javax.validation.Validator;
 
+import org.apache.commons.io.FileUtils;
 import org.fuin.utils4j.JaxbUtils;
 import org.fuin.utils4j.Utils4J;
 import org.junit.Test;
@@ -19,6 +26,8 @@ public class Uic301DocumentsTest {
 
     private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
 
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
     @Test
     public void equalsContract() {
         EqualsVerifier.forClass(Uic301Documents.class).suppress(Warning.NONFINAL_FIELDS).verify();
@@ -54,6 +63,67 @@ public class Uic301DocumentsTest {
 
     }
 
+    @Test
+    public void testValidateParallel() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Documents expected = parseUnvalidated(BAHN55, 2);
+        expected.validate(VALIDATOR);
+        final Uic301Documents testee = parseUnvalidated(BAHN55, 2);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        // TEST
+        try {
+            testee.validate(VALIDATOR, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        // VERIFY
+        assertThat(testee.getErrorCount()).isEqualTo(6408);
+        assertThat(testee).isEqualTo(expected);
+
+    }
+
+    private static Uic301Documents parseUnvalidated(final File file, final int times)
+            throws Uic301Exception, IOException {
+        final Uic301Documents documents = new Uic301Documents();
+        final List<String> lines = FileUtils.readLines(file, "ISO-8859-1");
+        int count = 0;
+        for (int i = 0; i < times; i++) {
+            for (final String line : lines) {
+                final String trimmed = line.trim();
+                if (trimmed.length() > 0) {
+                    documents.parse(++count, trimmed);
+                }
+            }
+        }
+        return documents;
+    }
+
+    @Test
+    public void testParseWithOtherDetailFactory() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, "ISO-8859-1");
+        final Uic301Documents testee = new Uic301Documents();
+        testee.parse(1, lines.get(0), Uic301DetailFactory.COMPACT);
+        testee.parse(2, lines.get(1), Uic301DetailFactory.COMPACT);
+
+        // TEST
+        try {
+            testee.parse(3, lines.get(2), Uic301DetailFactory.STANDARD);
+            fail();
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage())
+                    .isEqualTo("Line # 3 uses another detail factory than the lines before");
+        }
+
+        // VERIFY
+        assertThat(testee.getDocuments().get(0).getDetails().getList()).hasSize(1);
+
+    }
+
     @Test
     public void testMarshalUnmarshalValid() {
 
@@ -0,0 +1,125 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.assertSameDocuments;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301FieldDictionary} class.
+ */
+public class Uic301FieldDictionaryTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testParse() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301FieldDictionary testee = new Uic301FieldDictionary();
+
+        // TEST
+        final Uic301Documents documents = new Uic301Parser(Uic301DetailFactory.dictionary(testee)).parse(BAHN55,
+                VALIDATOR);
+
+        // VERIFY
+        assertSameDocuments(documents.getDocuments(), new Uic301Parser().parse(BAHN55, VALIDATOR).getDocuments());
+        final List<Uic301Detail> details = documents.getDocuments().get(0).getDetails().getList();
+        final Uic301G5Detail first = (Uic301G5Detail) details.get(0);
+        final Uic301G5Detail last = (Uic301G5Detail) details.get(details.size() - 1);
+        assertThat(last.getRailUnionCompiling()).isSameAs(first.getRailUnionCompiling());
+        assertThat(last.getStatementCurrency()).isSameAs(first.getStatementCurrency());
+        assertThat(testee.size(Uic301G5Field.STATEMENT_CURRENCY)).isEqualTo(1);
+        assertThat(testee.getHits() + testee.getMisses()).isEqualTo(8L * details.size());
+        assertThat(testee.getSavedBytes()).isGreaterThan(testee.getHits() * 40);
+
+    }
+
+    @Test
+    public void testIds() {
+
+        // PREPARE
+        final Uic301FieldDictionary testee = new Uic301FieldDictionary();
+        final String line = "141210000";
+
+        // TEST
+        final String value = testee.valueOf(line, Uic301G5Field.IDENTIFIER);
+        final String again = testee.valueOf(new StringBuilder(line), Uic301G4Field.IDENTIFIER);
+
+        // VERIFY
+        assertThat(again).isSameAs(value);
+        assertThat(testee.idOf(Uic301G5Field.IDENTIFIER, "141210000")).isEqualTo(0);
+        assertThat(testee.idOf(Uic301G5Field.IDENTIFIER, "141310000")).isEqualTo(-1);
+        assertThat(testee.valueOf(Uic301G4Field.IDENTIFIER, 0)).isSameAs(value);
+        assertThat(testee.valueOf(Uic301G4Field.IDENTIFIER, 1)).isNull();
+        assertThat(testee.contains(Uic301G5Field.TARIFF_CODE)).isFalse();
+        assertThat(testee.getHits()).isEqualTo(1);
+        assertThat(testee.getMisses()).isEqualTo(1);
+        assertThat(testee.getSavedBytes()).isEqualTo(Uic301FieldDictionary.estimatedSize(9));
+
+    }
+
+    @Test
+    public void testMaxValues() {
+
+        // PREPARE
+        final Uic301FieldDictionary testee = new Uic301FieldDictionary(Collections.singletonList("statementPeriod"),
+                2);
+        final Uic301Field field = Uic301G5Field.STATEMENT_PERIOD;
+        final String prefix = "141210000000000000000000000000000000000000000";
+
+        // TEST
+        for (final String period : Arrays.asList("01", "02", "03", "01", "03")) {
+            assertThat(testee.valueOf(prefix.substring(0, field.getOffset()) + period, field)).isEqualTo(period);
+        }
+
+        // VERIFY
+        assertThat(testee.size(field)).isEqualTo(2);
+        assertThat(testee.getHits()).isEqualTo(1);
+        assertThat(testee.getMisses()).isEqualTo(4);
+        assertThat(testee.valueOf("1412", field)).isEqualTo("  ");
+
+    }
+
+    @Test
+    public void testSharedByConcurrentParsers() throws IOException, InterruptedException, Uic301Exception {
+
+        // PREPARE
+        final Uic301FieldDictionary testee = new Uic301FieldDictionary();
+        final File twoDocs = Uic301ParserTest.createTwoDocumentsFile(tmp);
+        final Uic301BatchParser parser = new Uic301BatchParser(4, Long.MAX_VALUE,
+                Uic301DetailFactory.dictionary(testee));
+
+        // TEST
+        final Uic301BatchResult result = parser.parse(Arrays.asList(BAHN55, twoDocs), VALIDATOR);
+
+        // VERIFY
+        assertThat(result.isSuccess()).isTrue();
+        assertSameDocuments(result.getResults().get(twoDocs).getDocuments(),
+                new Uic301Parser().parse(twoDocs, VALIDATOR).getDocuments());
+        final Uic301G5Detail a = (Uic301G5Detail) result.getResults().get(BAHN55).getDocuments().get(0)
+                .getDetails().getList().get(0);
+        final Uic301G5Detail b = (Uic301G5Detail) result.getResults().get(twoDocs).getDocuments().get(1)
+                .getDetails().getList().get(0);
+        assertThat(a.getPeriod()).isSameAs(b.getPeriod());
+        assertThat(testee.size(Uic301G5Field.PERIOD)).isEqualTo(1);
+
+    }
+
+}
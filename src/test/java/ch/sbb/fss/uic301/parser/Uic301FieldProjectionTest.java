@@ -0,0 +1,154 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301FieldProjection} class.
+ */
+public class Uic301FieldProjectionTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    private static final String HEADER_LINE = "14111000011851185190100000049000001";
+
+    private static final String DETAIL_LINE = "14121000011851185190100003010000011801337801EUR01002000004200000600019022000850033200085000100004525401176322259719010900001000000004200000000000118500629301000000000000000042000000000000000000420050000000000210000000000000DE0050";
+
+    private static final String TOTAL_LINE_WITH_ERROR = "141310000118511851901000EUR0100000000043000000000000000000000000000000000211000000000399";
+
+    @Test
+    public void testParse() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301FieldProjection projection = Uic301FieldProjection.of("countryCode");
+        final Uic301Document expected = new Uic301Parser().parse(BAHN55, VALIDATOR).getDocuments().get(0);
+
+        // TEST
+        final Uic301Document actual = new Uic301Parser(Uic301DetailFactory.projection(projection))
+                .parse(BAHN55, VALIDATOR).getDocuments().get(0);
+
+        // VERIFY
+        final List<Uic301Detail> expectedDetails = expected.getDetails().getList();
+        final List<Uic301Detail> actualDetails = actual.getDetails().getList();
+        assertThat(actualDetails).hasSize(expectedDetails.size());
+        final Uic301G5Detail first = (Uic301G5Detail) actualDetails.get(0);
+        final Uic301G5Detail expectedFirst = (Uic301G5Detail) expectedDetails.get(0);
+        assertThat(first.getProjection()).isSameAs(projection);
+        assertThat(first.getIdentifier()).isEqualTo(expectedFirst.getIdentifier());
+        assertThat(first.getCountryCode()).isEqualTo(expectedFirst.getCountryCode());
+        assertThat(first.getStatementCurrencyPeriod()).isEqualTo(expectedFirst.getStatementCurrencyPeriod());
+        assertThat(first.getGrossAmountToBeDebitedCents()).isEqualTo(expectedFirst.getGrossAmountToBeDebitedCents());
+        assertThat(first.getTariffCode()).isNull();
+        assertThat(first.getTrainNumber()).isNull();
+
+        assertSameAmounts(actual.getDetails().getAmounts(), expected.getDetails().getAmounts());
+        assertThat(messagesOf(VALIDATOR.validate(actual))).isEqualTo(messagesOf(VALIDATOR.validate(expected)));
+        assertThat(actual.getTotals()).isEqualTo(expected.getTotals());
+
+        for (final Uic301Detail detail : actualDetails) {
+            for (final FieldError error : errorsOf(detail)) {
+                final Uic301G5Field field = fieldOf(error.getField());
+                assertThat(projection.contains(field)).isTrue();
+            }
+        }
+
+    }
+
+    @Test
+    public void testSameDetailSums() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Document doc = new Uic301Document();
+        doc.parseHeader(1, HEADER_LINE);
+        doc.parseDetail(2, DETAIL_LINE, Uic301DetailFactory.projection(Uic301FieldProjection.AMOUNTS));
+        doc.parseTotal(3, TOTAL_LINE_WITH_ERROR);
+        doc.validate(VALIDATOR);
+        doc.seal();
+
+        // TEST
+        final Set<ConstraintViolation<Uic301Document>> violations = VALIDATOR.validate(doc);
+
+        // VERIFY
+        assertThat(violations).hasSize(1);
+        assertThat(violations.iterator().next().getMessage()).contains("Gross debit mismatch");
+        assertThat(doc.getDetails().getList().get(0).getErrorCount()).isEqualTo(0);
+
+    }
+
+    @Test
+    public void testContains() {
+
+        // PREPARE
+        final Uic301FieldProjection testee = Uic301FieldProjection.of("tariffCode", "percentageCommissionRateOfServiceProvidingRU");
+
+        // TEST & VERIFY
+        assertThat(testee.contains(Uic301G5Field.TARIFF_CODE)).isTrue();
+        assertThat(testee.contains(Uic301G4Field.TARIFF_CODE)).isTrue();
+        assertThat(testee.contains(Uic301G4Field.PERCENTAGE_COMMISSION_RATE_OF_SERVICE_PROVIDING_RU)).isTrue();
+        assertThat(testee.contains(Uic301G5Field.STATEMENT_PERIOD)).isTrue();
+        assertThat(testee.contains(Uic301G4Field.GROSS_AMOUNT_TO_BE_CREDITED_THE_SERVICE_PROVIDING_RU)).isTrue();
+        assertThat(testee.contains(Uic301G5Field.TRAIN_NUMBER)).isFalse();
+        assertThat(testee.getFieldNames()).containsAll(Uic301FieldProjection.REQUIRED_FIELD_NAMES);
+
+    }
+
+    @Test
+    public void testUnknownField() {
+
+        try {
+            Uic301FieldProjection.of("countryCode", "foo");
+            fail("Expected an exception");
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Unknown G4 or G5 detail fields: [foo]");
+        }
+
+    }
+
+    private static void assertSameAmounts(final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> actual,
+            final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> expected) {
+        assertThat(actual.keySet()).isEqualTo(expected.keySet());
+        for (final StatementCurrencyPeriod key : expected.keySet()) {
+            final CalculatedDetailAmounts a = actual.get(key);
+            final CalculatedDetailAmounts e = expected.get(key);
+            assertThat(a.getGrossAmountToBeCreditedCents()).isEqualTo(e.getGrossAmountToBeCreditedCents());
+            assertThat(a.getGrossAmountToBeDebitedCents()).isEqualTo(e.getGrossAmountToBeDebitedCents());
+            assertThat(a.getAmountCommissionCreditedCents()).isEqualTo(e.getAmountCommissionCreditedCents());
+            assertThat(a.getAmountCommissionDebitedCents()).isEqualTo(e.getAmountCommissionDebitedCents());
+            assertThat(a.getNetBalanceType()).isEqualTo(e.getNetBalanceType());
+        }
+    }
+
+    private static Set<String> messagesOf(final Set<ConstraintViolation<Uic301Document>> violations) {
+        return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.toSet());
+    }
+
+    private static List<FieldError> errorsOf(final Uic301Detail detail) {
+        final List<FieldError> errors = ((Uic301G5Detail) detail).getErrors();
+        return errors == null ? Collections.emptyList() : errors;
+    }
+
+    private static Uic301G5Field fieldOf(final String xmlName) {
+        for (final Uic301G5Field field : Uic301G5Field.list()) {
+            if (field.getXmlName().equals(xmlName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + xmlName);
+    }
+
+}
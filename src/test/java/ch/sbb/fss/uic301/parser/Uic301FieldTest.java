@@ -0,0 +1,51 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301Field} implementations.
+ */
+public final class Uic301FieldTest {
+
+    @Test
+    public void testHeaderFields() throws NoSuchFieldException {
+        verify(Uic301Header.class, Uic301HeaderField.list(), Uic301HeaderField.LINE_LENGTH);
+    }
+
+    @Test
+    public void testTotalFields() throws NoSuchFieldException {
+        verify(Uic301Total.class, Uic301TotalField.list(), Uic301TotalField.LINE_LENGTH);
+    }
+
+    @Test
+    public void testG4Fields() throws NoSuchFieldException {
+        verify(Uic301G4Detail.class, Uic301G4Field.list(), Uic301G4Field.LINE_LENGTH);
+    }
+
+    @Test
+    public void testG5Fields() throws NoSuchFieldException {
+        verify(Uic301G5Detail.class, Uic301G5Field.list(), Uic301G5Field.LINE_LENGTH);
+    }
+
+    private static void verify(final Class<?> clasz, final List<? extends Uic301Field> fields, final int lineLength)
+            throws NoSuchFieldException {
+        int offset = 0;
+        for (final Uic301Field field : fields) {
+            // Fields follow each other without gaps
+            assertThat(field.getOffset()).as(field.getName()).isEqualTo(offset);
+            offset = offset + field.getLength();
+            // Names match the model class
+            final Field beanField = clasz.getDeclaredField(field.getName());
+            assertThat(beanField.getAnnotation(XmlAttribute.class).name()).isEqualTo(field.getXmlName());
+        }
+        assertThat(offset).isEqualTo(lineLength);
+    }
+
+}
@@ -0,0 +1,92 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301FieldValidator} implementations generated at
+ * compile time.
+ */
+public class Uic301FieldValidatorTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final Uic301ValidationService SERVICE = new Uic301ValidationService(VALIDATOR, true);
+
+    private static final String G4_LINE = "14121000000871185171100007010000011850000000EUR01001000121000921300017112400877130401185000100008718980231420000017112200001000000121000000000000008700100011008700271110001210000000000000000012100100000000012100000000000000CH0000";
+
+    /** Values that violate one or more of the constraints. */
+    private static final List<String> VALUES = Arrays.asList(null, "", " ", "0", "1", "2", "3", "00", "AB", "ab",
+            "0A", "000", "EUR", "eur", "1185", "11a5", "11-5", "00000", "180101", "180100", "181300", "000000",
+            "18010a", "141110000", "141210000", "142310000", "145210000", "999999999", "0000000000");
+
+    @Test
+    public void testGenerated() throws Exception {
+
+        final List<String> lines = FileUtils.readLines(new File("src/test/resources/BAHN0055.TXT"),
+                StandardCharsets.ISO_8859_1);
+
+        for (final Object obj : Arrays.asList(Uic301Header.parse(1, lines.get(0)),
+                Uic301G4Detail.parse(1, G4_LINE), Uic301G5Detail.parse(2, lines.get(1)),
+                Uic301Total.parse(1604, lines.get(1603)))) {
+            assertThat(Uic301Utils.fieldValidator(obj)).as(obj.getClass().getSimpleName()).isNotNull();
+        }
+
+    }
+
+    @Test
+    public void testSameErrorsAsValidator() throws Exception {
+
+        final List<String> lines = FileUtils.readLines(new File("src/test/resources/BAHN0055.TXT"),
+                StandardCharsets.ISO_8859_1);
+
+        assertSameErrors(() -> Uic301Header.parse(1, lines.get(0)));
+        assertSameErrors(() -> Uic301G4Detail.parse(1, G4_LINE));
+        assertSameErrors(() -> Uic301G5Detail.parse(2, lines.get(1)));
+        assertSameErrors(() -> Uic301G5Detail.parse(3, lines.get(2)));
+        assertSameErrors(() -> Uic301Total.parse(1604, lines.get(1603)));
+
+    }
+
+    private static void assertSameErrors(final Factory factory) throws Exception {
+
+        final Object original = factory.create();
+        assertThat(SERVICE.validate(original))
+                .isEqualTo(SERVICE.validateWithValidator(original));
+
+        for (final Field field : original.getClass().getDeclaredFields()) {
+            if (field.getType() != String.class || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            for (final String value : VALUES) {
+                final Object obj = factory.create();
+                field.set(obj, value);
+                final List<FieldError> expected = SERVICE.validateWithValidator(obj);
+                assertThat(SERVICE.validate(obj)).as(field.getName() + "='" + value + "'")
+                        .isEqualTo(expected);
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface Factory {
+
+        Object create() throws Exception;
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301FixedWidthWriter} class.
+ */
+public class Uic301FixedWidthWriterTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Test
+    public void testWriteStandardUnchanged() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        Uic301FixedWidthWriter.write(documents, out);
+
+        // VERIFY
+        assertThat(new String(out.toByteArray(), StandardCharsets.ISO_8859_1)).isEqualTo(originalText());
+
+    }
+
+    @Test
+    public void testWriteCompactUnchanged() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser(Uic301DetailFactory.COMPACT).parse(BAHN55, VALIDATOR);
+        final Uic301LineDetail<?> detail = (Uic301LineDetail<?>) documents.getDocuments().get(0).getDetails()
+                .getList().get(0);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        Uic301FixedWidthWriter.write(documents, out);
+
+        // VERIFY
+        assertThat(detail.currentLine()).isNotNull();
+        assertThat(new String(out.toByteArray(), StandardCharsets.ISO_8859_1)).isEqualTo(originalText());
+
+    }
+
+    @Test
+    public void testWriteChanged() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Document original = new Uic301Parser(Uic301DetailFactory.COMPACT).parse(BAHN55, VALIDATOR)
+                .getDocuments().get(0);
+        final Uic301Document changed = Uic301Documents.changePeriodCounter(original, 2, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        try (final Uic301FixedWidthWriter testee = new Uic301FixedWidthWriter(out, "\n")) {
+            testee.write(changed);
+        }
+
+        // VERIFY
+        final Uic301Document reparsed = new Uic301Parser()
+                .parse(new ByteArrayInputStream(out.toByteArray()), VALIDATOR).getDocuments().get(0);
+        assertThat(reparsed.getHeader().getPeriod()).isEqualTo(changed.getHeader().getPeriod());
+        assertThat(reparsed.getHeader().getPeriod()).isNotEqualTo(original.getHeader().getPeriod());
+        final List<Uic301Detail> details = reparsed.getDetails().getList();
+        assertThat(details).hasSize(1602);
+        for (final Uic301Detail detail : details) {
+            assertThat(detail.getPeriod()).isEqualTo(changed.getHeader().getPeriod());
+        }
+        assertThat(reparsed.getTotals().getList().get(0).getPeriod()).isEqualTo(changed.getHeader().getPeriod());
+        assertThat(reparsed.getErrorCount()).isEqualTo(changed.getErrorCount());
+
+    }
+
+    @Test
+    public void testWriteInvalidLength() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final Uic301Header header = documents.getDocuments().get(0).getHeader();
+        header.setRailUnionCompiling("85");
+
+        // TEST
+        try {
+            Uic301FixedWidthWriter.write(documents, new ByteArrayOutputStream());
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+
+            // VERIFY
+            assertThat(ex.getMessage())
+                    .isEqualTo("# " + header.getParsedLineNo() + " Expected field 'railUnionCompiling' with 4 "
+                            + "characters, but was: '85'");
+
+        }
+
+    }
+
+    /**
+     * Returns the test file without the end of file character, the only
+     * thing the parser ignores.
+     */
+    private static String originalText() throws IOException {
+        final String text = new String(Files.readAllBytes(BAHN55.toPath()), StandardCharsets.ISO_8859_1);
+        return text.substring(0, text.lastIndexOf('\u001A'));
+    }
+
+}
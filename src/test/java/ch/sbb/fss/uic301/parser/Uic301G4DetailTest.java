@@ -1527,4 +1527,29 @@ public class Uic301G4DetailTest {
 
     }
 
+    @Test
+    public void testSealedValuesSameAsUnsealed() {
+
+        // PREPARE
+        final Uic301G4Detail expected = createValidSample();
+        final Uic301G4Detail testee = createValidSample();
+
+        // TEST
+        testee.seal();
+
+        // VERIFY
+        assertThat(testee.getStatementCurrencyPeriod()).isEqualTo(expected.getStatementCurrencyPeriod())
+                .isSameAs(testee.getStatementCurrencyPeriod());
+        assertThat(testee.getTypeOfServiceValue()).isEqualTo(expected.getTypeOfServiceValue());
+        assertThat(testee.getClassOrCategoryValue()).isEqualTo(expected.getClassOrCategoryValue());
+        assertThat(testee.getPassengerCatergoryType()).isEqualTo(expected.getPassengerCatergoryType());
+        assertThat(testee.getUnitPriceValue()).isEqualTo(expected.getUnitPriceValue());
+        assertThat(testee.getGrossAmountToBeDebitedValue()).isEqualTo(expected.getGrossAmountToBeDebitedValue());
+        assertThat(testee.getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents())
+                .isEqualTo(expected.getAmountOfCommissionToBeDebitedTheServiceProvidingRUCents());
+        assertThat(testee.isAmountMissing()).isEqualTo(expected.isAmountMissing());
+        assertThat(testee).isEqualTo(expected);
+
+    }
+
 }
@@ -0,0 +1,175 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.math.BigDecimal;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.fuin.utils4j.JaxbUtils;
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301G4LineDetail} class.
+ */
+public class Uic301G4LineDetailTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final String LINE = "14121000000871185171100007010000011850000000EUR01001000121000921300017112400877130401185000100008718980231420000017112200001000000121000000000000008700100011008700271110001210000000000000000012100100000000012100000000000000CH0000";
+
+    @Test
+    public void testGettersSameAsDetail() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301G4Detail expected = Uic301G4Detail.parse(1, LINE);
+
+        // TEST
+        final Uic301G4LineDetail testee = Uic301G4LineDetail.parse(1, LINE);
+
+        // VERIFY
+        assertThat(testee.toDetail()).isEqualTo(expected);
+        assertThat(testee.getIdentifierType()).isEqualTo(Uic301Type.G4);
+        assertThat(testee.getIdentifier()).isEqualTo(expected.getIdentifier());
+        assertThat(testee.getRailUnionReceiving()).isEqualTo("1185");
+        assertThat(testee.getTypeOfServiceValue()).isEqualTo(expected.getTypeOfServiceValue());
+        assertThat(testee.getClassOrCategoryValue()).isEqualTo(expected.getClassOrCategoryValue());
+        assertThat(testee.getPassengerCatergoryType()).isEqualTo(expected.getPassengerCatergoryType());
+        assertThat(testee.getStatementCurrencyPeriod()).isEqualTo(expected.getStatementCurrencyPeriod());
+        assertThat(testee.getUnitPriceValue()).isEqualTo(new BigDecimal("121.00"));
+        assertThat(testee.getGrossAmountToBeCreditedTheServiceProvidingRUValue())
+                .isEqualTo(expected.getGrossAmountToBeCreditedTheServiceProvidingRUValue());
+        assertThat(testee.getServiceBrandCode()).isEqualTo("0000");
+        assertThat(testee.isAmountMissing()).isEqualTo(expected.isAmountMissing());
+        assertThat(testee.getParsedLineNo()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void testShortLine() throws Uic301Exception {
+
+        // PREPARE
+        final String line = LINE.substring(0, 220);
+
+        // TEST
+        final Uic301G4LineDetail testee = Uic301G4LineDetail.parse(2, line);
+
+        // VERIFY
+        assertThat(testee.getCountryCode()).isEqualTo("  ");
+        assertThat(testee.getServiceBrandCode()).isEqualTo("    ");
+        assertThat(testee.toDetail()).isEqualTo(Uic301G4Detail.parse(2, line));
+
+    }
+
+    @Test
+    public void testValidateSameAsDetail() throws Uic301Exception {
+
+        // PREPARE
+        final String line = LINE.substring(0, 28) + "ABCDE" + LINE.substring(33);
+        final Uic301G4Detail expected = Uic301G4Detail.parse(1, line);
+        expected.validate(VALIDATOR);
+        final Uic301G4LineDetail testee = Uic301G4LineDetail.parse(1, line);
+
+        // TEST
+        testee.validate(VALIDATOR);
+
+        // VERIFY
+        assertThat(testee.getErrorCount()).isEqualTo(expected.getErrorCount()).isGreaterThan(0);
+        assertThat(testee.getErrors()).isEqualTo(expected.getErrors());
+        assertThat(testee.getErrors()).isInstanceOf(CompactFieldErrors.class);
+        assertThat(testee.getErrors()).isEqualTo(Uic301Utils.validateWithValidator(VALIDATOR, testee.toDetail()));
+        assertThat(testee.toDetail()).isEqualTo(expected);
+
+    }
+
+    @Test
+    public void testSetters() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301G4LineDetail testee = Uic301G4LineDetail.parse(1, LINE);
+
+        // TEST
+        testee.setRailUnionCompiling("1080");
+        testee.setDepartureLocationRU("12345");
+        testee.setDestinationLocationRU(null);
+        testee.changePeriodCounter(3);
+
+        // VERIFY
+        assertThat(testee.getRailUnionCompiling()).isEqualTo("1080");
+        assertThat(testee.getDepartureLocationRU()).isEqualTo("12345");
+        assertThat(testee.getDestinationLocationRU()).isNull();
+        assertThat(testee.getPeriod()).isEqualTo("171103");
+        try {
+            testee.setRailUnionCompiling("0087");
+            fail("Setting an attribute twice should fail");
+        } catch (final IllegalStateException ex) {
+            assertThat(ex.getMessage()).isEqualTo("The Attribute is sealed. No more changes are allowed.");
+        }
+
+    }
+
+    @Test
+    public void testSealed() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301G4LineDetail testee = Uic301G4LineDetail.parse(1, LINE);
+
+        // TEST
+        testee.seal();
+
+        // VERIFY
+        assertThat(testee.toDetail().isSealed()).isTrue();
+        try {
+            testee.setRailUnionCompiling("1080");
+            fail("Changing a sealed instance should fail");
+        } catch (final IllegalStateException ex) {
+            assertThat(ex.getMessage()).isEqualTo("The class is sealed. No more changes are allowed.");
+        }
+
+    }
+
+    @Test
+    public void testCopyAndEquals() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301G4LineDetail original = Uic301G4LineDetail.parse(1, LINE);
+        original.setTrainNumber("1");
+
+        // TEST
+        final Uic301G4LineDetail copy = new Uic301G4LineDetail(original);
+
+        // VERIFY
+        assertThat(copy).isEqualTo(original);
+        assertThat(copy.hashCode()).isEqualTo(original.hashCode());
+        assertThat(copy.getTrainNumber()).isEqualTo("1");
+        assertThat(copy).isNotEqualTo(Uic301G4LineDetail.parse(2, LINE));
+
+    }
+
+    @Test
+    public void testMarshalSameAsDetail() throws Uic301Exception {
+
+        // PREPARE
+        final String line = LINE.substring(0, 28) + "ABCDE" + LINE.substring(33);
+        final Uic301G4Detail detail = Uic301G4Detail.parse(1, line);
+        detail.validate(VALIDATOR);
+        final Uic301G4LineDetail lineDetail = Uic301G4LineDetail.parse(1, line);
+        lineDetail.validate(VALIDATOR);
+        final Uic301Details expected = new Uic301Details();
+        expected.add(detail);
+        final Uic301Details details = new Uic301Details();
+        details.add(lineDetail);
+
+        // TEST
+        final String xml = JaxbUtils.marshal(details, Uic301Details.class);
+
+        // VERIFY
+        assertThat(xml).isEqualTo(JaxbUtils.marshal(expected, Uic301Details.class));
+        final Uic301Details copy = JaxbUtils.unmarshal(xml, Uic301Details.class);
+        assertThat(copy.getList()).containsExactly(detail);
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301G5LineDetail} class.
+ */
+public class Uic301G5LineDetailTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final String LINE = "1422100000087118517110000511000000IT0000EUR0110001100200003040092110001712231185000100118503000100870933451367000591711050000200000006080000000000000008311850208911050000000000000000000304000000000";
+
+    @Test
+    public void testGettersSameAsDetail() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301G5Detail expected = Uic301G5Detail.parse(1, LINE);
+
+        // TEST
+        final Uic301G5LineDetail testee = Uic301G5LineDetail.parse(1, LINE);
+
+        // VERIFY
+        assertThat(testee.toDetail()).isEqualTo(expected);
+        assertThat(testee.getIdentifierType()).isEqualTo(Uic301Type.G5_ALLOCATION);
+        assertThat(testee.getCountryCode()).isEqualTo("IT");
+        assertThat(testee.getTypeIdentifierValue()).isEqualTo(expected.getTypeIdentifierValue());
+        assertThat(testee.getDistributionChannelType()).isEqualTo(expected.getDistributionChannelType());
+        assertThat(testee.getGrossAmountToBeDebitedValue()).isEqualTo(expected.getGrossAmountToBeDebitedValue());
+        assertThat(testee.getServiceProvidingRUsCommissionRateValue())
+                .isEqualTo(expected.getServiceProvidingRUsCommissionRateValue());
+        assertThat(testee.getPrimaryRouteSecondSectionSerialNo()).isEqualTo("00000");
+        assertThat(testee.isAmountMissing()).isEqualTo(expected.isAmountMissing());
+
+    }
+
+    @Test
+    public void testValidateSameAsDetail() throws Uic301Exception {
+
+        // PREPARE
+        final String line = LINE.substring(0, 28) + "ABCDE" + LINE.substring(33);
+        final Uic301G5Detail expected = Uic301G5Detail.parse(1, line);
+        expected.validate(VALIDATOR);
+        final Uic301G5LineDetail testee = Uic301G5LineDetail.parse(1, line);
+
+        // TEST
+        testee.validate(VALIDATOR);
+
+        // VERIFY
+        assertThat(testee.getErrorCount()).isEqualTo(expected.getErrorCount()).isGreaterThan(0);
+        assertThat(testee.getErrors()).isEqualTo(expected.getErrors());
+        assertThat(testee.getErrors()).isInstanceOf(CompactFieldErrors.class);
+        assertThat(testee.getErrors()).isEqualTo(Uic301Utils.validateWithValidator(VALIDATOR, testee.toDetail()));
+
+    }
+
+    @Test
+    public void testCalculatedAmountsSameAsDetail() throws Uic301Exception {
+
+        // PREPARE
+        final CalculatedDetailAmounts expected = new CalculatedDetailAmounts();
+        expected.addAmounts(Uic301G5Detail.parse(1, LINE));
+        expected.seal();
+        final CalculatedDetailAmounts testee = new CalculatedDetailAmounts();
+
+        // TEST
+        testee.addAmounts(Uic301G5LineDetail.parse(1, LINE));
+        testee.seal();
+
+        // VERIFY
+        assertThat(testee.getGrossAmountToBeCredited()).isEqualTo(expected.getGrossAmountToBeCredited());
+        assertThat(testee.getGrossAmountToBeDebited()).isEqualTo(expected.getGrossAmountToBeDebited());
+        assertThat(testee.getAmountCommissionCredited()).isEqualTo(expected.getAmountCommissionCredited());
+        assertThat(testee.getAmountCommissionDebited()).isEqualTo(expected.getAmountCommissionDebited());
+        assertThat(testee.getNetBalanceType()).isEqualTo(expected.getNetBalanceType());
+        assertThat(testee.getNetBalanceAmount()).isEqualTo(expected.getNetBalanceAmount());
+
+    }
+
+}
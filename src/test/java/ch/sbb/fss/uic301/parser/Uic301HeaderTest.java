@@ -179,4 +179,22 @@ public class Uic301HeaderTest {
         return testee;
     }
 
+    @Test
+    public void testChangePeriodCounterAfterSeal() {
+
+        // PREPARE
+        final Uic301Header testee = createValidSample();
+        testee.seal();
+        assertThat(testee.getIdentifierType()).isEqualTo(Uic301Type.G4);
+        assertThat(testee.getPeriodType()).isEqualTo(StatementPeriod.valueOf("171100"));
+
+        // TEST
+        testee.changePeriodCounter(2);
+
+        // VERIFY
+        assertThat(testee.getPeriodType()).isEqualTo(StatementPeriod.valueOf("171102"));
+        assertThat(testee.getNoOfDetailPhrasesValue()).isEqualTo(83955);
+
+    }
+
 }
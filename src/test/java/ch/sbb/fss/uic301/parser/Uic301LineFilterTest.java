@@ -0,0 +1,193 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301LineFilter} class.
+ */
+public class Uic301LineFilterTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    private static final String DETAIL_LINE = "14121000011851185190100003010000011801337801EUR01002000004200000600019022000850033200085000100004525401176322259719010900001000000004200000000000118500629301000000000000000042000000000000000000420050000000000210000000000000DE0050";
+
+    private static final Uic301LineFilter DEPARTURE_0085 = Uic301LineFilter.fieldEquals("departureLocationRU", "0085");
+
+    @Test
+    public void testParseFiltered() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Document full = new Uic301Parser().parse(BAHN55, VALIDATOR).getDocuments().get(0);
+
+        // TEST
+        final Uic301Document filtered = new Uic301Parser(Uic301DetailFactory.STANDARD, DEPARTURE_0085)
+                .parse(BAHN55, VALIDATOR).getDocuments().get(0);
+
+        // VERIFY
+        final Uic301Details details = filtered.getDetails();
+        assertThat(details.getList()).hasSize(903);
+        assertThat(details.getRejectedCount()).isEqualTo(699);
+        for (final Uic301Detail detail : details.getList()) {
+            assertThat(detail.getDepartureLocationRU()).isEqualTo("0085");
+        }
+        assertSameAmounts(details.getAmounts(), sumsOf(full.getDetails().getList(), "0085"));
+        assertSameAmounts(details.getAllAmounts(), full.getDetails().getAmounts());
+        assertThat(full.getDetails().getAllAmounts()).isSameAs(full.getDetails().getAmounts());
+        assertThat(messagesOf(VALIDATOR.validate(filtered))).isEqualTo(messagesOf(VALIDATOR.validate(full)));
+
+    }
+
+    @Test
+    public void testParseFilteredParallel() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301ParallelParser testee = new Uic301ParallelParser(ForkJoinPool.commonPool(), 1000,
+                Uic301DetailFactory.filter(DEPARTURE_0085, Uic301DetailFactory.COMPACT));
+
+        // TEST
+        final Uic301Document filtered = testee.parse(BAHN55, VALIDATOR).getDocuments().get(0);
+
+        // VERIFY
+        assertThat(filtered.getDetails().getList()).hasSize(903);
+        assertThat(filtered.getDetails().getRejectedCount()).isEqualTo(699);
+        assertSameAmounts(filtered.getDetails().getAllAmounts(),
+                new Uic301Parser().parse(BAHN55, VALIDATOR).getDocuments().get(0).getDetails().getAmounts());
+
+    }
+
+    @Test
+    public void testParseFilteredInvalidAmount() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final String[] lines = new String(Files.readAllBytes(BAHN55.toPath()), StandardCharsets.ISO_8859_1)
+                .split("\r\n", -1);
+        final Uic301Field field = Uic301G5Field.GROSS_AMOUNT_TO_BE_CREDITED;
+        int index = 0;
+        while (!isG5Detail(lines[index]) || DEPARTURE_0085.accept(lines[index])) {
+            index++;
+        }
+        final String line = lines[index];
+        lines[index] = line.substring(0, field.getOffset()) + line.substring(field.getOffset(), field.getOffset()
+                + field.getLength()).replace('0', ' ') + line.substring(field.getOffset() + field.getLength());
+        final byte[] data = String.join("\r\n", lines).getBytes(StandardCharsets.ISO_8859_1);
+
+        // TEST
+        final Uic301Document filtered = new Uic301Parser(Uic301DetailFactory.STANDARD, DEPARTURE_0085)
+                .parse(new ByteArrayInputStream(data), VALIDATOR).getDocuments().get(0);
+
+        // VERIFY
+        final Uic301Details details = filtered.getDetails();
+        assertThat(details.getList()).hasSize(903);
+        assertThat(details.getRejectedCount()).isEqualTo(699);
+        assertThat(details.getInvalidRejectedCount()).isEqualTo(1);
+        assertThat(String.join(", ", messagesOf(VALIDATOR.validate(filtered))))
+                .contains("Sum details incomplete: 1 rejected detail line(s) with an invalid amount");
+
+    }
+
+    @Test
+    public void testAccept() {
+
+        // PREPARE
+        final Uic301LineFilter currency = Uic301LineFilter
+                .statementCurrencyPeriod(new StatementCurrencyPeriod("EUR", "01"));
+        final Uic301LineFilter service = Uic301LineFilter.fieldIn("typeOfService", "07", "03");
+        final Uic301LineFilter receiving = Uic301LineFilter.fieldEquals("railUnionReceiving", "0081");
+
+        // TEST & VERIFY
+        assertThat(currency.accept(DETAIL_LINE)).isTrue();
+        assertThat(service.accept(DETAIL_LINE)).isTrue();
+        assertThat(receiving.accept(DETAIL_LINE)).isFalse();
+        assertThat(receiving.negate().accept(DETAIL_LINE)).isTrue();
+        assertThat(currency.and(receiving).accept(DETAIL_LINE)).isFalse();
+        assertThat(currency.or(receiving).accept(DETAIL_LINE)).isTrue();
+        assertThat(currency.accept("1412")).isFalse();
+
+    }
+
+    @Test
+    public void testInvalidFields() {
+
+        try {
+            Uic301LineFilter.fieldEquals("foo", "0085");
+            fail("Expected an exception");
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Unknown G4 or G5 detail field: foo");
+        }
+
+        try {
+            Uic301LineFilter.fieldIn("departureLocationRU", "0085", "85");
+            fail("Expected an exception");
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage())
+                    .isEqualTo("Expected values with the length of field 'departureLocationRU', but was: [85]");
+        }
+
+    }
+
+    private static Map<StatementCurrencyPeriod, CalculatedDetailAmounts> sumsOf(final List<Uic301Detail> details,
+            final String departureLocationRU) {
+        final List<Uic301Detail> accepted = new ArrayList<>();
+        for (final Uic301Detail detail : details) {
+            if (detail.getDepartureLocationRU().equals(departureLocationRU)) {
+                accepted.add(detail);
+            }
+        }
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> sums = new HashMap<>();
+        for (final Uic301Detail detail : accepted) {
+            sums.computeIfAbsent(detail.getStatementCurrencyPeriod(), key -> new CalculatedDetailAmounts())
+                    .addAmounts(detail);
+        }
+        for (final CalculatedDetailAmounts amounts : sums.values()) {
+            amounts.seal();
+        }
+        return sums;
+    }
+
+    private static void assertSameAmounts(final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> actual,
+            final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> expected) {
+        assertThat(actual.keySet()).isEqualTo(expected.keySet());
+        for (final StatementCurrencyPeriod key : expected.keySet()) {
+            final CalculatedDetailAmounts a = actual.get(key);
+            final CalculatedDetailAmounts e = expected.get(key);
+            assertThat(a.getGrossAmountToBeCreditedCents()).isEqualTo(e.getGrossAmountToBeCreditedCents());
+            assertThat(a.getGrossAmountToBeDebitedCents()).isEqualTo(e.getGrossAmountToBeDebitedCents());
+            assertThat(a.getAmountCommissionCreditedCents()).isEqualTo(e.getAmountCommissionCreditedCents());
+            assertThat(a.getAmountCommissionDebitedCents()).isEqualTo(e.getAmountCommissionDebitedCents());
+            assertThat(a.getNetBalanceType()).isEqualTo(e.getNetBalanceType());
+            assertThat(a.getNetBalanceAmountCents()).isEqualTo(e.getNetBalanceAmountCents());
+        }
+    }
+
+    private static boolean isG5Detail(final String line) {
+        final Uic301RecordType recordType = Uic301RecordType.classify(line);
+        return recordType != null && recordType.isDetail() && recordType.getType() != Uic301Type.G4;
+    }
+
+    private static Set<String> messagesOf(final Set<ConstraintViolation<Uic301Document>> violations) {
+        return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.toSet());
+    }
+
+}
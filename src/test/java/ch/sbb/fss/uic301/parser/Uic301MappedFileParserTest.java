@@ -0,0 +1,108 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.assertSameDocuments;
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301MappedFileParser} class.
+ */
+public class Uic301MappedFileParserTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testParseSameAsReaderBased() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents expected = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final Uic301MappedFileParser testee = new Uic301MappedFileParser();
+
+        // TEST
+        final Uic301Documents documents = testee.parse(BAHN55, VALIDATOR);
+
+        // VERIFY
+        assertThat(documents.isSealed()).isTrue();
+        assertThat(documents.getErrorCount()).isEqualTo(3204);
+        assertSameDocuments(documents.getDocuments(), expected.getDocuments());
+
+    }
+
+    @Test
+    public void testParseSmallChunks() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Documents expected = new Uic301Parser().parse(file, VALIDATOR);
+        // Chunks end in the middle of lines and line terminators
+        final Uic301MappedFileParser testee = new Uic301MappedFileParser(1001);
+
+        // TEST
+        final Uic301Documents documents = testee.parse(file, VALIDATOR);
+
+        // VERIFY
+        assertThat(documents.getDocuments()).hasSize(2);
+        assertThat(documents.getErrorCount()).isEqualTo(expected.getErrorCount());
+        assertSameDocuments(documents.getDocuments(), expected.getDocuments());
+
+    }
+
+    @Test
+    public void testParseStreaming() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Documents expected = new Uic301Parser().parse(file, VALIDATOR);
+        final Uic301MappedFileParser testee = new Uic301MappedFileParser();
+        final List<Uic301Document> result = new ArrayList<>();
+
+        // TEST
+        final int count = testee.parse(file, VALIDATOR, result::add);
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        assertSameDocuments(result, expected.getDocuments());
+
+    }
+
+    @Test
+    public void testParseUnknownLine() throws IOException {
+
+        // PREPARE
+        final File file = tmp.newFile();
+        final List<String> lines = FileUtils.readLines(BAHN55, "ISO-8859-1");
+        FileUtils.writeLines(file, "ISO-8859-1", lines.subList(0, 10));
+        FileUtils.writeStringToFile(file, "  999999999 \n", "ISO-8859-1", true);
+        final Uic301MappedFileParser testee = new Uic301MappedFileParser();
+
+        // TEST
+        try {
+            testee.parse(file, VALIDATOR);
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo("Unknown identifier in line # 11: 999999999");
+        }
+
+    }
+
+}
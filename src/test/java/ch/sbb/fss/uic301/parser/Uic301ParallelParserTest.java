@@ -0,0 +1,167 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.assertSameDocuments;
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301ParallelParser} class.
+ */
+public class Uic301ParallelParserTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @AfterClass
+    public static void afterClass() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void testParseSingleDocument() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents expected = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final Uic301ParallelParser testee = new Uic301ParallelParser(POOL, 10000);
+
+        // TEST
+        final Uic301Documents documents = testee.parse(BAHN55, VALIDATOR);
+
+        // VERIFY
+        assertThat(documents.isSealed()).isTrue();
+        assertThat(documents.getErrorCount()).isEqualTo(3204);
+        assertSameDocuments(documents.getDocuments(), expected.getDocuments());
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> amounts = documents.getDocuments().get(0)
+                .getDetails().getAmounts();
+        final Map<StatementCurrencyPeriod, CalculatedDetailAmounts> expectedAmounts = expected.getDocuments().get(0)
+                .getDetails().getAmounts();
+        assertThat(amounts.keySet()).isEqualTo(expectedAmounts.keySet());
+        for (final StatementCurrencyPeriod key : amounts.keySet()) {
+            assertThat(amounts.get(key).getGrossAmountToBeCredited())
+                    .isEqualTo(expectedAmounts.get(key).getGrossAmountToBeCredited());
+            assertThat(amounts.get(key).getGrossAmountToBeDebited())
+                    .isEqualTo(expectedAmounts.get(key).getGrossAmountToBeDebited());
+            assertThat(amounts.get(key).getNetBalanceAmount())
+                    .isEqualTo(expectedAmounts.get(key).getNetBalanceAmount());
+        }
+
+    }
+
+    @Test
+    public void testParseMultipleDocuments() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Documents expected = new Uic301Parser().parse(file, VALIDATOR);
+        final Uic301ParallelParser testee = new Uic301ParallelParser(POOL, 1000);
+
+        // TEST
+        final Uic301Documents documents = testee.parse(file, VALIDATOR);
+
+        // VERIFY
+        assertThat(documents.getErrorCount()).isEqualTo(expected.getErrorCount());
+        assertSameDocuments(documents.getDocuments(), expected.getDocuments());
+
+    }
+
+    @Test
+    public void testParseSmallFile() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents expected = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final Uic301ParallelParser testee = new Uic301ParallelParser(POOL);
+
+        // TEST
+        final Uic301Documents documents = testee.parse(BAHN55, VALIDATOR);
+
+        // VERIFY
+        assertSameDocuments(documents.getDocuments(), expected.getDocuments());
+
+    }
+
+    @Test
+    public void testParseMissingTotal() throws IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, "ISO-8859-1");
+        final List<String> content = new ArrayList<>(lines.subList(0, 1603));
+        content.addAll(lines.subList(0, 1604));
+        assertSameError(content, "State is DETAIL and expected next is DETAIL or TOTAL, but was: HEADER [Line # 1604]");
+
+    }
+
+    @Test
+    public void testParseUnknownLine() throws IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, "ISO-8859-1");
+        final List<String> content = new ArrayList<>(lines.subList(0, 1000));
+        content.add("123456789");
+        content.addAll(lines.subList(1000, 1604));
+        assertSameError(content, "Unknown identifier in line # 1001: 123456789");
+
+    }
+
+    @Test
+    public void testParseFirstErrorWins() throws IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, "ISO-8859-1");
+        final List<String> content = new ArrayList<>(lines.subList(0, 500));
+        content.add(lines.get(1603));
+        content.addAll(lines.subList(500, 1000));
+        content.add("123456789");
+        content.addAll(lines.subList(1000, 1604));
+        assertSameError(content, "State is TOTAL and expected next is HEADER or TOTAL, but was: DETAIL [Line # 502]");
+
+    }
+
+    private void assertSameError(final List<String> content, final String expectedMessage) throws IOException {
+
+        final File file = tmp.newFile();
+        FileUtils.writeLines(file, "ISO-8859-1", content);
+        final Uic301ParallelParser testee = new Uic301ParallelParser(POOL, 1000);
+
+        // Sequential
+        try {
+            new Uic301Parser().parse(file, VALIDATOR);
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            assertThat(ex.getMessage()).isEqualTo(expectedMessage);
+        }
+
+        // TEST
+        try {
+            testee.parse(file, VALIDATOR);
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo(expectedMessage);
+        }
+
+    }
+
+}
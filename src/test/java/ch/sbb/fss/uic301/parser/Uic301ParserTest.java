@@ -0,0 +1,350 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.fuin.utils4j.JaxbUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301Parser} class.
+ */
+public class Uic301ParserTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testParseStreamingSingleDocument() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Parser testee = new Uic301Parser();
+        final List<Uic301Document> result = new ArrayList<>();
+
+        // TEST
+        final int count = testee.parse(BAHN55, VALIDATOR, result::add);
+
+        // VERIFY
+        assertThat(count).isEqualTo(1);
+        assertThat(result).hasSize(1);
+        final Uic301Document document = result.get(0);
+        assertThat(document.isSealed()).isTrue();
+        assertThat(document.getErrorCount()).isEqualTo(3204);
+        assertThat(document.getDetails().getList()).hasSize(1602);
+
+    }
+
+    @Test
+    public void testParseStreamingMultipleDocuments() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Parser testee = new Uic301Parser();
+        final List<Uic301Document> result = new ArrayList<>();
+        final Uic301Documents expected = testee.parse(file, VALIDATOR);
+
+        // TEST
+        final int count = testee.parse(file, VALIDATOR, document -> {
+            // Every document is complete when it's passed
+            assertThat(document.isSealed()).isTrue();
+            result.add(document);
+        });
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        assertSameDocuments(result, expected.getDocuments());
+        assertThat(result.get(1).getHeader().getParsedLineNo()).isEqualTo(1605);
+
+    }
+
+    @Test
+    public void testParseCompact() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Documents expected = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final Uic301Parser testee = new Uic301Parser(Uic301DetailFactory.COMPACT);
+
+        // TEST
+        final Uic301Documents result = testee.parse(BAHN55, VALIDATOR);
+
+        // VERIFY
+        assertThat(result.getErrorCount()).isEqualTo(expected.getErrorCount());
+        final Uic301Document document = result.getDocuments().get(0);
+        assertThat(document.getDetails().getList()).hasSize(1602);
+        assertThat(document.getDetails().getList().get(0)).isInstanceOf(Uic301G5LineDetail.class);
+        assertThat(JaxbUtils.marshal(result, Uic301Documents.class))
+                .isEqualTo(JaxbUtils.marshal(expected, Uic301Documents.class));
+
+    }
+
+    @Test
+    public void testParseCompactFieldErrors() throws Uic301Exception {
+
+        // PREPARE
+        final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        final Uic301Parser testee = new Uic301Parser();
+
+        // TEST
+        final Uic301Documents result = testee.parse(BAHN55, validator);
+
+        // VERIFY
+        final Uic301Document document = result.getDocuments().get(0);
+        int errorCount = 0;
+        for (final Uic301Detail detail : document.getDetails().getList()) {
+            final List<FieldError> errors = ((Uic301G5Detail) detail).getErrors();
+            if (!errors.isEmpty()) {
+                assertThat(errors).isInstanceOf(CompactFieldErrors.class);
+                errorCount = errorCount + errors.size();
+            }
+        }
+        assertThat(errorCount).isEqualTo(3204);
+
+    }
+
+    @Test
+    public void testParseStreamingError() throws IOException {
+
+        // PREPARE
+        final File file = tmp.newFile();
+        final List<String> lines = FileUtils.readLines(BAHN55, "ISO-8859-1");
+        // Remove total
+        FileUtils.writeLines(file, "ISO-8859-1", lines.subList(0, 1603));
+        FileUtils.writeLines(file, "ISO-8859-1", lines.subList(0, 1), true);
+        final Uic301Parser testee = new Uic301Parser();
+        final List<Uic301Document> result = new ArrayList<>();
+
+        // TEST
+        try {
+            testee.parse(file, VALIDATOR, result::add);
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).contains("[Line # 1604]");
+            assertThat(result).isEmpty();
+        }
+
+    }
+
+    @Test
+    public void testParseStreamAndBuffer() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final byte[] data = FileUtils.readFileToByteArray(file);
+        final Uic301Parser testee = new Uic301Parser();
+        final Uic301Documents expected = testee.parse(file, VALIDATOR);
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        final List<Uic301Document> result = new ArrayList<>();
+
+        // TEST
+        final Uic301Documents fromStream = testee.parse(new ByteArrayInputStream(data), VALIDATOR);
+        final Uic301Documents fromChannel = testee.parse(Channels.newChannel(new ByteArrayInputStream(data)),
+                VALIDATOR);
+        final Uic301Documents fromBuffer = testee.parse(buffer, VALIDATOR);
+        final int count = testee.parse(new ByteArrayInputStream(data), VALIDATOR, result::add);
+
+        // VERIFY
+        assertSameDocuments(fromStream.getDocuments(), expected.getDocuments());
+        assertSameDocuments(fromChannel.getDocuments(), expected.getDocuments());
+        assertSameDocuments(fromBuffer.getDocuments(), expected.getDocuments());
+        assertThat(buffer.position()).isEqualTo(0);
+        assertThat(count).isEqualTo(2);
+        assertSameDocuments(result, expected.getDocuments());
+
+    }
+
+    @Test
+    public void testParseGzip() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Parser testee = new Uic301Parser(Uic301DetailFactory.COMPACT);
+        final Uic301Documents expected = testee.parse(BAHN55, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final GZIPOutputStream gout = new GZIPOutputStream(out)) {
+            gout.write(FileUtils.readFileToByteArray(BAHN55));
+        }
+
+        // TEST
+        final Uic301Documents result = testee.parseGzip(new ByteArrayInputStream(out.toByteArray()), VALIDATOR);
+
+        // VERIFY
+        assertSameDocuments(result.getDocuments(), expected.getDocuments());
+        assertThat(result.getErrorCount()).isEqualTo(expected.getErrorCount());
+
+    }
+
+    @Test
+    public void testParseZip() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Parser testee = new Uic301Parser();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final ZipOutputStream zout = new ZipOutputStream(out)) {
+            zout.putNextEntry(new ZipEntry("dir/"));
+            zout.putNextEntry(new ZipEntry("dir/TWO.TXT"));
+            zout.write(FileUtils.readFileToByteArray(file));
+            zout.putNextEntry(new ZipEntry("BAHN0055.TXT"));
+            zout.write(FileUtils.readFileToByteArray(BAHN55));
+        }
+
+        // TEST
+        final Map<String, Uic301Documents> result = testee.parseZip(new ByteArrayInputStream(out.toByteArray()),
+                VALIDATOR);
+
+        // VERIFY
+        assertThat(result.keySet()).containsExactly("dir/TWO.TXT", "BAHN0055.TXT");
+        assertSameDocuments(result.get("dir/TWO.TXT").getDocuments(),
+                testee.parse(file, VALIDATOR).getDocuments());
+        assertSameDocuments(result.get("BAHN0055.TXT").getDocuments(),
+                testee.parse(BAHN55, VALIDATOR).getDocuments());
+
+    }
+
+    @Test
+    public void testParseOnly() throws Uic301Exception {
+
+        // PREPARE
+        final Uic301Parser testee = new Uic301Parser();
+
+        // TEST
+        final Uic301Documents documents = testee.parseOnly(BAHN55);
+
+        // VERIFY
+        assertThat(documents.isSealed()).isFalse();
+        assertThat(documents.getErrorCount()).isEqualTo(0);
+        final Uic301Document document = documents.getDocuments().get(0);
+        assertThat(document.isValidationPending()).isFalse();
+        assertThat(document.getHeader().getErrors()).isEmpty();
+        assertThat(document.getTotals().getList()).hasSize(1);
+        documents.validate(VALIDATOR);
+        documents.seal();
+        assertThat(documents).isEqualTo(testee.parse(BAHN55, VALIDATOR));
+
+    }
+
+    @Test
+    public void testParseDeferred() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Parser testee = new Uic301Parser();
+        final Uic301Documents expected = testee.parse(file, VALIDATOR);
+
+        // TEST
+        final Uic301Documents documents = testee.parseDeferred(file, VALIDATOR);
+
+        // VERIFY
+        final Uic301Document first = documents.getDocuments().get(0);
+        final Uic301Document second = documents.getDocuments().get(1);
+        assertThat(first.isValidationPending()).isTrue();
+        assertThat(first.getHeader().getErrors()).isEmpty();
+        assertThat(first.toString()).endsWith(" [errors=0]");
+        assertThat(first.isValidationPending()).isTrue();
+        assertThat(first.getErrorCount()).isEqualTo(3204);
+        assertThat(first.toString()).endsWith(" [errors=3204]");
+        assertThat(first.isSealed()).isTrue();
+        assertThat(first.isValidationPending()).isFalse();
+        assertThat(second.isValidationPending()).isTrue();
+        assertThat(documents.isSealed()).isFalse();
+        assertThat(JaxbUtils.marshal(documents, Uic301Documents.class))
+                .isEqualTo(JaxbUtils.marshal(expected, Uic301Documents.class));
+        assertThat(second.isSealed()).isTrue();
+        assertThat(documents.isSealed()).isTrue();
+        assertThat(documents.getErrorCount()).isEqualTo(2 * 3204);
+        assertThat(documents).isEqualTo(expected);
+
+    }
+
+    @Test
+    public void testParseDeferredStreaming() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Parser testee = new Uic301Parser();
+        final Uic301Documents expected = testee.parse(file, VALIDATOR);
+        final List<Uic301Document> result = new ArrayList<>();
+
+        // TEST
+        final int count = testee.parseDeferred(file, VALIDATOR, document -> {
+            assertThat(document.isSealed()).isFalse();
+            assertThat(document.isValidationPending()).isTrue();
+            result.add(document);
+        });
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        result.get(1).validatePending();
+        assertThat(result.get(1).isSealed()).isTrue();
+        assertThat(result.get(0).isValidationPending()).isTrue();
+        result.get(0).validatePending();
+        assertSameDocuments(result, expected.getDocuments());
+
+    }
+
+    /**
+     * Creates a file that contains the test file 'BAHN0055.TXT' twice.
+     * 
+     * @param tmp
+     *            Folder to create the file in.
+     * 
+     * @return New file with two documents.
+     * 
+     * @throws IOException
+     *             Error creating the file.
+     */
+    static File createTwoDocumentsFile(final TemporaryFolder tmp) throws IOException {
+        final File file = tmp.newFile();
+        final byte[] data = FileUtils.readFileToByteArray(BAHN55);
+        FileUtils.writeByteArrayToFile(file, data);
+        FileUtils.writeByteArrayToFile(file, data, true);
+        return file;
+    }
+
+    /**
+     * Verifies that two lists of parsed documents are equal.
+     * 
+     * @param actual
+     *            Actual documents.
+     * @param expected
+     *            Expected documents.
+     */
+    static void assertSameDocuments(final List<Uic301Document> actual, final List<Uic301Document> expected) {
+        assertThat(actual).hasSize(expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            final Uic301Document actualDoc = actual.get(i);
+            final Uic301Document expectedDoc = expected.get(i);
+            assertThat(actualDoc).isEqualTo(expectedDoc);
+            assertThat(actualDoc.getHeader().getParsedLineNo()).isEqualTo(expectedDoc.getHeader().getParsedLineNo());
+            final List<Uic301Detail> actualDetails = actualDoc.getDetails().getList();
+            final List<Uic301Detail> expectedDetails = expectedDoc.getDetails().getList();
+            for (int j = 0; j < actualDetails.size(); j++) {
+                assertThat(actualDetails.get(j).getParsedLineNo()).isEqualTo(expectedDetails.get(j).getParsedLineNo());
+            }
+        }
+    }
+
+}
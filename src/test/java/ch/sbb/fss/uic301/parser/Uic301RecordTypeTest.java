@@ -0,0 +1,62 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301RecordType} class.
+ */
+public class Uic301RecordTypeTest {
+
+    @Test
+    public void testClassify() {
+
+        assertThat(Uic301RecordType.classify("141110000XYZ")).isEqualTo(Uic301RecordType.G4_HEADER);
+        assertThat(Uic301RecordType.classify("144210000")).isEqualTo(Uic301RecordType.G4_DB_DETAIL);
+        assertThat(Uic301RecordType.classify("142310000")).isEqualTo(Uic301RecordType.G5_ALLOCATION_TOTAL);
+        assertThat(Uic301RecordType.classify("143210000")).isEqualTo(Uic301RecordType.G5_ISSUE_DETAIL);
+        assertThat(Uic301RecordType.classify("145110000")).isEqualTo(Uic301RecordType.G5_ALLOCATION_DB_HEADER);
+
+        assertThat(Uic301RecordType.classify(null)).isNull();
+        assertThat(Uic301RecordType.classify("14111000")).isNull();
+        assertThat(Uic301RecordType.classify("146110000")).isNull();
+        assertThat(Uic301RecordType.classify("141410000")).isNull();
+        assertThat(Uic301RecordType.classify("141010000")).isNull();
+        assertThat(Uic301RecordType.classify("141110001")).isNull();
+        assertThat(Uic301RecordType.classify("241110000")).isNull();
+        assertThat(Uic301RecordType.classify("14/110000")).isNull();
+
+    }
+
+    @Test
+    public void testOf() {
+
+        assertThat(Uic301RecordType.of("143310000")).isEqualTo(Uic301RecordType.G5_ISSUE_TOTAL);
+        assertThat(Uic301RecordType.of("143310000 ")).isNull();
+        assertThat(Uic301RecordType.of(null)).isNull();
+
+    }
+
+    @Test
+    public void testIdentifiersAndDescriptors() {
+
+        for (final Uic301RecordType recordType : Uic301RecordType.values()) {
+            assertThat(Uic301RecordType.classify(recordType.getIdentifier())).isSameAs(recordType);
+            assertThat(Uic301Header.isHeader(recordType.getIdentifier())).isEqualTo(recordType.isHeader());
+            assertThat(Uic301Total.isTotal(recordType.getIdentifier())).isEqualTo(recordType.isTotal());
+            assertThat(Uic301G4Detail.isDetail(recordType.getIdentifier()))
+                    .isEqualTo(recordType.isDetail() && recordType.getType() == Uic301Type.G4);
+            assertThat(Uic301G5Detail.isDetail(recordType.getIdentifier()))
+                    .isEqualTo(recordType.isDetail() && recordType.getType() != Uic301Type.G4);
+        }
+        assertThat(Uic301RecordType.G4_DB_DETAIL.isDb()).isTrue();
+        assertThat(Uic301RecordType.G4_DB_DETAIL.getType()).isEqualTo(Uic301Type.G4);
+        assertThat(Uic301RecordType.G4_DB_DETAIL.getKind()).isEqualTo(Uic301ParserState.DETAIL);
+        assertThat(Uic301RecordType.G4_HEADER.isSameGroup(Uic301RecordType.G4_TOTAL)).isTrue();
+        assertThat(Uic301RecordType.G4_HEADER.isSameGroup(Uic301RecordType.G4_DB_TOTAL)).isFalse();
+        assertThat(Uic301RecordType.G4_HEADER.isSameGroup(null)).isFalse();
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.assertSameDocuments;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301ResumableParser} class.
+ */
+public class Uic301ResumableParserTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testResumeAfterCrash() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = Uic301ParserTest.createTwoDocumentsFile(tmp);
+        final File checkpointFile = new File(tmp.getRoot(), "checkpoint.properties");
+        final List<Uic301Document> expected = new Uic301Parser().parse(file, VALIDATOR).getDocuments();
+        final Uic301ResumableParser testee = new Uic301ResumableParser(1024, Uic301DetailFactory.STANDARD);
+        final List<Uic301Document> first = new ArrayList<>();
+        try {
+            testee.parse(file, checkpointFile, VALIDATOR, document -> {
+                if (first.size() == 1) {
+                    throw new IllegalStateException("Crash");
+                }
+                first.add(document);
+            });
+            fail("Expected an exception");
+        } catch (final IllegalStateException ex) {
+            assertThat(ex.getMessage()).isEqualTo("Crash");
+        }
+        final Uic301Checkpoint checkpoint = Uic301Checkpoint.read(checkpointFile);
+        assertThat(checkpoint.getDocumentCount()).isEqualTo(1);
+        assertThat(checkpoint.getState()).isEqualTo(Uic301ParserState.TOTAL);
+        assertThat(checkpoint.getLineCount()).isEqualTo(1604);
+        assertThat(checkpoint.isComplete()).isFalse();
+
+        // TEST
+        final List<Uic301Document> second = new ArrayList<>();
+        final int count = testee.parse(file, checkpointFile, VALIDATOR, second::add);
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        assertSameDocuments(first, expected.subList(0, 1));
+        assertSameDocuments(second, expected.subList(1, 2));
+        assertThat(Uic301Checkpoint.read(checkpointFile).isComplete()).isTrue();
+
+    }
+
+    @Test
+    public void testCompleteCheckpoint() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = Uic301ParserTest.createTwoDocumentsFile(tmp);
+        final File checkpointFile = new File(tmp.getRoot(), "checkpoint.properties");
+        final Uic301ResumableParser testee = new Uic301ResumableParser();
+        final List<Uic301Document> first = new ArrayList<>();
+        assertThat(testee.parse(file, checkpointFile, VALIDATOR, first::add)).isEqualTo(2);
+
+        // TEST
+        final List<Uic301Document> second = new ArrayList<>();
+        final int count = testee.parse(file, checkpointFile, VALIDATOR, second::add);
+
+        // VERIFY
+        assertThat(first).hasSize(2);
+        assertThat(count).isEqualTo(2);
+        assertThat(second).isEmpty();
+
+    }
+
+    @Test
+    public void testCheckpointWriteRead() {
+
+        // PREPARE
+        final File checkpointFile = new File(tmp.getRoot(), "checkpoint.properties");
+        final Uic301Checkpoint checkpoint = new Uic301Checkpoint(123456789012L, 1604, Uic301ParserState.TOTAL, 1,
+                false);
+
+        // TEST
+        assertThat(Uic301Checkpoint.read(checkpointFile)).isSameAs(Uic301Checkpoint.START);
+        checkpoint.write(checkpointFile);
+        final Uic301Checkpoint copy = Uic301Checkpoint.read(checkpointFile);
+
+        // VERIFY
+        assertThat(copy.getPosition()).isEqualTo(123456789012L);
+        assertThat(copy.getLineCount()).isEqualTo(1604);
+        assertThat(copy.getState()).isEqualTo(Uic301ParserState.TOTAL);
+        assertThat(copy.getDocumentCount()).isEqualTo(1);
+        assertThat(copy.isComplete()).isFalse();
+
+    }
+
+}
@@ -0,0 +1,157 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.assertSameDocuments;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301TailingParser} class.
+ */
+public class Uic301TailingParserTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testReadGrowingFile() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, StandardCharsets.ISO_8859_1);
+        final File file = tmp.newFile();
+        final List<Uic301Document> result = new ArrayList<>();
+        final Uic301TailingParser testee = new Uic301TailingParser(file, VALIDATOR, result::add);
+
+        // TEST & VERIFY
+        append(file, lines.subList(0, 1000));
+        append(file, lines.get(1000).substring(0, 100));
+        testee.read();
+        assertThat(result).isEmpty();
+        assertThat(testee.getState()).isEqualTo(Uic301ParserState.DETAIL);
+        assertThat(testee.getLineCount()).isEqualTo(1000);
+
+        append(file, lines.get(1000).substring(100) + "\n");
+        append(file, lines.subList(1001, lines.size()));
+        testee.read();
+        assertThat(result).hasSize(1);
+        assertThat(testee.getState()).isEqualTo(Uic301ParserState.TOTAL);
+
+        append(file, lines);
+        testee.read();
+        assertThat(result).hasSize(2);
+        testee.finish();
+
+        assertThat(testee.isFinished()).isTrue();
+        assertThat(testee.getDocumentCount()).isEqualTo(2);
+        assertSameDocuments(result, new Uic301Parser().parse(file, VALIDATOR).getDocuments());
+
+    }
+
+    @Test
+    public void testFollowCompletionMarker() throws Uic301Exception, IOException, InterruptedException {
+
+        // PREPARE
+        final File file = Uic301ParserTest.createTwoDocumentsFile(tmp);
+        final File marker = tmp.newFile();
+        final List<Uic301Document> result = new ArrayList<>();
+        final Uic301TailingParser testee = new Uic301TailingParser(file, VALIDATOR, result::add,
+                Uic301DetailFactory.COMPACT);
+
+        // TEST
+        final int count = testee.follow(marker, Long.MAX_VALUE);
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        assertThat(testee.getReadPosition()).isEqualTo(file.length());
+        assertThat(result.get(1).getDetails().getList()).hasSize(1602);
+
+    }
+
+    @Test
+    public void testFollowIdleTimeout() throws Uic301Exception, IOException, InterruptedException {
+
+        // PREPARE
+        final List<Uic301Document> result = new ArrayList<>();
+        final Uic301TailingParser testee = new Uic301TailingParser(BAHN55, VALIDATOR, result::add);
+
+        // TEST
+        final int count = testee.follow(null, 50, 10);
+
+        // VERIFY
+        assertThat(count).isEqualTo(1);
+        assertThat(result.get(0).getErrorCount()).isEqualTo(3204);
+
+    }
+
+    @Test
+    public void testMoreTotalsThanAnnounced() throws IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, StandardCharsets.ISO_8859_1);
+        final File file = tmp.newFile();
+        append(file, lines);
+        append(file, lines.subList(1603, 1604));
+        final Uic301TailingParser testee = new Uic301TailingParser(file, VALIDATOR, document -> {
+        });
+
+        // TEST
+        try {
+            testee.read();
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo(
+                    "More totals than announced in the header of the document [Line # 1605]");
+        }
+
+    }
+
+    @Test
+    public void testDetailAfterAnnouncedTotals() throws IOException {
+
+        // PREPARE
+        final List<String> lines = FileUtils.readLines(BAHN55, StandardCharsets.ISO_8859_1);
+        final File file = tmp.newFile();
+        append(file, lines.subList(0, 1604));
+        append(file, lines.subList(1, 2));
+        final Uic301TailingParser testee = new Uic301TailingParser(file, VALIDATOR, document -> {
+        });
+
+        // TEST
+        try {
+            testee.read();
+            fail("Expected an exception");
+        } catch (final Uic301Exception ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo(
+                    "Detail after the totals announced in the header of the document [Line # 1605]");
+        }
+
+    }
+
+    private static void append(final File file, final List<String> lines) throws IOException {
+        FileUtils.writeLines(file, StandardCharsets.ISO_8859_1.name(), lines, "\n", true);
+    }
+
+    private static void append(final File file, final String str) throws IOException {
+        FileUtils.writeStringToFile(file, str, StandardCharsets.ISO_8859_1, true);
+    }
+
+}
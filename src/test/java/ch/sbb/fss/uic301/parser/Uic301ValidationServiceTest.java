@@ -0,0 +1,169 @@
+package ch.sbb.fss.uic301.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.validation.Configuration;
+import javax.validation.MessageInterpolator;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+/**
+ * Test for the {@link Uic301ValidationService} class.
+ */
+public class Uic301ValidationServiceTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Test
+    public void testValidateAll() throws Exception {
+
+        // PREPARE
+        final List<Object> objs = parseAll();
+        final Uic301ValidationService testee = new Uic301ValidationService(VALIDATOR, true);
+
+        // TEST
+        final List<List<FieldError>> result = testee.validateAll(objs);
+
+        // VERIFY
+        assertThat(result).hasSize(objs.size());
+        int errorCount = 0;
+        for (int i = 0; i < objs.size(); i++) {
+            assertThat(result.get(i)).isEqualTo(testee.validate(objs.get(i)));
+            assertThat(result.get(i)).isEqualTo(testee.validateWithValidator(objs.get(i)));
+            errorCount = errorCount + result.get(i).size();
+        }
+        assertThat(errorCount).isEqualTo(3204);
+
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+
+        // PREPARE
+        final List<Object> objs = parseAll();
+        final Uic301ValidationService testee = new Uic301ValidationService(VALIDATOR);
+        final List<List<FieldError>> expected = testee.validateAll(objs);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+
+            // TEST
+            final List<Future<List<List<FieldError>>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    final List<List<FieldError>> result = new ArrayList<>();
+                    for (final Object obj : objs) {
+                        result.add(Uic301Utils.validate(VALIDATOR, obj));
+                    }
+                    return result;
+                }));
+            }
+
+            // VERIFY
+            for (final Future<List<List<FieldError>>> future : futures) {
+                assertThat(future.get()).isEqualTo(expected);
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testGeneratedForDefaultConfiguration() throws Exception {
+
+        // PREPARE
+        final Object detail = parseAll().get(1);
+        final Configuration<?> config = Validation.byDefaultProvider().configure();
+        final MessageInterpolator defaultInterpolator = config.getDefaultMessageInterpolator();
+        final Validator customValidator = config.messageInterpolator(new MessageInterpolator() {
+            @Override
+            public String interpolate(final String template, final Context context) {
+                return "Custom: " + defaultInterpolator.interpolate(template, context);
+            }
+
+            @Override
+            public String interpolate(final String template, final Context context, final Locale locale) {
+                return "Custom: " + defaultInterpolator.interpolate(template, context, locale);
+            }
+        }).buildValidatorFactory().getValidator();
+
+        // TEST & VERIFY
+        assertThat(Uic301ValidationService.getDefault().isGenerated()).isTrue();
+        assertThat(Uic301ValidationService.of(VALIDATOR).isGenerated()).isTrue();
+        assertThat(Uic301ValidationService.of(customValidator).isGenerated()).isFalse();
+        assertThat(new Uic301ValidationService(VALIDATOR).isGenerated()).isFalse();
+        assertThat(new Uic301ValidationService(VALIDATOR).validate(detail))
+                .isNotInstanceOf(CompactFieldErrors.class);
+        assertThat(new Uic301ValidationService(VALIDATOR, true).validate(detail))
+                .isInstanceOf(CompactFieldErrors.class);
+        assertThat(Uic301Utils.validate(VALIDATOR, detail)).isInstanceOf(CompactFieldErrors.class);
+        assertThat(Uic301Utils.validate(VALIDATOR, detail))
+                .isEqualTo(new Uic301ValidationService(VALIDATOR).validate(detail));
+        final List<FieldError> customErrors = Uic301Utils.validate(customValidator, detail);
+        assertThat(customErrors).isNotInstanceOf(CompactFieldErrors.class);
+        assertThat(customErrors).isNotEmpty();
+        for (final FieldError error : customErrors) {
+            assertThat(error.getError()).startsWith("Custom: ");
+        }
+
+    }
+
+    @Test
+    public void testOf() {
+
+        // PREPARE
+        final Validator other = Validation.buildDefaultValidatorFactory().getValidator();
+
+        // TEST
+        final Uic301ValidationService service = Uic301ValidationService.of(VALIDATOR);
+        final Uic301ValidationService otherService = Uic301ValidationService.of(other);
+
+        // VERIFY
+        assertThat(service.getValidator()).isSameAs(VALIDATOR);
+        assertThat(otherService.getValidator()).isSameAs(other);
+        assertThat(Uic301ValidationService.of(VALIDATOR)).isSameAs(service);
+        assertThat(Uic301ValidationService.of(other)).isSameAs(otherService);
+        assertThat(Uic301ValidationService.of(Uic301ValidationService.getDefault().getValidator()).isGenerated())
+                .isTrue();
+
+    }
+
+    @Test
+    public void testMetadata() {
+
+        assertThat(Uic301ValidationService.xmlAttributeOf(Uic301G5Detail.class, "railUnionReceiving"))
+                .isEqualTo("_3");
+        assertThat(Uic301ValidationService.xmlAttributeOf(Uic301G5Detail.class, "unknown")).isNull();
+        assertThat(Uic301ValidationService.xmlAttributeOf(FieldError.class, "field")).isEqualTo("field");
+        assertThat(Uic301ValidationService.getDefault()).isSameAs(Uic301ValidationService.getDefault());
+        assertThat(Uic301ValidationService.getDefault().validate(new Object())).isEmpty();
+
+    }
+
+    private static List<Object> parseAll() throws Exception {
+        final List<String> lines = FileUtils.readLines(BAHN55, StandardCharsets.ISO_8859_1);
+        final List<Object> objs = new ArrayList<>();
+        objs.add(Uic301Header.parse(1, lines.get(0)));
+        for (int i = 1; i < 1603; i++) {
+            objs.add(Uic301G5Detail.parse(i + 1, lines.get(i)));
+        }
+        objs.add(Uic301Total.parse(1604, lines.get(1603)));
+        return objs;
+    }
+
+}
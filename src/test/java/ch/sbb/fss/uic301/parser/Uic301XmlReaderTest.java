@@ -0,0 +1,109 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301XmlReader} class.
+ */
+public class Uic301XmlReaderTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testReadFile() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Documents expected = new Uic301Parser().parse(file, VALIDATOR);
+        final File xmlFile = tmp.newFile("documents.xml");
+        try (final OutputStream out = new FileOutputStream(xmlFile);
+                final Uic301XmlWriter writer = new Uic301XmlWriter(out)) {
+            new Uic301Parser().parse(file, VALIDATOR, writer);
+        }
+        final List<Uic301Document> documents = new ArrayList<>();
+
+        // TEST
+        final int count = Uic301XmlReader.read(xmlFile, documents::add);
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        for (final Uic301Document document : documents) {
+            assertThat(document.isSealed()).isTrue();
+            assertThat(document.getDetails().getAmounts()).isNotEmpty();
+        }
+        Uic301ParserTest.assertSameDocuments(documents, expected.getDocuments());
+
+    }
+
+    @Test
+    public void testNextDetail() throws Uic301Exception, IOException {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(createTwoDocumentsFile(tmp), VALIDATOR);
+        final StringWriter writer = new StringWriter();
+        Uic301XmlWriter.write(documents, writer);
+        final List<Uic301Detail> expected = new ArrayList<>();
+        for (final Uic301Document document : documents.getDocuments()) {
+            expected.addAll(document.getDetails().getList());
+        }
+
+        // TEST
+        final List<Uic301Detail> details = new ArrayList<>();
+        try (final Uic301XmlReader testee = new Uic301XmlReader(new StringReader(writer.toString()))) {
+            Uic301Detail detail;
+            while ((detail = testee.nextDetail()) != null) {
+                details.add(detail);
+            }
+            assertThat(testee.nextDocument()).isNull();
+        }
+
+        // VERIFY
+        assertThat(details).hasSize(expected.size());
+        for (int i = 0; i < details.size(); i++) {
+            final Uic301Detail detail = details.get(i);
+            assertThat(((Sealable) detail).isSealed()).isTrue();
+            assertThat(detail.getClass()).isEqualTo(expected.get(i).getClass());
+            assertThat(detail.getParsedLineNo()).isEqualTo(expected.get(i).getParsedLineNo());
+            assertThat(detail.getDepartureLocationRU()).isEqualTo(expected.get(i).getDepartureLocationRU());
+        }
+
+    }
+
+    @Test
+    public void testNextDocumentEmpty() throws Uic301Exception {
+
+        // PREPARE
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><documents/>";
+
+        // TEST
+        try (final Uic301XmlReader testee = new Uic301XmlReader(new StringReader(xml))) {
+
+            // VERIFY
+            assertThat(testee.nextDocument()).isNull();
+            assertThat(testee.nextDetail()).isNull();
+
+        }
+
+    }
+
+}
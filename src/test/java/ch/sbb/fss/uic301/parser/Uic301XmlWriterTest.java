@@ -0,0 +1,119 @@
+package ch.sbb.fss.uic301.parser;
+
+import static ch.sbb.fss.uic301.parser.Uic301ParserTest.createTwoDocumentsFile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the {@link Uic301XmlWriter} class.
+ */
+public class Uic301XmlWriterTest {
+
+    private final static Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static final File BAHN55 = new File("src/test/resources/BAHN0055.TXT");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testWriteDocuments() throws Uic301Exception, JAXBException {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        final StringWriter writer = new StringWriter();
+
+        // TEST
+        Uic301XmlWriter.write(documents, writer);
+
+        // VERIFY
+        assertThat(writer.toString()).isEqualTo(marshal(documents));
+
+    }
+
+    @Test
+    public void testWriteCompactDocuments() throws Uic301Exception, JAXBException {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser(Uic301DetailFactory.COMPACT).parse(BAHN55, VALIDATOR);
+        final StringWriter writer = new StringWriter();
+
+        // TEST
+        Uic301XmlWriter.write(documents, writer);
+
+        // VERIFY
+        assertThat(writer.toString()).isEqualTo(marshal(documents));
+
+    }
+
+    @Test
+    public void testWriteStreaming() throws Uic301Exception, JAXBException, IOException {
+
+        // PREPARE
+        final File file = createTwoDocumentsFile(tmp);
+        final Uic301Documents expected = new Uic301Parser().parse(file, VALIDATOR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // TEST
+        final int count;
+        try (final Uic301XmlWriter testee = new Uic301XmlWriter(out)) {
+            count = new Uic301Parser().parse(file, VALIDATOR, testee);
+        }
+
+        // VERIFY
+        assertThat(count).isEqualTo(2);
+        final String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        final String jaxb = marshal(expected);
+        // Only the total error count of the root element is missing
+        assertThat(xml).isEqualTo(jaxb.replace("<documents errorCount=\"6408\">", "<documents>"));
+        final Uic301Documents unmarshalled = unmarshal(xml);
+        Uic301ParserTest.assertSameDocuments(unmarshalled.getDocuments(), expected.getDocuments());
+
+    }
+
+    @Test
+    public void testEscape() throws Uic301Exception, JAXBException {
+
+        // PREPARE
+        final Uic301Documents documents = new Uic301Parser().parse(BAHN55, VALIDATOR);
+        documents.getDocuments().get(0).setOrignalCompilingRu("<\"&'>");
+        final StringWriter writer = new StringWriter();
+
+        // TEST
+        Uic301XmlWriter.write(documents, writer);
+
+        // VERIFY
+        assertThat(writer.toString()).isEqualTo(marshal(documents));
+
+    }
+
+    private static String marshal(final Uic301Documents documents) throws JAXBException {
+        final StringWriter writer = new StringWriter();
+        final Marshaller marshaller = JAXBContext.newInstance(Uic301Documents.class).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        marshaller.marshal(documents, writer);
+        return writer.toString();
+    }
+
+    private static Uic301Documents unmarshal(final String xml) throws JAXBException {
+        return (Uic301Documents) JAXBContext.newInstance(Uic301Documents.class).createUnmarshaller()
+                .unmarshal(new StringReader(xml));
+    }
+
+}
@@ -0,0 +1,49 @@
+package ch.sbb.fss.uic301.parser.constraints;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link FieldChecks} class.
+ */
+public class FieldChecksTest {
+
+    @Test
+    public void testChecks() {
+
+        assertThat(FieldChecks.fixedLenDigits(null, 2)).isTrue();
+        assertThat(FieldChecks.fixedLenDigits("09", 2)).isTrue();
+        assertThat(FieldChecks.fixedLenDigits("0a", 2)).isFalse();
+        assertThat(FieldChecks.fixedLenDigits("012", 2)).isFalse();
+
+        assertThat(FieldChecks.ricsCode(null)).isTrue();
+        assertThat(FieldChecks.ricsCode("0aZ9")).isTrue();
+        assertThat(FieldChecks.ricsCode("0a-9")).isFalse();
+        assertThat(FieldChecks.ricsCode("    ")).isFalse();
+
+        assertThat(FieldChecks.currency(null)).isTrue();
+        assertThat(FieldChecks.currency("CHF")).isTrue();
+        assertThat(FieldChecks.currency("Chf")).isFalse();
+        assertThat(FieldChecks.currency("CH")).isFalse();
+
+        assertThat(FieldChecks.isoCountryCode(null)).isTrue();
+        assertThat(FieldChecks.isoCountryCode("CH")).isTrue();
+        assertThat(FieldChecks.isoCountryCode("00")).isTrue();
+        assertThat(FieldChecks.isoCountryCode("0A")).isFalse();
+        assertThat(FieldChecks.isoCountryCode("ch")).isFalse();
+
+    }
+
+    @Test
+    public void testMessages() {
+
+        assertThat(FieldChecks.text(null)).isEmpty();
+        assertThat(FieldChecks.text("a")).isEqualTo("a");
+        assertThat(FieldChecks.bundleMessage("javax.validation.constraints.NotNull.message")).isNotEmpty()
+                .doesNotStartWith("{");
+        assertThat(FieldChecks.bundleMessage("unknown.key")).isEqualTo("{unknown.key}");
+
+    }
+
+}